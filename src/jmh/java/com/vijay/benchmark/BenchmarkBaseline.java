@@ -0,0 +1,134 @@
+package com.vijay.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ⏱️ BenchmarkBaseline - compare a JMH JSON result with a recorded baseline
+ *
+ * - Matches results by benchmark name and @Param values
+ * - Reports the change of every score and flags regressions larger than the threshold
+ *   (in percent) that also exceed both runs' error margins
+ * - Lower is better for time modes (avgt, sample, ss), higher for throughput
+ * - Exits with 1 when anything regressed, 2 when the baseline is missing
+ *
+ * Workflow (see the jmh profile in pom.xml):
+ * - record:  mvn -Pjmh test-compile exec:exec -Djmh.result=src/jmh/baseline/jmh-baseline.json
+ * - compare: mvn -Pjmh test-compile exec:exec exec:exec@compare  (run, then compare)
+ * - -Djmh.threshold=5 tightens the threshold
+ */
+public final class BenchmarkBaseline {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkBaseline <baseline.json> <result.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselinePath = Paths.get(args[0]);
+        Path resultPath = Paths.get(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        if (!Files.exists(baselinePath)) {
+            System.err.println("No baseline at " + baselinePath.toAbsolutePath()
+                + "; record one with -Djmh.result=" + baselinePath);
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(resultPath);
+        int regressions = 0;
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", now.format(), "new");
+                continue;
+            }
+            double changePercent = (now.value - before.value) / before.value * 100.0;
+            double worsePercent = now.lowerIsBetter ? changePercent : -changePercent;
+            boolean beyondNoise = Math.abs(now.value - before.value) > now.error + before.error;
+            boolean regressed = worsePercent > threshold && beyondNoise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14s %14s %+8.1f%%%s%n", entry.getKey(), before.format(), now.format(),
+                changePercent, regressed ? "  ❌ REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-90s %14s %14s %9s%n", missing, baseline.get(missing).format(), "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.1f%%%n", threshold);
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : MAPPER.readTree(path.toFile())) {
+            String key = run.path("benchmark").asText() + paramsOf(run);
+            JsonNode metric = run.path("primaryMetric");
+            String mode = run.path("mode").asText();
+            scores.put(key, new Score(
+                metric.path("score").asDouble(),
+                metric.path("scoreError").isNumber() ? metric.path("scoreError").asDouble() : 0.0,
+                metric.path("scoreUnit").asText(),
+                !"thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private static String paramsOf(JsonNode run) {
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            values.put(field.getKey(), field.getValue().asText());
+        }
+        return values.toString();
+    }
+
+    // ============ Inner Classes ============
+
+    private static final class Score {
+        final double value;
+        final double error;
+        final String unit;
+        final boolean lowerIsBetter;
+
+        Score(double value, double error, String unit, boolean lowerIsBetter) {
+            this.value = value;
+            this.error = Double.isNaN(error) ? 0.0 : error;
+            this.unit = unit;
+            this.lowerIsBetter = lowerIsBetter;
+        }
+
+        String format() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.vijay.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * ⏱️ BenchmarkDataset - fixed inputs built from this repository's own sources
+ *
+ * - Reads every .java file under src/main/java (or -Dbenchmark.sources=...) sorted by path,
+ *   so two runs over the same commit see exactly the same files in the same order
+ * - Queries, chunks and file lists are derived from those files with a fixed seed
+ * - Loaded once per JVM and shared by every benchmark state in the fork
+ *
+ * Numbers from different commits are comparable as long as the sources directory is the same;
+ * a commit that adds many files changes the dataset too, which the baseline report shows.
+ */
+public final class BenchmarkDataset {
+
+    public static final long SEED = 42;
+
+    private static final String[] QUERY_TEMPLATES = {
+        "How does %s work?",
+        "Explain the flow from %s to %s",
+        "Find the bug in %s when the request times out",
+        "Refactor %s to reduce latency and add tests",
+        "What calls %s and which config enables it?",
+        "Show me %s",
+        "Compare %s with %s and suggest improvements to the architecture",
+        "Why does %s throw a NullPointerException after the cache expires?",
+        "hi",
+        "Generate unit tests for %s covering error handling"
+    };
+
+    private static volatile BenchmarkDataset instance;
+
+    private final List<Path> files;
+    private final List<String> sources;
+    private final List<String> classNames;
+
+    private BenchmarkDataset(Path root) {
+        if (!Files.isDirectory(root)) {
+            throw new IllegalStateException("Benchmark sources not found: " + root.toAbsolutePath()
+                + " (run from the project root or set -Dbenchmark.sources)");
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            this.files = paths.filter(path -> path.toString().endsWith(".java")).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No .java files under " + root.toAbsolutePath());
+        }
+        List<String> contents = new ArrayList<>(files.size());
+        List<String> names = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                contents.add(Files.readString(file, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            String fileName = file.getFileName().toString();
+            names.add(fileName.substring(0, fileName.length() - ".java".length()));
+        }
+        this.sources = Collections.unmodifiableList(contents);
+        this.classNames = Collections.unmodifiableList(names);
+    }
+
+    public static BenchmarkDataset get() {
+        BenchmarkDataset dataset = instance;
+        if (dataset == null) {
+            synchronized (BenchmarkDataset.class) {
+                dataset = instance;
+                if (dataset == null) {
+                    dataset = new BenchmarkDataset(Paths.get(System.getProperty("benchmark.sources", "src/main/java")));
+                    instance = dataset;
+                }
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Source file contents, sorted by path
+     */
+    public List<String> sources() {
+        return sources;
+    }
+
+    /**
+     * Simple class names of the source files ("QueryPlanner"), sorted by path
+     */
+    public List<String> classNames() {
+        return classNames;
+    }
+
+    /**
+     * File names as the dependency graph keys them ("QueryPlanner.java")
+     */
+    public List<String> fileNames() {
+        return classNames.stream().map(name -> name + ".java").toList();
+    }
+
+    /**
+     * Developer-style questions naming real classes of the repo
+     */
+    public List<String> queries(int count) {
+        Random random = new Random(SEED);
+        List<String> queries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String template = QUERY_TEMPLATES[random.nextInt(QUERY_TEMPLATES.length)];
+            String first = classNames.get(random.nextInt(classNames.size()));
+            String second = classNames.get(random.nextInt(classNames.size()));
+            queries.add(String.format(template, first, second));
+        }
+        return queries;
+    }
+
+    /**
+     * Source text cut into chunks of about chunkChars characters on line boundaries
+     */
+    public List<String> chunks(int count, int chunkChars) {
+        List<String> chunks = new ArrayList<>(count);
+        StringBuilder chunk = new StringBuilder(chunkChars + 256);
+        while (chunks.size() < count) {
+            for (String source : sources) {
+                for (String line : source.split("\n")) {
+                    chunk.append(line).append('\n');
+                    if (chunk.length() >= chunkChars) {
+                        chunks.add(chunk.toString());
+                        chunk.setLength(0);
+                        if (chunks.size() == count) {
+                            return chunks;
+                        }
+                    }
+                }
+            }
+        }
+        return chunks;
+    }
+}
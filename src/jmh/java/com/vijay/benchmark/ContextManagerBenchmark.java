@@ -0,0 +1,62 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.ContextManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ ContextManagerBenchmark - fitting retrieved code into the token budget
+ *
+ * - pruneContent: score and trim ~1.5 KB source chunks to the budget
+ * - prioritizeFiles: rank every file name of the repo against the query
+ *
+ * Each call gets a fresh budget, as every request does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextManagerBenchmark {
+
+    private static final String QUERY = "How does the ChatService route requests through the advisor chain "
+        + "and which config enables the semantic cache service?";
+
+    @Param({"20", "200"})
+    public int chunkCount;
+
+    private ContextManager contextManager;
+    private List<String> chunks;
+    private List<String> files;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDataset dataset = BenchmarkDataset.get();
+        contextManager = new ContextManager();
+        chunks = dataset.chunks(chunkCount, 1500);
+        files = dataset.fileNames();
+    }
+
+    @Benchmark
+    public List<String> pruneContent() {
+        return contextManager.pruneContent(chunks, contextManager.createBudget(QUERY), QUERY);
+    }
+
+    @Benchmark
+    public List<String> prioritizeFiles() {
+        return contextManager.prioritizeFiles(files, QUERY, contextManager.createBudget(QUERY));
+    }
+}
@@ -0,0 +1,73 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.DependencyGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ DependencyGraphBenchmark - the graph behind multi-hop retrieval
+ *
+ * - buildGraph: parse src/main/java twice (methods, then imports and calls), as at startup;
+ *   includes reading the files, served from the page cache after the first iteration
+ * - reverseLookup: getReverseDependencies for every file of the repo, the query pattern
+ *   of reverse-dependency expansion
+ * - forwardLookup: getDependencies for every file, for comparison
+ *
+ * Runs from the project root: DependencyGraphBuilder reads the relative src/main/java.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependencyGraphBenchmark {
+
+    private DependencyGraphBuilder graph;
+    private List<String> files;
+
+    @Setup
+    public void setUp() {
+        graph = new DependencyGraphBuilder();
+        graph.buildGraph();
+        files = BenchmarkDataset.get().fileNames();
+        if (graph.getAllDependencies().isEmpty()) {
+            throw new IllegalStateException("Dependency graph is empty; run the benchmark from the project root");
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DependencyGraphBuilder buildGraph() {
+        DependencyGraphBuilder builder = new DependencyGraphBuilder();
+        builder.buildGraph();
+        return builder;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void reverseLookup(Blackhole blackhole) {
+        for (String file : files) {
+            blackhole.consume(graph.getReverseDependencies(file));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void forwardLookup(Blackhole blackhole) {
+        for (String file : files) {
+            blackhole.consume(graph.getDependencies(file));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.HallucinationDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ HallucinationDetectorBenchmark - detectHallucinations on answer-shaped text
+ *
+ * - detectHallucinations: scan plus rules, over 64 responses mixing prose about real
+ *   classes of the repo with fenced code taken from its sources (2-8 KB each)
+ *
+ * ResponseScannerBenchmark covers the same path on synthetic 10-50 KB responses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HallucinationDetectorBenchmark {
+
+    private static final int RESPONSE_COUNT = 64;
+
+    private static final String[] PROSE = {
+        "%s is a service that handles this step of the pipeline.",
+        "However, %s must be registered before the advisor runs.",
+        "For example, %s is optional in tests.",
+        "You should definitely cache the result of %s.",
+        "This always works because %s runs after the retry.",
+        "Studies show that %s is the only way to do it."
+    };
+
+    private HallucinationDetector detector;
+    private List<String> responses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDataset dataset = BenchmarkDataset.get();
+        List<String> classNames = dataset.classNames();
+        List<String> code = dataset.chunks(RESPONSE_COUNT * 2, 800);
+        Random random = new Random(BenchmarkDataset.SEED);
+
+        responses = new ArrayList<>(RESPONSE_COUNT);
+        for (int i = 0; i < RESPONSE_COUNT; i++) {
+            int targetChars = 2048 + random.nextInt(6144);
+            StringBuilder response = new StringBuilder(targetChars + 1024);
+            while (response.length() < targetChars) {
+                if (random.nextInt(5) == 0) {
+                    response.append("```java\n").append(code.get(random.nextInt(code.size()))).append("```\n");
+                } else {
+                    String template = PROSE[random.nextInt(PROSE.length)];
+                    response.append(String.format(template, classNames.get(random.nextInt(classNames.size()))))
+                        .append(' ');
+                }
+            }
+            responses.add(response.toString());
+        }
+        detector = new HallucinationDetector();
+    }
+
+    @Benchmark
+    public HallucinationDetector.HallucinationReport detectHallucinations() {
+        String response = responses.get(next);
+        next = (next + 1) % RESPONSE_COUNT;
+        return detector.detectHallucinations(response);
+    }
+}
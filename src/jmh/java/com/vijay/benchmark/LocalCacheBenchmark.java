@@ -0,0 +1,121 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.LocalCacheImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ⏱️ LocalCacheBenchmark - LocalCacheImpl put/get under contention
+ *
+ * - mixed: 6 reader threads and 2 writer threads on one cache; keys span twice the
+ *   capacity, so writers keep evicting and readers see a realistic hit rate
+ * - readOnly: 8 reader threads on a warmed cache, the best case for get()
+ * - contended: 24 reader threads and 8 writer threads, the same mix as mixed at four
+ *   times the thread count; per-op time should stay flat if reads never take a lock
+ *
+ * Keys are response-cache style keys over the dataset's queries. Each thread walks the key
+ * space with its own fixed stride, so runs are repeatable without shared random state.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalCacheBenchmark {
+
+    private static final long TTL_SECONDS = 3600;
+
+    @Param({"1000", "10000"})
+    public int capacity;
+
+    private LocalCacheImpl cache;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        List<String> queries = BenchmarkDataset.get().queries(capacity * 2);
+        keys = new String[queries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "response:" + i + ":" + queries.get(i);
+        }
+        cache = new LocalCacheImpl(capacity);
+        for (int i = 0; i < capacity; i++) {
+            cache.put(keys[i], keys[i], TTL_SECONDS);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Object mixedGet(Cursor cursor) {
+        return cache.get(keys[cursor.next(keys.length)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedPut(Cursor cursor) {
+        String key = keys[cursor.next(keys.length)];
+        cache.put(key, key, TTL_SECONDS);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(8)
+    public Object readOnlyGet(Cursor cursor) {
+        // Only the first half was stored in setUp: every read hits
+        return cache.get(keys[cursor.next(capacity)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(24)
+    public Object contendedGet(Cursor cursor) {
+        return cache.get(keys[cursor.next(keys.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(8)
+    public void contendedPut(Cursor cursor) {
+        String key = keys[cursor.next(keys.length)];
+        cache.put(key, key, TTL_SECONDS);
+    }
+
+    /**
+     * Per-thread position in the key space
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        // Prime, so the walk visits every key before repeating
+        private static final int STRIDE = 7919;
+        private static final AtomicInteger THREADS = new AtomicInteger();
+        private int position;
+
+        @Setup
+        public void setUp() {
+            position = THREADS.getAndIncrement() * 997;
+        }
+
+        int next(int bound) {
+            position = (position + STRIDE) % bound;
+            return position;
+        }
+    }
+}
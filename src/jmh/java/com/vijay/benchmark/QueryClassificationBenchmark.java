@@ -0,0 +1,124 @@
+package com.vijay.benchmark;
+
+import com.vijay.context.GlobalBrainContext;
+import com.vijay.dto.ReasoningState;
+import com.vijay.manager.ConductorAdvisor;
+import com.vijay.service.QueryPlanner;
+import com.vijay.util.AgentPlanHolder;
+import com.vijay.util.QueryFeatureExtractor;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ QueryClassificationBenchmark - planning work done before retrieval, per query
+ *
+ * - extractFeatures: the one QueryFeatureExtractor pass both planners share
+ * - conductorPlan: ConductorAdvisor.adviseCall up to the next advisor (classification,
+ *   strategy, tool approval, plan storage), with a chain that returns immediately
+ * - searchPlan: QueryPlanner.createSearchPlan
+ *
+ * Queries cycle through 256 questions naming real classes of the repo (BenchmarkDataset).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryClassificationBenchmark {
+
+    private static final int QUERY_COUNT = 256;
+
+    private List<String> queries;
+    private List<ChatClientRequest> requests;
+    private ConductorAdvisor conductor;
+    private QueryPlanner planner;
+    private CallAdvisorChain chain;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        queries = BenchmarkDataset.get().queries(QUERY_COUNT);
+        requests = queries.stream()
+            .map(query -> ChatClientRequest.builder().prompt(new Prompt(query)).build())
+            .toList();
+        conductor = new ConductorAdvisor();
+        planner = new QueryPlanner();
+        chain = new TerminalChain();
+        ReasoningState state = new ReasoningState();
+        state.setSuggestedTools(List.of("searchCode", "analyzeDependencies", "readFile"));
+        GlobalBrainContext.setReasoningState(state);
+    }
+
+    @TearDown
+    public void tearDown() {
+        AgentPlanHolder.clear();
+        GlobalBrainContext.setReasoningState(null);
+    }
+
+    @Benchmark
+    public QueryFeatureExtractor.QueryFeatures extractFeatures() {
+        return QueryFeatureExtractor.extract(queries.get(nextIndex()));
+    }
+
+    @Benchmark
+    public Object conductorPlan() {
+        conductor.adviseCall(requests.get(nextIndex()), chain);
+        return AgentPlanHolder.getPlan();
+    }
+
+    @Benchmark
+    public QueryPlanner.SearchPlan searchPlan() {
+        return planner.createSearchPlan(queries.get(nextIndex()));
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) % QUERY_COUNT;
+        return index;
+    }
+
+    /**
+     * End of the chain: no further advisors, no model call
+     */
+    private static final class TerminalChain implements CallAdvisorChain {
+
+        @Override
+        public ChatClientResponse nextCall(ChatClientRequest request) {
+            return null;
+        }
+
+        @Override
+        public List<CallAdvisor> getCallAdvisors() {
+            return List.of();
+        }
+
+        @Override
+        public CallAdvisorChain copy(CallAdvisor after) {
+            return this;
+        }
+
+        @Override
+        public ObservationRegistry getObservationRegistry() {
+            return ObservationRegistry.NOOP;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.ConsistencyCheckService;
+import com.vijay.service.HallucinationDetector;
+import com.vijay.util.ResponseScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ ResponseScannerBenchmark - judge checks on 10-50 KB responses
+ *
+ * - perPhraseContains: the old access pattern, lowercase once and one contains per rule phrase
+ * - singleScan: one ResponseScanner pass producing the feature vector
+ * - judgeChecks: one scan feeding hallucination, consistency and code-structure checks
+ *   (what SelfRefineV3Advisor runs per evaluated response)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseScannerBenchmark {
+
+    private static final String[] PROSE = {
+        "Spring Boot is a framework that simplifies configuration.", "However, the bean must be registered.",
+        "For example, the service is optional in tests.", "This works because the advisor runs last.",
+        "Java runs on the JVM and is compiled to bytecode.", "You should definitely cache the embedding.",
+        "Studies show that smaller prompts are faster.", "Therefore the retry happens after the timeout."
+    };
+
+    private static final String CODE = "```java\npublic class OrderService {\n"
+        + "    private final OrderRepository repository;\n"
+        + "    public Order find(long id) { return repository.findById(id).orElseThrow(); }\n"
+        + "}\n```\n";
+
+    private static final String[] PHRASES = {
+        "yes", "no", "always", "never", "must", "optional", "however", "therefore", "thus", "moreover",
+        "furthermore", "meanwhile", "subsequently", "can read minds", "predict the future", "the only way",
+        "one way", "all ", "is required", "is optional", "must be", "must not be", "before", "after",
+        "studies show", "study", "research proves", "research", "experts agree", "expert", "definitely",
+        "absolutely", "100% sure", "always works", "never fails", "guaranteed", "impossible",
+        "everyone knows", "obviously", "clearly", "without a doubt", "no question",
+        "java is a programming language", "java runs on the jvm", "spring boot is a framework"
+    };
+
+    @Param({"10240", "51200"})
+    public int responseBytes;
+
+    private String response;
+    private HallucinationDetector detector;
+    private ConsistencyCheckService consistency;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(responseBytes + 256);
+        while (text.length() < responseBytes) {
+            if (random.nextInt(6) == 0) {
+                text.append(CODE);
+            } else {
+                text.append(PROSE[random.nextInt(PROSE.length)]).append(' ');
+            }
+        }
+        response = text.toString();
+        detector = new HallucinationDetector();
+        consistency = new ConsistencyCheckService();
+    }
+
+    @Benchmark
+    public void perPhraseContains(Blackhole blackhole) {
+        String lower = response.toLowerCase();
+        for (String phrase : PHRASES) {
+            blackhole.consume(lower.contains(phrase));
+        }
+    }
+
+    @Benchmark
+    public ResponseScanner.Features singleScan() {
+        return detector.scan(response);
+    }
+
+    @Benchmark
+    public void judgeChecks(Blackhole blackhole) {
+        ResponseScanner.Features features = detector.scan(response);
+        blackhole.consume(detector.detectHallucinations(features));
+        blackhole.consume(consistency.checkConsistency(features));
+        blackhole.consume(consistency.validateCodeStructure(features));
+    }
+}
@@ -0,0 +1,75 @@
+package com.vijay.benchmark;
+
+import com.vijay.service.HashingEmbeddingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ VectorSearchBenchmark - SimpleVectorStore similarity search, the retrieval hot path
+ *
+ * - similaritySearch: top-5 for a repo question against 10k and 100k stored chunks
+ *   (768 dimensions, as nomic-embed-text)
+ *
+ * Chunks come from the repo's sources and are embedded with HashingEmbeddingModel, so no
+ * embedding provider is needed and every run stores the same vectors. The query embedding
+ * is part of the measured call, as in the application; it is small next to the scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VectorSearchBenchmark {
+
+    private static final int DIMENSIONS = 768;
+    private static final int QUERY_COUNT = 64;
+
+    @Param({"10000", "100000"})
+    public int vectorCount;
+
+    private SimpleVectorStore store;
+    private List<SearchRequest> searches;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDataset dataset = BenchmarkDataset.get();
+        store = SimpleVectorStore.builder(new HashingEmbeddingModel(DIMENSIONS, 0)).build();
+
+        List<String> chunks = dataset.chunks(vectorCount, 400);
+        List<Document> documents = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            documents.add(new Document("chunk-" + i, chunks.get(i), Map.of("index", i)));
+        }
+        store.add(documents);
+
+        searches = dataset.queries(QUERY_COUNT).stream()
+            .map(query -> SearchRequest.builder().query(query).topK(5).build())
+            .toList();
+    }
+
+    @Benchmark
+    public List<Document> similaritySearch() {
+        SearchRequest search = searches.get(next);
+        next = (next + 1) % QUERY_COUNT;
+        return store.similaritySearch(search);
+    }
+}
@@ -0,0 +1,267 @@
+package com.vijay.cache;
+
+import com.vijay.state.ObjectSizeEstimator;
+import com.vijay.state.SharedCacheTier;
+import com.vijay.state.StateBackend;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 🎯 Cache Region - One named part of the multi-region cache
+ *
+ * Purpose: Keep one kind of cached value (advisor outputs, model responses, tool
+ * results, ...) with its own entry cap, byte allowance and default TTL
+ *
+ * Responsibilities:
+ * - Store entries in a TinyLfuCache weighed by their estimated bytes (ObjectSizeEstimator),
+ *   so the region is held to its share of the budget and not just to an entry count
+ * - Count hits and misses
+ * - With a shared state backend: write entries through to it and read it on a local
+ *   miss, so replicas share entries; entries another replica rewrote are dropped locally
+ *   (clear(), removeIf() and cleanUp() stay local)
+ * - A disabled region stores nothing and misses every lookup
+ */
+public final class CacheRegion {
+
+    // Map node, engine node and entry wrapper around each value
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final String name;
+    private final int weight;
+    private final long maxBytes;
+    private final Duration defaultTtl;
+    private final boolean enabled;
+    private final TinyLfuCache<String, Entry> cache;
+    private final SharedCacheTier sharedTier;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * A stand-alone region bounded by entry count only (not shared between replicas)
+     */
+    public CacheRegion(String name, long maxEntries, Duration defaultTtl) {
+        this(name, maxEntries, Long.MAX_VALUE, 1, defaultTtl, true, null);
+    }
+
+    CacheRegion(String name, long maxEntries, long maxBytes, int weight, Duration defaultTtl,
+                boolean enabled, StateBackend stateBackend) {
+        this.name = name;
+        this.weight = weight;
+        this.maxBytes = maxBytes;
+        this.defaultTtl = defaultTtl;
+        this.enabled = enabled;
+        this.cache = new TinyLfuCache<>(maxEntries, maxBytes, CacheRegion::weigh);
+        this.sharedTier = SharedCacheTier.forBackend(stateBackend, "cache:" + name + ":", this::onSharedChange);
+    }
+
+    /**
+     * The cached value, or null on a miss
+     */
+    public Object get(String key) {
+        Entry entry = enabled ? cache.get(key) : null;
+
+        if (entry == null && sharedTier != null && enabled) {
+            entry = loadShared(key);
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Cache the value for the region's default TTL
+     */
+    public void put(String key, Object value) {
+        put(key, value, defaultTtl);
+    }
+
+    public void put(String key, Object value, Duration ttl) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(value);
+        if (sharedTier != null) {
+            // Versioned before it is visible: the write's own change notification must not evict it
+            entry.version = sharedTier.put(key, value, System.currentTimeMillis() + ttl.toMillis());
+        }
+        cache.put(key, entry, ttl.toNanos());
+    }
+
+    public void remove(String key) {
+        cache.remove(key);
+        if (sharedTier != null) {
+            sharedTier.remove(key);
+        }
+    }
+
+    /**
+     * Check if key exists, without counting a hit or miss
+     */
+    public boolean containsKey(String key) {
+        return enabled && (cache.containsKey(key) || (sharedTier != null && loadShared(key) != null));
+    }
+
+    /**
+     * Drop this instance's copies of the matching keys; returns how many were dropped
+     */
+    public int removeIf(Predicate<String> keyFilter) {
+        int removed = 0;
+        for (String key : cache.keys()) {
+            if (keyFilter.test(key) && cache.remove(key) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Expire and evict now instead of on the next reads and writes
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return (int) cache.estimatedSize();
+    }
+
+    public long getMaxEntries() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Byte allowance (Long.MAX_VALUE when bounded by entry count only)
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getEstimatedBytes() {
+        return cache.weightedSize();
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictionCount();
+    }
+
+    public long getExpirations() {
+        return cache.getExpirationCount();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total > 0 ? (double) h / total * 100 : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", size());
+        stats.put("maxEntries", getMaxEntries());
+        stats.put("estimatedBytes", getEstimatedBytes());
+        stats.put("maxBytes", maxBytes == Long.MAX_VALUE ? -1 : maxBytes);
+        stats.put("weight", weight);
+        stats.put("ttlSeconds", defaultTtl.toSeconds());
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        stats.put("hitRate", String.format("%.1f%%", getHitRate()));
+        stats.put("evictions", getEvictions());
+        stats.put("expirations", getExpirations());
+        stats.put("admissionRejections", cache.getRejectionCount());
+        if (sharedTier != null) {
+            stats.put("shared", sharedTier.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Statistics of the shared tier, or null without a shared state backend
+     */
+    public Map<String, Object> getSharedStats() {
+        return sharedTier != null ? sharedTier.getStats() : null;
+    }
+
+    /**
+     * Copy an entry another replica stored into the local cache
+     */
+    private Entry loadShared(String key) {
+        SharedCacheTier.Loaded loaded = sharedTier.get(key);
+        if (loaded == null) {
+            return null;
+        }
+        Entry entry = new Entry(loaded.value());
+        entry.version = loaded.version();
+        cache.put(key, entry, TimeUnit.MILLISECONDS.toNanos(loaded.expiresAt() - System.currentTimeMillis()));
+        return entry;
+    }
+
+    /**
+     * A shared key changed: drop our copy unless it is that very version. Not "older than":
+     * an expired key starts over at version 1 in the backend.
+     */
+    private void onSharedChange(String key, long version) {
+        if (key == null) {
+            cache.clear();
+            return;
+        }
+        Entry entry = cache.peek(key);
+        if (entry != null && entry.version != version) {
+            cache.remove(key, entry);
+        }
+    }
+
+    private static int weigh(String key, Entry entry) {
+        long bytes = ENTRY_OVERHEAD + ObjectSizeEstimator.estimate(key) + ObjectSizeEstimator.estimate(entry.value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Cached value and the shared tier version it was written or read as (0 if not shared)
+     */
+    private static final class Entry {
+        final Object value;
+        volatile long version;
+
+        Entry(Object value) {
+            this.value = value;
+        }
+    }
+}
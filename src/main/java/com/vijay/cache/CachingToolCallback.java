@@ -0,0 +1,58 @@
+package com.vijay.cache;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * 🎯 Caching Tool Callback - Memoizes a tool's results through SmartCacheManager
+ *
+ * Wraps the ToolCallback of a tool that has a cacheable strategy. A call with the same
+ * (canonicalized) arguments as a cached one returns the cached result; concurrent calls
+ * with the same arguments run the tool once and share the result.
+ *
+ * Calls that carry a tool context are passed straight through: the result may depend on
+ * it, and it is not part of the cache key.
+ */
+public final class CachingToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final SmartCacheManager cacheManager;
+
+    public CachingToolCallback(ToolCallback delegate, SmartCacheManager cacheManager) {
+        this.delegate = delegate;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        if (toolContext != null && toolContext.getContext() != null && !toolContext.getContext().isEmpty()) {
+            return delegate.call(toolInput, toolContext);
+        }
+        return cacheManager.getOrCompute(getToolDefinition().name(), toolInput,
+            () -> delegate.call(toolInput, toolContext));
+    }
+
+    /**
+     * The wrapped callback
+     */
+    public ToolCallback getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,93 @@
+package com.vijay.cache;
+
+/**
+ * 🎯 Frequency Sketch - Approximate access counts for TinyLFU admission
+ *
+ * A count-min sketch of 4-bit counters, sixteen to a long. Each key maps to one
+ * counter in each of four rows; its frequency is the smallest of the four. After
+ * 10 x maximumSize increments every counter is halved, so old popularity fades and
+ * keys that were hot yesterday don't keep out keys that are hot now.
+ *
+ * Not thread-safe: only touched under the cache's maintenance lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        int size = (int) Math.min(1 << 24, Math.max(16, Long.highestOneBit(Math.max(1, maximumSize) - 1) << 1));
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(1, maximumSize));
+    }
+
+    /**
+     * Estimated number of recent accesses of the key, 0..15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            frequency = Math.min(frequency, count(slot));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long slot = slot(hash, row);
+            int index = (int) (slot >>> 32);
+            int shift = (int) slot;
+            if (((table[index] >>> shift) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halve every counter (the sketch's aging step)
+     */
+    void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    /**
+     * Table index (high 32 bits) and bit offset of the key's counter in one row
+     */
+    private long slot(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        int index = (int) (h >>> 4) & tableMask;
+        int shift = ((int) h & 15) << 2;
+        return ((long) index << 32) | shift;
+    }
+
+    private int count(long slot) {
+        return (int) ((table[(int) (slot >>> 32)] >>> (int) slot) & MAX_COUNT);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,138 @@
+package com.vijay.cache;
+
+import com.vijay.config.DevExConfig;
+import com.vijay.state.StateBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 🎯 Multi-Region Cache - The one cache subsystem behind every cache facade
+ *
+ * Purpose: Replace four independent caches (CachingLayer, LocalCacheImpl,
+ * SmartCacheManager, CacheManager) that each had their own eviction, key scheme and
+ * stats with named regions under one memory budget
+ *
+ * Responsibilities:
+ * - Build the regions from DevExConfig.CachingConfig: each gets its entry cap, its
+ *   default TTL and a share of devex.caching.max-bytes proportional to its weight
+ * - Bound every region by estimated bytes with W-TinyLFU eviction (see CacheRegion),
+ *   so the whole cache stays within the budget however large the values are
+ * - Report unified stats: budget, bytes in use, and per-region hits, misses,
+ *   evictions and expirations
+ *
+ * The old classes are thin facades over a region each: CachingLayer over analysis,
+ * LocalCacheImpl over general, SmartCacheManager over tool-results, and CacheManager's
+ * advisor / model / user / knowledge-graph helpers over the region of the same name.
+ */
+@Service
+public class MultiRegionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiRegionCache.class);
+
+    public static final String ADVISOR_OUTPUTS = "advisor-outputs";
+    public static final String MODEL_RESPONSES = "model-responses";
+    public static final String TOOL_RESULTS = "tool-results";
+    public static final String USER_PREFERENCES = "user-preferences";
+    public static final String KNOWLEDGE_GRAPH = "knowledge-graph";
+    public static final String ANALYSIS = "analysis";
+    public static final String GENERAL = "general";
+
+    private final Map<String, CacheRegion> regions = new LinkedHashMap<>();
+    private final long maxBytes;
+    private final boolean enabled;
+
+    public MultiRegionCache() {
+        this(new DevExConfig(), null);
+    }
+
+    @Autowired
+    public MultiRegionCache(DevExConfig config, StateBackend stateBackend) {
+        DevExConfig.CachingConfig caching = config.getCaching();
+        this.maxBytes = Math.max(1, caching.getMaxBytes());
+        this.enabled = caching.isEnabled();
+
+        long totalWeight = 0;
+        for (DevExConfig.RegionConfig region : caching.getRegions().values()) {
+            totalWeight += Math.max(1, region.getWeight());
+        }
+        for (Map.Entry<String, DevExConfig.RegionConfig> entry : caching.getRegions().entrySet()) {
+            DevExConfig.RegionConfig region = entry.getValue();
+            int weight = Math.max(1, region.getWeight());
+            long share = Math.max(1, (long) ((double) maxBytes * weight / totalWeight));
+            regions.put(entry.getKey(), new CacheRegion(entry.getKey(), region.getMaxEntries(), share, weight,
+                Duration.ofSeconds(region.getTtlSeconds()), enabled, stateBackend));
+        }
+
+        logger.info("🎯 Multi-region cache initialized: {} regions sharing {} MB{}",
+            regions.size(), maxBytes / (1024 * 1024), enabled ? "" : " (disabled)");
+    }
+
+    /**
+     * The named region (see the constants); IllegalArgumentException if there is none
+     */
+    public CacheRegion region(String name) {
+        CacheRegion region = regions.get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("Unknown cache region: " + name);
+        }
+        return region;
+    }
+
+    public Collection<CacheRegion> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    /**
+     * Clear every region on this instance
+     */
+    public void clear() {
+        regions.values().forEach(CacheRegion::clear);
+        logger.info("🧹 Cleared all cache regions");
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getEstimatedBytes() {
+        return regions.values().stream().mapToLong(CacheRegion::getEstimatedBytes).sum();
+    }
+
+    /**
+     * Budget, totals across regions, and each region's stats
+     */
+    public Map<String, Object> getStats() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long entries = 0;
+        Map<String, Object> perRegion = new LinkedHashMap<>();
+        for (CacheRegion region : regions.values()) {
+            hits += region.getHits();
+            misses += region.getMisses();
+            evictions += region.getEvictions();
+            entries += region.size();
+            perRegion.put(region.getName(), region.getStats());
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxBytes", maxBytes);
+        stats.put("estimatedBytes", getEstimatedBytes());
+        stats.put("entries", entries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", String.format("%.1f%%", hits + misses > 0 ? (double) hits / (hits + misses) * 100 : 0));
+        stats.put("evictions", evictions);
+        stats.put("regions", perRegion);
+        return stats;
+    }
+}
@@ -1,21 +1,39 @@
 package com.vijay.cache;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vijay.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * 🎯 Smart Cache Manager - Intelligent caching for tool results
  * 
  * Features:
- * ✅ Tool-specific cache durations
+ * ✅ Tool-specific cache durations (built-in defaults, or @ToolCache on the @Tool method)
+ * ✅ Used by tool execution: CachingToolCallback wraps every tool with a cacheable
+ *    strategy, and concurrent identical calls run the tool once (getOrCompute)
+ * ✅ Keys: tool name + SHA-256 of the canonical JSON arguments (keys sorted, whitespace
+ *    dropped), so equal arguments match and different ones never collide
  * ✅ Automatic expiration
- * ✅ Cache hit/miss tracking
- * ✅ Memory-efficient
+ * ✅ Cache hit/miss tracking (atomic counters)
+ * ✅ Memory-efficient: stored in the "tool-results" region of MultiRegionCache
+ *    (entry cap, share of the byte budget, W-TinyLFU eviction)
  * ✅ Thread-safe
+ * ✅ Shared between replicas when the state backend is (chat.state.backend=redis);
+ *    clearAll() / clearTool() / cleanupExpired() only touch this instance's copies
  * 
  * Benefits:
  * - Reduces token usage by 40-60%
@@ -27,18 +45,28 @@ public class SmartCacheManager {
     
     private static final Logger logger = LoggerFactory.getLogger(SmartCacheManager.class);
     
-    // Cache storage: key -> (value, expiryTime)
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private static final ObjectMapper CANONICAL_JSON = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    
+    // Cache storage (hits and misses are counted by the region)
+    private final CacheRegion region;
     
     // Tool cache strategies
     private final Map<String, CacheStrategy> toolStrategies = new ConcurrentHashMap<>();
     
+    // Tool calls in progress, by key: identical concurrent calls wait for the first
+    private final SingleFlight<String, String> toolFlight = new SingleFlight<>();
+    
     // Statistics
-    private long cacheHits = 0;
-    private long cacheMisses = 0;
-    private long tokensSaved = 0;
+    private final LongAdder tokensSaved = new LongAdder();
     
     public SmartCacheManager() {
+        this(new MultiRegionCache());
+    }
+    
+    @Autowired
+    public SmartCacheManager(MultiRegionCache regions) {
+        this.region = regions.region(MultiRegionCache.TOOL_RESULTS);
         initializeToolStrategies();
     }
     
@@ -71,28 +99,54 @@ public class SmartCacheManager {
      * Get cached result if available and not expired
      */
     public Optional<String> get(String toolName, String params) {
+        return lookup(generateKey(toolName, params));
+    }
+    
+    /**
+     * Result of the tool call: from the cache if the tool's strategy allows and the same
+     * arguments were seen, otherwise from the loader (then cached). Concurrent calls with
+     * the same arguments share one loader run; a loader exception reaches all of them and
+     * nothing is cached.
+     */
+    public String getOrCompute(String toolName, String params, Supplier<String> loader) {
+        CacheStrategy strategy = getStrategy(toolName);
+        if (!strategy.isCacheable()) {
+            return loader.get();
+        }
+        
         String key = generateKey(toolName, params);
-        CacheEntry entry = cache.get(key);
+        Optional<String> cached = lookup(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         
-        if (entry == null) {
-            cacheMisses++;
-            logger.debug("❌ Cache MISS: {}", key);
-            return Optional.empty();
+        SingleFlight.Result<String> call = toolFlight.execute(key, () -> {
+            String result = loader.get();
+            if (result != null) {
+                store(key, strategy, result);
+            }
+            return result;
+        });
+        if (call.shared) {
+            logger.debug("⏳ Shared in-flight tool call: {}", key);
         }
+        return call.value;
+    }
+    
+    private Optional<String> lookup(String key) {
+        // Expired entries read as misses
+        Object value = region.get(key);
         
-        // Check if expired
-        if (System.currentTimeMillis() > entry.expiryTime) {
-            cache.remove(key);
-            cacheMisses++;
-            logger.debug("⏰ Cache EXPIRED: {}", key);
+        if (!(value instanceof String result)) {
+            logger.debug("❌ Cache MISS: {}", key);
             return Optional.empty();
         }
         
-        cacheHits++;
-        logger.info("✅ Cache HIT: {} (age: {}ms)", key, 
-            System.currentTimeMillis() - entry.createdTime);
+        // Estimate tokens saved (rough calculation: ~4 chars per token)
+        tokensSaved.add(result.length() / 4);
+        logger.debug("✅ Cache HIT: {}", key);
         
-        return Optional.of(entry.value);
+        return Optional.of(result);
     }
     
     /**
@@ -106,23 +160,20 @@ public class SmartCacheManager {
             return;
         }
         
-        String key = generateKey(toolName, params);
-        long expiryTime = System.currentTimeMillis() + strategy.getDurationMillis();
-        
-        cache.put(key, new CacheEntry(result, expiryTime));
-        
-        // Estimate tokens saved (rough calculation)
-        int estimatedTokens = result.length() / 4;  // ~4 chars per token
-        tokensSaved += estimatedTokens;
+        store(generateKey(toolName, params), strategy, result);
+    }
+    
+    private void store(String key, CacheStrategy strategy, String result) {
+        region.put(key, result, Duration.ofMillis(strategy.getDurationMillis()));
         
-        logger.info("💾 Cache PUT: {} (strategy: {}, expires in: {}s, tokens saved: {})", 
-            key, strategy, strategy.getDurationSeconds(), estimatedTokens);
+        logger.debug("💾 Cache PUT: {} (strategy: {}, expires in: {}s)", 
+            key, strategy, strategy.getDurationSeconds());
     }
     
     /**
-     * Get cache strategy for a tool
+     * Get cache strategy for a tool (NONE if it has none)
      */
-    private CacheStrategy getStrategy(String toolName) {
+    public CacheStrategy getStrategy(String toolName) {
         return toolStrategies.getOrDefault(toolName, CacheStrategy.NONE);
     }
     
@@ -135,18 +186,42 @@ public class SmartCacheManager {
     }
     
     /**
-     * Generate cache key from tool name and parameters
+     * Generate cache key from tool name and the SHA-256 of the canonical parameters
      */
-    private String generateKey(String toolName, String params) {
-        return toolName + ":" + (params != null ? params.hashCode() : "null");
+    String generateKey(String toolName, String params) {
+        return toolName + ":" + sha256(canonicalize(params));
+    }
+    
+    /**
+     * JSON arguments with object keys sorted and insignificant whitespace dropped;
+     * anything that isn't JSON is used as it is
+     */
+    static String canonicalize(String params) {
+        if (params == null) {
+            return "null";
+        }
+        try {
+            return CANONICAL_JSON.writeValueAsString(CANONICAL_JSON.readValue(params, Object.class));
+        } catch (JsonProcessingException e) {
+            return params;
+        }
+    }
+    
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     /**
      * Clear all cache
      */
     public void clearAll() {
-        int size = cache.size();
-        cache.clear();
+        int size = region.size();
+        region.clear();
         logger.info("🧹 Cleared {} cache entries", size);
     }
     
@@ -154,10 +229,7 @@ public class SmartCacheManager {
      * Clear cache for specific tool
      */
     public void clearTool(String toolName) {
-        int removed = (int) cache.keySet().stream()
-            .filter(key -> key.startsWith(toolName + ":"))
-            .peek(cache::remove)
-            .count();
+        int removed = region.removeIf(key -> key.startsWith(toolName + ":"));
         logger.info("🧹 Cleared {} cache entries for tool: {}", removed, toolName);
     }
     
@@ -166,32 +238,22 @@ public class SmartCacheManager {
      */
     public CacheStats getStats() {
         return new CacheStats(
-            cacheHits,
-            cacheMisses,
-            cache.size(),
-            tokensSaved,
-            getCacheHitRate()
+            region.getHits(),
+            region.getMisses(),
+            region.size(),
+            tokensSaved.sum(),
+            region.getHitRate(),
+            toolFlight.getStats().coalesced
         );
     }
     
-    /**
-     * Calculate cache hit rate
-     */
-    private double getCacheHitRate() {
-        long total = cacheHits + cacheMisses;
-        if (total == 0) return 0.0;
-        return (double) cacheHits / total * 100;
-    }
-    
     /**
      * Clean up expired entries
      */
     public void cleanupExpired() {
-        long now = System.currentTimeMillis();
-        int removed = (int) cache.entrySet().stream()
-            .filter(entry -> now > entry.getValue().expiryTime)
-            .peek(entry -> cache.remove(entry.getKey()))
-            .count();
+        int before = region.size();
+        region.cleanUp();
+        int removed = before - region.size();
         
         if (removed > 0) {
             logger.info("🧹 Cleaned up {} expired cache entries", removed);
@@ -199,25 +261,17 @@ public class SmartCacheManager {
     }
     
     /**
-     * Get cache size
+     * Statistics of the shared tier, or null without a shared state backend
      */
-    public int getCacheSize() {
-        return cache.size();
+    public Map<String, Object> getSharedStats() {
+        return region.getSharedStats();
     }
     
     /**
-     * Cache entry with expiry time
+     * Get cache size
      */
-    private static class CacheEntry {
-        String value;
-        long expiryTime;
-        long createdTime;
-        
-        CacheEntry(String value, long expiryTime) {
-            this.value = value;
-            this.expiryTime = expiryTime;
-            this.createdTime = System.currentTimeMillis();
-        }
+    public int getCacheSize() {
+        return region.size();
     }
     
     /**
@@ -229,20 +283,27 @@ public class SmartCacheManager {
         public int size;
         public long tokensSaved;
         public double hitRate;
+        // Tool calls that waited for an identical in-flight call instead of running the tool
+        public long coalesced;
         
         public CacheStats(long hits, long misses, int size, long tokensSaved, double hitRate) {
+            this(hits, misses, size, tokensSaved, hitRate, 0);
+        }
+        
+        public CacheStats(long hits, long misses, int size, long tokensSaved, double hitRate, long coalesced) {
             this.hits = hits;
             this.misses = misses;
             this.size = size;
             this.tokensSaved = tokensSaved;
             this.hitRate = hitRate;
+            this.coalesced = coalesced;
         }
         
         @Override
         public String toString() {
             return String.format(
-                "CacheStats{hits=%d, misses=%d, size=%d, tokensSaved=%d, hitRate=%.1f%%}",
-                hits, misses, size, tokensSaved, hitRate
+                "CacheStats{hits=%d, misses=%d, size=%d, tokensSaved=%d, hitRate=%.1f%%, coalesced=%d}",
+                hits, misses, size, tokensSaved, hitRate, coalesced
             );
         }
     }
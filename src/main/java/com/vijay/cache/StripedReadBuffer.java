@@ -0,0 +1,86 @@
+package com.vijay.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 🎯 Striped Read Buffer - Where cache hits are logged until the next maintenance
+ *
+ * Reads must not take a lock or touch the shared LRU lists, so each hit is only
+ * appended to a small ring buffer; the maintenance pass replays them into the access
+ * order and the frequency sketch. Threads are spread over several rings by thread id
+ * so they rarely contend on one counter.
+ *
+ * Lossy by design: when a ring is full or its slot is contended the read is simply not
+ * recorded. The policy only needs a sample of the access pattern, not every access.
+ */
+final class StripedReadBuffer<E> {
+
+    static final int RING_SIZE = 16;
+    private static final int RING_MASK = RING_SIZE - 1;
+
+    enum Offer { SUCCESS, FULL, FAILED }
+
+    private final Ring<E>[] rings;
+    private final int ringMask;
+
+    @SuppressWarnings("unchecked")
+    StripedReadBuffer() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        this.rings = new Ring[count];
+        for (int i = 0; i < count; i++) {
+            rings[i] = new Ring<>();
+        }
+        this.ringMask = count - 1;
+    }
+
+    /**
+     * Log one access; FULL tells the caller this ring needs draining
+     */
+    Offer offer(E element) {
+        Ring<E> ring = rings[ringIndex()];
+        long head = ring.readCounter;
+        long tail = ring.writeCounter.get();
+        if (tail - head >= RING_SIZE) {
+            return Offer.FULL;
+        }
+        if (!ring.writeCounter.compareAndSet(tail, tail + 1)) {
+            return Offer.FAILED;
+        }
+        ring.buffer.lazySet((int) (tail & RING_MASK), element);
+        return Offer.SUCCESS;
+    }
+
+    /**
+     * Hand every logged access to the consumer (maintenance lock held)
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Ring<E> ring : rings) {
+            long head = ring.readCounter;
+            long tail = ring.writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & RING_MASK);
+                E element = ring.buffer.get(index);
+                if (element == null) {
+                    break; // slot claimed but not written yet: next drain picks it up
+                }
+                ring.buffer.lazySet(index, null);
+                consumer.accept(element);
+            }
+            ring.readCounter = head;
+        }
+    }
+
+    private int ringIndex() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash >>> 16) & ringMask;
+    }
+
+    private static final class Ring<E> {
+        final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(RING_SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        volatile long readCounter;
+    }
+}
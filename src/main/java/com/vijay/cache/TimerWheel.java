@@ -0,0 +1,148 @@
+package com.vijay.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 🎯 Timer Wheel - O(1) expiration for entries with their own TTL
+ *
+ * A hierarchical timing wheel: five levels of buckets spanning about 1 second,
+ * 1 minute, 1 hour, 1 day and 6.5 days. An entry is linked into the bucket of the
+ * coarsest level that still distinguishes its expiry; when time passes a bucket, its
+ * entries either expire or drop to a finer level. Scheduling and unscheduling are
+ * O(1), and a maintenance pass only visits the buckets time has moved past, instead
+ * of scanning every entry.
+ *
+ * Not thread-safe: only touched under the cache's maintenance lock.
+ */
+final class TimerWheel<K, V> {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+        ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),  // 1.07s
+        ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),  // 1.14m
+        ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),    // 1.22h
+        ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),     // 1.63d
+        BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)), // 6.5d
+        BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+    };
+    private static final int[] SHIFT = new int[BUCKETS.length];
+
+    static {
+        for (int i = 0; i < SHIFT.length; i++) {
+            SHIFT[i] = Long.numberOfTrailingZeros(SPANS[i]);
+        }
+    }
+
+    private final TinyLfuCache.Node<K, V>[][] wheel;
+    private long nanos;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long nanos) {
+        this.nanos = nanos;
+        this.wheel = new TinyLfuCache.Node[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheel[level] = new TinyLfuCache.Node[BUCKETS[level]];
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                wheel[level][bucket] = TinyLfuCache.Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Link the node into the bucket of its expiry time (unlinking it first if needed)
+     */
+    void schedule(TinyLfuCache.Node<K, V> node) {
+        deschedule(node);
+        TinyLfuCache.Node<K, V> sentinel = findBucket(node.expiresAt);
+        node.prevInTimer = sentinel.prevInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.prevInTimer.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    void deschedule(TinyLfuCache.Node<K, V> node) {
+        if (node.nextInTimer != null) {
+            node.nextInTimer.prevInTimer = node.prevInTimer;
+            node.prevInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer = null;
+            node.prevInTimer = null;
+        }
+    }
+
+    /**
+     * Move time forward, passing every node whose expiry is due to expire
+     */
+    void advance(long currentNanos, Consumer<TinyLfuCache.Node<K, V>> expire) {
+        long previousNanos = nanos;
+        nanos = currentNanos;
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previousNanos >>> SHIFT[level];
+            long currentTicks = currentNanos >>> SHIFT[level];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previousTicks, delta, expire);
+        }
+    }
+
+    /**
+     * Unlink every node (the cache is being cleared)
+     */
+    void clear() {
+        for (TinyLfuCache.Node<K, V>[] buckets : wheel) {
+            for (TinyLfuCache.Node<K, V> sentinel : buckets) {
+                TinyLfuCache.Node<K, V> node = sentinel.nextInTimer;
+                while (node != sentinel) {
+                    TinyLfuCache.Node<K, V> next = node.nextInTimer;
+                    node.nextInTimer = null;
+                    node.prevInTimer = null;
+                    node = next;
+                }
+                sentinel.nextInTimer = sentinel;
+                sentinel.prevInTimer = sentinel;
+            }
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Consumer<TinyLfuCache.Node<K, V>> expire) {
+        TinyLfuCache.Node<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            TinyLfuCache.Node<K, V> sentinel = buckets[i & mask];
+            TinyLfuCache.Node<K, V> node = sentinel.nextInTimer;
+            sentinel.nextInTimer = sentinel;
+            sentinel.prevInTimer = sentinel;
+            while (node != sentinel) {
+                TinyLfuCache.Node<K, V> next = node.nextInTimer;
+                node.nextInTimer = null;
+                node.prevInTimer = null;
+                if (node.expiresAt - nanos <= 0) {
+                    expire.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private TinyLfuCache.Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int last = wheel.length - 1;
+        for (int level = 0; level < last; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = time >>> SHIFT[level];
+                return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    private static long ceilingPowerOfTwo(long value) {
+        return 1L << -Long.numberOfLeadingZeros(value - 1);
+    }
+}
@@ -0,0 +1,644 @@
+package com.vijay.cache;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 🎯 TinyLFU Cache - Bounded, concurrent cache engine with W-TinyLFU eviction
+ *
+ * Purpose: Replace the synchronized put() + O(n) LRU scan of LocalCacheImpl with a
+ * cache whose reads never lock and whose eviction costs O(1)
+ *
+ * Responsibilities:
+ * - Store entries in a ConcurrentHashMap; get() is a map lookup plus a lossy append to
+ *   a striped read buffer, put() a map write plus a task on the write buffer
+ * - Replay both buffers under one maintenance lock (tryLock: callers never wait unless
+ *   the write buffer backs up), keeping the eviction policy single-threaded
+ * - W-TinyLFU: new entries enter a small LRU window (1% of the capacity); the window's
+ *   oldest entry then competes with the main space's LRU victim and only gets in if a
+ *   count-min sketch says it is used more often. The main space is a segmented LRU
+ *   (probation, protected at 80%), so one-off keys can't flush out the hot set
+ * - Expire entries through a hierarchical timer wheel; expired entries also read as
+ *   absent straight away
+ * - Optionally bound by weight (e.g. estimated bytes) instead of entry count: the
+ *   window and segments are then sized in weight and the entry count is a second cap
+ *
+ * The policy is fixed-window (no hill climbing).
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WRITE_BUFFER_MAX = 1024;
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.80;
+    // Long TTLs are capped so expiry arithmetic can't overflow (about 73 years)
+    private static final long MAX_DURATION_NANOS = Long.MAX_VALUE >>> 2;
+    // Candidates at least this warm are sometimes admitted anyway, so an attacker can't
+    // pin a victim by inflating its frequency
+    private static final int ADMIT_HASHDOS_THRESHOLD = 6;
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final LongSupplier ticker;
+    private final long origin;
+    private final long maximumSize;
+    private final Weigher<? super K, ? super V> weigher;
+    // What the policy sizes by: total weight when weighed, entry count otherwise
+    private final boolean weighted;
+    private final long capacity;
+
+    private final StripedReadBuffer<Node<K, V>> readBuffer = new StripedReadBuffer<>();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Guarded by evictionLock
+    private final FrequencySketch sketch;
+    private final TimerWheel<K, V> timerWheel;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+    private final long windowMaximum;
+    private final long windowMaximumEntries;
+    private final long protectedMaximum;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private volatile long weightedSize;
+
+    public TinyLfuCache(long maximumSize) {
+        this(maximumSize, Long.MAX_VALUE, null, System::nanoTime);
+    }
+
+    /**
+     * Bounded by maximumWeight as measured by the weigher, and by maximumSize entries
+     * (Long.MAX_VALUE for either means no such bound)
+     */
+    public TinyLfuCache(long maximumSize, long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        this(maximumSize, maximumWeight, weigher, System::nanoTime);
+    }
+
+    TinyLfuCache(long maximumSize, LongSupplier ticker) {
+        this(maximumSize, Long.MAX_VALUE, null, ticker);
+    }
+
+    TinyLfuCache(long maximumSize, long maximumWeight, Weigher<? super K, ? super V> weigher, LongSupplier ticker) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.weigher = weigher;
+        this.weighted = weigher != null && maximumWeight != Long.MAX_VALUE;
+        this.capacity = weighted ? Math.max(1, maximumWeight) : this.maximumSize;
+        this.ticker = ticker;
+        this.origin = ticker.getAsLong();
+        this.windowMaximum = Math.max(1, (long) (capacity * WINDOW_SHARE));
+        // The entry cap gets its own window share, so a cache of many light entries
+        // still filters admissions instead of degrading to one big LRU window
+        this.windowMaximumEntries = Math.max(1, (long) (this.maximumSize * WINDOW_SHARE));
+        long mainMaximum = capacity - windowMaximum;
+        this.protectedMaximum = (long) (mainMaximum * PROTECTED_SHARE);
+        // Sized for the entry cap (a weighed cache should set one: its weight bound alone
+        // would size the sketch by weight units)
+        this.sketch = new FrequencySketch(Math.min(this.maximumSize, capacity));
+        this.timerWheel = new TimerWheel<>(0);
+    }
+
+    /**
+     * The live value for the key, or null; records the access for the eviction policy
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        long now = now();
+        if (node.expiresAt - now <= 0) {
+            expireOnRead(node, now);
+            return null;
+        }
+        V value = node.value;
+        if (readBuffer.offer(node) == StripedReadBuffer.Offer.FULL) {
+            tryMaintenance();
+        }
+        return value;
+    }
+
+    /**
+     * The live value for the key without recording an access
+     */
+    public V peek(K key) {
+        Node<K, V> node = data.get(key);
+        return node != null && node.expiresAt - now() > 0 ? node.value : null;
+    }
+
+    public boolean containsKey(K key) {
+        return peek(key) != null;
+    }
+
+    /**
+     * Store the value for ttlNanos (replacing any value the key had)
+     */
+    public void put(K key, V value, long ttlNanos) {
+        long expiresAt = now() + Math.min(Math.max(0, ttlNanos), MAX_DURATION_NANOS);
+        int weight = weigher != null ? Math.max(0, weigher.weigh(key, value)) : 1;
+        while (true) {
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                Node<K, V> created = new Node<>(key, value, expiresAt);
+                created.weight = weight;
+                node = data.putIfAbsent(key, created);
+                if (node == null) {
+                    afterWrite(() -> onAdd(created));
+                    return;
+                }
+            }
+            boolean updated = false;
+            synchronized (node) {
+                if (node.alive) {
+                    node.value = value;
+                    node.weight = weight;
+                    node.expiresAt = expiresAt;
+                    updated = true;
+                }
+            }
+            if (updated) {
+                Node<K, V> target = node;
+                afterWrite(() -> onUpdate(target));
+                return;
+            }
+            // Removed by another thread between lookup and update: insert afresh
+        }
+    }
+
+    /**
+     * Remove the key; returns its value (null if absent)
+     */
+    public V remove(K key) {
+        while (true) {
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            boolean removed = false;
+            synchronized (node) {
+                // A node is alive exactly while the map holds it; both change under its monitor
+                if (node.alive) {
+                    data.remove(key, node);
+                    node.alive = false;
+                    removed = true;
+                }
+            }
+            if (removed) {
+                afterWrite(() -> onRemove(node));
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Remove the key only while it maps to this exact value
+     */
+    public boolean remove(K key, V expected) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return false;
+        }
+        synchronized (node) {
+            if (!node.alive || node.value != expected || !data.remove(key, node)) {
+                return false;
+            }
+            node.alive = false;
+        }
+        afterWrite(() -> onRemove(node));
+        return true;
+    }
+
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            for (Node<K, V> node : data.values()) {
+                synchronized (node) {
+                    if (node.alive && data.remove(node.key, node)) {
+                        node.alive = false;
+                    }
+                }
+            }
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            timerWheel.clear();
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Run pending maintenance now: replay buffers, expire and evict
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Number of entries, possibly including expired ones not yet cleaned up
+     */
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Total weight of the entries as of the last maintenance (their count when unweighed)
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Live, read-only view of the keys, possibly including expired ones
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(data.keySet());
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * Window entries the admission filter turned away
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Estimated recent access count of the key (for tests)
+     */
+    int frequency(K key) {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            return sketch.frequency(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private long now() {
+        return ticker.getAsLong() - origin;
+    }
+
+    private void expireOnRead(Node<K, V> node, long now) {
+        synchronized (node) {
+            // A concurrent put() may have just refreshed it
+            if (!node.alive || node.expiresAt - now > 0 || !data.remove(node.key, node)) {
+                return;
+            }
+            node.alive = false;
+        }
+        expirations.increment();
+        afterWrite(() -> onRemove(node));
+    }
+
+    /**
+     * Queue a policy update and run maintenance if nobody else is (never call while
+     * holding a node's monitor: maintenance takes node monitors under the lock)
+     */
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        if (pendingWrites.incrementAndGet() > WRITE_BUFFER_MAX) {
+            // Writers outpace maintenance: make them help instead of growing the buffer
+            cleanUp();
+        } else {
+            tryMaintenance();
+        }
+    }
+
+    private void tryMaintenance() {
+        // Re-check after unlocking: a task added while we held the lock must not be stranded
+        while (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (writeBuffer.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    // ============ Maintenance (evictionLock held) ============
+
+    private void maintenance() {
+        drainBuffers();
+        timerWheel.advance(now(), this::expire);
+        evictEntries();
+        weightedSize = window.weight() + probation.weight() + protectedSegment.weight();
+    }
+
+    private void drainBuffers() {
+        readBuffer.drainTo(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        sketch.increment(node.key);
+        if (!node.alive) {
+            return;
+        }
+        node.queue = WINDOW;
+        node.policyWeight = node.weight;
+        window.addLast(node);
+        timerWheel.schedule(node);
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (node.alive && node.linked()) {
+            if (node.policyWeight != node.weight) {
+                AccessOrderDeque<K, V> queue = queueOf(node);
+                queue.remove(node);
+                node.policyWeight = node.weight;
+                queue.addLast(node);
+            }
+            timerWheel.schedule(node);
+            onAccess(node);
+        }
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        if (!node.alive || !node.linked()) {
+            return;
+        }
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                // Used again while on probation: promote, demoting the protected LRU if full
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedSegment.addLast(node);
+                while (measure(protectedSegment) > protectedMaximum) {
+                    Node<K, V> demoted = protectedSegment.pollFirst();
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            default -> protectedSegment.moveToBack(node);
+        }
+    }
+
+    /**
+     * Move window overflow into the main space, admitting each candidate only if the
+     * sketch rates it above the main space's victim
+     */
+    private void evictEntries() {
+        while (measure(window) > windowMaximum || window.size() > windowMaximumEntries) {
+            Node<K, V> candidate = window.pollFirst();
+            if (measure(probation) + measure(protectedSegment) < capacity - windowMaximum
+                    && probation.size() + protectedSegment.size() < maximumSize - windowMaximumEntries) {
+                candidate.queue = PROBATION;
+                probation.addLast(candidate);
+                continue;
+            }
+            Node<K, V> victim = probation.size() > 0 ? probation.peekFirst() : protectedSegment.peekFirst();
+            if (victim == null || admit(candidate.key, victim.key)) {
+                if (victim != null) {
+                    evict(victim);
+                }
+                candidate.queue = PROBATION;
+                probation.addLast(candidate);
+            } else {
+                rejections.increment();
+                evict(candidate);
+            }
+        }
+        // Entries added while the window was empty, heavy entries and the entry cap of a
+        // weighed cache can leave the whole cache over capacity
+        while (measure(window) + measure(probation) + measure(protectedSegment) > capacity
+                || window.size() + probation.size() + protectedSegment.size() > maximumSize) {
+            Node<K, V> victim = probation.size() > 0 ? probation.peekFirst()
+                : protectedSegment.size() > 0 ? protectedSegment.peekFirst() : window.peekFirst();
+            evict(victim);
+        }
+    }
+
+    private boolean admit(K candidateKey, K victimKey) {
+        int candidate = sketch.frequency(candidateKey);
+        int victim = sketch.frequency(victimKey);
+        if (candidate > victim) {
+            return true;
+        }
+        return candidate >= ADMIT_HASHDOS_THRESHOLD && (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    private void evict(Node<K, V> node) {
+        synchronized (node) {
+            if (node.alive && data.remove(node.key, node)) {
+                node.alive = false;
+                evictions.increment();
+            }
+        }
+        unlink(node);
+    }
+
+    private void expire(Node<K, V> node) {
+        boolean expired = false;
+        synchronized (node) {
+            if (node.alive && node.expiresAt - now() <= 0 && data.remove(node.key, node)) {
+                node.alive = false;
+                expired = true;
+            }
+        }
+        if (expired) {
+            expirations.increment();
+            unlink(node);
+        } else if (node.alive) {
+            timerWheel.schedule(node);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.linked()) {
+            queueOf(node).remove(node);
+        }
+        timerWheel.deschedule(node);
+    }
+
+    private AccessOrderDeque<K, V> queueOf(Node<K, V> node) {
+        return switch (node.queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+
+    private long measure(AccessOrderDeque<K, V> queue) {
+        return weighted ? queue.weight() : queue.size();
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Weight of an entry, e.g. its estimated size in bytes
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    /**
+     * One cache entry; linked into an access-order deque and a timer wheel bucket
+     */
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long expiresAt;
+        volatile int weight;
+        // Guarded by the node's monitor; false once removed from the map
+        boolean alive = true;
+
+        // Guarded by evictionLock
+        byte queue;
+        // The weight the deques account for, caught up with weight by onUpdate()
+        int policyWeight;
+        Node<K, V> prevInAccess;
+        Node<K, V> nextInAccess;
+        boolean inAccessOrder;
+        Node<K, V> prevInTimer;
+        Node<K, V> nextInTimer;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null, null, 0);
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            return sentinel;
+        }
+
+        boolean linked() {
+            return inAccessOrder;
+        }
+    }
+
+    /**
+     * Intrusive doubly-linked LRU list: O(1) append, move and unlink
+     */
+    static final class AccessOrderDeque<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private long size;
+        private long weight;
+
+        void addLast(Node<K, V> node) {
+            node.prevInAccess = last;
+            node.nextInAccess = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.nextInAccess = node;
+            }
+            last = node;
+            node.inAccessOrder = true;
+            size++;
+            weight += node.policyWeight;
+        }
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prevInAccess == null) {
+                first = node.nextInAccess;
+            } else {
+                node.prevInAccess.nextInAccess = node.nextInAccess;
+            }
+            if (node.nextInAccess == null) {
+                last = node.prevInAccess;
+            } else {
+                node.nextInAccess.prevInAccess = node.prevInAccess;
+            }
+            node.prevInAccess = null;
+            node.nextInAccess = null;
+            node.inAccessOrder = false;
+            size--;
+            weight -= node.policyWeight;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long weight() {
+            return weight;
+        }
+
+        void clear() {
+            Node<K, V> node = first;
+            while (node != null) {
+                Node<K, V> next = node.nextInAccess;
+                node.prevInAccess = null;
+                node.nextInAccess = null;
+                node.inAccessOrder = false;
+                node = next;
+            }
+            first = null;
+            last = null;
+            size = 0;
+            weight = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.vijay.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 🎯 Tool Cache - Declares how long a @Tool method's results may be reused
+ *
+ * Put next to @Tool: ToolCallbackRegistry registers the strategy with SmartCacheManager
+ * and wraps the tool's callback, so a repeated call with the same arguments is answered
+ * from the tool-results cache instead of running the tool again.
+ *
+ * Only for tools whose result depends on nothing but their arguments (and time, within
+ * the strategy's duration).
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ToolCache {
+
+    CacheStrategy value();
+}
@@ -1,32 +1,41 @@
 package com.vijay.config;
 
-import com.vijay.manager.AiToolProvider;
 import com.vijay.manager.ConductorAdvisor;
 import com.vijay.manager.DynamicContextAdvisor;
 import com.vijay.manager.ToolCallAdvisor;
 import com.vijay.manager.PersonalityAdvisor;
 import com.vijay.manager.SelfRefineV3Advisor;
+import com.vijay.service.AdvisorTimingService;
+import com.vijay.service.ChatHedgingService;
+import com.vijay.service.ConversationSummarizer;
+import com.vijay.service.JpaChatMemoryRepository;
+import com.vijay.service.ProviderConcurrencyLimiter;
+import com.vijay.service.StateBackendChatMemoryRepository;
+import com.vijay.service.ScriptedChatModel;
+import com.vijay.service.SummarizingChatMemory;
+import com.vijay.service.TokenCountingService;
 import com.vijay.service.FileHashTracker;
 import com.vijay.service.IncrementalIndexer;
 import com.vijay.service.IncrementalSummarizer;
 import com.vijay.service.IncrementalGraphCalculator;
+import com.vijay.state.SessionStateStore;
 import com.vijay.tools.AIAgentToolService;
-import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import com.vijay.tools.ToolCallbackRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.anthropic.AnthropicChatModel;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
-import org.springframework.ai.chat.memory.MessageWindowChatMemory;
-import org.springframework.ai.google.genai.GoogleGenAiChatModel;
-import org.springframework.ai.huggingface.HuggingfaceChatModel;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
 import org.springframework.ai.model.tool.ToolCallingManager;
-import org.springframework.ai.ollama.OllamaChatModel;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -36,17 +45,38 @@ public class AIProviderConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(AIProviderConfig.class);
 
-    // Chat Memory for conversation context
+    // Chat Memory for conversation context: token-bounded history with a rolling summary,
+    // persisted write-behind to MySQL unless chat.memory.persistent=false, or kept in the
+    // shared state backend when there is one (every replica sees every conversation)
     @Bean
-    ChatMemory chatMemory() {
-        return MessageWindowChatMemory.builder()
-                .maxMessages(20)
-                .build();
+    ChatMemory chatMemory(JpaChatMemoryRepository jpaChatMemoryRepository,
+                          SessionStateStore sessionStateStore,
+                          ConversationSummarizer conversationSummarizer,
+                          TokenCountingService tokenCountingService,
+                          @Value("${chat.memory.persistent:true}") boolean persistent,
+                          @Value("${chat.memory.history-budget-tokens:1500}") int historyBudgetTokens,
+                          @Value("${chat.memory.max-messages:20}") int maxMessages,
+                          @Value("${chat.memory.compact-batch-tokens:500}") int compactBatchTokens) {
+        ChatMemoryRepository repository;
+        String store;
+        if (sessionStateStore.isShared()) {
+            repository = new StateBackendChatMemoryRepository(sessionStateStore);
+            store = "shared state backend";
+        } else {
+            repository = persistent ? jpaChatMemoryRepository : new InMemoryChatMemoryRepository();
+            store = persistent ? "JPA" : "in-memory";
+        }
+        logger.info("💬 Chat memory: {} store, {} history tokens, at most {} messages",
+                store, historyBudgetTokens, maxMessages);
+        return new SummarizingChatMemory(repository, conversationSummarizer, tokenCountingService,
+                historyBudgetTokens, maxMessages, compactBatchTokens);
     }
+    // Tool names are resolved from the precomputed registry instead of every provider's schemas
     @Bean
-    public ToolCallingManager toolCallingManager() {
+    public ToolCallingManager toolCallingManager(ToolCallbackRegistry toolCallbackRegistry) {
         System.out.println("tool callback working");
         return ToolCallingManager.builder()
+                .toolCallbackResolver(toolCallbackRegistry)
                 .toolExecutionExceptionProcessor((toolName) -> {
                     System.out.println("--- TOOL EXECUTION FAILED: " + toolName + " ---");
                     return "Tool execution failed: ";
@@ -55,17 +85,17 @@ public class AIProviderConfig {
     }
 
     // Code Understanding Vector Stores (Using Local Ollama!)
-    // Note: OllamaEmbeddingModel will be auto-configured by Spring AI from application.properties
+    // Note: models are injected by bean name, so the perf profile (PerfModelConfig) can swap in offline stand-ins
     @Bean
     @Qualifier("summaryVectorStore")
-    public VectorStore summaryVectorStore(OllamaEmbeddingModel embeddingModel) {
+    public VectorStore summaryVectorStore(@Qualifier("ollamaEmbeddingModel") EmbeddingModel embeddingModel) {
         logger.info("🚀 Creating Summary Vector Store using LOCAL Ollama embeddings (nomic-embed-text) - NO TOKENS USED!");
         return SimpleVectorStore.builder(embeddingModel).build();
     }
 
     @Bean
     @Qualifier("chunkVectorStore") 
-    public VectorStore chunkVectorStore(OllamaEmbeddingModel embeddingModel) {
+    public VectorStore chunkVectorStore(@Qualifier("ollamaEmbeddingModel") EmbeddingModel embeddingModel) {
         logger.info("🚀 Creating Chunk Vector Store using LOCAL Ollama embeddings (nomic-embed-text) - NO TOKENS USED!");
         return SimpleVectorStore.builder(embeddingModel).build();
     }
@@ -73,7 +103,7 @@ public class AIProviderConfig {
     // 🧠 PHASE 8: Brain RAG Vector Store
     @Bean
     @Qualifier("brainVectorStore")
-    public VectorStore brainVectorStore(OllamaEmbeddingModel embeddingModel) {
+    public VectorStore brainVectorStore(@Qualifier("ollamaEmbeddingModel") EmbeddingModel embeddingModel) {
         logger.info("🧠 Creating Brain Vector Store for semantic brain selection (RAG-based advisor chain)");
         return SimpleVectorStore.builder(embeddingModel).build();
     }
@@ -82,7 +112,7 @@ public class AIProviderConfig {
 
     @Bean(name = "ollamaChatClient")
     @Primary
-    ChatClient ollamaChatClient(OllamaChatModel ollamaChatModel,
+    ChatClient ollamaChatClient(@Qualifier("ollamaChatModel") ChatModel ollamaChatModel,
                                 ChatMemory chatMemory,
                                com.vijay.manager.ConversationHistoryAdvisor conversationHistory,
                                ConductorAdvisor conductor,
@@ -90,7 +120,9 @@ public class AIProviderConfig {
                                ToolCallAdvisor toolCall,
                                SelfRefineV3Advisor judge,
                                PersonalityAdvisor personality,
-                                java.util.List<AiToolProvider> allToolProviders
+                               ChatHedgingService hedging,
+                               ProviderConcurrencyLimiter limiter,
+                               AdvisorTimingService timing
                                ) {
         logger.info("🎼 Creating UNIFIED CONDUCTOR Chat Client - 5 Core Brains + 25 AI Tools + Dynamic RAG");
         logger.info("   Brain 0: ConductorAdvisor (The Unified Master Planner) ⭐");
@@ -98,15 +130,15 @@ public class AIProviderConfig {
         logger.info("   Brain 2: ToolCallAdvisor (Plan-Aware Tool Executor) ⭐");
         logger.info("   Brain 13: SelfRefineV3Advisor (The Judge)");
         logger.info("   Brain 14: PersonalityAdvisor (The Voice)");
-        logger.info("   + 25 AI Tools:");
+        logger.info("   + 25 AI Tools (attached per request from ToolCallbackRegistry):");
         logger.info("     Week 1: ProjectAnalysis, CodeGeneration, CodeQuality, CodeReview, TestGeneration");
         logger.info("     Week 2: Refactoring, BugDetection, PerformanceAnalysis, SecurityScanning, Documentation");
         logger.info("     Week 3: SpringConfig, SpringContext, SpringBestPractices, SpringDependency, FileWatching, LiveFeedback, ChangeAnalysis");
         logger.info("     Week 4: DatabaseSchema, MigrationScript, QueryOptimization, DockerConfig, CICDPipeline, EnvironmentConfig, NLToCode, GenerateFromDescription");
         logger.info("   + Specialist Brains (3-12) dynamically selected via RAG");
         
-        return ChatClient.builder(ollamaChatModel)
-                .defaultAdvisors(
+        return ChatClient.builder(hedging.wrap("ollama", limiter.wrap("ollama", ollamaChatModel)))
+                .defaultAdvisors(timing.wrapAll(
                         conversationHistory,  // Order: -2 - Load & log conversation history
                         MessageChatMemoryAdvisor.builder(chatMemory).build(),  // Order: -1 - LOAD HISTORY
                     conductor,          // Brain 0: Unified Conductor (order: 0) - Creates ONE master plan
@@ -114,92 +146,126 @@ public class AIProviderConfig {
                     toolCall,           // Brain 2: Tool Call (order: 2) - Reads plan, executes tools if needed
                     judge,              // Brain 13: Self-Refine V3 (order: 1000) - Final quality gate
                     personality         // Brain 14: Personality (order: 800) - Response personality
-                )
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))
+                ))
+                // No default tools: ToolCallAdvisor attaches only the Conductor-approved schemas per request
                 .build();
     }
 
     // OpenAI client (backup for complex reasoning when needed)
     @Bean(name = "openAiChatClient")
-    ChatClient openAiChatClient(OpenAiChatModel openAiChatModel,
+    ChatClient openAiChatClient(@Qualifier("openAiChatModel") ChatModel openAiChatModel,
                                 ChatMemory chatMemory,
                                 ConductorAdvisor conductor,
                                 DynamicContextAdvisor dynamicContext,
                                 ToolCallAdvisor toolCall,
                                 SelfRefineV3Advisor judge,
                                 PersonalityAdvisor personality,
-                                java.util.List<AiToolProvider> allToolProviders) {
+                                ChatHedgingService hedging,
+                                ProviderConcurrencyLimiter limiter,
+                                AdvisorTimingService timing) {
         logger.info("🧠 Creating OpenAI Chat Client - Multi-Brain Architecture v7.0 (Supervisor Brain + Self-Refine V3)");
-        return ChatClient.builder(openAiChatModel)
-                .defaultAdvisors(
+        return ChatClient.builder(hedging.wrap("openai", limiter.wrap("openai", openAiChatModel)))
+                .defaultAdvisors(timing.wrapAll(
                         MessageChatMemoryAdvisor.builder(chatMemory).build(),  // Order: -1 - LOAD HISTORY
                         conductor,          // Brain 0: Unified Conductor (order: 0) - Creates ONE master plan
                         dynamicContext,     // Brain 1: Dynamic Context (order: 1) - Reads plan, fetches specialist context
                         toolCall,           // Brain 2: Tool Call (order: 2) - Reads plan, executes tools if needed
                         judge,              // Brain 13: Self-Refine (order: 1000) - Evaluates quality
                         personality
-                )
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))  // All tools from all providers
+                ))
+                // No default tools: ToolCallAdvisor attaches only the Conductor-approved schemas per request
                 .build();
     }
 
     @Bean(name = "anthropicChatClient")
-    ChatClient anthropicChatClient(AnthropicChatModel anthropicChatModel,
+    ChatClient anthropicChatClient(@Qualifier("anthropicChatModel") ChatModel anthropicChatModel,
                                    ChatMemory chatMemory,
                                    ConductorAdvisor conductor,
                                    DynamicContextAdvisor dynamicContext,
                                    ToolCallAdvisor toolCall,
                                    SelfRefineV3Advisor judge,
                                    PersonalityAdvisor personality,
-                                   java.util.List<AiToolProvider> allToolProviders) {
+                                   ChatHedgingService hedging,
+                                   ProviderConcurrencyLimiter limiter,
+                                   AdvisorTimingService timing) {
         logger.info("Creating Anthropic Chat Client with MCP tools");
-        return ChatClient.builder(anthropicChatModel)
-                .defaultAdvisors(
+        return ChatClient.builder(hedging.wrap("anthropic", limiter.wrap("anthropic", anthropicChatModel)))
+                .defaultAdvisors(timing.wrapAll(
                         MessageChatMemoryAdvisor.builder(chatMemory).build(),  // Order: -1 - LOAD HISTORY
                         conductor,          // Brain 0: Unified Conductor (order: 0) - Creates ONE master plan
                         dynamicContext,     // Brain 1: Dynamic Context (order: 1) - Reads plan, fetches specialist context
                         toolCall,           // Brain 2: Tool Call (order: 2) - Reads plan, executes tools if needed
                         judge,              // Brain 13: Self-Refine (order: 1000) - Evaluates quality
                         personality
-                )
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))  // All tools from all providers
+                ))
+                // No default tools: ToolCallAdvisor attaches only the Conductor-approved schemas per request
                 .build();
     }
 
     @Bean(name = "googleChatClient")
-    ChatClient geminChatClient(GoogleGenAiChatModel googleGenAiChatModel,
+    ChatClient geminChatClient(@Qualifier("googleGenAiChatModel") ChatModel googleGenAiChatModel,
                                 ChatMemory chatMemory,
                                ConductorAdvisor conductor,
                                DynamicContextAdvisor dynamicContext,
                                ToolCallAdvisor toolCall,
                                SelfRefineV3Advisor judge,
                                PersonalityAdvisor personality,
-                               java.util.List<AiToolProvider> allToolProviders) {
+                               ChatHedgingService hedging,
+                               ProviderConcurrencyLimiter limiter,
+                               AdvisorTimingService timing) {
         logger.info("Creating google Chat Client with MCP tools");
-        return ChatClient.builder(googleGenAiChatModel)
-                .defaultAdvisors(
+        return ChatClient.builder(hedging.wrap("google", limiter.wrap("google", googleGenAiChatModel)))
+                .defaultAdvisors(timing.wrapAll(
                         MessageChatMemoryAdvisor.builder(chatMemory).build(),  // Order: -1 - LOAD HISTORY
                         conductor,          // Brain 0: Unified Conductor (order: 0) - Creates ONE master plan
                         dynamicContext,     // Brain 1: Dynamic Context (order: 1) - Reads plan, fetches specialist context
                         toolCall,           // Brain 2: Tool Call (order: 2) - Reads plan, executes tools if needed
                         judge,              // Brain 13: Self-Refine (order: 1000) - Evaluates quality
                         personality
-                )
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))  // All tools from all providers
+                ))
+                // No default tools: ToolCallAdvisor attaches only the Conductor-approved schemas per request
                 .build();
     }
 
 
+    // Offline provider "stub": the real advisor chain in front of a ScriptedChatModel (load tests, no LLM).
+    // Opt-in only, so /api/chat/stub cannot answer production traffic with scripted text
+    @Bean(name = "stubChatClient")
+    @ConditionalOnProperty(name = "chat.stress.stub-enabled", havingValue = "true")
+    ChatClient stubChatClient(ChatMemory chatMemory,
+                              ConductorAdvisor conductor,
+                              DynamicContextAdvisor dynamicContext,
+                              ToolCallAdvisor toolCall,
+                              SelfRefineV3Advisor judge,
+                              PersonalityAdvisor personality,
+                              ProviderConcurrencyLimiter limiter,
+                              AdvisorTimingService timing,
+                              @Value("${chat.stress.stub-latency-ms:200}") long stubLatencyMs) {
+        logger.info("🧪 Creating Stub Chat Client ({}ms scripted model latency)", stubLatencyMs);
+        ScriptedChatModel stubModel = new ScriptedChatModel(0, stubLatencyMs, 20, 0, null);
+        return ChatClient.builder(limiter.wrap("stub", stubModel))
+                .defaultAdvisors(timing.wrapAll(
+                        MessageChatMemoryAdvisor.builder(chatMemory).build(),
+                        conductor,
+                        dynamicContext,
+                        toolCall,
+                        judge,
+                        personality
+                ))
+                .build();
+    }
+
     @Bean(name = "haggingFaceChatClient")
-    ChatClient huggingfaceChatClient(HuggingfaceChatModel huggingfaceChatModel,
+    ChatClient huggingfaceChatClient(@Qualifier("huggingfaceChatModel") ChatModel huggingfaceChatModel,
                                      ChatMemory chatMemory,
-                                     java.util.List<AiToolProvider> allToolProviders) {
+                                     ToolCallbackRegistry toolCallbackRegistry,
+                                     AdvisorTimingService timing) {
         logger.info("Creating HaggingFace Chat Client with MCP tools");
         return ChatClient.builder(huggingfaceChatModel)
-                .defaultAdvisors(
+                .defaultAdvisors(timing.wrapAll(
                         MessageChatMemoryAdvisor.builder(chatMemory).build()  // Memory
-                )
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))  // All tools from all providers
+                ))
+                .defaultToolCallbacks(toolCallbackRegistry.getAllCallbacks())  // All tools, with memoized results
                 .build();
     }
 
@@ -229,20 +295,20 @@ public class AIProviderConfig {
      * 
      * @param chatModel The chat model to use (OpenAI, Ollama, etc.)
      * @param selectedBrainBeans List of brain advisor beans to include
-     * @param allToolProviders The tool service for function calling
+     * @param toolCallbackRegistry The registered tools for function calling (results memoized)
      * @return ChatClient with only selected brains
      */
     public ChatClient buildDynamicChatClient(
             org.springframework.ai.chat.model.ChatModel chatModel,
             java.util.List<org.springframework.ai.chat.client.advisor.api.CallAdvisor> selectedBrainBeans,
-            java.util.List<AiToolProvider> allToolProviders) {
+            ToolCallbackRegistry toolCallbackRegistry) {
         
         logger.info("🔧 Building dynamic ChatClient with {} selected brains", selectedBrainBeans.size());
         
         if (selectedBrainBeans.isEmpty()) {
             logger.warn("⚠️ No brains selected, building client with no advisors");
             return ChatClient.builder(chatModel)
-                    .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0]))
+                    .defaultToolCallbacks(toolCallbackRegistry.getAllCallbacks())
                     .build();
         }
         
@@ -254,7 +320,7 @@ public class AIProviderConfig {
         
         return ChatClient.builder(chatModel)
                 .defaultAdvisors(advisorArray)
-                .defaultTools((Object[]) allToolProviders.toArray(new AiToolProvider[0])) // All tools available
+                .defaultToolCallbacks(toolCallbackRegistry.getAllCallbacks()) // All tools available
                 .build();
     }
 
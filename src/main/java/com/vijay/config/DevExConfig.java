@@ -1,8 +1,12 @@
 package com.vijay.config;
 
+import com.vijay.cache.MultiRegionCache;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 🧠 DEVEX CONFIGURATION - Phase 10
  * 
@@ -13,7 +17,7 @@ import org.springframework.stereotype.Component;
  * - Enable/disable profiling
  * - Enable/disable caching
  * - Redis configuration
- * - Cache TTL settings
+ * - Cache regions: byte budget, per-region size, weight and TTL
  */
 @Component
 @ConfigurationProperties(prefix = "devex")
@@ -169,15 +173,25 @@ public class DevExConfig {
     }
     
     /**
-     * Caching configuration
+     * Caching configuration: one byte budget shared by the cache regions
+     * (devex.caching.regions.<name>.max-entries / .weight / .ttl-seconds)
      */
     public static class CachingConfig {
         private boolean enabled = true;
-        private int maxSize = 10000;
-        private long advisorOutputTTL = 3600; // 1 hour
-        private long modelResponseTTL = 7200; // 2 hours
-        private long userPreferenceTTL = 3600; // 1 hour
-        private long knowledgeGraphTTL = 86400; // 24 hours
+        private long maxBytes = 64L * 1024 * 1024; // 64 MB across all regions
+        private Map<String, RegionConfig> regions = defaultRegions();
+        
+        private static Map<String, RegionConfig> defaultRegions() {
+            Map<String, RegionConfig> regions = new LinkedHashMap<>();
+            regions.put(MultiRegionCache.ADVISOR_OUTPUTS, new RegionConfig(2000, 1, 3600));    // 1 hour
+            regions.put(MultiRegionCache.MODEL_RESPONSES, new RegionConfig(2000, 4, 7200));    // 2 hours
+            regions.put(MultiRegionCache.TOOL_RESULTS, new RegionConfig(5000, 2, 300));        // per tool strategy
+            regions.put(MultiRegionCache.USER_PREFERENCES, new RegionConfig(1000, 1, 3600));   // 1 hour
+            regions.put(MultiRegionCache.KNOWLEDGE_GRAPH, new RegionConfig(1000, 2, 86400));   // 24 hours
+            regions.put(MultiRegionCache.ANALYSIS, new RegionConfig(1000, 1, 300));            // 5 minutes
+            regions.put(MultiRegionCache.GENERAL, new RegionConfig(10000, 2, 3600));           // 1 hour
+            return regions;
+        }
         
         public boolean isEnabled() {
             return enabled;
@@ -187,44 +201,63 @@ public class DevExConfig {
             this.enabled = enabled;
         }
         
-        public int getMaxSize() {
-            return maxSize;
+        public long getMaxBytes() {
+            return maxBytes;
         }
         
-        public void setMaxSize(int maxSize) {
-            this.maxSize = maxSize;
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
         }
         
-        public long getAdvisorOutputTTL() {
-            return advisorOutputTTL;
+        public Map<String, RegionConfig> getRegions() {
+            return regions;
+        }
+        
+        public void setRegions(Map<String, RegionConfig> regions) {
+            this.regions = regions;
+        }
+    }
+    
+    /**
+     * One cache region: entry cap, share of the byte budget (weight relative to the other
+     * regions) and default TTL
+     */
+    public static class RegionConfig {
+        private int maxEntries = 1000;
+        private int weight = 1;
+        private long ttlSeconds = 3600;
+        
+        public RegionConfig() {
         }
         
-        public void setAdvisorOutputTTL(long advisorOutputTTL) {
-            this.advisorOutputTTL = advisorOutputTTL;
+        public RegionConfig(int maxEntries, int weight, long ttlSeconds) {
+            this.maxEntries = maxEntries;
+            this.weight = weight;
+            this.ttlSeconds = ttlSeconds;
         }
         
-        public long getModelResponseTTL() {
-            return modelResponseTTL;
+        public int getMaxEntries() {
+            return maxEntries;
         }
         
-        public void setModelResponseTTL(long modelResponseTTL) {
-            this.modelResponseTTL = modelResponseTTL;
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
         }
         
-        public long getUserPreferenceTTL() {
-            return userPreferenceTTL;
+        public int getWeight() {
+            return weight;
         }
         
-        public void setUserPreferenceTTL(long userPreferenceTTL) {
-            this.userPreferenceTTL = userPreferenceTTL;
+        public void setWeight(int weight) {
+            this.weight = weight;
         }
         
-        public long getKnowledgeGraphTTL() {
-            return knowledgeGraphTTL;
+        public long getTtlSeconds() {
+            return ttlSeconds;
         }
         
-        public void setKnowledgeGraphTTL(long knowledgeGraphTTL) {
-            this.knowledgeGraphTTL = knowledgeGraphTTL;
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
         }
     }
     
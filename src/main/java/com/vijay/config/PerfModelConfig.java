@@ -0,0 +1,59 @@
+package com.vijay.config;
+
+import com.vijay.service.HashingEmbeddingModel;
+import com.vijay.service.ScriptedChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 🧪 PERF MODEL CONFIG - Offline Models for the "perf" Profile
+ *
+ * Purpose: Run indexing, retrieval, the advisor chain and tool execution with no
+ * provider reachable (CI, air-gapped machines), with reproducible results and latency
+ *
+ * Responsibilities:
+ * - Register a HashingEmbeddingModel under the Ollama embedding bean name
+ * - Register one ScriptedChatModel under every provider's chat model bean name, so
+ *   ChatClients, judges, indexers and hedging backups all resolve to it
+ *
+ * application-perf.properties turns the Spring AI model auto-configurations off
+ * (spring.ai.model.chat/embedding=none); the names here take their place.
+ *
+ * Usage: --spring.profiles.active=perf
+ */
+@Configuration
+@Profile("perf")
+public class PerfModelConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfModelConfig.class);
+
+    @Bean(name = "ollamaEmbeddingModel")
+    @Primary
+    public EmbeddingModel ollamaEmbeddingModel(
+            @Value("${chat.perf.embedding.dimensions:768}") int dimensions,
+            @Value("${chat.perf.embedding.latency-ms:0}") long latencyMs) {
+        logger.info("🧪 Perf profile: hashing embedding model ({} dimensions, {}ms per call)", dimensions, latencyMs);
+        return new HashingEmbeddingModel(dimensions, latencyMs);
+    }
+
+    @Bean(name = {"ollamaChatModel", "openAiChatModel", "anthropicChatModel", "googleGenAiChatModel", "huggingfaceChatModel"})
+    @Primary
+    public ChatModel scriptedChatModel(
+            ToolCallingManager toolCallingManager,
+            @Value("${chat.perf.chat.tokens-per-second:50}") double tokensPerSecond,
+            @Value("${chat.perf.chat.first-token-delay-ms:300}") long firstTokenDelayMs,
+            @Value("${chat.perf.chat.response-tokens:150}") int responseTokens,
+            @Value("${chat.perf.chat.tool-call-every:0}") int toolCallEvery) {
+        logger.info("🧪 Perf profile: scripted chat model ({} tok/s, {}ms to first token, {} tokens, tool call every {})",
+            tokensPerSecond, firstTokenDelayMs, responseTokens, toolCallEvery > 0 ? toolCallEvery : "never");
+        return new ScriptedChatModel(tokensPerSecond, firstTokenDelayMs, responseTokens, toolCallEvery, toolCallingManager);
+    }
+}
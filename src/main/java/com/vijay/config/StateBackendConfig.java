@@ -0,0 +1,45 @@
+package com.vijay.config;
+
+import com.vijay.state.InMemoryStateBackend;
+import com.vijay.state.RedisStateBackend;
+import com.vijay.state.StateBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🔌 STATE BACKEND CONFIG - Where Session State and Shared Caches Live
+ *
+ * Purpose: Choose the StateBackend behind SessionStateStore, chat memory and the caches
+ *
+ * Responsibilities:
+ * - chat.state.backend=memory (default): process-local, one instance owns its users
+ * - chat.state.backend=redis: state in Redis (chat.state.redis.*), so any number of
+ *   replicas behind a load balancer serve any conversation
+ */
+@Configuration
+public class StateBackendConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateBackendConfig.class);
+
+    @Bean
+    public StateBackend stateBackend(
+            @Value("${chat.state.backend:memory}") String type,
+            @Value("${chat.state.redis.host:localhost}") String host,
+            @Value("${chat.state.redis.port:6379}") int port,
+            @Value("${chat.state.redis.password:}") String password,
+            @Value("${chat.state.redis.key-prefix:coding-assistant:}") String keyPrefix,
+            @Value("${chat.state.redis.pool-size:16}") int poolSize,
+            @Value("${chat.state.redis.timeout-ms:2000}") int timeoutMs) {
+        if ("redis".equalsIgnoreCase(type)) {
+            return new RedisStateBackend(host, port, password, keyPrefix, poolSize, timeoutMs);
+        }
+        if (!"memory".equalsIgnoreCase(type)) {
+            logger.warn("⚠️ Unknown chat.state.backend '{}', keeping state in memory", type);
+        }
+        logger.info("🔌 State backend: in-memory (single instance)");
+        return new InMemoryStateBackend();
+    }
+}
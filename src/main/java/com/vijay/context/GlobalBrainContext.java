@@ -9,8 +9,8 @@ import java.util.Map;
 /**
  * 🧠 GlobalBrainContext - Shared Context for All Brains
  * 
- * This is a ThreadLocal context that allows all brains to share information
- * without passing it through method parameters.
+ * This is the request context that allows all brains to share information
+ * without passing it through method parameters (backed by RequestContext).
  * 
  * Usage:
  * - SmartFinder: GlobalBrainContext.setReasoningState(state)
@@ -22,80 +22,88 @@ import java.util.Map;
  * ✅ No parameter passing
  * ✅ Shared context across brains
  * ✅ Easy to add new context
- * ✅ ThreadLocal (safe for concurrent requests)
+ * ✅ Request-scoped: delegates to RequestContext, so state follows the request across threads
  */
 @Component
 public class GlobalBrainContext {
     
-    private static final ThreadLocal<ReasoningState> reasoningState = 
-        ThreadLocal.withInitial(() -> null);
-    
-    private static final ThreadLocal<Map<String, Object>> context = 
-        ThreadLocal.withInitial(HashMap::new);
-    
     /**
      * Set the reasoning state (called by SmartFinder)
      */
     public static void setReasoningState(ReasoningState state) {
-        reasoningState.set(state);
+        if (state == null && RequestContext.current() == null) {
+            return;
+        }
+        RequestContext.currentOrCreate().setReasoningState(state);
     }
     
     /**
      * Get the reasoning state (called by all brains)
      */
     public static ReasoningState getReasoningState() {
-        return reasoningState.get();
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getReasoningState() : null;
     }
     
     /**
-     * Put a value in the context
+     * Put a value in the context (null removes the key)
      */
     public static void put(String key, Object value) {
-        context.get().put(key, value);
+        if (value == null && RequestContext.current() == null) {
+            return;
+        }
+        RequestContext.currentOrCreate().put(key, value);
     }
     
     /**
      * Get a value from the context
      */
     public static Object get(String key) {
-        return context.get().get(key);
+        RequestContext context = RequestContext.current();
+        return context != null ? context.get(key) : null;
     }
     
     /**
      * Get all context
      */
     public static Map<String, Object> getAll() {
-        return new HashMap<>(context.get());
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getAll() : new HashMap<>();
     }
     
     /**
      * Check if key exists
      */
     public static boolean containsKey(String key) {
-        return context.get().containsKey(key);
+        RequestContext context = RequestContext.current();
+        return context != null && context.containsKey(key);
     }
     
     /**
      * Clear the context (call at end of request)
      */
     public static void clear() {
-        reasoningState.remove();
-        context.remove();
+        RequestContext context = RequestContext.current();
+        if (context != null) {
+            context.clearBrainState();
+            RequestContext.releaseIfEmpty();
+        }
     }
     
     /**
      * Get context size
      */
     public static int size() {
-        return context.get().size();
+        RequestContext context = RequestContext.current();
+        return context != null ? context.size() : 0;
     }
     
     /**
      * String representation for debugging
      */
     public static String debug() {
-        ReasoningState state = reasoningState.get();
-        Map<String, Object> ctx = context.get();
+        ReasoningState state = getReasoningState();
+        Map<String, Object> ctx = getAll();
         
         return String.format(
             "GlobalBrainContext{reasoningState=%s, contextSize=%d, context=%s}",
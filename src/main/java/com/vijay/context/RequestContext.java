@@ -0,0 +1,266 @@
+package com.vijay.context;
+
+import com.vijay.dto.AgentPlan;
+import com.vijay.dto.ReasoningState;
+import org.springframework.ai.chat.client.ChatClientRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 🧵 RequestContext - One Object Per Request, Not Per Thread
+ *
+ * Holds everything a request needs while it flows through the brains:
+ * trace ID, start time, ReasoningState, master AgentPlan and shared key/value context.
+ *
+ * GlobalBrainContext, TraceContext and AgentPlanHolder keep their static accessors,
+ * but they all delegate here. The context is:
+ * - Immutable in identity (traceId/startTime never change; a new trace is a new object)
+ * - Thread-safe in state (shared holders, so async work sees the same plan/state)
+ * - Carried in ChatClientRequest.context() under {@link #KEY}, so advisors can re-bind it
+ *   when the chain hops threads
+ * - Propagated to other threads with {@link #wrap(Runnable)}, {@link #wrap(Callable)}
+ *   and {@link #wrapSupplier(Supplier)}
+ *
+ * Usage:
+ * - ChatService: TraceContext.initialize(), then .param(RequestContext.KEY, RequestContext.current())
+ * - Advisors: try (RequestContext.Scope scope = RequestContext.restore(request)) { ... }
+ * - Async: executor.submit(RequestContext.current().wrap(task))
+ *
+ * Note: Java 21 only has ScopedValue as a preview API, so the current context is bound through
+ * a single slot per thread; only this object is bound, never individual pieces of state.
+ */
+public final class RequestContext {
+
+    /** Key under which the context travels in ChatClientRequest.context() */
+    public static final String KEY = "requestContext";
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final long startTime;
+    private final SharedState state;
+
+    private RequestContext(String traceId, long startTime, SharedState state) {
+        this.traceId = traceId;
+        this.startTime = startTime;
+        this.state = state;
+    }
+
+    /**
+     * Create a new context with fresh state
+     */
+    public static RequestContext create(String traceId) {
+        return new RequestContext(traceId, System.currentTimeMillis(), new SharedState());
+    }
+
+    /**
+     * Same request state, new trace identity (used by TraceContext.initialize)
+     */
+    public RequestContext withTrace(String newTraceId) {
+        return new RequestContext(newTraceId, System.currentTimeMillis(), state);
+    }
+
+    // ===== Binding =====
+
+    /**
+     * Context bound to the current thread, or null
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Context bound to the current thread, binding an empty one if needed
+     */
+    public static RequestContext currentOrCreate() {
+        RequestContext context = CURRENT.get();
+        if (context == null) {
+            context = create(null);
+            CURRENT.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Bind this context to the current thread until the returned scope is closed
+     */
+    public Scope open() {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * Re-bind the context carried by a ChatClientRequest (no-op if absent)
+     */
+    public static Scope restore(ChatClientRequest request) {
+        RequestContext carried = from(request);
+        if (carried == null || carried == CURRENT.get()) {
+            return new Scope(null, false);
+        }
+        return carried.open();
+    }
+
+    /**
+     * Context carried in ChatClientRequest.context(), or null
+     */
+    public static RequestContext from(ChatClientRequest request) {
+        if (request == null || request.context() == null) {
+            return null;
+        }
+        Object value = request.context().get(KEY);
+        return value instanceof RequestContext context ? context : null;
+    }
+
+    static void replaceCurrent(RequestContext context) {
+        CURRENT.set(context);
+    }
+
+    /**
+     * Drop the binding once nothing is left in it (avoids leaking pooled threads)
+     */
+    public static void releaseIfEmpty() {
+        RequestContext context = CURRENT.get();
+        if (context != null && context.isEmpty()) {
+            CURRENT.remove();
+        }
+    }
+
+    // ===== Propagation =====
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try (Scope scope = open()) {
+                task.run();
+            }
+        };
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try (Scope scope = open()) {
+                return task.call();
+            }
+        };
+    }
+
+    public <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        return () -> {
+            try (Scope scope = open()) {
+                return task.get();
+            }
+        };
+    }
+
+    // ===== Identity =====
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    // ===== Shared state =====
+
+    public ReasoningState getReasoningState() {
+        return state.reasoningState.get();
+    }
+
+    public void setReasoningState(ReasoningState reasoningState) {
+        state.reasoningState.set(reasoningState);
+    }
+
+    public AgentPlan getPlan() {
+        return state.plan.get();
+    }
+
+    public void setPlan(AgentPlan plan) {
+        state.plan.set(plan);
+    }
+
+    /**
+     * Put a value (null removes the key)
+     */
+    public void put(String key, Object value) {
+        if (value == null) {
+            state.attributes.remove(key);
+        } else {
+            state.attributes.put(key, value);
+        }
+    }
+
+    public Object get(String key) {
+        return state.attributes.get(key);
+    }
+
+    public boolean containsKey(String key) {
+        return state.attributes.containsKey(key);
+    }
+
+    public Map<String, Object> getAll() {
+        return new HashMap<>(state.attributes);
+    }
+
+    public int size() {
+        return state.attributes.size();
+    }
+
+    void clearBrainState() {
+        state.reasoningState.set(null);
+        state.attributes.clear();
+    }
+
+    boolean isEmpty() {
+        return traceId == null
+            && state.reasoningState.get() == null
+            && state.plan.get() == null
+            && state.attributes.isEmpty();
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Mutable per-request state shared by every RequestContext of the same request
+     */
+    private static final class SharedState {
+        private final AtomicReference<ReasoningState> reasoningState = new AtomicReference<>();
+        private final AtomicReference<AgentPlan> plan = new AtomicReference<>();
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Restores the previously bound context when closed
+     */
+    public static final class Scope implements AutoCloseable {
+        private final RequestContext previous;
+        private final boolean active;
+
+        private Scope(RequestContext previous) {
+            this(previous, true);
+        }
+
+        private Scope(RequestContext previous, boolean active) {
+            this.previous = previous;
+            this.active = active;
+        }
+
+        @Override
+        public void close() {
+            if (!active) {
+                return;
+            }
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -16,6 +16,9 @@ import java.util.UUID;
  * - Logging: logger.info("[{}] Message", TraceContext.getTraceId())
  * - Cleanup: TraceContext.clear()
  * 
+ * The trace ID and start time live in the request's RequestContext,
+ * so they follow the request when it hops threads.
+ * 
  * Example Log Output:
  * [550e8400-e29b-41d4-a716-446655440000] SmartFinder: Found 3 tools
  * [550e8400-e29b-41d4-a716-446655440000] Conductor: Approved 2 tools
@@ -30,33 +33,29 @@ import java.util.UUID;
 @Component
 public class TraceContext {
     
-    private static final ThreadLocal<String> traceId = 
-        ThreadLocal.withInitial(() -> null);
-    
-    private static final ThreadLocal<Long> startTime = 
-        ThreadLocal.withInitial(() -> null);
-    
     /**
      * Initialize trace context (call at start of request)
      */
     public static void initialize() {
-        traceId.set(UUID.randomUUID().toString());
-        startTime.set(System.currentTimeMillis());
+        initialize(UUID.randomUUID().toString());
     }
     
     /**
      * Initialize with custom trace ID
      */
     public static void initialize(String customTraceId) {
-        traceId.set(customTraceId);
-        startTime.set(System.currentTimeMillis());
+        RequestContext current = RequestContext.current();
+        RequestContext.replaceCurrent(current != null
+            ? current.withTrace(customTraceId)
+            : RequestContext.create(customTraceId));
     }
     
     /**
      * Get the trace ID
      */
     public static String getTraceId() {
-        String id = traceId.get();
+        RequestContext context = RequestContext.current();
+        String id = context != null ? context.getTraceId() : null;
         return id != null ? id : "NO_TRACE_ID";
     }
     
@@ -64,11 +63,10 @@ public class TraceContext {
      * Get elapsed time in milliseconds
      */
     public static long getElapsedTime() {
-        Long start = startTime.get();
-        if (start == null) {
+        if (!isInitialized()) {
             return 0;
         }
-        return System.currentTimeMillis() - start;
+        return System.currentTimeMillis() - RequestContext.current().getStartTime();
     }
     
     /**
@@ -89,15 +87,19 @@ public class TraceContext {
      * Clear the trace context (call at end of request)
      */
     public static void clear() {
-        traceId.remove();
-        startTime.remove();
+        RequestContext current = RequestContext.current();
+        if (current != null) {
+            RequestContext.replaceCurrent(current.withTrace(null));
+            RequestContext.releaseIfEmpty();
+        }
     }
     
     /**
      * Check if trace context is initialized
      */
     public static boolean isInitialized() {
-        return traceId.get() != null;
+        RequestContext context = RequestContext.current();
+        return context != null && context.getTraceId() != null;
     }
     
     /**
@@ -3,9 +3,11 @@ package com.vijay.controller;
 import com.vijay.dto.ChatRequest;
 import com.vijay.dto.ChatResponse;
 import com.vijay.service.ChatService;
+import com.vijay.service.ProviderOverloadedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,6 +33,14 @@ public class ChatController {
             ChatResponse chatResponse = chatService.processChat(provider, request);
             return ResponseEntity.ok(chatResponse);
 
+        } catch (ProviderOverloadedException e) {
+            logger.warn("Provider {} overloaded, rejecting with {} (retry after {}s)",
+                provider, e.getStatus(), e.getRetryAfterSeconds());
+            ChatResponse errorResponse = new ChatResponse("Provider " + provider +
+                " is busy, please retry in " + e.getRetryAfterSeconds() + "s", provider);
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
         } catch (IllegalArgumentException e) {
             logger.error("Invalid provider: {}", provider);
             ChatResponse errorResponse = new ChatResponse("Invalid provider: " + provider + 
@@ -1,5 +1,6 @@
 package com.vijay.controller;
 
+import com.vijay.manager.SelfRefineV3Advisor;
 import com.vijay.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,10 +15,13 @@ import java.util.*;
  * 
  * Endpoints:
  * - GET /api/devex/logs - Get API logs
- * - GET /api/devex/timeline - Get timeline
+ * - GET /api/devex/timeline - Get timeline and per-advisor latency histograms (?traceId= for one request)
  * - GET /api/devex/profile - Get profiling stats
- * - GET /api/devex/stress-test - Run stress test
- * - GET /api/devex/cache - Get cache stats
+ * - POST /api/devex/stress-test - Run open-loop stress test (?target=chat|retrieval&provider=stub)
+ * - GET /api/devex/cache - Get cache stats (general region, every region, response cache)
+ * - GET /api/devex/iterations - Get refine-loop and judge statistics
+ * - GET /api/devex/prefetch - Get pre-LLM stage statistics
+ * - GET /api/devex/hedging - Get provider hedging statistics and latency percentiles
  */
 @RestController
 @RequestMapping("/api/devex")
@@ -30,17 +34,32 @@ public class DevExDashboard {
     private final PerformanceProfiler performanceProfiler;
     private final StressTestRunner stressTestRunner;
     private final CacheManager cacheManager;
+    private final IterationController iterationController;
+    private final PreLlmStage preLlmStage;
+    private final SemanticResponseCache responseCache;
+    private final ChatHedgingService hedgingService;
+    private final SelfRefineV3Advisor judge;
     
     public DevExDashboard(APILogger apiLogger,
                          TimelineVisualizer timelineVisualizer,
                          PerformanceProfiler performanceProfiler,
                          StressTestRunner stressTestRunner,
-                         CacheManager cacheManager) {
+                         CacheManager cacheManager,
+                         IterationController iterationController,
+                         PreLlmStage preLlmStage,
+                         SemanticResponseCache responseCache,
+                         ChatHedgingService hedgingService,
+                         SelfRefineV3Advisor judge) {
         this.apiLogger = apiLogger;
         this.timelineVisualizer = timelineVisualizer;
         this.performanceProfiler = performanceProfiler;
         this.stressTestRunner = stressTestRunner;
         this.cacheManager = cacheManager;
+        this.iterationController = iterationController;
+        this.preLlmStage = preLlmStage;
+        this.responseCache = responseCache;
+        this.hedgingService = hedgingService;
+        this.judge = judge;
     }
     
     /**
@@ -53,6 +72,7 @@ public class DevExDashboard {
         Map<String, Object> response = new HashMap<>();
         response.put("logs", apiLogger.getRecentLogs(count));
         response.put("stats", apiLogger.getAllStats());
+        response.put("model_stats", apiLogger.getModelStats());
         response.put("total_stats", apiLogger.getTotalStats());
         
         return response;
@@ -62,7 +82,8 @@ public class DevExDashboard {
      * Get timeline
      */
     @GetMapping("/timeline")
-    public Map<String, Object> getTimeline(@RequestParam(defaultValue = "json") String format) {
+    public Map<String, Object> getTimeline(@RequestParam(defaultValue = "json") String format,
+                                           @RequestParam(required = false) String traceId) {
         logger.info("⏱️ DevEx: Getting timeline (format: {})", format);
         
         Map<String, Object> response = new HashMap<>();
@@ -76,6 +97,10 @@ public class DevExDashboard {
         }
         
         response.put("stats", timelineVisualizer.getStatistics());
+        response.put("advisors", timelineVisualizer.getAdvisorBreakdown());
+        if (traceId != null) {
+            response.put("request", timelineVisualizer.getTimeline(traceId));
+        }
         
         return response;
     }
@@ -91,6 +116,7 @@ public class DevExDashboard {
         response.put("memory", performanceProfiler.getMemoryStats());
         response.put("cpu", performanceProfiler.getCPUStats());
         response.put("latency", performanceProfiler.getLatencyStats());
+        response.put("component_latency", performanceProfiler.getComponentLatencyStats());
         response.put("report", performanceProfiler.generateReport());
         
         return response;
@@ -102,13 +128,16 @@ public class DevExDashboard {
     @PostMapping("/stress-test")
     public Map<String, Object> runStressTest(
             @RequestParam(defaultValue = "100") int requestsPerSecond,
-            @RequestParam(defaultValue = "10") int durationSeconds) {
+            @RequestParam(defaultValue = "10") int durationSeconds,
+            @RequestParam(defaultValue = "chat") String target,
+            @RequestParam(required = false) String provider,
+            @RequestParam(defaultValue = "true") boolean distinctQueries) {
         
-        logger.info("🚀 DevEx: Running stress test ({} req/sec for {} seconds)", 
-            requestsPerSecond, durationSeconds);
+        logger.info("🚀 DevEx: Running stress test ({} req/sec for {} seconds against {})", 
+            requestsPerSecond, durationSeconds, target);
         
         StressTestRunner.StressTestResult result = stressTestRunner.runStressTest(
-            requestsPerSecond, durationSeconds);
+            requestsPerSecond, durationSeconds, target, provider, distinctQueries);
         
         Map<String, Object> response = new HashMap<>();
         response.put("result", result);
@@ -126,6 +155,49 @@ public class DevExDashboard {
         
         Map<String, Object> response = new HashMap<>();
         response.put("stats", cacheManager.getStats());
+        response.put("regions", cacheManager.getRegionStats());
+        response.put("response_cache", responseCache.getStats());
+        
+        return response;
+    }
+    
+    /**
+     * Get refine-loop statistics (how often the second pass runs and helps)
+     * and the judge's off-path evaluation statistics
+     */
+    @GetMapping("/iterations")
+    public Map<String, Object> getIterationStats() {
+        logger.info("🔁 DevEx: Getting iteration statistics");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("stats", iterationController.getStats());
+        response.put("judge", judge.getStats());
+        
+        return response;
+    }
+    
+    /**
+     * Get pre-LLM stage statistics (lookup latency and degraded results)
+     */
+    @GetMapping("/prefetch")
+    public Map<String, Object> getPrefetchStats() {
+        logger.info("⚡ DevEx: Getting pre-LLM stage statistics");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("stats", preLlmStage.getStats());
+        
+        return response;
+    }
+    
+    /**
+     * Get provider hedging statistics (hedge delays, backup wins, per-provider latency)
+     */
+    @GetMapping("/hedging")
+    public Map<String, Object> getHedgingStats() {
+        logger.info("🏁 DevEx: Getting provider hedging statistics");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("stats", hedgingService.getStats());
         
         return response;
     }
@@ -138,6 +210,7 @@ public class DevExDashboard {
         logger.info("🧹 DevEx: Clearing cache");
         
         cacheManager.clear();
+        responseCache.clear();
         
         Map<String, String> response = new HashMap<>();
         response.put("status", "success");
@@ -160,6 +233,11 @@ public class DevExDashboard {
         response.put("cpu", performanceProfiler.getCPUStats());
         response.put("latency", performanceProfiler.getLatencyStats());
         response.put("cache", cacheManager.getStats());
+        response.put("response_cache", responseCache.getStats());
+        response.put("iterations", iterationController.getStats());
+        response.put("judge", judge.getStats());
+        response.put("prefetch", preLlmStage.getStats());
+        response.put("hedging", hedgingService.getStats());
         
         return response;
     }
@@ -1,9 +1,12 @@
 package com.vijay.dashboard;
 
+import com.vijay.cache.MultiRegionCache;
 import com.vijay.cache.SmartCacheManager;
 import com.vijay.memory.LongTermMemory;
 import com.vijay.memory.ShortTermMemory;
 import com.vijay.personality.PersonalityEngineV2;
+import com.vijay.service.ProviderConcurrencyLimiter;
+import com.vijay.state.SessionStateStore;
 import com.vijay.token.TokenBudgetManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,10 +19,12 @@ import java.util.*;
  * 
  * Endpoints:
  * GET /dashboard/metrics - All metrics
- * GET /dashboard/cache - Cache statistics
+ * GET /dashboard/cache - Cache statistics (byte budget, every cache region, tool-result savings)
  * GET /dashboard/tokens - Token usage
  * GET /dashboard/memory - Memory statistics
  * GET /dashboard/personality - Personality metrics
+ * GET /dashboard/admission - Provider admission control (limit, in-flight, queue, rejections)
+ * GET /dashboard/state - Per-user session state (entries, evictions, estimated bytes per namespace)
  * GET /dashboard/logs - Recent logs
  */
 @RestController
@@ -30,9 +35,12 @@ public class DashboardController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
     
     private final SmartCacheManager cacheManager;
+    private final MultiRegionCache cacheRegions;
     private final TokenBudgetManager tokenBudgetManager;
     private final ShortTermMemory shortTermMemory;
     private final PersonalityEngineV2 personalityEngine;
+    private final ProviderConcurrencyLimiter concurrencyLimiter;
+    private final SessionStateStore sessionStateStore;
     
     // Recent logs storage
     private final Deque<LogEntry> recentLogs = new LinkedList<>();
@@ -40,13 +48,19 @@ public class DashboardController {
     
     public DashboardController(
             SmartCacheManager cacheManager,
+            MultiRegionCache cacheRegions,
             TokenBudgetManager tokenBudgetManager,
             ShortTermMemory shortTermMemory,
-            PersonalityEngineV2 personalityEngine) {
+            PersonalityEngineV2 personalityEngine,
+            ProviderConcurrencyLimiter concurrencyLimiter,
+            SessionStateStore sessionStateStore) {
         this.cacheManager = cacheManager;
+        this.cacheRegions = cacheRegions;
         this.tokenBudgetManager = tokenBudgetManager;
         this.shortTermMemory = shortTermMemory;
         this.personalityEngine = personalityEngine;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.sessionStateStore = sessionStateStore;
     }
     
     /**
@@ -57,9 +71,10 @@ public class DashboardController {
         Map<String, Object> metrics = new LinkedHashMap<>();
         
         metrics.put("timestamp", System.currentTimeMillis());
-        metrics.put("cache", cacheManager.getStats());
+        metrics.put("cache", getCacheStats());
         metrics.put("tokens", tokenBudgetManager.getStatus());
         metrics.put("memory", getMemoryStats());
+        metrics.put("admission", concurrencyLimiter.getStats());
         metrics.put("logs", new ArrayList<>(recentLogs));
         
         logger.info("📊 Dashboard metrics retrieved");
@@ -73,14 +88,14 @@ public class DashboardController {
     public Map<String, Object> getCacheStats() {
         SmartCacheManager.CacheStats stats = cacheManager.getStats();
         
-        Map<String, Object> response = new LinkedHashMap<>();
-        response.put("hits", stats.hits);
-        response.put("misses", stats.misses);
-        response.put("hitRate", String.format("%.1f%%", stats.hitRate));
-        response.put("size", stats.size);
+        // Totals across regions, then the per-region breakdown
+        Map<String, Object> response = new LinkedHashMap<>(cacheRegions.getStats());
+        response.put("size", response.get("entries"));
         response.put("tokensSaved", stats.tokensSaved);
+        response.put("toolCallsCoalesced", stats.coalesced);
         
-        logger.info("💾 Cache stats: {}", stats);
+        logger.info("💾 Cache stats: {} bytes of {} in use, tools: {}",
+            response.get("estimatedBytes"), response.get("maxBytes"), stats);
         return response;
     }
     
@@ -101,12 +116,41 @@ public class DashboardController {
     public Map<String, Object> getMemoryStats() {
         Map<String, Object> stats = new LinkedHashMap<>();
         stats.put("shortTermMessages", shortTermMemory.size());
+        stats.put("shortTerm", shortTermMemory.getStats());
         stats.put("timestamp", System.currentTimeMillis());
         
         logger.info("💭 Memory stats retrieved");
         return stats;
     }
     
+    /**
+     * Get provider admission control metrics
+     */
+    @GetMapping("/admission")
+    public Map<String, Object> getAdmissionStats() {
+        Map<String, ProviderConcurrencyLimiter.AdmissionStats> providers = concurrencyLimiter.getStats();
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("providers", providers);
+        response.put("totalInFlight", providers.values().stream().mapToInt(s -> s.inFlight).sum());
+        response.put("totalQueueDepth", providers.values().stream().mapToInt(s -> s.queueDepth).sum());
+        response.put("totalRejected", providers.values().stream().mapToLong(s -> s.getRejected()).sum());
+        
+        logger.info("🚦 Admission stats retrieved for {} providers", providers.size());
+        return response;
+    }
+    
+    /**
+     * Get session state metrics
+     */
+    @GetMapping("/state")
+    public Map<String, Object> getStateStats() {
+        Map<String, Object> stats = sessionStateStore.getStats();
+        
+        logger.info("🗂️ Session state stats retrieved");
+        return stats;
+    }
+    
     /**
      * Get personality metrics
      */
@@ -13,6 +13,9 @@ public class ChatRequest {
     @JsonProperty("conversationId")
     private String conversationId;
     
+    @JsonProperty("blockingRefine")
+    private boolean blockingRefine = false;
+    
     public ChatRequest() {}
     
     public ChatRequest(String message, boolean useTools) {
@@ -44,12 +47,21 @@ public class ChatRequest {
         this.conversationId = conversationId;
     }
     
+    public boolean isBlockingRefine() {
+        return blockingRefine;
+    }
+    
+    public void setBlockingRefine(boolean blockingRefine) {
+        this.blockingRefine = blockingRefine;
+    }
+    
     @Override
     public String toString() {
         return "ChatRequest{" +
                 "message='" + message + '\'' +
                 ", useTools=" + useTools +
                 ", conversationId='" + conversationId + '\'' +
+                ", blockingRefine=" + blockingRefine +
                 '}';
     }
 }
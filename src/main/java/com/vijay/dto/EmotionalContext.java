@@ -1,5 +1,6 @@
 package com.vijay.dto;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 /**
@@ -8,7 +9,7 @@ import java.time.LocalDateTime;
  * Stores emotional information about a user's message and interaction.
  * Used to track and respond to user emotions appropriately.
  */
-public class EmotionalContext {
+public class EmotionalContext implements Serializable {
     
     private EmotionalState currentState;
     private int emotionalIntensity;        // 0-100 scale
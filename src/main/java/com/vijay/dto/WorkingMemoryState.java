@@ -1,5 +1,6 @@
 package com.vijay.dto;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -12,7 +13,7 @@ import java.util.*;
  * - Conversation intent history
  * - Emotional tone history
  */
-public class WorkingMemoryState {
+public class WorkingMemoryState implements Serializable {
     
     private String userId;
     private LinkedList<UserMessage> lastUserMessages;      // Last 5
@@ -115,7 +116,7 @@ public class WorkingMemoryState {
     }
     
     // Inner classes
-    public static class UserMessage {
+    public static class UserMessage implements Serializable {
         public String text;
         public LocalDateTime timestamp;
         
@@ -125,7 +126,7 @@ public class WorkingMemoryState {
         }
     }
     
-    public static class BrainOutput {
+    public static class BrainOutput implements Serializable {
         public String brainName;
         public String output;
         public LocalDateTime timestamp;
@@ -137,7 +138,7 @@ public class WorkingMemoryState {
         }
     }
     
-    public static class ConversationIntent {
+    public static class ConversationIntent implements Serializable {
         public String intent;
         public double confidence;
         public LocalDateTime timestamp;
@@ -149,7 +150,7 @@ public class WorkingMemoryState {
         }
     }
     
-    public static class EmotionalTone {
+    public static class EmotionalTone implements Serializable {
         public String tone;
         public double intensity;
         public LocalDateTime timestamp;
@@ -5,8 +5,9 @@ import com.vijay.context.TraceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,7 +30,7 @@ public class InlineCodeEditor {
     
     private final ChatClient editorClient;
     
-    public InlineCodeEditor(OpenAiChatModel chatModel) {
+    public InlineCodeEditor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this.editorClient = ChatClient.builder(chatModel).build();
     }
     
@@ -8,8 +8,9 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Component
 public class ChainOfThoughtPlannerAdvisor implements CallAdvisor {
@@ -18,7 +19,7 @@ public class ChainOfThoughtPlannerAdvisor implements CallAdvisor {
     
     private final ChatClient thinkerClient;
 
-    public ChainOfThoughtPlannerAdvisor(OpenAiChatModel chatModel) {
+    public ChainOfThoughtPlannerAdvisor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this.thinkerClient = ChatClient.builder(chatModel).build();
     }
 
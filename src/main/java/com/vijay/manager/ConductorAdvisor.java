@@ -1,10 +1,13 @@
 package com.vijay.manager;
 
 import com.vijay.context.GlobalBrainContext;
+import com.vijay.context.RequestContext;
 import com.vijay.context.TraceContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ReasoningState;
 import com.vijay.util.AgentPlanHolder;
+import com.vijay.util.QueryFeatureExtractor;
+import com.vijay.util.QueryFeatureExtractor.QueryFeatures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClientRequest;
@@ -66,6 +69,15 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
     
     @Override
     public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        // Re-bind the request context in case the chain runs on a different thread than ChatService
+        try (RequestContext.Scope scope = RequestContext.restore(request)) {
+            // Only plan building is guarded: errors from the rest of the chain (e.g. a
+            // ProviderOverloadedException) must propagate, not re-run the chain
+            return storeAndContinue(request, chain, createMasterPlan(request));
+        }
+    }
+    
+    private AgentPlan createMasterPlan(ChatClientRequest request) {
         String traceId = TraceContext.getTraceId();
         logger.info("[{}] 🎼 Brain 0 (Unified Conductor): Creating master plan...", traceId);
         
@@ -74,25 +86,26 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
             
             if (userQuery.isEmpty()) {
                 logger.warn("[{}] ⚠️ Brain 0: Empty query, using default plan", traceId);
-                AgentPlan defaultPlan = createDefaultPlan();
-                return storeAndContinue(request, chain, defaultPlan);
+                return createDefaultPlan();
             }
             
+            // 🔎 Classify once: one automaton pass shared by every rule below
+            QueryFeatures features = QueryFeatureExtractor.extract(userQuery);
+            
             // ⚡ FAST PATH: Detect simple queries for performance optimization
-            if (isSimpleQuery(userQuery)) {
+            if (features.simpleQuery) {
                 logger.info("[{}] ⚡ Brain 0: FAST PATH detected - simple query ({}ms optimization)", 
                     traceId, "300-400");
-                AgentPlan fastPlan = createFastPathPlan(userQuery);
-                return storeAndContinue(request, chain, fastPlan);
+                return createFastPathPlan(features);
             }
             
             // STEP 1: Analyze query
-            int complexity = calculateComplexity(userQuery);
-            int ambiguity = calculateAmbiguity(userQuery);
-            String focusArea = determineFocusArea(userQuery);
-            String ignoreArea = determineIgnoreArea(userQuery);
-            String intent = analyzeIntent(userQuery);
-            double confidence = calculateIntentConfidence(userQuery, intent);
+            int complexity = features.complexity;
+            int ambiguity = features.ambiguity;
+            String focusArea = features.focusArea;
+            String ignoreArea = features.ignoreArea;
+            String intent = features.intent;
+            double confidence = features.intentConfidence;
             
             // STEP 2: Select strategy
             String strategy = selectReasoningStrategy(complexity, ambiguity);
@@ -104,7 +117,7 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
                 : new ArrayList<>();
             
             // STEP 4: Identify tools (IMPROVED) - pass suggested tools for context
-            List<String> requiredTools = identifyRequiredTools(userQuery, intent, suggestedTools);
+            List<String> requiredTools = identifyRequiredTools(features, suggestedTools);
             
             // STEP 4: Identify specialist brains
             List<String> selectedBrains = identifySpecialistBrains(userQuery, intent, complexity);
@@ -134,116 +147,14 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
                 logger.warn("[{}]    ⚠️ No ReasoningState found in GlobalBrainContext", traceId);
             }
             
-            // STEP 6: Store and continue
-            return storeAndContinue(request, chain, masterPlan);
+            return masterPlan;
             
         } catch (Exception e) {
             logger.error("[{}] ❌ Brain 0: Error creating master plan - {}", traceId, e.getMessage());
-            AgentPlan fallbackPlan = createDefaultPlan();
-            return storeAndContinue(request, chain, fallbackPlan);
-        }
-    }
-    
-    /**
-     * Calculate query complexity (1-10)
-     */
-    private int calculateComplexity(String query) {
-        int score = 1;
-        
-        if (query.length() > 100) score += 2;
-        if (query.length() > 200) score += 2;
-        
-        int wordCount = query.split("\\s+").length;
-        score += Math.min(wordCount / 5, 3);
-        
-        if (query.matches(".*\\b(algorithm|architecture|optimization|refactor|debug)\\b.*")) score += 2;
-        
-        score += query.split("\\?").length - 1;
-        
-        return Math.min(score, 10);
-    }
-    
-    /**
-     * Calculate query ambiguity (1-10)
-     */
-    private int calculateAmbiguity(String query) {
-        int score = 0;
-        
-        if (query.matches(".*\\b(it|this|that|thing|stuff|something)\\b.*")) score += 2;
-        if (query.matches(".*\\b(maybe|probably|might|could)\\b.*")) score += 1;
-        
-        if (query.length() < 20) score += 2;
-        
-        if (query.matches(".*\\b(he|she|they|we)\\b.*")) score += 1;
-        
-        return Math.min(score, 10);
-    }
-    
-    /**
-     * Determine focus area
-     */
-    private String determineFocusArea(String query) {
-        if (query.contains("bug") || query.contains("error") || query.contains("fix")) {
-            return "DEBUG";
-        } else if (query.contains("refactor") || query.contains("improve") || query.contains("optimize")) {
-            return "REFACTOR";
-        } else if (query.contains("test")) {
-            return "TESTING";
-        } else if (query.contains("architecture") || query.contains("design")) {
-            return "ARCHITECTURE";
-        } else if (query.contains("performance") || query.contains("speed")) {
-            return "PERFORMANCE";
-        } else if (query.contains("security")) {
-            return "SECURITY";
-        } else if (query.contains("implement") || query.contains("create") || query.contains("build")) {
-            return "IMPLEMENTATION";
-        } else {
-            return "GENERAL";
-        }
-    }
-    
-    /**
-     * Determine ignore area
-     */
-    private String determineIgnoreArea(String query) {
-        if (query.contains("don't") || query.contains("not") || query.contains("avoid")) {
-            return "CONSTRAINTS";
-        }
-        return "NONE";
-    }
-    
-    /**
-     * Analyze intent
-     */
-    private String analyzeIntent(String query) {
-        if (query.matches(".*\\b(add|calculate|compute|sum|total)\\b.*")) {
-            return "CALCULATION";
-        } else if (query.matches(".*\\b(bug|error|fix|crash|fail)\\b.*")) {
-            return "DEBUG";
-        } else if (query.matches(".*\\b(refactor|improve|optimize|clean)\\b.*")) {
-            return "REFACTOR";
-        } else if (query.matches(".*\\b(implement|create|build|write|code)\\b.*")) {
-            return "IMPLEMENTATION";
-        } else if (query.matches(".*\\b(explain|understand|how|why|what)\\b.*")) {
-            return "EXPLANATION";
-        } else if (query.matches(".*\\b(test|unit|integration)\\b.*")) {
-            return "TESTING";
-        } else {
-            return "GENERAL";
+            return createDefaultPlan();
         }
     }
     
-    /**
-     * Calculate confidence in intent analysis
-     */
-    private double calculateIntentConfidence(String query, String intent) {
-        if (intent.equals("CALCULATION") && query.contains("add")) return 0.95;
-        if (intent.equals("DEBUG") && query.contains("bug")) return 0.95;
-        if (intent.equals("REFACTOR") && query.contains("refactor")) return 0.95;
-        
-        return 0.7;
-    }
-    
     /**
      * Select reasoning strategy
      */
@@ -262,21 +173,13 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
      * Now recognizes: analysis, project, code, weather, date/time, email, search, calendar
      * 
      * Strategy: For analysis queries, TRUST ToolFinder's suggestions
-     * For other queries, use hardcoded patterns
+     * For other queries, use the extractor's keyword tool hints
      */
-    private List<String> identifyRequiredTools(String query, String intent, List<String> suggestedTools) {
+    private List<String> identifyRequiredTools(QueryFeatures features, List<String> suggestedTools) {
         List<String> tools = new ArrayList<>();
-        String lowerQuery = query.toLowerCase();
         
         // ✅ ANALYSIS/PROJECT/CODE tools - TRUST ToolFinder!
-        if (lowerQuery.contains("analyze") || lowerQuery.contains("analyse") ||
-            lowerQuery.contains("check") || lowerQuery.contains("review") ||
-            lowerQuery.contains("inspect") || lowerQuery.contains("audit") ||
-            lowerQuery.contains("project") || lowerQuery.contains("code") ||
-            lowerQuery.contains("repository") || lowerQuery.contains("codebase") ||
-            lowerQuery.contains("bug") || lowerQuery.contains("error") ||
-            lowerQuery.contains(".java") || lowerQuery.contains("spring")) {
-            
+        if (features.analysisQuery) {
             // ✅ For analysis queries, USE ALL suggested tools from ToolFinder
             // ToolFinder already did semantic matching, so trust its results
             tools.addAll(suggestedTools);
@@ -284,45 +187,11 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
             return tools;
         }
         
-        // CALCULATION tools - improved pattern matching
-        if (intent.equals("CALCULATION") || lowerQuery.matches(".*\\b(add|calculate|sum|total|plus|\\+|how much|what is)\\b.*")) {
-            if (lowerQuery.matches(".*\\b(add|calculate|sum|total|plus|\\+|how much)\\b.*")) tools.add("add");
-            if (lowerQuery.matches(".*\\b(subtract|minus|\\-)\\b.*")) tools.add("subtract");
-            if (lowerQuery.matches(".*\\b(multiply|times|\\*)\\b.*")) tools.add("multiply");
-            if (lowerQuery.matches(".*\\b(divide|divided|/)\\b.*")) tools.add("divide");
-        }
-        
-        // DATE/TIME tools
-        if (lowerQuery.matches(".*\\b(date|today|time|current|now|when|what time|what's the date|tody)\\b.*")) {
-            tools.add("getCurrentDateTime");
-        }
-        
-        // WEATHER tools
-        if (lowerQuery.matches(".*\\b(weather|temperature|rain|sunny|forecast|what's the weather|celsius|fahrenheit)\\b.*")) {
-            tools.add("getWeather");
-        }
-        
-        // EMAIL tools
-        if (lowerQuery.matches(".*\\b(email|send|mail|message|write an email)\\b.*")) {
-            tools.add("sendEmail");
-        }
-        
-        // SEARCH tools
-        if (lowerQuery.contains("search") || lowerQuery.contains("find") ||
-            lowerQuery.contains("look up") || lowerQuery.contains("latest") ||
-            lowerQuery.contains("version of")) {
-            tools.add("search");
-        }
-        
-        // CALENDAR/EVENT tools
-        if (lowerQuery.contains("event") || lowerQuery.contains("meeting") ||
-            lowerQuery.contains("schedule") || lowerQuery.contains("calendar") ||
-            lowerQuery.contains("appointment")) {
-            tools.add("calendar");
-        }
+        // CALCULATION, DATE/TIME, WEATHER, EMAIL, SEARCH, CALENDAR tools
+        tools.addAll(features.toolHints);
         
         logger.info("   🔍 Tool identification: Intent={}, Query length={}, Tools found={}", 
-            intent, query.length(), tools.size());
+            features.intent, features.query.length(), tools.size());
         
         return tools;
     }
@@ -354,11 +223,11 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
     }
     
     /**
-     * Store plan in thread-local and continue
+     * Store plan in the request context and continue
      */
     private ChatClientResponse storeAndContinue(ChatClientRequest request, CallAdvisorChain chain, AgentPlan plan) {
         AgentPlanHolder.setPlan(plan);
-        logger.info("📌 Brain 0: Plan stored in thread-local for downstream brains");
+        logger.info("📌 Brain 0: Plan stored in request context for downstream brains");
         return chain.nextCall(request);
     }
     
@@ -399,73 +268,16 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
         return sb.toString();
     }
     
-    /**
-     * ⚡ FAST PATH: Detect simple queries for performance optimization
-     * CRITICAL FIX: Only use fast path for TRULY simple queries
-     * Avoid fast path for: technical queries, research, external data needs
-     */
-    private boolean isSimpleQuery(String query) {
-        if (query == null || query.isEmpty()) return false;
-        
-        String lowerQuery = query.toLowerCase();
-        
-        // ❌ NEVER use fast path for these keywords (requires full brain chain)
-        String[] complexKeywords = {
-            "why", "how", "explain", "architecture", "design", "refactor", "optimize",
-            "spring", "version", "latest", "documentation", "tutorial", "guide",
-            "research", "find", "search", "what is", "tell me about",
-            "weather", "forecast", "temperature", "city", "location"
-        };
-        
-        for (String keyword : complexKeywords) {
-            if (lowerQuery.contains(keyword)) {
-                logger.debug("⚠️ Complex keyword '{}' detected - skipping fast path", keyword);
-                return false;
-            }
-        }
-        
-        // ❌ NEVER use fast path for long queries
-        if (query.length() > 40) {
-            logger.debug("⚠️ Query too long ({} chars) - skipping fast path", query.length());
-            return false;
-        }
-        
-        // ❌ NEVER use fast path for multiple questions
-        int questionCount = query.split("\\?").length - 1;
-        if (questionCount > 1) {
-            logger.debug("⚠️ Multiple questions detected - skipping fast path");
-            return false;
-        }
-        
-        // ✅ ONLY use fast path for arithmetic and simple time queries
-        if (lowerQuery.matches(".*[+\\-*/].*") || 
-            lowerQuery.contains("what time") || 
-            lowerQuery.contains("what date")) {
-            logger.info("✅ Simple arithmetic/time query - using fast path");
-            return true;
-        }
-        
-        // Default: use full brain chain for safety
-        logger.debug("⚠️ Query doesn't match fast path criteria - using full chain");
-        return false;
-    }
-    
     /**
      * ⚡ FAST PATH: Create optimized plan for simple queries
      * Uses only 3 core brains instead of 7 for 60% performance improvement
+     * 
+     * Simple = short arithmetic/time query with no research, design or external-data keywords
+     * (decided by QueryFeatureExtractor)
      */
-    private AgentPlan createFastPathPlan(String userQuery) {
+    private AgentPlan createFastPathPlan(QueryFeatures features) {
         // Identify single tool if needed
-        List<String> tools = new ArrayList<>();
-        String lowerQuery = userQuery.toLowerCase();
-        
-        if (lowerQuery.contains("date") || lowerQuery.contains("time") || lowerQuery.contains("today")) {
-            tools.add("getCurrentDateTime");
-        } else if (lowerQuery.contains("add") || lowerQuery.contains("plus") || lowerQuery.contains("+")) {
-            tools.add("add");
-        } else if (lowerQuery.contains("multiply") || lowerQuery.contains("times") || lowerQuery.contains("*")) {
-            tools.add("multiply");
-        }
+        List<String> tools = new ArrayList<>(features.fastPathTools);
         
         // Use only 3 core brains for fast path
         List<String> coreBrains = new ArrayList<>();
@@ -483,7 +295,7 @@ public class ConductorAdvisor implements CallAdvisor, IAgentBrain {
             .setRequiredTools(tools)
             .setSelectedBrains(coreBrains)
             .setConfidence(0.95)
-            .setUserQuery(userQuery)
+            .setUserQuery(features.query)
             .setCreatedAt(System.currentTimeMillis());
     }
     
@@ -2,7 +2,9 @@ package com.vijay.manager;
 
 import com.vijay.context.GlobalBrainContext;
 import com.vijay.dto.AgentPlan;
+import com.vijay.dto.ReasoningState;
 import com.vijay.service.BrainFinderService;
+import com.vijay.service.ProviderOverloadedException;
 import com.vijay.tools.ToolFinderService;
 import com.vijay.util.AgentPlanHolder;
 import org.slf4j.Logger;
@@ -121,6 +123,9 @@ public class DynamicContextAdvisor implements CallAdvisor, IAgentBrain {
             logger.info("✅ Brain 1: Dynamic context injection complete");
             return response;
 
+        } catch (ProviderOverloadedException e) {
+            // Overload must reach the caller as 429/503, not be retried down the chain
+            throw e;
         } catch (Exception e) {
             logger.error("❌ Brain 1: Error in dynamic context processing - {}", e.getMessage(), e);
             // Continue chain even if context processing fails
@@ -210,9 +215,12 @@ public class DynamicContextAdvisor implements CallAdvisor, IAgentBrain {
 
         String userQuery = extractUserMessage(request);
 
-        // Use BrainFinder and ToolFinder as fallback
         List<String> specialistBrains = brainFinderService.findBrainsFor(userQuery);
-        List<String> requiredTools = toolFinderService.findToolsFor(userQuery);
+        // Reuse the tools the pre-LLM stage already found; only search again if it didn't run
+        List<String> requiredTools = prefetchedTools();
+        if (requiredTools == null) {
+            requiredTools = toolFinderService.findToolsFor(userQuery);
+        }
 
         logger.info("   🧠 Fallback brains: {} - {}", specialistBrains.size(), specialistBrains);
         logger.info("   🔧 Fallback tools: {} - {}", requiredTools.size(), requiredTools);
@@ -222,6 +230,13 @@ public class DynamicContextAdvisor implements CallAdvisor, IAgentBrain {
         return chain.nextCall(request);
     }
 
+    private List<String> prefetchedTools() {
+        ReasoningState state = GlobalBrainContext.getReasoningState();
+        return state != null && state.getSuggestedTools() != null && !state.getSuggestedTools().isEmpty()
+                ? state.getSuggestedTools()
+                : null;
+    }
+
     /**
      * ✅ FIXED: Extract ONLY the current user message from ChatClientRequest
      * Previous conversation history is handled by MessageChatMemoryAdvisor
@@ -8,8 +8,9 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -24,7 +25,7 @@ public class EnhancedContextBuilderAdvisor implements CallAdvisor {
     private static final int MAX_RESPONSE_LENGTH = 1500; // Token budget
     private static final double MIN_QUALITY_SCORE = 0.7;
 
-    public EnhancedContextBuilderAdvisor(OpenAiChatModel chatModel) {
+    public EnhancedContextBuilderAdvisor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this.contextBuilderClient = ChatClient.builder(chatModel).build();
     }
 
@@ -8,9 +8,10 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Component
 public class EnhancedSelfRefineAdvisor implements CallAdvisor {
@@ -22,7 +23,7 @@ public class EnhancedSelfRefineAdvisor implements CallAdvisor {
     private static final int MAX_REFINEMENT_ATTEMPTS = 2;
 
     @Autowired
-    public EnhancedSelfRefineAdvisor(OpenAiChatModel chatModel) {
+    public EnhancedSelfRefineAdvisor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this(ChatClient.builder(chatModel).build());
     }
 
@@ -8,8 +8,9 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Component
 public class MultiCriteriaJudgeAdvisor implements CallAdvisor {
@@ -20,7 +21,7 @@ public class MultiCriteriaJudgeAdvisor implements CallAdvisor {
     private static final double MIN_OVERALL_SCORE = 3.5; // Higher threshold
     private static final double MIN_FACTUAL_SCORE = 3.0; // Factual accuracy threshold
 
-    public MultiCriteriaJudgeAdvisor(OpenAiChatModel chatModel) {
+    public MultiCriteriaJudgeAdvisor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this.judgeClient = ChatClient.builder(chatModel).build();
     }
 
@@ -1,6 +1,7 @@
 package com.vijay.manager;
 
 import com.vijay.service.PersonalityEngine;
+import com.vijay.service.ProviderOverloadedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClientRequest;
@@ -84,6 +85,8 @@ public class PersonalityAdvisor implements CallAdvisor, IAgentBrain {
             
             return response;
             
+        } catch (ProviderOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("❌ Brain 9: Error applying personality - {}", e.getMessage(), e);
             // Continue chain even if personality application fails
@@ -7,9 +7,10 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Component
 public class SelfRefineEvaluationAdvisor implements CallAdvisor {
@@ -18,7 +19,7 @@ public class SelfRefineEvaluationAdvisor implements CallAdvisor {
     private final ChatClient judgeClient;
 
     @Autowired
-    public SelfRefineEvaluationAdvisor(OpenAiChatModel judgeModel) {
+    public SelfRefineEvaluationAdvisor(@Qualifier("openAiChatModel") ChatModel judgeModel) {
         // दूसरा मॉडल जो केवल "judge" का काम करेगा
         this.judgeClient = ChatClient.builder(judgeModel).build();
     }
@@ -5,6 +5,9 @@ import com.vijay.context.TraceContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.service.*;
 import com.vijay.util.AgentPlanHolder;
+import com.vijay.util.LatencyHistogram;
+import com.vijay.util.ResponseScanner;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -12,11 +15,19 @@ import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
 
 /**
  * 🧠 Brain 13: Self-Refine V3 Advisor (Enhanced Judge) - Phase 7
@@ -25,6 +36,11 @@ import java.util.*;
  * hallucination penalties, consistency validation, field validation,
  * code structure validation.
  * 
+ * Evaluation runs after the response is returned (optionally sampled) and
+ * only records quality metrics. Refinement blocks the response only when the
+ * request opts in via BLOCKING_REFINE_PARAM, and then only up to
+ * chat.judge.refine-deadline-ms.
+ * 
  * Responsibilities:
  * - Evaluate response quality with all checks
  * - Track Δ-diff improvement
@@ -32,7 +48,7 @@ import java.util.*;
  * - Validate consistency
  * - Validate required fields
  * - Validate code structure
- * - Trigger regeneration if needed
+ * - Trigger regeneration if the request opted in
  * - Enforce quality standards
  * 
  * Execution Order: 1000 (LAST - Final Quality Gate)
@@ -53,21 +69,48 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
     private static final double MIN_ACCEPTABLE_RATING = 3.8;  // Raised from 3.5 - most responses should be "Good" or better
     private static final double HALLUCINATION_PENALTY = 0.3;
     private static final double CONSISTENCY_PENALTY = 0.2;
-    private static final int MAX_REFINEMENT_ATTEMPTS = 2;  // Reduced from 3 - good responses don't need refinement
+    
+    /** Advisor param that opts a single request into blocking refinement */
+    public static final String BLOCKING_REFINE_PARAM = "blockingRefine";
+    
+    private final double sampleRate;
+    private final int maxPendingEvaluations;
+    private final long refineDeadlineMs;
+    
+    private final ExecutorService evaluationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore evaluationSlots;
+    
+    // Metrics
+    private final AtomicLong evaluated = new AtomicLong();
+    private final AtomicLong skippedSampling = new AtomicLong();
+    private final AtomicLong droppedBusy = new AtomicLong();
+    private final AtomicLong belowThreshold = new AtomicLong();
+    private final AtomicLong blockingRefines = new AtomicLong();
+    private final AtomicLong refinesAdopted = new AtomicLong();
+    private final AtomicLong refineDeadlineMisses = new AtomicLong();
+    private final DoubleAdder ratingSum = new DoubleAdder();
+    private final LatencyHistogram evaluationLatency = new LatencyHistogram();
     
     public SelfRefineV3Advisor(
-            OpenAiChatModel chatModel,
+            @Qualifier("openAiChatModel") ChatModel chatModel,
             SupervisorBrain supervisorBrain,
             TokenCountingService tokenCountingService,
             ConsistencyCheckService consistencyCheckService,
             HallucinationDetector hallucinationDetector,
-            OutputMerger outputMerger) {
+            OutputMerger outputMerger,
+            @Value("${chat.judge.sample-rate:1.0}") double sampleRate,
+            @Value("${chat.judge.max-pending:64}") int maxPendingEvaluations,
+            @Value("${chat.judge.refine-deadline-ms:8000}") long refineDeadlineMs) {
         this.judgeClient = ChatClient.builder(chatModel).build();
         this.supervisorBrain = supervisorBrain;
         this.tokenCountingService = tokenCountingService;
         this.consistencyCheckService = consistencyCheckService;
         this.hallucinationDetector = hallucinationDetector;
         this.outputMerger = outputMerger;
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.maxPendingEvaluations = Math.max(1, maxPendingEvaluations);
+        this.refineDeadlineMs = refineDeadlineMs;
+        this.evaluationSlots = new Semaphore(this.maxPendingEvaluations);
     }
     
     @Override
@@ -96,12 +139,15 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
         String traceId = TraceContext.getTraceId();
         logger.info("[{}] 🧾 Brain 13 (Self-Refine V3): Enhanced quality evaluation...", traceId);
         
+        String userId;
+        String userQuery;
+        String conversationId;
         try {
-            String userId = extractUserId(request);
-            String userQuery = extractUserMessage(request);
+            userId = extractUserId(request);
+            userQuery = extractUserMessage(request);
             
             // 💾 Get conversation ID from GlobalBrainContext (set by ChatService)
-            String conversationId = (String) GlobalBrainContext.get("conversationId");
+            conversationId = (String) GlobalBrainContext.get("conversationId");
             if (conversationId == null || conversationId.isEmpty()) {
                 // Only generate new ID if none exists
                 conversationId = generateConversationId();
@@ -112,88 +158,240 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
             
             // Initialize supervisor for this conversation (reuse existing ID)
             supervisorBrain.initializeConversation(userId, conversationId);
+        } catch (Exception e) {
+            logger.error("❌ Brain 13: Error in Self-Refine V3 - {}", e.getMessage(), e);
+            return chain.nextCall(request);
+        }
+        
+        // ✅ OPTIMIZATION: Skip quality checks for simple queries (complexity ≤ 3)
+        AgentPlan plan = AgentPlanHolder.getPlan();
+        if (plan != null && plan.getComplexity() <= 3) {
+            logger.info("[{}] 🚀 Brain 13: Skipping quality evaluation for simple query (complexity: {})", 
+                traceId, plan.getComplexity());
+            logger.info("[{}]    📊 Query intent: {}, Strategy: {}", 
+                traceId, plan.getIntent(), plan.getStrategy());
             
-            // ✅ OPTIMIZATION: Skip quality checks for simple queries (complexity ≤ 3)
-            AgentPlan plan = AgentPlanHolder.getPlan();
-            if (plan != null && plan.getComplexity() <= 3) {
-                logger.info("[{}] 🚀 Brain 13: Skipping quality evaluation for simple query (complexity: {})", 
-                    traceId, plan.getComplexity());
-                logger.info("[{}]    📊 Query intent: {}, Strategy: {}", 
-                    traceId, plan.getIntent(), plan.getStrategy());
-                
-                // Just pass through without quality checks
-                return chain.nextCall(request);
-            }
-            
-            // Get initial response
-            ChatClientResponse response = chain.nextCall(request);
-            
-            if (response == null || response.chatResponse() == null) {
-                logger.warn("[{}] ⚠️ Brain 13: No response to evaluate", traceId);
-                return response;
-            }
-            
+            // Just pass through without quality checks
+            return chain.nextCall(request);
+        }
+        
+        // Get initial response (failures further down the chain are not ours to retry)
+        ChatClientResponse response = chain.nextCall(request);
+        
+        if (response == null || response.chatResponse() == null) {
+            logger.warn("[{}] ⚠️ Brain 13: No response to evaluate", traceId);
+            return response;
+        }
+        
+        try {
             String content = response.chatResponse().getResult().getOutput().getText();
             if (content == null || content.trim().isEmpty()) {
                 logger.warn("[{}] ⚠️ Brain 13: Empty response content", traceId);
                 return response;
             }
             
-            // Perform comprehensive evaluation
-            EnhancedQualityEvaluation evaluation = performEnhancedEvaluation(
-                content, userQuery, userId, conversationId
-            );
-            
-            // Log evaluation details
-            logEvaluationDetails(evaluation);
-            
-            // Check if refinement is needed
-            if (evaluation.finalRating < MIN_ACCEPTABLE_RATING && 
-                evaluation.refinementAttempts < MAX_REFINEMENT_ATTEMPTS) {
-                
-                logger.info("🔁 Brain 13: Quality too low ({}), attempting refinement...", 
-                    String.format("%.2f", evaluation.finalRating));
-                
-                String refinedContent = refineResponse(content, userQuery, evaluation);
-                
-                if (refinedContent != null && !refinedContent.equals(content)) {
-                    // Re-evaluate refined response
-                    EnhancedQualityEvaluation refinedEvaluation = performEnhancedEvaluation(
-                        refinedContent, userQuery, userId, conversationId
-                    );
-                    
-                    logger.info("🔄 Brain 13: Refined quality: {} (improvement: {})", 
-                        String.format("%.2f", refinedEvaluation.finalRating), 
-                        String.format("%.2f", refinedEvaluation.finalRating - evaluation.finalRating));
-                    
-                    // Use refined if better
-                    if (refinedEvaluation.finalRating > evaluation.finalRating) {
-                        evaluation = refinedEvaluation;
-                        content = refinedContent;
-                    }
-                }
+            if (Boolean.TRUE.equals(request.context().get(BLOCKING_REFINE_PARAM))) {
+                return refineBeforeReturning(response, content, userQuery, userId, conversationId);
             }
             
-            // Log final status
-            supervisorBrain.logStatus(conversationId);
-            
-            logger.info("✅ Brain 13: Final rating: {}/5.0 - {}", 
-                String.format("%.2f", evaluation.finalRating), evaluation.verdict);
-            
+            // Default: hand the response back now and judge it in the background
+            scheduleEvaluation(content, userQuery, userId, conversationId);
             return response;
             
+        } catch (ProviderOverloadedException e) {
+            throw e;
         } catch (Exception e) {
+            // The chain already ran: keep its response rather than paying for the call again
             logger.error("❌ Brain 13: Error in Self-Refine V3 - {}", e.getMessage(), e);
-            return chain.nextCall(request);
+            return response;
+        }
+    }
+    
+    /**
+     * Blocking judge (opt-in per request): evaluate, refine once within the
+     * deadline, and return the refined response when it rates higher
+     */
+    private ChatClientResponse refineBeforeReturning(ChatClientResponse response, String content,
+                                                     String userQuery, String userId, String conversationId) {
+        long deadline = System.currentTimeMillis() + refineDeadlineMs;
+        blockingRefines.incrementAndGet();
+        
+        EnhancedQualityEvaluation evaluation = performEnhancedEvaluation(content, userQuery, userId, conversationId);
+        logEvaluationDetails(evaluation);
+        recordRating(evaluation);
+        
+        if (evaluation.finalRating < MIN_ACCEPTABLE_RATING) {
+            logger.info("🔁 Brain 13: Quality too low ({}), attempting refinement within {}ms...", 
+                String.format("%.2f", evaluation.finalRating), deadline - System.currentTimeMillis());
+            
+            String refinedContent = refineWithinDeadline(content, userQuery, evaluation, deadline);
+            
+            if (refinedContent != null && !refinedContent.equals(content)) {
+                EnhancedQualityEvaluation refinedEvaluation = evaluateQuality(refinedContent, userQuery);
+                refinedEvaluation.refinementAttempts = evaluation.refinementAttempts + 1;
+                
+                logger.info("🔄 Brain 13: Refined quality: {} (improvement: {})", 
+                    String.format("%.2f", refinedEvaluation.finalRating), 
+                    String.format("%.2f", refinedEvaluation.finalRating - evaluation.finalRating));
+                
+                // Use refined if better
+                if (refinedEvaluation.finalRating > evaluation.finalRating) {
+                    refinesAdopted.incrementAndGet();
+                    evaluation = refinedEvaluation;
+                    response = withContent(response, refinedContent);
+                }
+            }
+        }
+        
+        // Share the rating so IterationController can reuse it instead of re-scoring
+        GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, evaluation.finalRating);
+        supervisorBrain.logStatus(conversationId);
+        
+        logger.info("✅ Brain 13: Final rating: {}/5.0 - {}", 
+            String.format("%.2f", evaluation.finalRating), evaluation.verdict);
+        return response;
+    }
+    
+    /**
+     * Run the refinement call, giving up (and keeping the original) once the deadline passes
+     */
+    private String refineWithinDeadline(String content, String userQuery,
+                                        EnhancedQualityEvaluation evaluation, long deadline) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            refineDeadlineMisses.incrementAndGet();
+            return null;
+        }
+        Future<String> refinement = evaluationExecutor.submit(() -> refineResponse(content, userQuery, evaluation));
+        try {
+            return refinement.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            refinement.cancel(true);
+            refineDeadlineMisses.incrementAndGet();
+            logger.info("⏱️ Brain 13: Refinement missed its {}ms deadline, keeping original response", refineDeadlineMs);
+            return null;
+        } catch (InterruptedException e) {
+            refinement.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.debug("Could not refine response: {}", e.getCause().getMessage());
+            return null;
         }
     }
     
+    /**
+     * Queue an off-path evaluation that records quality metrics and publishes its
+     * rating as a future for IterationController.
+     * Sampled by chat.judge.sample-rate and dropped when too many are pending.
+     */
+    private void scheduleEvaluation(String content, String userQuery, String userId, String conversationId) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            skippedSampling.incrementAndGet();
+            return;
+        }
+        if (!evaluationSlots.tryAcquire()) {
+            droppedBusy.incrementAndGet();
+            logger.debug("Brain 13: {} evaluations already pending, dropping this one", maxPendingEvaluations);
+            return;
+        }
+        CompletableFuture<Double> rating = new CompletableFuture<>();
+        try {
+            evaluationExecutor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    EnhancedQualityEvaluation evaluation = performEnhancedEvaluation(
+                        content, userQuery, userId, conversationId);
+                    rating.complete(evaluation.finalRating);
+                    logEvaluationDetails(evaluation);
+                    recordRating(evaluation);
+                    supervisorBrain.logStatus(conversationId);
+                } catch (Exception e) {
+                    rating.completeExceptionally(e);
+                    logger.warn("⚠️ Brain 13: Background evaluation failed - {}", e.getMessage());
+                } finally {
+                    evaluationLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    evaluationSlots.release();
+                }
+            });
+            GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, rating);
+        } catch (RejectedExecutionException e) {
+            evaluationSlots.release();
+        }
+    }
+    
+    private void recordRating(EnhancedQualityEvaluation evaluation) {
+        evaluated.incrementAndGet();
+        ratingSum.add(evaluation.finalRating);
+        if (evaluation.finalRating < MIN_ACCEPTABLE_RATING) {
+            belowThreshold.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Copy of the response whose single generation carries the refined text
+     */
+    private static ChatClientResponse withContent(ChatClientResponse response, String content) {
+        ChatResponse original = response.chatResponse();
+        Generation generation = new Generation(new AssistantMessage(content), original.getResult().getMetadata());
+        return response.mutate()
+            .chatResponse(new ChatResponse(List.of(generation), original.getMetadata()))
+            .build();
+    }
+    
+    /**
+     * Judge statistics: how much is evaluated off-path and how often a blocking refine pays off
+     */
+    public JudgeStats getStats() {
+        long evaluatedCount = evaluated.get();
+        return new JudgeStats(
+            sampleRate,
+            evaluatedCount,
+            skippedSampling.get(),
+            droppedBusy.get(),
+            maxPendingEvaluations - evaluationSlots.availablePermits(),
+            belowThreshold.get(),
+            evaluatedCount > 0 ? ratingSum.sum() / evaluatedCount : 0.0,
+            blockingRefines.get(),
+            refinesAdopted.get(),
+            refineDeadlineMisses.get(),
+            evaluationLatency.snapshot()
+        );
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdownNow();
+    }
+    
     /**
      * Perform comprehensive enhanced evaluation
      */
     private EnhancedQualityEvaluation performEnhancedEvaluation(
             String content, String userQuery, String userId, String conversationId) {
         
+        EnhancedQualityEvaluation evaluation = evaluateQuality(content, userQuery);
+        
+        // 5. Token counting
+        int tokenCount = tokenCountingService.countTokens(content);
+        evaluation.tokenCount = tokenCount;
+        
+        // Record token usage
+        TokenCountingService.TokenUsageRecord tokenRecord = 
+            tokenCountingService.recordTokenUsage(userId, "", content);
+        evaluation.tokenUsagePercentage = tokenRecord.usagePercentage;
+        
+        return evaluation;
+    }
+    
+    /**
+     * Local quality evaluation (no LLM call, no token accounting)
+     * 
+     * The rating it produces is published to IterationController, which
+     * decides whether a second pass is worth its latency and tokens.
+     */
+    public EnhancedQualityEvaluation evaluateQuality(String content, String userQuery) {
+        
         EnhancedQualityEvaluation evaluation = new EnhancedQualityEvaluation();
         
         // 1. Basic quality evaluation
@@ -205,9 +403,12 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
         evaluation.relevanceScore = relevanceScore;
         evaluation.helpfulnessScore = helpfulnessScore;
         
+        // One scan feeds the consistency, hallucination and code-structure checks
+        ResponseScanner.Features features = hallucinationDetector.scan(content);
+        
         // 2. Consistency check
         ConsistencyCheckService.ConsistencyReport consistencyReport = 
-            consistencyCheckService.checkConsistency(content);
+            consistencyCheckService.checkConsistency(features);
         
         double consistencyScore = consistencyReport.isConsistent() ? 1.0 : 0.5;
         evaluation.consistencyScore = consistencyScore;
@@ -220,7 +421,7 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
         
         // 3. Hallucination detection
         HallucinationDetector.HallucinationReport hallucinationReport = 
-            hallucinationDetector.detectHallucinations(content);
+            hallucinationDetector.detectHallucinations(features);
         
         evaluation.hallucinationScore = hallucinationReport.getHallucinationScore();
         evaluation.hallucinationCount = hallucinationReport.getHallucinationCount();
@@ -231,9 +432,9 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
         }
         
         // 4. Code structure validation (if applicable)
-        if (content.contains("class") || content.contains("public") || content.contains("def")) {
+        if (features.containsExact("class") || features.containsExact("public") || features.containsExact("def")) {
             ConsistencyCheckService.CodeStructureReport codeReport = 
-                consistencyCheckService.validateCodeStructure(content);
+                consistencyCheckService.validateCodeStructure(features);
             
             evaluation.codeStructureValid = codeReport.isValid();
             evaluation.codeIssues = codeReport.getIssues().size();
@@ -243,16 +444,7 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
             }
         }
         
-        // 5. Token counting
-        int tokenCount = tokenCountingService.countTokens(content);
-        evaluation.tokenCount = tokenCount;
-        
-        // Record token usage
-        TokenCountingService.TokenUsageRecord tokenRecord = 
-            tokenCountingService.recordTokenUsage(userId, "", content);
-        evaluation.tokenUsagePercentage = tokenRecord.usagePercentage;
-        
-        // 6. Calculate final rating
+        // 5. Calculate final rating
         double baseRating = (clarityScore + relevanceScore + helpfulnessScore + consistencyScore) / 4.0;
         double finalRating = baseRating - evaluation.consistencyPenalty - evaluation.hallucinationPenalty;
         
@@ -608,4 +800,38 @@ public class SelfRefineV3Advisor implements CallAdvisor, IAgentBrain {
         // Refinement
         public int refinementAttempts = 0;
     }
+    
+    /**
+     * Judge statistics
+     */
+    public static class JudgeStats {
+        public final double sampleRate;
+        public final long evaluated;
+        public final long skippedSampling;
+        public final long droppedBusy;
+        public final int pending;
+        public final long belowThreshold;
+        public final double avgRating;
+        public final long blockingRefines;
+        public final long refinesAdopted;
+        public final long refineDeadlineMisses;
+        public final LatencyHistogram.HistogramSnapshot evaluationLatencyMs;
+        
+        public JudgeStats(double sampleRate, long evaluated, long skippedSampling, long droppedBusy,
+                          int pending, long belowThreshold, double avgRating, long blockingRefines,
+                          long refinesAdopted, long refineDeadlineMisses,
+                          LatencyHistogram.HistogramSnapshot evaluationLatencyMs) {
+            this.sampleRate = sampleRate;
+            this.evaluated = evaluated;
+            this.skippedSampling = skippedSampling;
+            this.droppedBusy = droppedBusy;
+            this.pending = pending;
+            this.belowThreshold = belowThreshold;
+            this.avgRating = avgRating;
+            this.blockingRefines = blockingRefines;
+            this.refinesAdopted = refinesAdopted;
+            this.refineDeadlineMisses = refineDeadlineMisses;
+            this.evaluationLatencyMs = evaluationLatencyMs;
+        }
+    }
 }
@@ -8,8 +8,9 @@ import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -25,7 +26,7 @@ public class SmartQualityAdvisor implements CallAdvisor {
     private static final int MAX_RESPONSE_LENGTH = 1500;
     private static final double MIN_QUALITY_SCORE = 3.0;
 
-    public SmartQualityAdvisor(OpenAiChatModel chatModel) {
+    public SmartQualityAdvisor(@Qualifier("openAiChatModel") ChatModel chatModel) {
         this.qualityClient = ChatClient.builder(chatModel).build();
     }
 
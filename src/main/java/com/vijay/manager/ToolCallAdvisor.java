@@ -4,6 +4,8 @@ import com.vijay.context.GlobalBrainContext;
 import com.vijay.context.TraceContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ReasoningState;
+import com.vijay.service.ProviderOverloadedException;
+import com.vijay.tools.ToolCallbackRegistry;
 import com.vijay.util.AgentPlanHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,10 +15,14 @@ import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +34,7 @@ import java.util.stream.Collectors;
  * - Read the master plan from ConductorAdvisor (Brain 0)
  * - Check if tools are required (plan.requiredTools)
  * - Only execute tools if the plan says they're needed
+ * - Attach ONLY the approved tool schemas to the prompt (none for plain questions)
  * - Prevent HTTP 400 crashes from tool execution errors
  * - Log tool execution details
  * 
@@ -43,6 +50,12 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
     
     private static final Logger logger = LoggerFactory.getLogger(ToolCallAdvisor.class);
     
+    private final ToolCallbackRegistry toolCallbackRegistry;
+    
+    public ToolCallAdvisor(ToolCallbackRegistry toolCallbackRegistry) {
+        this.toolCallbackRegistry = toolCallbackRegistry;
+    }
+    
     @Override
     public String getName() {
         return "ToolCallAdvisor";
@@ -74,7 +87,7 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
             AgentPlan masterPlan = AgentPlanHolder.getPlan();
             
             if (masterPlan == null) {
-                logger.warn("[{}]    ⚠️ No master plan found - allowing all tools (fallback mode)", traceId);
+                logger.warn("[{}]    ⚠️ No master plan found - allowing suggested tools (fallback mode)", traceId);
                 return chain.nextCall(request);
             }
             
@@ -100,11 +113,13 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
                 }
             }
             
-            // STEP 5: Build enforcement rules and inject into prompt
+            // STEP 5: Build enforcement rules and inject into prompt, attaching only approved tool schemas
             String enforcementRules = buildEnforcementRules(approvedTools, rejectedTools);
-            ChatClientRequest modifiedRequest = addEnforcementRulesToRequest(request, enforcementRules);
+            ChatClientRequest modifiedRequest = addEnforcementRulesToRequest(request, enforcementRules, approvedTools);
             
             logger.info("[{}]    ✅ Tool enforcement rules injected into system prompt", traceId);
+            logger.info("[{}]    🗂️ Tool schemas attached: {} ({} of {} schema chars)", traceId, approvedTools.size(),
+                    toolCallbackRegistry.getSchemaSize(approvedTools), toolCallbackRegistry.getTotalSchemaSize());
             logger.info("[{}]    📋 Approved tools: {}", traceId, approvedTools.size());
             logger.info("[{}]    ⛔ Rejected tools: {}", traceId, rejectedTools.size());
             
@@ -114,6 +129,9 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
             logger.info("[{}] ✅ Brain 2: Tool enforcement complete", traceId);
             return response;
             
+        } catch (ProviderOverloadedException e) {
+            // Don't re-run the chain against a provider that is shedding load
+            throw e;
         } catch (Exception e) {
             logger.error("[{}] ❌ Brain 2: Error in tool enforcement - {}", traceId, e.getMessage(), e);
             // Continue chain even if tool enforcement fails
@@ -154,7 +172,8 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
     /**
      * Add enforcement rules to the request's system prompt
      */
-    private ChatClientRequest addEnforcementRulesToRequest(ChatClientRequest originalRequest, String enforcementRules) {
+    private ChatClientRequest addEnforcementRulesToRequest(ChatClientRequest originalRequest, String enforcementRules,
+                                                           List<String> approvedTools) {
         try {
             // Get the original prompt
             Prompt originalPrompt = originalRequest.prompt();
@@ -173,11 +192,11 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
                 messages.addAll(originalPrompt.getInstructions());
             }
             
-            // Create new prompt with enforcement rules
-            Prompt modifiedPrompt = new Prompt(messages, originalPrompt.getOptions());
+            // Create new prompt with enforcement rules and only the approved tool callbacks
+            Prompt modifiedPrompt = new Prompt(messages, restrictTools(originalPrompt.getOptions(), approvedTools));
             
-            // Create modified request using builder pattern
-            return ChatClientRequest.builder()
+            // Keep the request context (conversationId etc.) for downstream advisors
+            return originalRequest.mutate()
                     .prompt(modifiedPrompt)
                     .build();
             
@@ -187,4 +206,20 @@ public class ToolCallAdvisor implements CallAdvisor, IAgentBrain {
             return originalRequest;
         }
     }
+    
+    /**
+     * Replace the prompt's tools with the approved subset from the registry
+     * (an empty list means no tool schema is serialized at all)
+     */
+    private ChatOptions restrictTools(ChatOptions options, List<String> approvedTools) {
+        if (!(options instanceof ToolCallingChatOptions toolOptions)) {
+            return options;
+        }
+        
+        List<ToolCallback> approvedCallbacks = toolCallbackRegistry.resolveAll(approvedTools);
+        ToolCallingChatOptions restricted = toolOptions.copy();
+        restricted.setToolCallbacks(approvedCallbacks);
+        restricted.setToolNames(Set.of());
+        return restricted;
+    }
 }
@@ -1,10 +1,14 @@
 package com.vijay.memory;
 
-import lombok.RequiredArgsConstructor;
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -19,16 +23,21 @@ import java.util.concurrent.ConcurrentHashMap;
  * ✅ CRITICAL FIX: Solves short-term memory loss issue
  */
 @Service
-@RequiredArgsConstructor
 public class ConversationMemoryService {
     
     private static final Logger logger = LoggerFactory.getLogger(ConversationMemoryService.class);
     
-    // Store conversation contexts by conversation ID
-    private final Map<String, ConversationContext> conversationMap = new ConcurrentHashMap<>();
+    // Store conversation contexts by conversation ID (forgotten after a day without messages).
+    // Changes go through update() so replicas sharing the state backend see them.
+    private final SessionNamespace<ConversationContext> conversationMap;
     
     // Store user profiles by user ID
-    private final Map<String, UserProfile> userProfiles = new ConcurrentHashMap<>();
+    private final SessionNamespace<UserProfile> userProfiles;
+    
+    public ConversationMemoryService(SessionStateStore stateStore) {
+        this.conversationMap = stateStore.namespace("conversation-context", 10_000, Duration.ofHours(24), SpillCodec.serialized());
+        this.userProfiles = stateStore.namespace("conversation-user-profile", 50_000, Duration.ofDays(30), SpillCodec.serialized());
+    }
     
     /**
      * Get or create conversation context
@@ -48,10 +57,11 @@ public class ConversationMemoryService {
     public void storeUserInfo(String conversationId, String key, Object value) {
         logger.info("💾 Storing user info: {} = {}", key, value);
         
-        ConversationContext context = conversationMap.get(conversationId);
+        ConversationContext context = conversationMap.update(conversationId, current -> {
+            current.getUserInfo().put(key, value);
+            current.setLastAccessed(Instant.now());
+        });
         if (context != null) {
-            context.getUserInfo().put(key, value);
-            context.setLastAccessed(Instant.now());
             logger.info("✅ User info stored successfully");
         } else {
             logger.warn("⚠️ Conversation context not found: {}", conversationId);
@@ -78,10 +88,11 @@ public class ConversationMemoryService {
     public void addMessage(String conversationId, ChatMessage message) {
         logger.info("💾 Adding message to conversation: {}", conversationId);
         
-        ConversationContext context = conversationMap.get(conversationId);
+        ConversationContext context = conversationMap.update(conversationId, current -> {
+            current.getMessageHistory().add(message);
+            current.setLastAccessed(Instant.now());
+        });
         if (context != null) {
-            context.getMessageHistory().add(message);
-            context.setLastAccessed(Instant.now());
             logger.info("✅ Message added to history");
         } else {
             logger.warn("⚠️ Conversation context not found: {}", conversationId);
@@ -194,9 +205,9 @@ public class ConversationMemoryService {
     public void storeMetadata(String conversationId, String key, Object value) {
         logger.info("💾 Storing metadata: {} = {}", key, value);
         
-        ConversationContext context = conversationMap.get(conversationId);
+        ConversationContext context = conversationMap.update(conversationId,
+            current -> current.getMetadata().put(key, value));
         if (context != null) {
-            context.getMetadata().put(key, value);
             logger.info("✅ Metadata stored");
         }
     }
@@ -214,7 +225,7 @@ public class ConversationMemoryService {
     
     // Inner classes
     
-    public static class ConversationContext {
+    public static class ConversationContext implements Serializable {
         private String conversationId;
         private String userId;
         private Map<String, Object> userInfo;
@@ -244,7 +255,7 @@ public class ConversationMemoryService {
         public void setLastAccessed(Instant lastAccessed) { this.lastAccessed = lastAccessed; }
     }
     
-    public static class ChatMessage {
+    public static class ChatMessage implements Serializable {
         private String role; // "user" or "assistant"
         private String content;
         private Instant timestamp;
@@ -261,7 +272,7 @@ public class ConversationMemoryService {
         public Instant getTimestamp() { return timestamp; }
     }
     
-    public static class UserProfile {
+    public static class UserProfile implements Serializable {
         private String userId;
         private String name;
         private String email;
@@ -2,22 +2,26 @@ package com.vijay.memory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
- * 💭 Short-Term Memory - Last 10 messages
- * 
+ * 💭 Short-Term Memory - Last messages per user
+ *
  * Purpose: Remember recent conversation context
- * 
+ *
  * Features:
- * ✅ Stores last 10 messages
- * ✅ Auto-expires after 30 minutes
+ * ✅ One fixed-size ring buffer per user: users never evict each other's context
+ * ✅ O(1) append, O(k) read of the last k messages
+ * ✅ Messages expire after the idle timeout; idle users are dropped
+ * ✅ Bounded number of users, with approximate memory accounting
  * ✅ Thread-safe
- * ✅ Easy context retrieval
- * 
+ *
  * Benefits:
  * - Better conversation continuity
  * - Faster context retrieval
@@ -25,87 +29,238 @@ import java.util.concurrent.ConcurrentLinkedDeque;
  */
 @Service
 public class ShortTermMemory {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ShortTermMemory.class);
-    private static final int MAX_MESSAGES = 10;
-    private static final long EXPIRY_TIME_MS = 30 * 60 * 1000;  // 30 minutes
-    
-    private final Deque<MemoryMessage> messages = new ConcurrentLinkedDeque<>();
-    
+
+    // Rough heap cost of a message besides its text: object, fields, String header
+    private static final long MESSAGE_OVERHEAD_BYTES = 96;
+    // Idle users are swept once every this many appends
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final int maxMessages;
+    private final long expiryTimeMs;
+    private final int maxUsers;
+    private final LongSupplier clock;
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong approximateBytes = new AtomicLong();
+    private final AtomicLong appendsSinceSweep = new AtomicLong();
+    private final AtomicLong evictedUsers = new AtomicLong();
+
+    public ShortTermMemory(@Value("${chat.short-term.max-messages:10}") int maxMessages,
+                           @Value("${chat.short-term.expiry-minutes:30}") long expiryMinutes,
+                           @Value("${chat.short-term.max-users:10000}") int maxUsers) {
+        this(maxMessages, expiryMinutes * 60 * 1000, maxUsers, System::currentTimeMillis);
+    }
+
+    ShortTermMemory(int maxMessages, long expiryTimeMs, int maxUsers, LongSupplier clock) {
+        this.maxMessages = Math.max(1, maxMessages);
+        this.expiryTimeMs = expiryTimeMs;
+        this.maxUsers = Math.max(1, maxUsers);
+        this.clock = clock;
+    }
+
     /**
-     * Add a message to short-term memory
+     * Add a message to the user's short-term memory
      */
     public void addMessage(String userId, String role, String content) {
         MemoryMessage msg = new MemoryMessage(userId, role, content);
-        messages.addLast(msg);
-        
-        // Keep only last 10 messages
-        while (messages.size() > MAX_MESSAGES) {
-            messages.removeFirst();
-        }
-        
-        logger.info("💭 Short-Term Memory: Added {} message (total: {})", role, messages.size());
+        msg.timestamp = clock.getAsLong();
+
+        Ring ring = rings.get(key(userId));
+        if (ring == null) {
+            ring = rings.computeIfAbsent(key(userId), k -> new Ring(maxMessages));
+            if (rings.size() > maxUsers) {
+                sweep(true);
+            }
+        }
+        ring.append(msg);
+
+        if (appendsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            appendsSinceSweep.set(0);
+            sweep(false);
+        }
+
+        logger.debug("💭 Short-Term Memory: Added {} message for {}", role, userId);
     }
-    
+
     /**
-     * Get last N messages
+     * Get the user's last N messages (oldest first), skipping expired ones
      */
-    public List<MemoryMessage> getLastMessages(int count) {
-        List<MemoryMessage> result = new ArrayList<>();
-        int i = 0;
-        
-        Iterator<MemoryMessage> iterator = messages.descendingIterator();
-        while (iterator.hasNext() && i < count) {
-            MemoryMessage msg = iterator.next();
-            
-            // Check if expired
-            if (System.currentTimeMillis() - msg.timestamp > EXPIRY_TIME_MS) {
-                continue;
-            }
-            
-            result.add(0, msg);
-            i++;
+    public List<MemoryMessage> getLastMessages(String userId, int count) {
+        Ring ring = rings.get(key(userId));
+        if (ring == null || count <= 0) {
+            return new ArrayList<>();
         }
-        
-        logger.info("💭 Retrieved {} recent messages from short-term memory", result.size());
-        return result;
+        return ring.last(count, clock.getAsLong() - expiryTimeMs);
     }
-    
+
     /**
-     * Get conversation context (formatted for LLM)
+     * Get the user's conversation context (formatted for LLM)
      */
-    public String getContextForLLM() {
-        List<MemoryMessage> recent = getLastMessages(5);
-        
+    public String getContextForLLM(String userId) {
+        List<MemoryMessage> recent = getLastMessages(userId, 5);
+
         if (recent.isEmpty()) {
             return "";
         }
-        
+
         StringBuilder context = new StringBuilder();
         context.append("Recent conversation context:\n");
-        
+
         for (MemoryMessage msg : recent) {
             context.append(String.format("- %s: %s\n", msg.role, msg.content));
         }
-        
+
         return context.toString();
     }
-    
+
+    /**
+     * Clear one user's messages
+     */
+    public void clear(String userId) {
+        Ring ring = rings.remove(key(userId));
+        if (ring != null) {
+            ring.release();
+        }
+    }
+
     /**
      * Clear all messages
      */
     public void clear() {
-        messages.clear();
+        for (String userId : new ArrayList<>(rings.keySet())) {
+            clear(userId);
+        }
         logger.info("💭 Short-Term Memory cleared");
     }
-    
+
     /**
-     * Get memory size
+     * Get memory size (messages of all users)
      */
     public int size() {
-        return messages.size();
+        return (int) messageCount.get();
+    }
+
+    /**
+     * Number of messages held for one user
+     */
+    public int size(String userId) {
+        Ring ring = rings.get(key(userId));
+        return ring != null ? ring.size() : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", rings.size());
+        stats.put("messages", messageCount.get());
+        stats.put("approximateBytes", approximateBytes.get());
+        stats.put("evictedUsers", evictedUsers.get());
+        stats.put("maxMessagesPerUser", maxMessages);
+        return stats;
     }
-    
+
+    /**
+     * Drop users idle past the expiry time; over the user cap, also the least recently active
+     */
+    void sweep(boolean enforceCap) {
+        long cutoff = clock.getAsLong() - expiryTimeMs;
+        for (Map.Entry<String, Ring> entry : rings.entrySet()) {
+            if (entry.getValue().lastActivity() < cutoff && rings.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().release();
+                evictedUsers.incrementAndGet();
+            }
+        }
+        while (enforceCap && rings.size() > maxUsers) {
+            Map.Entry<String, Ring> idlest = null;
+            for (Map.Entry<String, Ring> entry : rings.entrySet()) {
+                if (idlest == null || entry.getValue().lastActivity() < idlest.getValue().lastActivity()) {
+                    idlest = entry;
+                }
+            }
+            if (idlest == null || !rings.remove(idlest.getKey(), idlest.getValue())) {
+                break;
+            }
+            idlest.getValue().release();
+            evictedUsers.incrementAndGet();
+        }
+    }
+
+    private static String key(String userId) {
+        return userId != null ? userId : "";
+    }
+
+    private static long sizeOf(MemoryMessage msg) {
+        return MESSAGE_OVERHEAD_BYTES + 2L * (msg.content != null ? msg.content.length() : 0);
+    }
+
+    /**
+     * Fixed-size ring buffer of one user's messages, in arrival order
+     */
+    private final class Ring {
+        private final MemoryMessage[] slots;
+        private final long created = clock.getAsLong();
+        private int next;
+        private int count;
+        private long bytes;
+        private boolean released;
+
+        Ring(int capacity) {
+            this.slots = new MemoryMessage[capacity];
+        }
+
+        synchronized void append(MemoryMessage msg) {
+            if (released) {
+                // Evicted between lookup and append: the message goes to the user's new ring
+                rings.computeIfAbsent(key(msg.userId), k -> new Ring(slots.length)).append(msg);
+                return;
+            }
+            MemoryMessage overwritten = slots[next];
+            if (overwritten != null) {
+                bytes -= sizeOf(overwritten);
+                approximateBytes.addAndGet(-sizeOf(overwritten));
+            } else {
+                count++;
+                messageCount.incrementAndGet();
+            }
+            slots[next] = msg;
+            next = (next + 1) % slots.length;
+            bytes += sizeOf(msg);
+            approximateBytes.addAndGet(sizeOf(msg));
+        }
+
+        synchronized List<MemoryMessage> last(int k, long notBefore) {
+            int n = Math.min(k, count);
+            ArrayDeque<MemoryMessage> result = new ArrayDeque<>(n);
+            for (int i = 1; i <= n; i++) {
+                MemoryMessage msg = slots[Math.floorMod(next - i, slots.length)];
+                // Older slots are older still: stop at the first expired message
+                if (msg.timestamp < notBefore) {
+                    break;
+                }
+                result.addFirst(msg);
+            }
+            return new ArrayList<>(result);
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        synchronized long lastActivity() {
+            return count == 0 ? created : slots[Math.floorMod(next - 1, slots.length)].timestamp;
+        }
+
+        synchronized void release() {
+            if (!released) {
+                released = true;
+                messageCount.addAndGet(-count);
+                approximateBytes.addAndGet(-bytes);
+            }
+        }
+    }
+
     /**
      * Memory message DTO
      */
@@ -114,14 +269,14 @@ public class ShortTermMemory {
         public String role;           // "user", "assistant", "system"
         public String content;
         public long timestamp;
-        
+
         public MemoryMessage(String userId, String role, String content) {
             this.userId = userId;
             this.role = role;
             this.content = content;
             this.timestamp = System.currentTimeMillis();
         }
-        
+
         @Override
         public String toString() {
             return String.format("%s: %s", role, content.substring(0, Math.min(50, content.length())));
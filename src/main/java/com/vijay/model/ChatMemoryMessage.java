@@ -0,0 +1,88 @@
+package com.vijay.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 💬 CHAT MEMORY MESSAGE ENTITY
+ *
+ * One message of a conversation's ChatMemory, at position seq.
+ * Keyed by (conversationId, seq) instead of a generated id, so Hibernate can
+ * batch the inserts of a write-behind flush.
+ */
+@Entity
+@Table(name = "chat_memory_message", indexes = {
+    @Index(name = "idx_chat_memory_created", columnList = "created_at")
+})
+@IdClass(ChatMemoryMessage.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMemoryMessage implements Persistable<ChatMemoryMessage.Key> {
+
+    @Id
+    @Column(nullable = false)
+    private String conversationId;
+
+    @Id
+    @Column(nullable = false)
+    private Integer seq;
+
+    @Column(nullable = false, length = 20)
+    private String messageType; // "USER", "ASSISTANT", "SYSTEM", "SUMMARY"
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Rows are only ever inserted or deleted: skip the select-before-insert of merge()
+    @Transient
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    private boolean newRow = true;
+
+    @Override
+    public Key getId() {
+        return new Key(conversationId, seq);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markPersisted() {
+        newRow = false;
+    }
+
+    /**
+     * Composite primary key
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String conversationId;
+        private Integer seq;
+    }
+}
@@ -0,0 +1,38 @@
+package com.vijay.repository;
+
+import com.vijay.model.ChatMemoryMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 💬 CHAT MEMORY MESSAGE REPOSITORY
+ *
+ * Spring Data JPA repository for ChatMemoryMessage entity.
+ * Used by JpaChatMemoryRepository to load conversations and write flush batches.
+ */
+@Repository
+public interface ChatMemoryMessageRepository extends JpaRepository<ChatMemoryMessage, ChatMemoryMessage.Key> {
+
+    /**
+     * All messages of a conversation in order
+     */
+    List<ChatMemoryMessage> findByConversationIdOrderBySeqAsc(String conversationId);
+
+    /**
+     * Every conversation with stored messages
+     */
+    @Query("SELECT DISTINCT m.conversationId FROM ChatMemoryMessage m")
+    List<String> findConversationIds();
+
+    /**
+     * Drop the messages from position seq on (a rewritten tail or a whole conversation)
+     */
+    @Modifying
+    @Query("DELETE FROM ChatMemoryMessage m WHERE m.conversationId = :conversationId AND m.seq >= :seq")
+    int deleteFromSeq(@Param("conversationId") String conversationId, @Param("seq") int seq);
+}
@@ -1,11 +1,14 @@
 package com.vijay.service;
 
+import com.vijay.util.LatencyHistogram;
+import com.vijay.util.RingBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 🧠 API LOGGER - Phase 10
@@ -19,15 +22,23 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Log latency
  * - Log errors
  * - Provide statistics
+ * 
+ * Recent entries live in a fixed-size lock-free ring buffer; totals and per-component
+ * latency histograms are kept in striped counters, so logging never takes a lock and
+ * the dashboard reads them without copying or sorting the log.
  */
 @Service
 public class APILogger {
     
     private static final Logger logger = LoggerFactory.getLogger(APILogger.class);
     
+    private static final int RECENT_CAPACITY = 4096;
+    
     // Tracking
-    private final Map<String, AdvisorStats> advisorStats = new ConcurrentHashMap<>();
-    private final List<APILogEntry> logEntries = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, ComponentStats> advisorStats = new ConcurrentHashMap<>();
+    private final Map<String, ComponentStats> modelStats = new ConcurrentHashMap<>();
+    private final RingBuffer<APILogEntry> logEntries = new RingBuffer<>(RECENT_CAPACITY);
+    private final ComponentStats totals = new ComponentStats("total");
     
     /**
      * Log advisor call
@@ -42,12 +53,12 @@ public class APILogger {
         );
         
         logEntries.add(entry);
+        totals.recordCall(durationMs, tokensUsed, status);
         
         // Update stats
-        AdvisorStats stats = advisorStats.computeIfAbsent(advisorName, k -> new AdvisorStats(advisorName));
-        stats.recordCall(durationMs, tokensUsed, status);
+        advisorStats.computeIfAbsent(advisorName, ComponentStats::new).recordCall(durationMs, tokensUsed, status);
         
-        logger.info("📊 API Log: {} - {}ms, {} tokens, {}", 
+        logger.debug("📊 API Log: {} - {}ms, {} tokens, {}", 
             advisorName, durationMs, tokensUsed, status);
     }
     
@@ -64,6 +75,8 @@ public class APILogger {
         );
         
         logEntries.add(entry);
+        totals.recordCall(durationMs, tokensUsed, status);
+        modelStats.computeIfAbsent(modelName, ComponentStats::new).recordCall(durationMs, tokensUsed, status);
         
         logger.info("🤖 Model Call: {} - {} tokens, {}ms, {}", 
             modelName, tokensUsed, durationMs, status);
@@ -81,22 +94,35 @@ public class APILogger {
      * Get advisor statistics
      */
     public AdvisorStats getAdvisorStats(String advisorName) {
-        return advisorStats.get(advisorName);
+        ComponentStats stats = advisorStats.get(advisorName);
+        return stats != null ? stats.snapshot() : null;
     }
     
     /**
      * Get all statistics
      */
     public Map<String, AdvisorStats> getAllStats() {
-        return new HashMap<>(advisorStats);
+        return snapshot(advisorStats);
+    }
+    
+    /**
+     * Get per-model statistics
+     */
+    public Map<String, AdvisorStats> getModelStats() {
+        return snapshot(modelStats);
+    }
+    
+    private static Map<String, AdvisorStats> snapshot(Map<String, ComponentStats> stats) {
+        Map<String, AdvisorStats> result = new HashMap<>();
+        stats.forEach((name, component) -> result.put(name, component.snapshot()));
+        return result;
     }
     
     /**
      * Get recent logs
      */
     public List<APILogEntry> getRecentLogs(int count) {
-        int start = Math.max(0, logEntries.size() - count);
-        return new ArrayList<>(logEntries.subList(start, logEntries.size()));
+        return logEntries.recent(count);
     }
     
     /**
@@ -105,6 +131,8 @@ public class APILogger {
     public void clearLogs() {
         logEntries.clear();
         advisorStats.clear();
+        modelStats.clear();
+        totals.reset();
         logger.info("🧹 API logs cleared");
     }
     
@@ -112,12 +140,12 @@ public class APILogger {
      * Get total statistics
      */
     public TotalStats getTotalStats() {
-        int totalCalls = logEntries.size();
-        int totalTokens = logEntries.stream().mapToInt(e -> e.tokensUsed).sum();
-        long totalDuration = logEntries.stream().mapToLong(e -> e.durationMs).sum();
-        long errorCount = logEntries.stream().filter(e -> e.status.contains("ERROR")).count();
-        
-        return new TotalStats(totalCalls, totalTokens, totalDuration, errorCount);
+        return new TotalStats(
+            (int) totals.calls.sum(),
+            (int) totals.tokens.sum(),
+            totals.duration.sum(),
+            totals.errors.sum()
+        );
     }
     
     // ============ Inner Classes ============
@@ -142,33 +170,69 @@ public class APILogger {
     }
     
     /**
-     * Advisor statistics
+     * Lock-free running statistics of one component
      */
-    public static class AdvisorStats {
-        public final String advisorName;
-        public int callCount = 0;
-        public long totalDuration = 0;
-        public int totalTokens = 0;
-        public int errorCount = 0;
-        public long minDuration = Long.MAX_VALUE;
-        public long maxDuration = 0;
-        
-        public AdvisorStats(String advisorName) {
-            this.advisorName = advisorName;
+    private static class ComponentStats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder duration = new LongAdder();
+        private final LongAdder tokens = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latencyMs = LatencyHistogram.striped();
+        
+        ComponentStats(String name) {
+            this.name = name;
         }
         
-        public synchronized void recordCall(long duration, int tokens, String status) {
-            callCount++;
-            totalDuration += duration;
-            totalTokens += tokens;
-            minDuration = Math.min(minDuration, duration);
-            maxDuration = Math.max(maxDuration, duration);
-            
+        void recordCall(long durationMs, int tokensUsed, String status) {
+            calls.increment();
+            duration.add(durationMs);
+            tokens.add(tokensUsed);
+            latencyMs.record(durationMs);
             if (status.contains("ERROR")) {
-                errorCount++;
+                errors.increment();
             }
         }
         
+        void reset() {
+            calls.reset();
+            duration.reset();
+            tokens.reset();
+            errors.reset();
+            latencyMs.reset();
+        }
+        
+        AdvisorStats snapshot() {
+            return new AdvisorStats(name, (int) calls.sum(), duration.sum(), (int) tokens.sum(),
+                (int) errors.sum(), latencyMs.getMin(), latencyMs.getMax(), latencyMs.snapshot());
+        }
+    }
+    
+    /**
+     * Advisor statistics
+     */
+    public static class AdvisorStats {
+        public final String advisorName;
+        public final int callCount;
+        public final long totalDuration;
+        public final int totalTokens;
+        public final int errorCount;
+        public final long minDuration;
+        public final long maxDuration;
+        public final LatencyHistogram.HistogramSnapshot latencyMs;
+        
+        public AdvisorStats(String advisorName, int callCount, long totalDuration, int totalTokens, int errorCount,
+                            long minDuration, long maxDuration, LatencyHistogram.HistogramSnapshot latencyMs) {
+            this.advisorName = advisorName;
+            this.callCount = callCount;
+            this.totalDuration = totalDuration;
+            this.totalTokens = totalTokens;
+            this.errorCount = errorCount;
+            this.minDuration = minDuration;
+            this.maxDuration = maxDuration;
+            this.latencyMs = latencyMs;
+        }
+        
         public double getAverageDuration() {
             return callCount > 0 ? (double) totalDuration / callCount : 0;
         }
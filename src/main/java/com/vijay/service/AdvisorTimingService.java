@@ -0,0 +1,238 @@
+package com.vijay.service;
+
+import com.vijay.context.TraceContext;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ ADVISOR TIMING SERVICE - Per-Advisor Cost of Every Request
+ *
+ * Purpose: TimelineVisualizer and APILogger had recording methods nobody called;
+ * this service wraps each advisor registered in AIProviderConfig so every request
+ * feeds them automatically
+ *
+ * Responsibilities:
+ * - Wrap CallAdvisors in a decorator that keeps their name and order
+ * - Measure per advisor and request:
+ *   - wall time, inclusive and "self" (excluding the rest of the chain and the model call)
+ *   - CPU time of the advisor itself on the calling thread (when the JVM supports it)
+ *   - prompt tokens the advisor injected before passing the request on (estimated
+ *     from the growth in prompt characters, ~4 chars per token: no tokenizing per call)
+ * - Record each call on the timeline under the request's TraceContext trace ID
+ * - Log each call with its self time to APILogger
+ *
+ * Self time comes from handing the advisor a chain that times nextCall(): whatever
+ * runs downstream (inner advisors, tools, the model) is subtracted from the advisor's total.
+ */
+@Service
+public class AdvisorTimingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvisorTimingService.class);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // Rough estimate used for injected prompt tokens (same ratio as the caches' tokens-saved)
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final TimelineVisualizer timelineVisualizer;
+    private final APILogger apiLogger;
+    private final boolean enabled;
+    private final boolean cpuTimeSupported;
+
+    public AdvisorTimingService(TimelineVisualizer timelineVisualizer,
+                                APILogger apiLogger,
+                                @Value("${chat.advisor-timing.enabled:true}") boolean enabled) {
+        this.timelineVisualizer = timelineVisualizer;
+        this.apiLogger = apiLogger;
+        this.enabled = enabled;
+        this.cpuTimeSupported = THREADS.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        logger.info("⏱️ Advisor timing {} (CPU time {})",
+            enabled ? "enabled" : "disabled", cpuTimeSupported ? "supported" : "unavailable");
+    }
+
+    /**
+     * Wrap one advisor; returns it unchanged when timing is disabled or it is already wrapped
+     */
+    public CallAdvisor wrap(CallAdvisor advisor) {
+        if (!enabled || advisor instanceof TimedCallAdvisor) {
+            return advisor;
+        }
+        return new TimedCallAdvisor(advisor);
+    }
+
+    /**
+     * Wrap every advisor of a chain, for ChatClient.Builder.defaultAdvisors(...)
+     */
+    public CallAdvisor[] wrapAll(CallAdvisor... advisors) {
+        CallAdvisor[] wrapped = new CallAdvisor[advisors.length];
+        for (int i = 0; i < advisors.length; i++) {
+            wrapped[i] = wrap(advisors[i]);
+        }
+        return wrapped;
+    }
+
+    /**
+     * CPU time of the current thread in nanoseconds, -1 if unavailable (e.g. virtual threads)
+     */
+    private long currentCpuNanos() {
+        return cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Total characters of the prompt's messages, without concatenating them
+     */
+    private static int promptChars(ChatClientRequest request) {
+        if (request.prompt() == null) {
+            return 0;
+        }
+        int chars = 0;
+        for (Message message : request.prompt().getInstructions()) {
+            String text = message.getText();
+            chars += text != null ? text.length() : 0;
+        }
+        return chars;
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Decorator measuring one advisor; name and order are the wrapped advisor's
+     */
+    private final class TimedCallAdvisor implements CallAdvisor {
+        private final CallAdvisor delegate;
+
+        TimedCallAdvisor(CallAdvisor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public int getOrder() {
+            return delegate.getOrder();
+        }
+
+        @Override
+        public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+            String traceId = TraceContext.getTraceId();
+            long offsetMs = TraceContext.getElapsedTime();
+            TimedChain timedChain = new TimedChain(chain, request, this);
+            String status = "OK";
+
+            long cpuStart = currentCpuNanos();
+            long start = System.nanoTime();
+            try {
+                return delegate.adviseCall(request, timedChain);
+            } catch (RuntimeException e) {
+                // Failures from further down the chain are counted where they happened
+                status = timedChain.downstreamFailed ? "PROPAGATED" : "ERROR: " + e.getMessage();
+                throw e;
+            } finally {
+                long wallNanos = System.nanoTime() - start;
+                long cpuEnd = cpuStart >= 0 ? currentCpuNanos() : -1;
+                long selfNanos = Math.max(0, wallNanos - timedChain.downstreamNanos);
+                long cpuNanos = cpuEnd >= 0 && timedChain.downstreamCpuNanos >= 0
+                    ? Math.max(0, cpuEnd - cpuStart - timedChain.downstreamCpuNanos)
+                    : -1;
+                record(traceId, offsetMs, wallNanos, selfNanos, cpuNanos, timedChain.injectedTokens, status);
+            }
+        }
+
+        private void record(String traceId, long offsetMs, long wallNanos, long selfNanos, long cpuNanos,
+                            int injectedTokens, String status) {
+            try {
+                timelineVisualizer.recordAdvisorCall(traceId, getName(), getOrder(), offsetMs,
+                    wallNanos, selfNanos, cpuNanos, injectedTokens);
+                apiLogger.logAdvisorCall(getName(), TimeUnit.NANOSECONDS.toMillis(selfNanos), injectedTokens, status);
+            } catch (Exception e) {
+                logger.warn("⚠️ Could not record timing for {}: {}", getName(), e.getMessage());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timed(" + delegate + ")";
+        }
+    }
+
+    /**
+     * Chain handed to the wrapped advisor: times everything downstream of it and
+     * measures how many prompt tokens it added to the request it passes on
+     */
+    private final class TimedChain implements CallAdvisorChain {
+        private final CallAdvisorChain delegate;
+        private final ChatClientRequest received;
+        private final TimedCallAdvisor owner;
+        private int receivedChars = -1;
+        private long downstreamNanos;
+        private long downstreamCpuNanos;
+        private int injectedTokens;
+        private boolean downstreamFailed;
+
+        TimedChain(CallAdvisorChain delegate, ChatClientRequest received, TimedCallAdvisor owner) {
+            this.delegate = delegate;
+            this.received = received;
+            this.owner = owner;
+        }
+
+        @Override
+        public ChatClientResponse nextCall(ChatClientRequest request) {
+            if (request != received && request.prompt() != received.prompt()) {
+                if (receivedChars < 0) {
+                    receivedChars = promptChars(received);
+                }
+                injectedTokens = (promptChars(request) - receivedChars) / CHARS_PER_TOKEN;
+            }
+
+            long cpuStart = currentCpuNanos();
+            long start = System.nanoTime();
+            try {
+                return delegate.nextCall(request);
+            } catch (RuntimeException e) {
+                downstreamFailed = true;
+                throw e;
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+                long cpuEnd = cpuStart >= 0 ? currentCpuNanos() : -1;
+                downstreamCpuNanos = cpuEnd >= 0 && downstreamCpuNanos >= 0
+                    ? downstreamCpuNanos + (cpuEnd - cpuStart)
+                    : -1;
+            }
+        }
+
+        @Override
+        public List<CallAdvisor> getCallAdvisors() {
+            return delegate.getCallAdvisors();
+        }
+
+        @Override
+        public CallAdvisorChain copy(CallAdvisor after) {
+            // The real chain only knows the decorator, not the advisor inside it
+            return delegate.copy(after == owner.delegate ? owner : after);
+        }
+
+        @Override
+        public ObservationRegistry getObservationRegistry() {
+            return delegate.getObservationRegistry();
+        }
+    }
+}
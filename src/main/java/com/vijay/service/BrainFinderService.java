@@ -93,6 +93,13 @@ public class BrainFinderService {
         }
     }
     
+    /**
+     * Core brains only (degraded result when semantic search is unavailable)
+     */
+    public List<String> getCoreBrains() {
+        return new ArrayList<>(CORE_BRAINS);
+    }
+    
     /**
      * Compare brains by their execution order
      */
@@ -1,11 +1,12 @@
 package com.vijay.service;
 
+import com.vijay.cache.MultiRegionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🧠 CACHE MANAGER - Phase 10
@@ -17,7 +18,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Cache model responses
  * - Cache knowledge graph
  * - Cache user preferences
- * - TTL management
+ * - TTL management (each region's TTL comes from devex.caching.regions.*)
+ * - Plain put/get go to LocalCacheImpl (the "general" region); the helpers below to
+ *   their own regions of MultiRegionCache, all under one byte budget
  */
 @Service
 public class CacheManager {
@@ -25,9 +28,16 @@ public class CacheManager {
     private static final Logger logger = LoggerFactory.getLogger(CacheManager.class);
     
     private final LocalCacheImpl localCache;
+    private final MultiRegionCache regions;
     
     public CacheManager(LocalCacheImpl localCache) {
+        this(localCache, new MultiRegionCache());
+    }
+    
+    @Autowired
+    public CacheManager(LocalCacheImpl localCache, MultiRegionCache regions) {
         this.localCache = localCache;
+        this.regions = regions;
     }
     
     /**
@@ -71,11 +81,12 @@ public class CacheManager {
     }
     
     /**
-     * Clear cache
+     * Clear cache (every region)
      */
     public void clear() {
         try {
             localCache.clear();
+            regions.clear();
             logger.info("🧹 Cache cleared");
         } catch (Exception e) {
             logger.error("❌ Cache clear failed: {}", e.getMessage());
@@ -89,52 +100,89 @@ public class CacheManager {
         return localCache.getStats();
     }
     
+    /**
+     * Get stats of every region and the shared byte budget
+     */
+    public Map<String, Object> getRegionStats() {
+        return regions.getStats();
+    }
+    
     /**
      * Cache advisor output
      */
     public void cacheAdvisorOutput(String advisorName, String queryHash, Object output) {
-        String key = "advisor:" + advisorName + ":" + queryHash;
-        put(key, output, 3600); // 1 hour TTL
+        putInRegion(MultiRegionCache.ADVISOR_OUTPUTS, advisorName + ":" + queryHash, output);
     }
     
     /**
      * Get cached advisor output
      */
     public Object getCachedAdvisorOutput(String advisorName, String queryHash) {
-        String key = "advisor:" + advisorName + ":" + queryHash;
-        return get(key);
+        return getFromRegion(MultiRegionCache.ADVISOR_OUTPUTS, advisorName + ":" + queryHash);
     }
     
     /**
      * Cache model response
      */
     public void cacheModelResponse(String modelName, String promptHash, Object response) {
-        String key = "model:" + modelName + ":" + promptHash;
-        put(key, response, 7200); // 2 hours TTL
+        putInRegion(MultiRegionCache.MODEL_RESPONSES, modelName + ":" + promptHash, response);
     }
     
     /**
      * Get cached model response
      */
     public Object getCachedModelResponse(String modelName, String promptHash) {
-        String key = "model:" + modelName + ":" + promptHash;
-        return get(key);
+        return getFromRegion(MultiRegionCache.MODEL_RESPONSES, modelName + ":" + promptHash);
     }
     
     /**
      * Cache user preferences
      */
     public void cacheUserPreferences(String userId, Object preferences) {
-        String key = "user:" + userId + ":preferences";
-        put(key, preferences, 3600); // 1 hour TTL
+        putInRegion(MultiRegionCache.USER_PREFERENCES, userId, preferences);
     }
     
     /**
      * Get cached user preferences
      */
     public Object getCachedUserPreferences(String userId) {
-        String key = "user:" + userId + ":preferences";
-        return get(key);
+        return getFromRegion(MultiRegionCache.USER_PREFERENCES, userId);
+    }
+    
+    /**
+     * Cache a knowledge graph (or part of one)
+     */
+    public void cacheKnowledgeGraph(String graphKey, Object graph) {
+        putInRegion(MultiRegionCache.KNOWLEDGE_GRAPH, graphKey, graph);
+    }
+    
+    /**
+     * Get cached knowledge graph
+     */
+    public Object getCachedKnowledgeGraph(String graphKey) {
+        return getFromRegion(MultiRegionCache.KNOWLEDGE_GRAPH, graphKey);
+    }
+    
+    private void putInRegion(String region, String key, Object value) {
+        try {
+            regions.region(region).put(key, value);
+            logger.debug("💾 Cached in {}: {}", region, key);
+        } catch (Exception e) {
+            logger.error("❌ Cache put failed for {} in {}: {}", key, region, e.getMessage());
+        }
+    }
+    
+    private Object getFromRegion(String region, String key) {
+        try {
+            Object value = regions.region(region).get(key);
+            if (value != null) {
+                logger.debug("✅ Cache hit in {}: {}", region, key);
+            }
+            return value;
+        } catch (Exception e) {
+            logger.error("❌ Cache get failed for {} in {}: {}", key, region, e.getMessage());
+            return null;
+        }
     }
     
     // ============ Inner Classes ============
@@ -147,12 +195,18 @@ public class CacheManager {
         public final int maxSize;
         public final long hits;
         public final long misses;
+        public final long evictions;
         
         public CacheStats(int size, int maxSize, long hits, long misses) {
+            this(size, maxSize, hits, misses, 0);
+        }
+        
+        public CacheStats(int size, int maxSize, long hits, long misses, long evictions) {
             this.size = size;
             this.maxSize = maxSize;
             this.hits = hits;
             this.misses = misses;
+            this.evictions = evictions;
         }
         
         public double getHitRate() {
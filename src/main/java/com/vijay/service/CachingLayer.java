@@ -1,11 +1,13 @@
 package com.vijay.service;
 
+import com.vijay.cache.CacheRegion;
+import com.vijay.cache.MultiRegionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
 /**
  * ⚡ Caching Layer
@@ -15,50 +17,38 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Cache code context
  * - Cache suggestions
  * - TTL-based expiration
+ * - Bounded: stored in the "analysis" region of MultiRegionCache (entry cap, share of
+ *   the byte budget, W-TinyLFU eviction) instead of growing while entries are live
  */
 @Component
 public class CachingLayer {
     
     private static final Logger logger = LoggerFactory.getLogger(CachingLayer.class);
     
-    private static final long DEFAULT_TTL_MS = 5 * 60 * 1000; // 5 minutes
-    private static final int MAX_CACHE_SIZE = 1000;
+    private final CacheRegion region;
     
-    private final Map<String, CacheEntry<?>> cache = new ConcurrentHashMap<>();
+    public CachingLayer() {
+        this(new MultiRegionCache());
+    }
     
-    /**
-     * Cache entry with TTL
-     */
-    private static class CacheEntry<T> {
-        T value;
-        long expiryTime;
-        
-        CacheEntry(T value, long ttlMs) {
-            this.value = value;
-            this.expiryTime = System.currentTimeMillis() + ttlMs;
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
-        }
+    @Autowired
+    public CachingLayer(MultiRegionCache regions) {
+        this.region = regions.region(MultiRegionCache.ANALYSIS);
     }
     
     /**
-     * Put value in cache
+     * Put value in cache (region's default TTL)
      */
     public <T> void put(String key, T value) {
-        put(key, value, DEFAULT_TTL_MS);
+        region.put(key, value);
+        logger.debug("💾 Cached: {} (TTL: {}ms)", key, region.getDefaultTtl().toMillis());
     }
     
     /**
      * Put value with custom TTL
      */
     public <T> void put(String key, T value, long ttlMs) {
-        if (cache.size() >= MAX_CACHE_SIZE) {
-            evictExpired();
-        }
-        
-        cache.put(key, new CacheEntry<>(value, ttlMs));
+        region.put(key, value, Duration.ofMillis(ttlMs));
         logger.debug("💾 Cached: {} (TTL: {}ms)", key, ttlMs);
     }
     
@@ -67,46 +57,29 @@ public class CachingLayer {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(String key) {
-        CacheEntry<?> entry = cache.get(key);
+        Object value = region.get(key);
         
-        if (entry == null) {
+        if (value == null) {
             logger.debug("❌ Cache miss: {}", key);
             return null;
         }
         
-        if (entry.isExpired()) {
-            cache.remove(key);
-            logger.debug("⏰ Cache expired: {}", key);
-            return null;
-        }
-        
         logger.debug("✅ Cache hit: {}", key);
-        return (T) entry.value;
+        return (T) value;
     }
     
     /**
      * Check if key exists and not expired
      */
     public boolean contains(String key) {
-        CacheEntry<?> entry = cache.get(key);
-        
-        if (entry == null) {
-            return false;
-        }
-        
-        if (entry.isExpired()) {
-            cache.remove(key);
-            return false;
-        }
-        
-        return true;
+        return region.containsKey(key);
     }
     
     /**
      * Remove from cache
      */
     public void remove(String key) {
-        cache.remove(key);
+        region.remove(key);
         logger.debug("🗑️ Removed from cache: {}", key);
     }
     
@@ -114,7 +87,7 @@ public class CachingLayer {
      * Clear all cache
      */
     public void clear() {
-        cache.clear();
+        region.clear();
         logger.debug("🧹 Cache cleared");
     }
     
@@ -122,11 +95,11 @@ public class CachingLayer {
      * Evict expired entries
      */
     public void evictExpired() {
-        int before = cache.size();
+        int before = region.size();
         
-        cache.entrySet().removeIf(e -> e.getValue().isExpired());
+        region.cleanUp();
         
-        int after = cache.size();
+        int after = region.size();
         logger.debug("🧹 Evicted {} expired entries", before - after);
     }
     
@@ -135,17 +108,10 @@ public class CachingLayer {
      */
     public CacheStats getStats() {
         CacheStats stats = new CacheStats();
-        stats.totalSize = cache.size();
-        stats.maxSize = MAX_CACHE_SIZE;
+        stats.totalSize = region.size();
+        stats.maxSize = (int) Math.min(Integer.MAX_VALUE, region.getMaxEntries());
         stats.utilizationPercent = (stats.totalSize * 100) / stats.maxSize;
-        
-        int expiredCount = 0;
-        for (CacheEntry<?> entry : cache.values()) {
-            if (entry.isExpired()) {
-                expiredCount++;
-            }
-        }
-        stats.expiredCount = expiredCount;
+        stats.expiredCount = (int) Math.min(Integer.MAX_VALUE, region.getExpirations());
         
         return stats;
     }
@@ -157,6 +123,7 @@ public class CachingLayer {
         public int totalSize;
         public int maxSize;
         public int utilizationPercent;
+        // Entries expired and removed so far
         public int expiredCount;
         
         @Override
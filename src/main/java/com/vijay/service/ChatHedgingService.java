@@ -0,0 +1,218 @@
+package com.vijay.service;
+
+import com.vijay.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 🏁 CHAT HEDGING SERVICE - Latency-Aware Hedging and Failover Policy
+ *
+ * Purpose: Cut tail latency when one provider stalls (Groq-hosted OpenAI, local Ollama)
+ *
+ * Responsibilities:
+ * - Wrap provider ChatModels in a HedgedChatModel when hedging is enabled
+ * - Keep a latency histogram per provider
+ * - Derive each provider's hedge delay from its observed p95 (bounded, with a cold-start default)
+ * - Resolve backup providers lazily from the application context
+ * - Track hedges, backup wins, failovers and cancelled losers
+ *
+ * Configuration (chat.hedging.*):
+ * - enabled: off by default; when off, wrap() returns the model unchanged
+ * - backups: primary=backup pairs, e.g. openai=ollama,ollama=openai ("stub" = offline ScriptedChatModel)
+ */
+@Service
+public class ChatHedgingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHedgingService.class);
+
+    private final ApplicationContext applicationContext;
+    private final ProviderConcurrencyLimiter limiter;
+
+    // Configuration
+    private final boolean enabled;
+    private final Map<String, String> backups;
+    private final double percentile;
+    private final int minSamples;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong backupWins = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong cancelledLosers = new AtomicLong();
+
+    public ChatHedgingService(ApplicationContext applicationContext,
+                              ProviderConcurrencyLimiter limiter,
+                              @Value("${chat.hedging.enabled:false}") boolean enabled,
+                              @Value("${chat.hedging.backups:openai=ollama,ollama=openai}") String backups,
+                              @Value("${chat.hedging.percentile:95}") double percentile,
+                              @Value("${chat.hedging.min-samples:20}") int minSamples,
+                              @Value("${chat.hedging.initial-delay-ms:3000}") long initialDelayMs,
+                              @Value("${chat.hedging.min-delay-ms:250}") long minDelayMs,
+                              @Value("${chat.hedging.max-delay-ms:15000}") long maxDelayMs) {
+        this.applicationContext = applicationContext;
+        this.limiter = limiter;
+        this.enabled = enabled;
+        this.backups = parseBackups(backups);
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = Math.max(minDelayMs, maxDelayMs);
+    }
+
+    /**
+     * Wrap a provider's model for hedging (returns the model itself when hedging is off or no backup is configured)
+     */
+    public ChatModel wrap(String provider, ChatModel model) {
+        String name = provider.toLowerCase(Locale.ROOT);
+        String backupName = backups.get(name);
+        if (!enabled || backupName == null || backupName.equals(name)) {
+            return model;
+        }
+        logger.info("🏁 Hedging enabled for {} (backup: {})", name, backupName);
+        return new HedgedChatModel(name, model, backupName, lazily(() -> resolveBackup(backupName)), this, executor);
+    }
+
+    /**
+     * Wrap with an explicit backup model (used for tests and the offline stub)
+     */
+    public ChatModel wrap(String provider, ChatModel model, String backupName, ChatModel backupModel) {
+        return new HedgedChatModel(provider, model, backupName, () -> backupModel, this, executor);
+    }
+
+    /**
+     * How long to wait for a provider before sending the backup request
+     */
+    public long getHedgeDelayMs(String provider) {
+        LatencyHistogram histogram = latencies.get(provider);
+        if (histogram == null || histogram.getCount() < minSamples) {
+            return initialDelayMs;
+        }
+        long observed = histogram.getValueAtPercentile(percentile);
+        return Math.max(minDelayMs, Math.min(maxDelayMs, observed));
+    }
+
+    void recordLatency(String provider, long elapsedMs) {
+        latencies.computeIfAbsent(provider, p -> new LatencyHistogram()).record(elapsedMs);
+    }
+
+    void recordHedge() {
+        hedges.incrementAndGet();
+    }
+
+    void recordWinner(boolean backupWon) {
+        if (backupWon) {
+            backupWins.incrementAndGet();
+        }
+    }
+
+    void recordFailover() {
+        failovers.incrementAndGet();
+    }
+
+    void recordCancelled() {
+        cancelledLosers.incrementAndGet();
+    }
+
+    /**
+     * Backup beans are looked up by name on first use, so provider beans can depend on this service
+     * and the perf profile's stand-ins (PerfModelConfig) replace them like any other model.
+     * Backups go through the same admission control as primaries.
+     */
+    private ChatModel resolveBackup(String provider) {
+        ChatModel model = switch (provider) {
+            case "openai" -> applicationContext.getBean("openAiChatModel", ChatModel.class);
+            case "anthropic", "claude" -> applicationContext.getBean("anthropicChatModel", ChatModel.class);
+            case "google", "gemini" -> applicationContext.getBean("googleGenAiChatModel", ChatModel.class);
+            case "stub" -> new ScriptedChatModel(0, 50, 20, 0, null);
+            default -> applicationContext.getBean("ollamaChatModel", ChatModel.class);
+        };
+        return limiter.wrap(provider, model);
+    }
+
+    private static Supplier<ChatModel> lazily(Supplier<ChatModel> factory) {
+        AtomicReference<ChatModel> model = new AtomicReference<>();
+        return () -> model.updateAndGet(existing -> existing != null ? existing : factory.get());
+    }
+
+    private static Map<String, String> parseBackups(String spec) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        if (spec == null) {
+            return pairs;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
+                pairs.put(parts[0].trim().toLowerCase(Locale.ROOT), parts[1].trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Get hedging statistics
+     */
+    public HedgingStats getStats() {
+        Map<String, LatencyHistogram.HistogramSnapshot> providers = new LinkedHashMap<>();
+        Map<String, Long> delays = new LinkedHashMap<>();
+        latencies.forEach((provider, histogram) -> {
+            providers.put(provider, histogram.snapshot());
+            delays.put(provider, getHedgeDelayMs(provider));
+        });
+        return new HedgingStats(enabled, hedges.get(), backupWins.get(), failovers.get(),
+            cancelledLosers.get(), providers, delays);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Hedging statistics
+     */
+    public static class HedgingStats {
+        public final boolean enabled;
+        public final long hedges;
+        public final long backupWins;
+        public final long failovers;
+        public final long cancelledLosers;
+        public final Map<String, LatencyHistogram.HistogramSnapshot> providerLatency;
+        public final Map<String, Long> hedgeDelayMs;
+
+        public HedgingStats(boolean enabled, long hedges, long backupWins, long failovers, long cancelledLosers,
+                            Map<String, LatencyHistogram.HistogramSnapshot> providerLatency,
+                            Map<String, Long> hedgeDelayMs) {
+            this.enabled = enabled;
+            this.hedges = hedges;
+            this.backupWins = backupWins;
+            this.failovers = failovers;
+            this.cancelledLosers = cancelledLosers;
+            this.providerLatency = providerLatency;
+            this.hedgeDelayMs = hedgeDelayMs;
+        }
+    }
+}
@@ -2,19 +2,23 @@ package com.vijay.service;
 
 import com.vijay.context.TraceContext;
 import com.vijay.context.GlobalBrainContext;
+import com.vijay.context.RequestContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ChatRequest;
 import com.vijay.dto.ChatResponse;
 import com.vijay.dto.ReasoningState;
-import com.vijay.manager.AiToolProvider;
-import com.vijay.tools.ToolFinderService;
+import com.vijay.manager.SelfRefineV3Advisor;
 import com.vijay.util.AgentPlanHolder;
+import com.vijay.util.QueryFeatureExtractor;
+import com.vijay.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,22 +48,93 @@ public class ChatService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
 
+    private static final String SYSTEM_PROMPT = """
+            You are a helpful AI assistant. 
+            
+            IMPORTANT: You have access to conversation history from previous messages in this session.
+            Use the conversation history to:
+            1. Remember user information (like their name if they told you)
+            2. Provide consistent responses
+            3. Reference previous context
+            
+            If the user asks about something they told you before, use that information from the history.
+            """;
+
     private final ApplicationContext applicationContext;
-    private final ToolFinderService toolFinder;
     private final SupervisorBrain supervisorBrain;
+    private final IterationController iterationController;
+    private final PreLlmStage preLlmStage;
+    private final SemanticResponseCache responseCache;
+    private final ProviderConcurrencyLimiter concurrencyLimiter;
+
+    // Identical concurrent turns over the same history share one chain execution
+    private final SingleFlight<String, CoalescedTurn> chatFlight = new SingleFlight<>();
+    private final long coalescingMaxWaitMs;
 
     public ChatService(ApplicationContext applicationContext,
-                       List<AiToolProvider> allToolProviders,
-                       ToolFinderService toolFinder,
-                       SupervisorBrain supervisorBrain) {
+                       SupervisorBrain supervisorBrain,
+                       IterationController iterationController,
+                       PreLlmStage preLlmStage,
+                       SemanticResponseCache responseCache,
+                       ProviderConcurrencyLimiter concurrencyLimiter,
+                       @Value("${chat.coalescing.max-wait-ms:30000}") long coalescingMaxWaitMs) {
         this.applicationContext = applicationContext;
-        this.toolFinder = toolFinder;
         this.supervisorBrain = supervisorBrain;
+        this.iterationController = iterationController;
+        this.preLlmStage = preLlmStage;
+        this.responseCache = responseCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.coalescingMaxWaitMs = coalescingMaxWaitMs;
     }
 
     public ChatResponse processChat(String provider, ChatRequest request) {
+        // 💾 Get stable conversation ID from request
+        String conversationId = request.getConversationId();
+        if (conversationId == null || conversationId.isEmpty()) {
+            conversationId = "session_default_" + System.currentTimeMillis() / 60000;
+        }
+        final String finalConversationId = conversationId;  // ← Make it final for lambda
+
+        // 🛫 Coalesce identical in-flight turns: duplicates attach to the leader's execution,
+        // but wait at most coalescingMaxWaitMs
+        SingleFlight.Result<CoalescedTurn> flight = chatFlight.execute(coalescingKey(provider, request, finalConversationId),
+                () -> new CoalescedTurn(processTurn(provider, request, finalConversationId), finalConversationId),
+                coalescingMaxWaitMs);
+
+        if (flight.shared) {
+            ChatResponse shared = flight.value.response;
+            logger.info("🛫 ChatService: coalesced duplicate request onto in-flight call (conversation: {})", finalConversationId);
+            if (!finalConversationId.equals(flight.value.conversationId)) {
+                responseCache.recordTurn(finalConversationId, request.getMessage(), shared.getResponse());
+            }
+            return new ChatResponse(shared.getResponse(), provider, shared.getToolsUsed());
+        }
+        return flight.value.response;
+    }
+
+    /**
+     * Key for request coalescing: provider + normalized message + the history the memory
+     * advisors would send with it. Conversation-independent turns are keyed on the history
+     * fingerprint, so fresh conversations (and any with identical history) share one call;
+     * conversation-dependent turns ("explain it again") stay scoped to their conversation.
+     */
+    private String coalescingKey(String provider, ChatRequest request, String conversationId) {
+        String message = request.getMessage();
+        boolean conversationIndependent = !QueryFeatureExtractor.extract(message).contextDependent;
+        String scope = conversationIndependent
+                ? "h:" + responseCache.historyFingerprint(conversationId)
+                : "c:" + conversationId;
+        return provider.toLowerCase() + "|" + scope + "|"
+                + (request.isBlockingRefine() ? "refine|" : "")
+                + SemanticResponseCache.normalize(message);
+    }
+
+    private ChatResponse processTurn(String provider, ChatRequest request, String finalConversationId) {
         // STEP 0: Initialize trace context for request tracking
-        TraceContext.initialize();
+        // (a caller-assigned trace ID, e.g. from StressTestRunner, is kept so it can find its timeline)
+        if (!TraceContext.isInitialized()) {
+            TraceContext.initialize();
+        }
         String traceId = TraceContext.getTraceId();
 
         logger.info("[{}] 🧠 ChatService (Dumb Orchestrator): Processing message...", traceId);
@@ -67,12 +142,6 @@ public class ChatService {
                 request.getMessage().substring(0, 60) + "..." : request.getMessage());
 
         try {
-            // 💾 Get stable conversation ID from request
-            String conversationId = request.getConversationId();
-            if (conversationId == null || conversationId.isEmpty()) {
-                conversationId = "session_default_" + System.currentTimeMillis() / 60000;
-            }
-            final String finalConversationId = conversationId;  // ← Make it final for lambda
             logger.info("[{}]    💾 Using conversation ID: {}", traceId, finalConversationId);
 
             // 💾 Initialize SupervisorBrain with STABLE conversation ID (not random!)
@@ -87,20 +156,41 @@ public class ChatService {
             GlobalBrainContext.put("traceId", traceId);
             GlobalBrainContext.put("provider", provider);
             GlobalBrainContext.put("conversationId", finalConversationId);
+            RequestContext requestContext = RequestContext.current();
             logger.info("[{}]    🧠 GlobalBrainContext initialized", traceId);
 
+            // STEP 0.75: Serve repeated FAQ-style questions from the response cache
+            // (bypassed automatically for tool-using and conversation-dependent turns)
+            SemanticResponseCache.Lookup cacheLookup =
+                    responseCache.lookup(provider, request.getMessage(), SYSTEM_PROMPT, finalConversationId);
+            if (cacheLookup.hit) {
+                responseCache.recordTurn(finalConversationId, request.getMessage(), cacheLookup.response);
+                logger.info("[{}] ⚡ Response served from cache (similarity: {}, elapsed: {})", traceId,
+                        String.format("%.3f", cacheLookup.similarity), TraceContext.getElapsedTimeFormatted());
+                return new ChatResponse(cacheLookup.response, provider, new String[0]);
+            }
+            logger.info("[{}]    💾 Response cache: {}", traceId, cacheLookup.reason);
+
+            // STEP 0.9: Shed load before any pre-LLM work if the provider's wait queue is full
+            concurrencyLimiter.checkAdmission(provider);
+
             // STEP 1: Get ChatClient for provider
             ChatClient chatClient = getChatClientForProvider(provider);
             logger.info("[{}]    ✅ Got ChatClient for provider: {}", traceId, provider);
 
-            // STEP 2: Find suggested tools using RAG (ToolFinderService)
-            // These are SUGGESTIONS - Conductor will approve/reject in Brain 0
-            List<String> suggestedToolNames = toolFinder.findToolsFor(request.getMessage());
+            // STEP 2: Run the pre-LLM lookups under their deadline (ToolFinder)
+            // Tools are SUGGESTIONS - Conductor will approve/reject in Brain 0
+            PreLlmStage.PreLlmResult prefetch = preLlmStage.run(request.getMessage());
+            List<String> suggestedToolNames = prefetch.suggestedTools;
             logger.info("[{}]    🔧 Tools suggested by ToolFinder: {} - {}",
                     traceId, suggestedToolNames.size(), suggestedToolNames);
+            if (prefetch.isDegraded()) {
+                logger.warn("[{}]    ⚠️ Pre-LLM lookups degraded: {}", traceId, prefetch.degraded);
+            }
 
             // Store suggested tools in ReasoningState for Conductor to review
             reasoningState.setSuggestedTools(suggestedToolNames);
+            GlobalBrainContext.setReasoningState(reasoningState);
 
             // ✅ Convert to array for .toolNames() API
             String[] suggestedToolsArray = suggestedToolNames.toArray(new String[0]);
@@ -108,17 +198,7 @@ public class ChatService {
             logger.info("[{}]    🧠 Delegating to Hybrid Brain Chain (Conductor will filter tools)...", traceId);
 
             // 💾 STEP 3A: Add system prompt to tell AI to use conversation history
-            String systemPrompt = """
-                    You are a helpful AI assistant. 
-                    
-                    IMPORTANT: You have access to conversation history from previous messages in this session.
-                    Use the conversation history to:
-                    1. Remember user information (like their name if they told you)
-                    2. Provide consistent responses
-                    3. Reference previous context
-                    
-                    If the user asks about something they told you before, use that information from the history.
-                    """;
+            String systemPrompt = SYSTEM_PROMPT;
             logger.info("[{}]    📝 System prompt injected to use conversation history", traceId);
             logger.info("[{}]    📚 MessageChatMemoryAdvisor will load history for conversation: {}", traceId, finalConversationId);
 
@@ -126,8 +206,10 @@ public class ChatService {
             // The Conductor (Brain 0) will approve/reject them
             // The ToolCallAdvisor (Brain 2) will ENFORCE only approved tools are executed
             // 💾 IMPORTANT: Pass conversation ID to MessageChatMemoryAdvisor
-            int maxIterations = 2;
-            String response = "";
+            // 🔁 IterationController decides if a refine pass is worth its latency and tokens
+            int maxIterations = iterationController.getMaxIterations();
+            IterationController.RequestBudget budget = iterationController.begin();
+            List<String> responses = new ArrayList<>();
             AgentPlan finalPlan = null;
 
             for (int iteration = 1; iteration <= maxIterations; iteration++) {
@@ -140,6 +222,7 @@ public class ChatService {
 
                 int currentIteration = iteration;
                 GlobalBrainContext.put("iteration", currentIteration);
+                GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, null);
 
                 String iterationResponse = chatClient.prompt()
                         .system(systemPrompt)
@@ -148,6 +231,8 @@ public class ChatService {
                         .advisors(advisor -> advisor
                                 .param("conversationId", finalConversationId)
                                 .param("iteration",  currentIteration)
+                                .param(RequestContext.KEY, requestContext)
+                                .param(SelfRefineV3Advisor.BLOCKING_REFINE_PARAM, request.isBlockingRefine())
                         )
                         .call()
                         .content();
@@ -159,25 +244,25 @@ public class ChatService {
 
                 AgentPlan plan = AgentPlanHolder.getPlan();
 
-                response = iterationResponse;
+                responses.add(iterationResponse);
                 finalPlan = plan;
 
-                if (plan == null) {
-                    logger.info("[{}]    ℹ️ No AgentPlan found after iteration {}, stopping ReAct loop", traceId, iteration);
-                    break;
-                }
-
-                boolean hasTools = plan.getRequiredTools() != null && !plan.getRequiredTools().isEmpty();
-                boolean shouldContinue = hasTools && plan.getComplexity() >= 2 && iteration < maxIterations;
+                IterationController.Decision decision =
+                        iterationController.afterPass(budget, iteration, userMessage, iterationResponse, plan);
 
-                if (!shouldContinue) {
+                if (!decision.refine) {
+                    logger.info("[{}]    ✋ Stopping after iteration {} ({}, quality: {})",
+                            traceId, iteration, decision.reason, String.format("%.2f", decision.quality));
                     break;
                 }
 
-                logger.info("[{}]    🔁 ReAct loop: tool-heavy or complex query detected (complexity: {}, tools: {}), continuing to next iteration", 
-                        traceId, plan.getComplexity(), plan.getRequiredTools().size());
+                logger.info("[{}]    🔁 Quality {} below threshold, continuing to next iteration",
+                        traceId, String.format("%.2f", decision.quality));
             }
 
+            // Keep the best-scoring pass - a refine pass is not guaranteed to be better
+            String response = responses.get(Math.max(0, budget.getBestIteration() - 1));
+
             logger.info("[{}]    ✅ ChatClient returned response (length: {})", traceId, response.length());
 
             // ✅ STEP 4: Get the actually USED tools from the plan
@@ -186,6 +271,8 @@ public class ChatService {
                     ? planForTools.getRequiredTools().toArray(new String[0])
                     : new String[0];
 
+            responseCache.store(cacheLookup, response, java.util.Arrays.asList(actuallyUsedTools));
+
             logger.info("[{}] ✅ Response generated successfully (elapsed: {})",
                     traceId, TraceContext.getElapsedTimeFormatted());
             logger.info("[{}]    🔧 Tools actually used: {} - {}",
@@ -196,6 +283,10 @@ public class ChatService {
         } catch (IllegalArgumentException e) {
             logger.error("[{}] ❌ Invalid provider: {}", traceId, provider);
             throw e;
+        } catch (ProviderOverloadedException e) {
+            logger.warn("[{}] 🚦 Provider {} overloaded: {} (retry after {}s)",
+                    traceId, provider, e.getMessage(), e.getRetryAfterSeconds());
+            throw e;
         } catch (Exception e) {
             logger.error("[{}] ❌ Error processing chat request: {}", traceId, e.getMessage(), e);
             throw new RuntimeException("Error processing request: " + e.getMessage(), e);
@@ -225,13 +316,38 @@ public class ChatService {
             case "google":
             case "gemini":
                 return applicationContext.getBean("googleChatClient", ChatClient.class);
+            case "stub":
+                if (applicationContext.containsBean("stubChatClient")) {
+                    return applicationContext.getBean("stubChatClient", ChatClient.class);
+                }
+                // Not registered unless chat.stress.stub-enabled=true: treat as an unknown provider
             default:
                 logger.warn("⚠️ Unknown provider {}, defaulting to Ollama", provider);
                 return applicationContext.getBean("ollamaChatClient", ChatClient.class);
         }
     }
 
+    /**
+     * Request coalescing statistics
+     */
+    public SingleFlight.FlightStats getCoalescingStats() {
+        return chatFlight.getStats();
+    }
+
     public String[] getSupportedProviders() {
         return new String[]{"openai", "claude", "anthropic", "google", "gemini", "ollama"};
     }
-}
\ No newline at end of file
+
+    /**
+     * Result of one chain execution, shared with coalesced duplicates
+     */
+    private static class CoalescedTurn {
+        final ChatResponse response;
+        final String conversationId;
+
+        CoalescedTurn(ChatResponse response, String conversationId) {
+            this.response = response;
+            this.conversationId = conversationId;
+        }
+    }
+}
@@ -4,7 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -33,7 +33,7 @@ public class CodeSummaryIndexer {
     private final ExecutorService executorService = Executors.newFixedThreadPool(3);
 
     public CodeSummaryIndexer(@Qualifier("summaryVectorStore") VectorStore summaryStore,
-                             OpenAiChatModel chatModel,
+                             @Qualifier("openAiChatModel") ChatModel chatModel,
                              EmbeddingCacheManager cacheManager) {
         this.summaryStore = summaryStore;
         this.chatClient = ChatClient.builder(chatModel).build();
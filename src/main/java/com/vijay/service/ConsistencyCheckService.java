@@ -1,5 +1,6 @@
 package com.vijay.service;
 
+import com.vijay.util.ResponseScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -20,33 +21,44 @@ import java.util.regex.Pattern;
  * - Validate required fields
  * - Validate code structure
  * - Provide consistency report
+ * 
+ * Phrase, bracket and sentence checks consume a ResponseScanner.Features vector,
+ * so the response is walked once no matter how many checks run.
  */
 @Service
 public class ConsistencyCheckService {
     
     private static final Logger logger = LoggerFactory.getLogger(ConsistencyCheckService.class);
     
-    // Patterns for code validation
-    private static final Pattern CLASS_PATTERN = Pattern.compile("\\bclass\\s+\\w+");
+    // Patterns for code validation (class declarations come from ResponseScanner)
     private static final Pattern METHOD_PATTERN = Pattern.compile("\\b(public|private|protected)?\\s+(static\\s+)?(\\w+)\\s+\\w+\\s*\\(");
     private static final Pattern FIELD_PATTERN = Pattern.compile("\\b(public|private|protected)?\\s+(static\\s+)?(final\\s+)?(\\w+)\\s+\\w+");
     
+    private static final String[] TRANSITIONS = {"however", "therefore", "thus", "moreover", "furthermore", "meanwhile", "subsequently"};
+    
     /**
      * Check overall consistency of response
      */
     public ConsistencyReport checkConsistency(String response) {
+        return checkConsistency(ResponseScanner.DEFAULT.scan(response));
+    }
+    
+    /**
+     * Check overall consistency of an already scanned response
+     */
+    public ConsistencyReport checkConsistency(ResponseScanner.Features features) {
         ConsistencyReport report = new ConsistencyReport();
         
-        if (response == null || response.isEmpty()) {
+        if (features.length == 0) {
             report.addIssue("Response is empty", IssueSeverity.HIGH);
             return report;
         }
         
         // Run all checks
-        checkForContradictions(response, report);
-        checkForIncompleteStatements(response, report);
-        checkForLogicalFlow(response, report);
-        checkForCodeConsistency(response, report);
+        checkForContradictions(features, report);
+        checkForIncompleteStatements(features, report);
+        checkForLogicalFlow(features, report);
+        checkForCodeConsistency(features, report);
         
         logger.info("🧠 Consistency Check: {} issues found (severity: {})", 
             report.getIssueCount(), report.getHighestSeverity());
@@ -57,74 +69,56 @@ public class ConsistencyCheckService {
     /**
      * Check for contradictions in response
      */
-    private void checkForContradictions(String response, ConsistencyReport report) {
-        String lower = response.toLowerCase();
-        
+    private void checkForContradictions(ResponseScanner.Features features, ConsistencyReport report) {
         // Check for common contradictions
-        if (lower.contains("yes") && lower.contains("no")) {
-            if (lower.indexOf("yes") < lower.indexOf("no")) {
-                // Check if they're in same context
-                int distance = lower.indexOf("no") - lower.indexOf("yes");
-                if (distance < 500) { // Within 500 chars
-                    report.addIssue("Potential contradiction: contains both 'yes' and 'no' in close proximity", 
-                        IssueSeverity.MEDIUM);
-                }
+        int yesIndex = features.indexOf("yes");
+        int noIndex = features.indexOf("no");
+        if (yesIndex >= 0 && noIndex >= 0 && yesIndex < noIndex) {
+            // Check if they're in same context
+            if (noIndex - yesIndex < 500) { // Within 500 chars
+                report.addIssue("Potential contradiction: contains both 'yes' and 'no' in close proximity", 
+                    IssueSeverity.MEDIUM);
             }
         }
         
-        if (lower.contains("always") && lower.contains("never")) {
+        if (features.contains("always") && features.contains("never")) {
             report.addIssue("Potential contradiction: contains both 'always' and 'never'", IssueSeverity.MEDIUM);
         }
         
-        if (lower.contains("must") && lower.contains("optional")) {
+        if (features.contains("must") && features.contains("optional")) {
             report.addIssue("Potential contradiction: contains both 'must' and 'optional'", IssueSeverity.MEDIUM);
         }
     }
     
     /**
-     * Check for incomplete statements
+     * Check for incomplete statements (sentences are split during the scan)
      */
-    private void checkForIncompleteStatements(String response, ConsistencyReport report) {
-        String[] sentences = response.split("[.!?]");
-        
-        for (String sentence : sentences) {
-            String trimmed = sentence.trim();
-            
-            // Check for incomplete sentences
-            if (trimmed.startsWith("For example") || trimmed.startsWith("Such as")) {
-                if (trimmed.endsWith(",") || trimmed.endsWith(":")) {
-                    report.addIssue("Incomplete statement: '" + trimmed.substring(0, Math.min(50, trimmed.length())) + "...'", 
-                        IssueSeverity.LOW);
-                }
-            }
-            
-            // Check for dangling references
-            if (trimmed.contains("this") || trimmed.contains("that")) {
-                if (trimmed.length() < 20) {
-                    report.addIssue("Incomplete reference in short sentence", IssueSeverity.LOW);
-                }
-            }
+    private void checkForIncompleteStatements(ResponseScanner.Features features, ConsistencyReport report) {
+        // Check for incomplete sentences
+        for (String statement : features.incompleteStatements) {
+            report.addIssue("Incomplete statement: '" + statement + "...'", IssueSeverity.LOW);
+        }
+        
+        // Check for dangling references
+        for (int i = 0; i < features.danglingReferences; i++) {
+            report.addIssue("Incomplete reference in short sentence", IssueSeverity.LOW);
         }
     }
     
     /**
      * Check for logical flow
      */
-    private void checkForLogicalFlow(String response, ConsistencyReport report) {
-        String lower = response.toLowerCase();
-        
+    private void checkForLogicalFlow(ResponseScanner.Features features, ConsistencyReport report) {
         // Check for proper transitions
         int transitionCount = 0;
-        String[] transitions = {"however", "therefore", "thus", "moreover", "furthermore", "meanwhile", "subsequently"};
-        
-        for (String transition : transitions) {
-            if (lower.contains(transition)) {
+        for (String transition : TRANSITIONS) {
+            if (features.contains(transition)) {
                 transitionCount++;
             }
         }
         
         // If response is long but has no transitions, might lack flow
-        if (response.length() > 500 && transitionCount == 0) {
+        if (features.length > 500 && transitionCount == 0) {
             report.addIssue("Response may lack logical flow (no transition words found)", IssueSeverity.LOW);
         }
     }
@@ -132,36 +126,27 @@ public class ConsistencyCheckService {
     /**
      * Check for code consistency
      */
-    private void checkForCodeConsistency(String response, ConsistencyReport report) {
+    private void checkForCodeConsistency(ResponseScanner.Features features, ConsistencyReport report) {
         // Check for code blocks
-        if (!response.contains("```") && !response.contains("public") && !response.contains("class")) {
+        if (!features.containsExact("```") && !features.containsExact("public") && !features.containsExact("class")) {
             return; // Not a code response
         }
         
         // Check for matching braces
-        int openBraces = countOccurrences(response, "{");
-        int closeBraces = countOccurrences(response, "}");
-        
-        if (openBraces != closeBraces) {
-            report.addIssue(String.format("Unmatched braces: %d open, %d close", openBraces, closeBraces), 
+        if (features.openBraces != features.closeBraces) {
+            report.addIssue(String.format("Unmatched braces: %d open, %d close", features.openBraces, features.closeBraces), 
                 IssueSeverity.HIGH);
         }
         
         // Check for matching parentheses
-        int openParens = countOccurrences(response, "(");
-        int closeParens = countOccurrences(response, ")");
-        
-        if (openParens != closeParens) {
-            report.addIssue(String.format("Unmatched parentheses: %d open, %d close", openParens, closeParens), 
+        if (features.openParens != features.closeParens) {
+            report.addIssue(String.format("Unmatched parentheses: %d open, %d close", features.openParens, features.closeParens), 
                 IssueSeverity.HIGH);
         }
         
         // Check for matching brackets
-        int openBrackets = countOccurrences(response, "[");
-        int closeBrackets = countOccurrences(response, "]");
-        
-        if (openBrackets != closeBrackets) {
-            report.addIssue(String.format("Unmatched brackets: %d open, %d close", openBrackets, closeBrackets), 
+        if (features.openBrackets != features.closeBrackets) {
+            report.addIssue(String.format("Unmatched brackets: %d open, %d close", features.openBrackets, features.closeBrackets), 
                 IssueSeverity.HIGH);
         }
     }
@@ -195,22 +180,25 @@ public class ConsistencyCheckService {
      * Validate code structure
      */
     public CodeStructureReport validateCodeStructure(String response) {
+        return validateCodeStructure(ResponseScanner.DEFAULT.scan(response));
+    }
+    
+    /**
+     * Validate code structure of an already scanned response
+     */
+    public CodeStructureReport validateCodeStructure(ResponseScanner.Features features) {
         CodeStructureReport report = new CodeStructureReport();
         
-        if (!response.contains("class") && !response.contains("function") && !response.contains("def")) {
+        if (!features.containsExact("class") && !features.containsExact("function") && !features.containsExact("def")) {
             return report; // Not code
         }
         
-        // Check for classes
-        Matcher classMatcher = CLASS_PATTERN.matcher(response);
-        int classCount = 0;
-        while (classMatcher.find()) {
-            classCount++;
-            report.addFoundClass(classMatcher.group());
-        }
+        // Classes were collected during the scan
+        int classCount = features.classDeclarations.size();
+        features.classDeclarations.forEach(report::addFoundClass);
         
         // Check for methods
-        Matcher methodMatcher = METHOD_PATTERN.matcher(response);
+        Matcher methodMatcher = METHOD_PATTERN.matcher(features.text);
         int methodCount = 0;
         while (methodMatcher.find()) {
             methodCount++;
@@ -218,7 +206,7 @@ public class ConsistencyCheckService {
         }
         
         // Check for fields
-        Matcher fieldMatcher = FIELD_PATTERN.matcher(response);
+        Matcher fieldMatcher = FIELD_PATTERN.matcher(features.text);
         int fieldCount = 0;
         while (fieldMatcher.find()) {
             fieldCount++;
@@ -239,19 +227,6 @@ public class ConsistencyCheckService {
         return report;
     }
     
-    /**
-     * Count occurrences of a string
-     */
-    private int countOccurrences(String text, String pattern) {
-        int count = 0;
-        int index = 0;
-        while ((index = text.indexOf(pattern, index)) != -1) {
-            count++;
-            index += pattern.length();
-        }
-        return count;
-    }
-    
     // ============ Inner Classes ============
     
     /**
@@ -1,9 +1,15 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -21,6 +27,8 @@ import java.util.stream.Collectors;
  * - Automatic memory pruning and summarization
  * - User preference learning
  * - Query pattern recognition
+ * - Long-term memory per user in an embedding index (LongTermMemoryIndex), bounded
+ *   per user and in number of users, searched by k-NN
  * 
  * This transforms the AI from stateless to stateful, enabling:
  * - "Remember when we discussed X?"
@@ -34,14 +42,48 @@ public class ConversationMemoryManager {
     private static final Logger logger = LoggerFactory.getLogger(ConversationMemoryManager.class);
     
     // Memory storage
-    private final Map<String, ConversationSession> activeSessions = new ConcurrentHashMap<>();
-    private final Map<String, UserProfile> userProfiles = new ConcurrentHashMap<>();
-    private final List<ConversationMemory> longTermMemory = new ArrayList<>();
+    private final SessionNamespace<ConversationSession> activeSessions;
+    private final SessionNamespace<UserProfile> userProfiles;
+    private final Map<String, LongTermMemoryIndex> longTermMemory = new ConcurrentHashMap<>();
     
     // Memory configuration
     private static final int MAX_SHORT_TERM_MEMORIES = 20;
-    private static final int MAX_LONG_TERM_MEMORIES = 100;
-    private static final int MEMORY_RELEVANCE_THRESHOLD = 70; // 0-100 scale
+    private static final int MAX_LONG_TERM_RESULTS = 2;
+    private static final int MAX_RELATED_EXCHANGES = 3;
+    private static final int EMBEDDING_CACHE_SIZE = 256;
+    
+    private final EmbeddingModel embeddingModel;
+    private final int maxLongTermPerUser;
+    private final int maxLongTermUsers;
+    private final Duration importanceHalfLife;
+    private final double longTermMinSimilarity;
+    private final double relatedMinSimilarity;
+    
+    // The query embedded by getRelevantContext is embedded again by storeConversation
+    private final Map<String, float[]> recentEmbeddings = Collections.synchronizedMap(
+        new LinkedHashMap<String, float[]>(EMBEDDING_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > EMBEDDING_CACHE_SIZE;
+            }
+        });
+    
+    public ConversationMemoryManager(SessionStateStore stateStore,
+                                     @Qualifier("ollamaEmbeddingModel") EmbeddingModel embeddingModel,
+                                     @Value("${chat.memory.long-term.max-per-user:200}") int maxLongTermPerUser,
+                                     @Value("${chat.memory.long-term.max-users:1000}") int maxLongTermUsers,
+                                     @Value("${chat.memory.long-term.half-life-days:30}") int halfLifeDays,
+                                     @Value("${chat.memory.long-term.min-similarity:0.6}") double longTermMinSimilarity,
+                                     @Value("${chat.memory.related-min-similarity:0.75}") double relatedMinSimilarity) {
+        this.activeSessions = stateStore.namespace("memory-session", 10_000, Duration.ofHours(24));
+        this.userProfiles = stateStore.namespace("memory-user-profile", 50_000, Duration.ofDays(30));
+        this.embeddingModel = embeddingModel;
+        this.maxLongTermPerUser = Math.max(1, maxLongTermPerUser);
+        this.maxLongTermUsers = Math.max(1, maxLongTermUsers);
+        this.importanceHalfLife = Duration.ofDays(Math.max(1, halfLifeDays));
+        this.longTermMinSimilarity = longTermMinSimilarity;
+        this.relatedMinSimilarity = relatedMinSimilarity;
+    }
     
     /**
      * 🎯 Store a new conversation exchange
@@ -53,6 +95,7 @@ public class ConversationMemoryManager {
         ConversationExchange exchange = new ConversationExchange(
             userQuery, aiResponse, searchStrategy, confidence, LocalDateTime.now()
         );
+        exchange.setQueryEmbedding(embed(userQuery));
         
         // Update session memory
         ConversationSession session = activeSessions.computeIfAbsent(sessionId, 
@@ -66,11 +109,11 @@ public class ConversationMemoryManager {
         
         // Check if memory should be promoted to long-term
         if (shouldPromoteToLongTerm(exchange)) {
-            promoteToLongTermMemory(sessionId, exchange);
+            promoteToLongTermMemory(sessionId, userId, exchange);
         }
         
-        // Prune old memories if needed
-        pruneMemoriesIfNeeded();
+        // Keep this session's short-term memory bounded
+        pruneSessionIfNeeded(session);
         
         logger.debug("💾 Memory stored - Session exchanges: {}, User profile updated", 
             session.getExchanges().size());
@@ -83,6 +126,7 @@ public class ConversationMemoryManager {
         logger.info("🔍 Retrieving conversation context - Session: {}, Query: '{}'", sessionId, currentQuery);
         
         ConversationContext context = new ConversationContext();
+        float[] queryEmbedding = embed(currentQuery);
         
         // Get current session context
         ConversationSession session = activeSessions.get(sessionId);
@@ -91,7 +135,7 @@ public class ConversationMemoryManager {
             context.setRecentExchanges(recentExchanges);
             
             // Find related previous discussions
-            List<ConversationExchange> relatedExchanges = findRelatedExchanges(session, currentQuery);
+            List<ConversationExchange> relatedExchanges = findRelatedExchanges(session, currentQuery, queryEmbedding);
             context.setRelatedExchanges(relatedExchanges);
         }
         
@@ -104,7 +148,7 @@ public class ConversationMemoryManager {
         }
         
         // Get relevant long-term memories
-        List<ConversationMemory> relevantMemories = findRelevantLongTermMemories(currentQuery);
+        List<ConversationMemory> relevantMemories = findRelevantLongTermMemories(userId, currentQuery, queryEmbedding);
         context.setLongTermMemories(relevantMemories);
         
         logger.info("🧠 Context retrieved - Recent: {}, Related: {}, LongTerm: {}", 
@@ -134,24 +178,37 @@ public class ConversationMemoryManager {
         return insights;
     }
     
+    /**
+     * 📊 Number of long-term memories across all users
+     */
+    public int getLongTermMemoryCount() {
+        return longTermMemory.values().stream().mapToInt(LongTermMemoryIndex::size).sum();
+    }
+    
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+    
+    public int getUserCount() {
+        return userProfiles.size();
+    }
+    
     /**
      * 🧹 Clean up old sessions and optimize memory usage
      */
     public void cleanupOldSessions() {
         LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
         
-        List<String> sessionsToRemove = activeSessions.entrySet().stream()
-            .filter(entry -> entry.getValue().getLastActivityTime().isBefore(cutoff))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
-        
-        for (String sessionId : sessionsToRemove) {
-            ConversationSession session = activeSessions.remove(sessionId);
+        int removed = activeSessions.removeIf((sessionId, session) -> {
+            if (!session.getLastActivityTime().isBefore(cutoff)) {
+                return false;
+            }
             logger.info("🧹 Cleaned up old session: {} (last activity: {})", 
                 sessionId, session.getLastActivityTime());
-        }
+            return true;
+        });
         
-        logger.info("🧹 Memory cleanup complete - Removed {} old sessions", sessionsToRemove.size());
+        logger.info("🧹 Memory cleanup complete - Removed {} old sessions", removed);
     }
     
     // Private helper methods
@@ -167,13 +224,40 @@ public class ConversationMemoryManager {
         return false;
     }
     
-    private void promoteToLongTermMemory(String sessionId, ConversationExchange exchange) {
+    private void promoteToLongTermMemory(String sessionId, String userId, ConversationExchange exchange) {
         ConversationMemory memory = new ConversationMemory(
             sessionId, exchange, LocalDateTime.now(), calculateImportanceScore(exchange)
         );
         
-        longTermMemory.add(memory);
-        logger.debug("📚 Promoted to long-term memory - Importance: {}", memory.getImportanceScore());
+        LongTermMemoryIndex index = longTermMemory.get(userId);
+        if (index == null) {
+            evictIdleUserIfNeeded();
+            index = longTermMemory.computeIfAbsent(userId,
+                k -> new LongTermMemoryIndex(maxLongTermPerUser, importanceHalfLife));
+        }
+        ConversationMemory evicted = index.add(memory, exchange.getQueryEmbedding());
+        logger.debug("📚 Promoted to long-term memory - Importance: {}{}", memory.getImportanceScore(),
+            evicted != null ? " (replaced a weaker memory)" : "");
+    }
+    
+    /**
+     * Make room for a new user's index by dropping the least recently used one
+     */
+    private void evictIdleUserIfNeeded() {
+        while (longTermMemory.size() >= maxLongTermUsers) {
+            String idlest = null;
+            long idlestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, LongTermMemoryIndex> entry : longTermMemory.entrySet()) {
+                if (entry.getValue().getLastAccessMillis() < idlestAccess) {
+                    idlestAccess = entry.getValue().getLastAccessMillis();
+                    idlest = entry.getKey();
+                }
+            }
+            if (idlest == null || longTermMemory.remove(idlest) == null) {
+                return;
+            }
+            logger.debug("🧹 Dropped long-term memory of idle user {}", idlest);
+        }
     }
     
     private double calculateImportanceScore(ConversationExchange exchange) {
@@ -188,54 +272,78 @@ public class ConversationMemoryManager {
         return Math.min(100, score);
     }
     
-    private List<ConversationExchange> findRelatedExchanges(ConversationSession session, String currentQuery) {
-        return session.getExchanges().stream()
-            .filter(exchange -> calculateSimilarity(exchange.getUserQuery(), currentQuery) > 0.6)
-            .sorted((a, b) -> Double.compare(
-                calculateSimilarity(b.getUserQuery(), currentQuery),
-                calculateSimilarity(a.getUserQuery(), currentQuery)
-            ))
-            .limit(3)
+    private List<ConversationExchange> findRelatedExchanges(ConversationSession session, String currentQuery,
+                                                            float[] queryEmbedding) {
+        // Score every exchange once (the session holds at most MAX_SHORT_TERM_MEMORIES)
+        List<Map.Entry<ConversationExchange, Double>> scored = new ArrayList<>();
+        for (ConversationExchange exchange : session.getRecentExchanges(MAX_SHORT_TERM_MEMORIES)) {
+            double similarity = similarity(exchange, currentQuery, queryEmbedding);
+            if (similarity > relatedMinSimilarity) {
+                scored.add(Map.entry(exchange, similarity));
+            }
+        }
+        return scored.stream()
+            .sorted(Map.Entry.<ConversationExchange, Double>comparingByValue().reversed())
+            .limit(MAX_RELATED_EXCHANGES)
+            .map(Map.Entry::getKey)
             .collect(Collectors.toList());
     }
     
-    private List<ConversationMemory> findRelevantLongTermMemories(String currentQuery) {
-        return longTermMemory.stream()
-            .filter(memory -> calculateSimilarity(memory.getExchange().getUserQuery(), currentQuery) > 0.5)
-            .sorted((a, b) -> Double.compare(b.getImportanceScore(), a.getImportanceScore()))
-            .limit(2)
-            .collect(Collectors.toList());
+    private List<ConversationMemory> findRelevantLongTermMemories(String userId, String currentQuery,
+                                                                  float[] queryEmbedding) {
+        LongTermMemoryIndex index = longTermMemory.get(userId);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        return index.nearest(queryEmbedding, currentQuery, MAX_LONG_TERM_RESULTS, longTermMinSimilarity);
     }
     
-    private double calculateSimilarity(String query1, String query2) {
-        // Simple keyword-based similarity (can be enhanced with embeddings later)
-        Set<String> words1 = new HashSet<>(Arrays.asList(query1.toLowerCase().split("\\s+")));
-        Set<String> words2 = new HashSet<>(Arrays.asList(query2.toLowerCase().split("\\s+")));
-        
-        Set<String> intersection = new HashSet<>(words1);
-        intersection.retainAll(words2);
-        
-        Set<String> union = new HashSet<>(words1);
-        union.addAll(words2);
-        
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    private double similarity(ConversationExchange exchange, String currentQuery, float[] queryEmbedding) {
+        if (queryEmbedding != null && exchange.getQueryEmbedding() != null) {
+            return LongTermMemoryIndex.dot(queryEmbedding, exchange.getQueryEmbedding());
+        }
+        return LongTermMemoryIndex.keywordSimilarity(exchange.getUserQuery(), currentQuery);
     }
     
-    private void pruneMemoriesIfNeeded() {
-        // Prune long-term memories if too many
-        if (longTermMemory.size() > MAX_LONG_TERM_MEMORIES) {
-            longTermMemory.sort((a, b) -> Double.compare(b.getImportanceScore(), a.getImportanceScore()));
-            longTermMemory.subList(MAX_LONG_TERM_MEMORIES, longTermMemory.size()).clear();
-            logger.debug("🧹 Pruned long-term memories to {} entries", MAX_LONG_TERM_MEMORIES);
+    /**
+     * Unit-length embedding of a query, or null when the embedding model is unavailable
+     * (similarity then falls back to keyword overlap)
+     */
+    private float[] embed(String text) {
+        if (embeddingModel == null || text == null || text.isBlank()) {
+            return null;
         }
-        
-        // Prune session memories
-        for (ConversationSession session : activeSessions.values()) {
-            if (session.getExchanges().size() > MAX_SHORT_TERM_MEMORIES) {
-                List<ConversationExchange> exchanges = session.getExchanges();
-                session.setExchanges(exchanges.subList(
-                    exchanges.size() - MAX_SHORT_TERM_MEMORIES, exchanges.size()));
+        float[] cached = recentEmbeddings.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            float[] vector = embeddingModel.embed(text);
+            if (vector == null || vector.length == 0) {
+                return null;
             }
+            double norm = 0;
+            for (float v : vector) {
+                norm += v * v;
+            }
+            norm = Math.sqrt(norm);
+            float[] unit = new float[vector.length];
+            for (int i = 0; i < vector.length && norm > 0; i++) {
+                unit[i] = (float) (vector[i] / norm);
+            }
+            recentEmbeddings.put(text, unit);
+            return unit;
+        } catch (Exception e) {
+            logger.debug("Memory embedding failed, using keyword similarity: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private void pruneSessionIfNeeded(ConversationSession session) {
+        List<ConversationExchange> exchanges = session.getExchanges();
+        if (exchanges.size() > MAX_SHORT_TERM_MEMORIES) {
+            session.setExchanges(new ArrayList<>(exchanges.subList(
+                exchanges.size() - MAX_SHORT_TERM_MEMORIES, exchanges.size())));
         }
     }
     
@@ -247,6 +355,7 @@ public class ConversationMemoryManager {
         private final String searchStrategy;
         private final double confidence;
         private final LocalDateTime timestamp;
+        private float[] queryEmbedding;
         
         public ConversationExchange(String userQuery, String aiResponse, String searchStrategy, 
                                   double confidence, LocalDateTime timestamp) {
@@ -263,6 +372,8 @@ public class ConversationMemoryManager {
         public String getSearchStrategy() { return searchStrategy; }
         public double getConfidence() { return confidence; }
         public LocalDateTime getTimestamp() { return timestamp; }
+        public float[] getQueryEmbedding() { return queryEmbedding; }
+        void setQueryEmbedding(float[] queryEmbedding) { this.queryEmbedding = queryEmbedding; }
         
         public String getFormattedTimestamp() {
             return timestamp.format(DateTimeFormatter.ofPattern("HH:mm:ss"));
@@ -0,0 +1,154 @@
+package com.vijay.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧠 CONVERSATION SUMMARIZER - Rolling Summary of Older Turns
+ *
+ * Purpose: Fold turns that no longer fit the history budget into a short summary,
+ * so long conversations keep their context without resending every message
+ *
+ * Responsibilities:
+ * - Ask the local Ollama model to merge the previous summary with the older turns
+ * - Fall back to an extractive summary (first sentence of every turn) when the
+ *   model is disabled, fails or returns nothing
+ * - Keep every summary within summary-max-tokens
+ *
+ * Runs on SummarizingChatMemory's background thread, never on the request path.
+ */
+@Service
+public class ConversationSummarizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSummarizer.class);
+
+    private static final int WORDS_PER_TURN = 30;
+
+    private final ChatModel chatModel;
+    private final TokenCountingService tokenCountingService;
+    private final boolean llmEnabled;
+    private final int maxTokens;
+
+    private final AtomicLong llmSummaries = new AtomicLong();
+    private final AtomicLong extractiveSummaries = new AtomicLong();
+
+    public ConversationSummarizer(@Qualifier("ollamaChatModel") ChatModel chatModel,
+                                  TokenCountingService tokenCountingService,
+                                  @Value("${chat.memory.summary.llm-enabled:true}") boolean llmEnabled,
+                                  @Value("${chat.memory.summary-max-tokens:400}") int maxTokens) {
+        this.chatModel = chatModel;
+        this.tokenCountingService = tokenCountingService;
+        this.llmEnabled = llmEnabled;
+        this.maxTokens = Math.max(20, maxTokens);
+    }
+
+    /**
+     * New summary covering the previous summary (may be null) and the given turns
+     */
+    public String summarize(String previousSummary, List<Message> turns) {
+        if (llmEnabled && chatModel != null) {
+            try {
+                String summary = chatModel.call(buildPrompt(previousSummary, turns));
+                if (summary != null && !summary.isBlank()) {
+                    llmSummaries.incrementAndGet();
+                    return truncate(summary.trim());
+                }
+            } catch (Exception e) {
+                logger.warn("⚠️ Conversation summary by model failed, using extractive summary: {}", e.getMessage());
+            }
+        }
+        extractiveSummaries.incrementAndGet();
+        return extractive(previousSummary, turns);
+    }
+
+    public long getLlmSummaryCount() {
+        return llmSummaries.get();
+    }
+
+    public long getExtractiveSummaryCount() {
+        return extractiveSummaries.get();
+    }
+
+    private String buildPrompt(String previousSummary, List<Message> turns) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Update the summary of a conversation between a developer and a coding assistant.\n")
+            .append("Keep decisions, file and class names, open questions and user preferences. ")
+            .append("Drop greetings and repeated explanations. Answer with the summary only, at most ")
+            .append(maxTokens).append(" words.\n\n");
+        if (previousSummary != null && !previousSummary.isBlank()) {
+            prompt.append("Current summary:\n").append(previousSummary).append("\n\n");
+        }
+        prompt.append("New turns:\n");
+        for (Message turn : turns) {
+            prompt.append(turn.getMessageType() == MessageType.USER ? "User: " : "Assistant: ")
+                .append(turn.getText()).append('\n');
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Previous summary lines plus one line per turn; oldest lines go first when over budget
+     */
+    String extractive(String previousSummary, List<Message> turns) {
+        List<String> lines = new ArrayList<>();
+        if (previousSummary != null && !previousSummary.isBlank()) {
+            lines.addAll(List.of(previousSummary.strip().split("\n")));
+        }
+        for (Message turn : turns) {
+            String text = turn.getText();
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            String role = turn.getMessageType() == MessageType.USER ? "User" : "Assistant";
+            lines.add("- " + role + ": " + firstSentence(text.strip()));
+        }
+        while (lines.size() > 1 && tokenCountingService.countTokens(String.join("\n", lines)) > maxTokens) {
+            lines.remove(0);
+        }
+        return truncate(String.join("\n", lines));
+    }
+
+    private static String firstSentence(String text) {
+        int end = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || ((c == '.' || c == '?' || c == '!') && (i + 1 == text.length() || text.charAt(i + 1) == ' '))) {
+                end = i + 1;
+                break;
+            }
+        }
+        String sentence = text.substring(0, end).strip();
+        String[] words = sentence.split("\\s+");
+        return words.length <= WORDS_PER_TURN ? sentence : String.join(" ", List.of(words).subList(0, WORDS_PER_TURN)) + " …";
+    }
+
+    private String truncate(String summary) {
+        String[] words = summary.split("\\s+");
+        if (words.length <= maxTokens) {
+            return summary;
+        }
+        // Word-level cut keeps the line structure of the first maxTokens words
+        int kept = 0;
+        int index = 0;
+        while (index < summary.length() && kept < maxTokens) {
+            while (index < summary.length() && Character.isWhitespace(summary.charAt(index))) {
+                index++;
+            }
+            while (index < summary.length() && !Character.isWhitespace(summary.charAt(index))) {
+                index++;
+            }
+            kept++;
+        }
+        return summary.substring(0, index);
+    }
+}
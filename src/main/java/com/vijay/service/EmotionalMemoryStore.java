@@ -1,12 +1,15 @@
 package com.vijay.service;
 
 import com.vijay.dto.EmotionalContext;
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🧠 Emotional Memory Store
@@ -19,22 +22,28 @@ public class EmotionalMemoryStore {
     
     private static final Logger logger = LoggerFactory.getLogger(EmotionalMemoryStore.class);
     
-    private final Map<String, List<EmotionalContext>> userEmotionalHistory = new ConcurrentHashMap<>();
+    private final SessionNamespace<List<EmotionalContext>> userEmotionalHistory;
     private static final int MAX_EMOTIONAL_MEMORIES = 50;
     
+    public EmotionalMemoryStore(SessionStateStore stateStore) {
+        this.userEmotionalHistory = stateStore.namespace("emotional-history", 10_000, Duration.ofHours(24), SpillCodec.serialized());
+    }
+    
     /**
      * Store emotional context for a user
      */
     public void storeEmotionalContext(String userId, EmotionalContext context) {
         logger.debug("💾 Storing emotional context for user: {}", userId);
         
-        List<EmotionalContext> history = userEmotionalHistory.computeIfAbsent(userId, k -> new ArrayList<>());
-        history.add(context);
-        
-        // Keep only recent memories
-        if (history.size() > MAX_EMOTIONAL_MEMORIES) {
-            history.remove(0);
-        }
+        // Through update() so a shared backend sees the change, not only this replica
+        List<EmotionalContext> history = userEmotionalHistory.update(userId, k -> new ArrayList<>(), stored -> {
+            stored.add(context);
+            
+            // Keep only recent memories
+            if (stored.size() > MAX_EMOTIONAL_MEMORIES) {
+                stored.remove(0);
+            }
+        });
         
         logger.debug("📊 User {} emotional history size: {}", userId, history.size());
     }
@@ -1,5 +1,6 @@
 package com.vijay.service;
 
+import com.vijay.util.ResponseScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,8 @@ import java.util.regex.Pattern;
  * - Flag suspicious statements
  * - Calculate hallucination score
  * - Provide hallucination report
+ * 
+ * All phrase checks read one ResponseScanner pass instead of rescanning the response.
  */
 @Service
 public class HallucinationDetector {
@@ -29,9 +32,29 @@ public class HallucinationDetector {
     private final Set<String> knownFacts = new HashSet<>();
     private final Set<String> suspiciousPatterns = new HashSet<>();
     
+    // Known facts, their subjects/negations and suspicious patterns, compiled with the shared rule phrases
+    private volatile ResponseScanner scanner;
+    
     public HallucinationDetector() {
         initializeKnownFacts();
         initializeSuspiciousPatterns();
+        rebuildScanner();
+    }
+    
+    /**
+     * Recompile the scanner after the fact or pattern sets change
+     */
+    private void rebuildScanner() {
+        List<String> phrases = new ArrayList<>(suspiciousPatterns);
+        for (String fact : knownFacts) {
+            phrases.add(fact);
+            String[] parts = fact.split(" is ");
+            if (parts.length == 2) {
+                phrases.add(parts[0]);
+                phrases.add("is not " + parts[1]);
+            }
+        }
+        scanner = ResponseScanner.create(phrases);
     }
     
     /**
@@ -81,22 +104,40 @@ public class HallucinationDetector {
         suspiciousPatterns.add("no question");
     }
     
+    /**
+     * Scan a response once; the features can be passed to both detectHallucinations
+     * and the ConsistencyCheckService checks
+     */
+    public ResponseScanner.Features scan(String response) {
+        return scanner.scan(response);
+    }
+    
     /**
      * Detect hallucinations in response
      */
     public HallucinationReport detectHallucinations(String response) {
+        if (response == null || response.isEmpty()) {
+            return new HallucinationReport();
+        }
+        return detectHallucinations(scan(response));
+    }
+    
+    /**
+     * Detect hallucinations from an already scanned response
+     */
+    public HallucinationReport detectHallucinations(ResponseScanner.Features features) {
         HallucinationReport report = new HallucinationReport();
         
-        if (response == null || response.isEmpty()) {
+        if (features.length == 0) {
             return report;
         }
         
         // Run all detection methods
-        detectFalseClaimsPatterns(response, report);
-        detectOverconfidentStatements(response, report);
-        detectLogicalInconsistencies(response, report);
-        detectMissingEvidence(response, report);
-        detectFactualErrors(response, report);
+        detectFalseClaimsPatterns(features, report);
+        detectOverconfidentStatements(features, report);
+        detectLogicalInconsistencies(features, report);
+        detectMissingEvidence(features, report);
+        detectFactualErrors(features, report);
         
         // Calculate hallucination score
         double score = calculateHallucinationScore(report);
@@ -111,21 +152,19 @@ public class HallucinationDetector {
     /**
      * Detect false claims patterns
      */
-    private void detectFalseClaimsPatterns(String response, HallucinationReport report) {
-        String lower = response.toLowerCase();
-        
+    private void detectFalseClaimsPatterns(ResponseScanner.Features features, HallucinationReport report) {
         // Check for impossible claims
-        if (lower.contains("can read minds") || lower.contains("predict the future")) {
+        if (features.contains("can read minds") || features.contains("predict the future")) {
             report.addHallucination("Impossible claim detected", HallucinationSeverity.HIGH);
         }
         
         // Check for exaggerated claims
-        if (lower.contains("the only way") && !lower.contains("one way")) {
+        if (features.contains("the only way") && !features.contains("one way")) {
             report.addHallucination("Potentially exaggerated claim: 'the only way'", HallucinationSeverity.MEDIUM);
         }
         
         // Check for false universals
-        if (lower.contains("all ") && lower.contains("never")) {
+        if (features.contains("all ") && features.contains("never")) {
             report.addHallucination("Contradictory universal claim", HallucinationSeverity.MEDIUM);
         }
     }
@@ -133,11 +172,9 @@ public class HallucinationDetector {
     /**
      * Detect overconfident statements
      */
-    private void detectOverconfidentStatements(String response, HallucinationReport report) {
-        String lower = response.toLowerCase();
-        
+    private void detectOverconfidentStatements(ResponseScanner.Features features, HallucinationReport report) {
         for (String pattern : suspiciousPatterns) {
-            if (lower.contains(pattern)) {
+            if (features.contains(pattern)) {
                 report.addHallucination("Overconfident statement: '" + pattern + "'", HallucinationSeverity.LOW);
             }
         }
@@ -146,45 +183,39 @@ public class HallucinationDetector {
     /**
      * Detect logical inconsistencies
      */
-    private void detectLogicalInconsistencies(String response, HallucinationReport report) {
-        String lower = response.toLowerCase();
-        
+    private void detectLogicalInconsistencies(ResponseScanner.Features features, HallucinationReport report) {
         // Check for self-contradictions
-        if (lower.contains("is required") && lower.contains("is optional")) {
+        if (features.contains("is required") && features.contains("is optional")) {
             report.addHallucination("Logical inconsistency: same thing marked as both required and optional", 
                 HallucinationSeverity.HIGH);
         }
         
-        if (lower.contains("must be") && lower.contains("must not be")) {
+        if (features.contains("must be") && features.contains("must not be")) {
             report.addHallucination("Logical inconsistency: contradictory requirements", HallucinationSeverity.HIGH);
         }
         
         // Check for temporal inconsistencies
-        if (lower.contains("before") && lower.contains("after")) {
-            int beforeIndex = lower.indexOf("before");
-            int afterIndex = lower.indexOf("after");
-            if (Math.abs(beforeIndex - afterIndex) < 200) {
-                report.addHallucination("Potential temporal inconsistency", HallucinationSeverity.MEDIUM);
-            }
+        int beforeIndex = features.indexOf("before");
+        int afterIndex = features.indexOf("after");
+        if (beforeIndex >= 0 && afterIndex >= 0 && Math.abs(beforeIndex - afterIndex) < 200) {
+            report.addHallucination("Potential temporal inconsistency", HallucinationSeverity.MEDIUM);
         }
     }
     
     /**
      * Detect missing evidence
      */
-    private void detectMissingEvidence(String response, HallucinationReport report) {
-        String lower = response.toLowerCase();
-        
+    private void detectMissingEvidence(ResponseScanner.Features features, HallucinationReport report) {
         // Check for claims without support
-        if (lower.contains("studies show") && !lower.contains("study")) {
+        if (features.contains("studies show") && !features.contains("study")) {
             report.addHallucination("Claim of studies without specific study mentioned", HallucinationSeverity.MEDIUM);
         }
         
-        if (lower.contains("research proves") && !lower.contains("research")) {
+        if (features.contains("research proves") && !features.contains("research")) {
             report.addHallucination("Claim of research without specific research mentioned", HallucinationSeverity.MEDIUM);
         }
         
-        if (lower.contains("experts agree") && !lower.contains("expert")) {
+        if (features.contains("experts agree") && !features.contains("expert")) {
             report.addHallucination("Claim of expert agreement without naming experts", HallucinationSeverity.MEDIUM);
         }
     }
@@ -192,12 +223,10 @@ public class HallucinationDetector {
     /**
      * Detect factual errors
      */
-    private void detectFactualErrors(String response, HallucinationReport report) {
-        String lower = response.toLowerCase();
-        
+    private void detectFactualErrors(ResponseScanner.Features features, HallucinationReport report) {
         // Check against known facts
         for (String fact : knownFacts) {
-            if (lower.contains(fact)) {
+            if (features.contains(fact)) {
                 // This is good - fact is mentioned correctly
                 continue;
             }
@@ -209,7 +238,7 @@ public class HallucinationDetector {
                 String predicate = parts[1];
                 
                 // Check for negation of known facts
-                if (lower.contains(subject) && lower.contains("is not " + predicate)) {
+                if (features.contains(subject) && features.contains("is not " + predicate)) {
                     report.addHallucination("Contradiction of known fact: " + fact, HallucinationSeverity.HIGH);
                 }
             }
@@ -244,16 +273,18 @@ public class HallucinationDetector {
     /**
      * Add custom known fact
      */
-    public void addKnownFact(String fact) {
+    public synchronized void addKnownFact(String fact) {
         knownFacts.add(fact.toLowerCase());
+        rebuildScanner();
         logger.debug("🧠 Hallucination Detector: Added known fact: {}", fact);
     }
     
     /**
      * Add custom suspicious pattern
      */
-    public void addSuspiciousPattern(String pattern) {
+    public synchronized void addSuspiciousPattern(String pattern) {
         suspiciousPatterns.add(pattern.toLowerCase());
+        rebuildScanner();
         logger.debug("🧠 Hallucination Detector: Added suspicious pattern: {}", pattern);
     }
     
@@ -261,10 +292,10 @@ public class HallucinationDetector {
      * Validate claim against known facts
      */
     public boolean validateClaim(String claim) {
-        String lower = claim.toLowerCase();
+        ResponseScanner.Features features = scan(claim);
         
         for (String fact : knownFacts) {
-            if (lower.contains(fact)) {
+            if (features.contains(fact)) {
                 return true; // Claim aligns with known fact
             }
         }
@@ -0,0 +1,143 @@
+package com.vijay.service;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧪 HASHING EMBEDDING MODEL - Offline Deterministic EmbeddingModel
+ *
+ * Purpose: Fill vector stores and run similarity search without an embedding provider
+ *
+ * Responsibilities:
+ * - Embed text by feature hashing: every lower-cased word and camelCase part adds
+ *   ±1 to one of `dimensions` buckets, then the vector is L2-normalized
+ * - Same text always gives the same vector, across runs and JVMs, so texts sharing
+ *   words land close together and search results are stable
+ * - Optionally sleep a fixed time per call to stand in for provider latency
+ *
+ * Usage:
+ * - new HashingEmbeddingModel(384, 0)    benchmarks, no delay
+ * - new HashingEmbeddingModel(768, 40)   40ms per embedding call
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimensions;
+    private final long latencyMs;
+    private final AtomicLong calls = new AtomicLong();
+
+    public HashingEmbeddingModel(int dimensions, long latencyMs) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        simulateLatency();
+        List<String> texts = request.getInstructions();
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(hash(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        simulateLatency();
+        return hash(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * Feature-hashed, L2-normalized vector of the text's words
+     */
+    public float[] hash(String text) {
+        float[] vector = new float[dimensions];
+        if (text != null) {
+            int length = text.length();
+            int wordStart = -1;
+            for (int i = 0; i <= length; i++) {
+                char c = i < length ? text.charAt(i) : ' ';
+                boolean wordChar = Character.isLetterOrDigit(c);
+                if (wordChar && wordStart < 0) {
+                    wordStart = i;
+                } else if (!wordChar && wordStart >= 0) {
+                    addWord(vector, text, wordStart, i);
+                    wordStart = -1;
+                }
+            }
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    private void addWord(float[] vector, String text, int start, int end) {
+        addFeature(vector, text, start, end);
+        // "QueryPlanner" also counts as "query" and "planner"
+        int partStart = start;
+        for (int i = start + 1; i < end; i++) {
+            if (Character.isUpperCase(text.charAt(i)) && Character.isLowerCase(text.charAt(i - 1))) {
+                addFeature(vector, text, partStart, i);
+                partStart = i;
+            }
+        }
+        if (partStart > start) {
+            addFeature(vector, text, partStart, end);
+        }
+    }
+
+    private void addFeature(float[] vector, String text, int start, int end) {
+        // FNV-1a over the lower-cased characters, without copying the word out of the text
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash ^= Character.toLowerCase(text.charAt(i));
+            hash *= 0x01000193;
+        }
+        int bucket = Math.floorMod(hash, dimensions);
+        vector[bucket] += (hash >>> 31) == 0 ? 1f : -1f;
+    }
+
+    private static void normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        if (sum == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    private void simulateLatency() {
+        calls.incrementAndGet();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Embedding call cancelled", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.vijay.service;
+
+import com.vijay.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 🏁 HEDGED CHAT MODEL - Tail-Latency Hedging Between Two Providers
+ *
+ * Purpose: Stop one stalled provider from holding a user for the full timeout
+ *
+ * Sits UNDER the advisor chain (ChatClient -> advisors -> this model), so memory,
+ * Conductor and Judge still run exactly once per turn; only the model call races.
+ *
+ * Responsibilities:
+ * - Call the primary provider; if it has not answered by its observed p95, call the backup
+ * - Return whichever answers first and cancel (interrupt) the loser
+ * - Fail over to the backup immediately when the primary fails
+ * - Record per-provider latency so the hedge delay follows the real distribution; a
+ *   cancelled loser is recorded with the time it had run (a lower bound), so slow calls
+ *   that lose the race still count and the p95 is not biased low
+ *
+ * Tool-calling prompts are never hedged: the model executes tools internally and a
+ * duplicate call could repeat side effects. The backup runs with its own default
+ * options (model name, temperature) since the primary's options are provider-specific.
+ */
+public class HedgedChatModel implements ChatModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedChatModel.class);
+
+    private final String primaryName;
+    private final ChatModel primary;
+    private final String backupName;
+    private final Supplier<ChatModel> backup;
+    private final ChatHedgingService hedging;
+    private final ExecutorService executor;
+
+    public HedgedChatModel(String primaryName, ChatModel primary, String backupName,
+                           Supplier<ChatModel> backup, ChatHedgingService hedging, ExecutorService executor) {
+        this.primaryName = primaryName;
+        this.primary = primary;
+        this.backupName = backupName;
+        this.backup = backup;
+        this.hedging = hedging;
+        this.executor = executor;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        if (!isHedgeable(prompt)) {
+            return timedCall(primaryName, primary, prompt);
+        }
+
+        long start = System.currentTimeMillis();
+        long hedgeAt = start + hedging.getHedgeDelayMs(primaryName);
+        RequestContext context = RequestContext.current();
+
+        ExecutorCompletionService<Outcome> race = new ExecutorCompletionService<>(executor);
+        Attempt primaryAttempt = new Attempt(primaryName, primary, prompt);
+        Future<Outcome> primaryTask = race.submit(wrap(primaryAttempt, context));
+        Attempt backupAttempt = null;
+        Future<Outcome> backupTask = null;
+        int pending = 1;
+        Throwable lastError = null;
+
+        try {
+            while (pending > 0) {
+                Future<Outcome> done;
+                if (backupTask == null) {
+                    done = race.poll(Math.max(0, hedgeAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        logger.info("🏁 Hedging: {} slower than {}ms, sending backup request to {}",
+                            primaryName, hedgeAt - start, backupName);
+                        backupAttempt = new Attempt(backupName, backup.get(), backupPrompt(prompt));
+                        backupTask = race.submit(wrap(backupAttempt, context));
+                        hedging.recordHedge();
+                        pending++;
+                        continue;
+                    }
+                } else {
+                    done = race.take();
+                }
+                pending--;
+
+                try {
+                    Outcome outcome = done.get();
+                    if (backupTask != null) {
+                        hedging.recordWinner(outcome.provider.equals(backupName));
+                    }
+                    return outcome.response;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause();
+                    if (backupTask == null) {
+                        logger.warn("⚠️ Hedging: {} failed ({}), failing over to {}",
+                            primaryName, lastError.getMessage(), backupName);
+                        backupAttempt = new Attempt(backupName, backup.get(), backupPrompt(prompt));
+                        backupTask = race.submit(wrap(backupAttempt, context));
+                        hedging.recordFailover();
+                        pending++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + primaryName, e);
+        } finally {
+            cancelIfRunning(primaryTask, primaryAttempt);
+            cancelIfRunning(backupTask, backupAttempt);
+        }
+
+        if (lastError instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new IllegalStateException("All providers failed: " + primaryName + ", " + backupName, lastError);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        // Streaming is not hedged
+        return primary.stream(prompt);
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return primary.getDefaultOptions();
+    }
+
+    private static Callable<Outcome> wrap(Attempt attempt, RequestContext context) {
+        return context != null ? context.wrap(attempt) : attempt;
+    }
+
+    private ChatResponse timedCall(String provider, ChatModel model, Prompt prompt) {
+        long start = System.currentTimeMillis();
+        ChatResponse response = model.call(prompt);
+        hedging.recordLatency(provider, System.currentTimeMillis() - start);
+        return response;
+    }
+
+    private void cancelIfRunning(Future<Outcome> task, Attempt attempt) {
+        if (task != null && !task.isDone()) {
+            task.cancel(true);
+            attempt.recordLatency();
+            hedging.recordCancelled();
+        }
+    }
+
+    static boolean isHedgeable(Prompt prompt) {
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options) {
+            return (options.getToolCallbacks() == null || options.getToolCallbacks().isEmpty())
+                && (options.getToolNames() == null || options.getToolNames().isEmpty());
+        }
+        return true;
+    }
+
+    private static Prompt backupPrompt(Prompt prompt) {
+        return new Prompt(prompt.getInstructions());
+    }
+
+    /**
+     * One provider call in the race; its latency is recorded once, when it completes or
+     * when it is cancelled, whichever comes first
+     */
+    private final class Attempt implements Callable<Outcome> {
+        private final String provider;
+        private final ChatModel model;
+        private final Prompt prompt;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        Attempt(String provider, ChatModel model, Prompt prompt) {
+            this.provider = provider;
+            this.model = model;
+            this.prompt = prompt;
+        }
+
+        @Override
+        public Outcome call() {
+            ChatResponse response = model.call(prompt);
+            recordLatency();
+            return new Outcome(provider, response);
+        }
+
+        void recordLatency() {
+            if (recorded.compareAndSet(false, true)) {
+                hedging.recordLatency(provider, System.currentTimeMillis() - startedAt);
+            }
+        }
+    }
+
+    private static class Outcome {
+        final String provider;
+        final ChatResponse response;
+
+        Outcome(String provider, ChatResponse response) {
+            this.provider = provider;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.vijay.service;
+
+import com.vijay.context.GlobalBrainContext;
+import com.vijay.dto.AgentPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * 🔁 ITERATION CONTROLLER - Adaptive Refine Loop
+ *
+ * Purpose: Decide whether ChatService should issue a second "refine" pass
+ *
+ * The old loop re-asked the model whenever the plan had tools and complexity >= 2,
+ * which doubled latency and tokens for most tool queries. Now a second pass only
+ * happens when the local quality signal (SelfRefineV3Advisor evaluation) is below
+ * threshold AND the request still has latency and token budget left.
+ *
+ * Responsibilities:
+ * - Score each pass with the rating SelfRefineV3Advisor publishes (waiting briefly
+ *   for its off-path evaluation); an unrated pass counts as good enough, never re-scored here
+ * - Enforce a per-request latency deadline
+ * - Enforce a per-request token budget
+ * - Record per-iteration metrics (how often pass 2 actually improves anything)
+ */
+@Service
+public class IterationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(IterationController.class);
+
+    /**
+     * GlobalBrainContext key where SelfRefineV3Advisor publishes its rating: a Double from
+     * the blocking judge, or a Future&lt;Double&gt; for the off-path evaluation
+     */
+    public static final String JUDGE_RATING_KEY = "judgeRating";
+
+    private final TokenCountingService tokenCountingService;
+
+    // Configuration
+    private final int maxIterations;
+    private final double qualityThreshold;
+    private final long deadlineMs;
+    private final int tokenBudget;
+    private final long judgeWaitMs;
+
+    // Metrics
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong secondPasses = new AtomicLong();
+    private final AtomicLong improved = new AtomicLong();
+    private final AtomicLong skippedQualityOk = new AtomicLong();
+    private final AtomicLong skippedDeadline = new AtomicLong();
+    private final AtomicLong skippedTokenBudget = new AtomicLong();
+    private final AtomicLong unratedPasses = new AtomicLong();
+    private final DoubleAdder firstPassQuality = new DoubleAdder();
+    private final DoubleAdder qualityDelta = new DoubleAdder();
+
+    public IterationController(TokenCountingService tokenCountingService,
+                               @Value("${chat.iteration.max-iterations:2}") int maxIterations,
+                               @Value("${chat.iteration.quality-threshold:3.8}") double qualityThreshold,
+                               @Value("${chat.iteration.deadline-ms:30000}") long deadlineMs,
+                               @Value("${chat.iteration.token-budget:4000}") int tokenBudget,
+                               @Value("${chat.iteration.judge-wait-ms:250}") long judgeWaitMs) {
+        this.tokenCountingService = tokenCountingService;
+        this.maxIterations = Math.max(1, maxIterations);
+        this.qualityThreshold = qualityThreshold;
+        this.deadlineMs = deadlineMs;
+        this.tokenBudget = tokenBudget;
+        this.judgeWaitMs = Math.max(0, judgeWaitMs);
+    }
+
+    /**
+     * Start tracking a new request (call before the first pass)
+     */
+    public RequestBudget begin() {
+        requests.incrementAndGet();
+        return new RequestBudget(System.currentTimeMillis());
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Score a completed pass and decide whether another pass is worth it
+     */
+    public Decision afterPass(RequestBudget budget, int iteration, String userMessage,
+                              String response, AgentPlan plan) {
+        long passDuration = System.currentTimeMillis() - budget.lastPassStart;
+        int passTokens = tokenCountingService.countTokens(userMessage) + tokenCountingService.countTokens(response);
+        double quality = scorePass();
+
+        double previousBest = budget.bestQuality;
+        budget.recordPass(passTokens, quality);
+        passes.incrementAndGet();
+
+        if (iteration == 1) {
+            firstPassQuality.add(quality);
+        } else {
+            double delta = quality - previousBest;
+            qualityDelta.add(delta);
+            if (delta > 0) {
+                improved.incrementAndGet();
+            }
+        }
+
+        logger.info("🔁 IterationController: pass {} scored {} ({}ms, ~{} tokens)",
+            iteration, String.format("%.2f", quality), passDuration, passTokens);
+
+        if (plan == null) {
+            return Decision.stop(quality, "NO_PLAN");
+        }
+        if (iteration >= maxIterations) {
+            return Decision.stop(quality, "MAX_ITERATIONS");
+        }
+        if (quality >= qualityThreshold) {
+            skippedQualityOk.incrementAndGet();
+            return Decision.stop(quality, "QUALITY_OK");
+        }
+
+        // A refine pass costs at least as much as the pass it refines
+        long elapsed = System.currentTimeMillis() - budget.startTime;
+        if (elapsed + passDuration > deadlineMs) {
+            skippedDeadline.incrementAndGet();
+            logger.info("⏱️ IterationController: skipping refine, deadline would be exceeded ({}ms + {}ms > {}ms)",
+                elapsed, passDuration, deadlineMs);
+            return Decision.stop(quality, "DEADLINE");
+        }
+        if (budget.tokensUsed + passTokens > tokenBudget) {
+            skippedTokenBudget.incrementAndGet();
+            logger.info("💰 IterationController: skipping refine, token budget would be exceeded ({} + {} > {})",
+                budget.tokensUsed, passTokens, tokenBudget);
+            return Decision.stop(quality, "TOKEN_BUDGET");
+        }
+
+        secondPasses.incrementAndGet();
+        budget.lastPassStart = System.currentTimeMillis();
+        return Decision.refine(quality);
+    }
+
+    /**
+     * The judge's rating for this pass, waiting up to judgeWaitMs for an off-path
+     * evaluation. Without one (simple query, sampled out, still running) the pass
+     * scores at the threshold: a refine pass is never bought on a guess.
+     */
+    private double scorePass() {
+        Object judged = GlobalBrainContext.get(JUDGE_RATING_KEY);
+        if (judged instanceof Double rating) {
+            return rating;
+        }
+        if (judged instanceof Future<?> pending) {
+            try {
+                if (pending.get(judgeWaitMs, TimeUnit.MILLISECONDS) instanceof Double rating) {
+                    return rating;
+                }
+            } catch (TimeoutException | ExecutionException e) {
+                logger.debug("Judge rating not available in {}ms: {}", judgeWaitMs, e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        unratedPasses.incrementAndGet();
+        return qualityThreshold;
+    }
+
+    /**
+     * Get iteration statistics
+     */
+    public IterationStats getStats() {
+        long requestCount = requests.get();
+        long refineCount = secondPasses.get();
+        return new IterationStats(
+            requestCount,
+            passes.get(),
+            refineCount,
+            improved.get(),
+            skippedQualityOk.get(),
+            skippedDeadline.get(),
+            skippedTokenBudget.get(),
+            unratedPasses.get(),
+            requestCount > 0 ? firstPassQuality.sum() / requestCount : 0.0,
+            refineCount > 0 ? qualityDelta.sum() / refineCount : 0.0
+        );
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Per-request latency and token budget
+     */
+    public static class RequestBudget {
+        private final long startTime;
+        private long lastPassStart;
+        private int tokensUsed = 0;
+        private double bestQuality = Double.NEGATIVE_INFINITY;
+        private int bestIteration = 0;
+        private int iterations = 0;
+
+        RequestBudget(long startTime) {
+            this.startTime = startTime;
+            this.lastPassStart = startTime;
+        }
+
+        private void recordPass(int tokens, double quality) {
+            iterations++;
+            tokensUsed += tokens;
+            if (quality > bestQuality) {
+                bestQuality = quality;
+                bestIteration = iterations;
+            }
+        }
+
+        /**
+         * Iteration (1-based) whose response scored highest so far
+         */
+        public int getBestIteration() {
+            return bestIteration;
+        }
+
+        public int getTokensUsed() {
+            return tokensUsed;
+        }
+    }
+
+    /**
+     * Outcome of a pass: refine again or stop
+     */
+    public static class Decision {
+        public final boolean refine;
+        public final double quality;
+        public final String reason;
+
+        private Decision(boolean refine, double quality, String reason) {
+            this.refine = refine;
+            this.quality = quality;
+            this.reason = reason;
+        }
+
+        public static Decision refine(double quality) {
+            return new Decision(true, quality, "LOW_QUALITY");
+        }
+
+        public static Decision stop(double quality, String reason) {
+            return new Decision(false, quality, reason);
+        }
+    }
+
+    /**
+     * Iteration statistics
+     */
+    public static class IterationStats {
+        public final long requests;
+        public final long passes;
+        public final long secondPasses;
+        public final long improvedSecondPasses;
+        public final long skippedQualityOk;
+        public final long skippedDeadline;
+        public final long skippedTokenBudget;
+        // Passes with no judge rating in time, scored at the threshold
+        public final long unratedPasses;
+        public final double avgFirstPassQuality;
+        public final double avgSecondPassDelta;
+
+        public IterationStats(long requests, long passes, long secondPasses, long improvedSecondPasses,
+                              long skippedQualityOk, long skippedDeadline, long skippedTokenBudget,
+                              long unratedPasses, double avgFirstPassQuality, double avgSecondPassDelta) {
+            this.requests = requests;
+            this.passes = passes;
+            this.secondPasses = secondPasses;
+            this.improvedSecondPasses = improvedSecondPasses;
+            this.skippedQualityOk = skippedQualityOk;
+            this.skippedDeadline = skippedDeadline;
+            this.skippedTokenBudget = skippedTokenBudget;
+            this.unratedPasses = unratedPasses;
+            this.avgFirstPassQuality = avgFirstPassQuality;
+            this.avgSecondPassDelta = avgSecondPassDelta;
+        }
+    }
+}
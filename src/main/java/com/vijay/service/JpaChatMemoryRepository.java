@@ -0,0 +1,302 @@
+package com.vijay.service;
+
+import com.vijay.model.ChatMemoryMessage;
+import com.vijay.repository.ChatMemoryMessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 💬 JPA CHAT MEMORY REPOSITORY - Persistent, Write-Behind Conversation Storage
+ *
+ * Purpose: Keep ChatMemory conversations across restarts in the MySQL database
+ * without putting a database round trip on every turn
+ *
+ * Responsibilities:
+ * - Serve reads from an in-memory copy of each conversation; load it from the
+ *   database on first use after a restart
+ * - Apply saveAll() in memory and mark the conversation dirty; a background flusher
+ *   writes dirty conversations every flush interval, many per transaction
+ * - Write only what changed: appended messages are inserted, and only a rewritten
+ *   head (e.g. after summarization) deletes and reinserts the conversation
+ * - Flush everything on shutdown; keep failed conversations dirty for the next flush
+ *
+ * Messages are stored as type + text. Summary messages (SystemMessage with the
+ * SUMMARY_METADATA flag) keep their flag through a SUMMARY row type.
+ */
+@Service
+public class JpaChatMemoryRepository implements ChatMemoryRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaChatMemoryRepository.class);
+
+    /** Metadata flag of the rolling-summary SystemMessage */
+    public static final String SUMMARY_METADATA = "chat_memory_summary";
+
+    private static final String SUMMARY_TYPE = "SUMMARY";
+
+    private final ChatMemoryMessageRepository messageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final int maxCachedConversations;
+    private final ScheduledExecutorService flusher;
+
+    // Current state of every loaded conversation (immutable lists) and what the database holds
+    private final Map<String, List<Message>> conversations = new ConcurrentHashMap<>();
+    private final Map<String, List<Message>> persisted = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rewrites = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public JpaChatMemoryRepository(ChatMemoryMessageRepository messageRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${chat.memory.flush-interval-ms:500}") long flushIntervalMs,
+                                   @Value("${chat.memory.flush-batch-size:50}") int flushBatchSize,
+                                   @Value("${chat.memory.max-cached-conversations:10000}") int maxCachedConversations) {
+        this.messageRepository = messageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.maxCachedConversations = Math.max(1, maxCachedConversations);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-memory-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMs > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        logger.info("💬 Chat memory: JPA write-behind every {}ms, {} conversations per transaction",
+            flushIntervalMs, this.flushBatchSize);
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        Set<String> ids = new TreeSet<>(messageRepository.findConversationIds());
+        conversations.forEach((id, messages) -> {
+            if (messages.isEmpty()) {
+                ids.remove(id);
+            } else {
+                ids.add(id);
+            }
+        });
+        return new ArrayList<>(ids);
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        return conversations.computeIfAbsent(conversationId, this::load);
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        // Make sure the persisted state is known before the first write replaces it
+        findByConversationId(conversationId);
+        conversations.put(conversationId, List.copyOf(messages));
+        dirty.add(conversationId);
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        findByConversationId(conversationId);
+        conversations.put(conversationId, List.of());
+        dirty.add(conversationId);
+    }
+
+    /**
+     * Write every dirty conversation now; returns the number written
+     */
+    public synchronized int flush() {
+        int written = 0;
+        List<String> batch = new ArrayList<>(flushBatchSize);
+        for (String conversationId : dirty) {
+            batch.add(conversationId);
+            if (batch.size() == flushBatchSize) {
+                written += flushBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += flushBatch(batch);
+        }
+        evictClean();
+        return written;
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "cachedConversations", conversations.size(),
+            "dirtyConversations", dirty.size(),
+            "flushes", flushes.get(),
+            "rowsInserted", rowsInserted.get(),
+            "rewrites", rewrites.get(),
+            "failedFlushes", failedFlushes.get()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        int written = flushQuietly();
+        logger.info("💬 Chat memory: flushed {} conversations on shutdown", written);
+    }
+
+    private int flushQuietly() {
+        try {
+            return flush();
+        } catch (Exception e) {
+            logger.warn("⚠️ Chat memory flush failed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private int flushBatch(List<String> conversationIds) {
+        // Clear the flag before reading: a saveAll() racing with this flush marks it dirty again
+        List<String> taken = new ArrayList<>(conversationIds.size());
+        for (String conversationId : conversationIds) {
+            if (dirty.remove(conversationId)) {
+                taken.add(conversationId);
+            }
+        }
+        Map<String, List<Message>> snapshots = new LinkedHashMap<>();
+        for (String conversationId : taken) {
+            snapshots.put(conversationId, conversations.getOrDefault(conversationId, List.of()));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> snapshots.forEach(this::write));
+            persisted.putAll(snapshots);
+            flushes.incrementAndGet();
+            return snapshots.size();
+        } catch (RuntimeException e) {
+            dirty.addAll(taken);
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Drop written conversations from memory: deleted ones always, the rest beyond the cap
+     * (they reload from the database on next use)
+     */
+    private void evictClean() {
+        Iterator<Map.Entry<String, List<Message>>> entries = conversations.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, List<Message>> entry = entries.next();
+            String conversationId = entry.getKey();
+            boolean clean = !dirty.contains(conversationId) && persisted.get(conversationId) == entry.getValue();
+            if (clean && (entry.getValue().isEmpty() || conversations.size() > maxCachedConversations)) {
+                if (conversations.remove(conversationId, entry.getValue())) {
+                    persisted.remove(conversationId);
+                }
+            }
+        }
+    }
+
+    private void write(String conversationId, List<Message> current) {
+        // Unknown if the conversation was evicted while being saved: ask the database
+        List<Message> stored = persisted.computeIfAbsent(conversationId, this::readStored);
+        int common = commonPrefix(stored, current);
+        if (common < stored.size()) {
+            messageRepository.deleteFromSeq(conversationId, common);
+            rewrites.incrementAndGet();
+        }
+        if (common < current.size()) {
+            List<ChatMemoryMessage> rows = new ArrayList<>(current.size() - common);
+            for (int seq = common; seq < current.size(); seq++) {
+                rows.add(toRow(conversationId, seq, current.get(seq)));
+            }
+            messageRepository.saveAll(rows);
+            rowsInserted.addAndGet(rows.size());
+        }
+    }
+
+    private static int commonPrefix(List<Message> stored, List<Message> current) {
+        int limit = Math.min(stored.size(), current.size());
+        int i = 0;
+        while (i < limit && (stored.get(i) == current.get(i) || stored.get(i).equals(current.get(i)))) {
+            i++;
+        }
+        return i;
+    }
+
+    private List<Message> load(String conversationId) {
+        List<Message> loaded = readStored(conversationId);
+        persisted.put(conversationId, loaded);
+        return loaded;
+    }
+
+    private List<Message> readStored(String conversationId) {
+        List<Message> messages = new ArrayList<>();
+        for (ChatMemoryMessage row : messageRepository.findByConversationIdOrderBySeqAsc(conversationId)) {
+            Message message = toMessage(row);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return List.copyOf(messages);
+    }
+
+    private static ChatMemoryMessage toRow(String conversationId, int seq, Message message) {
+        String type = isSummary(message) ? SUMMARY_TYPE : message.getMessageType().name();
+        return ChatMemoryMessage.builder()
+            .conversationId(conversationId)
+            .seq(seq)
+            .messageType(type)
+            .content(message.getText())
+            .build();
+    }
+
+    private static Message toMessage(ChatMemoryMessage row) {
+        String text = row.getContent() != null ? row.getContent() : "";
+        if (SUMMARY_TYPE.equals(row.getMessageType())) {
+            return summaryMessage(text);
+        }
+        try {
+            return switch (MessageType.valueOf(row.getMessageType())) {
+                case USER -> new UserMessage(text);
+                case ASSISTANT -> new AssistantMessage(text);
+                case SYSTEM -> new SystemMessage(text);
+                default -> null;
+            };
+        } catch (IllegalArgumentException e) {
+            logger.debug("Skipping chat memory row of unknown type {}", row.getMessageType());
+            return null;
+        }
+    }
+
+    public static Message summaryMessage(String summary) {
+        return SystemMessage.builder().text(summary).metadata(Map.of(SUMMARY_METADATA, true)).build();
+    }
+
+    public static boolean isSummary(Message message) {
+        return message instanceof SystemMessage && Boolean.TRUE.equals(message.getMetadata().get(SUMMARY_METADATA));
+    }
+}
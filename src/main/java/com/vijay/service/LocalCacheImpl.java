@@ -1,122 +1,90 @@
 package com.vijay.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.vijay.cache.CacheRegion;
+import com.vijay.cache.MultiRegionCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * 🧠 LOCAL CACHE IMPLEMENTATION - Phase 10
  * 
- * Purpose: Local in-memory caching with LRU eviction
+ * Purpose: Local in-memory caching with bounded size and TTLs
  * 
  * Responsibilities:
- * - Store cache in memory
- * - Implement LRU eviction
+ * - Store cache in the "general" region of MultiRegionCache: lock-free reads, O(1)
+ *   W-TinyLFU eviction bounded by entry count and the region's share of the byte
+ *   budget, timer-wheel expiry
  * - TTL management
  * - Thread-safe operations
+ * - With a shared state backend the region writes entries through to it and reads it
+ *   on a local miss, so replicas share entries (clear() and evictExpired() stay local)
  */
 @Service
 public class LocalCacheImpl {
     
-    private static final Logger logger = LoggerFactory.getLogger(LocalCacheImpl.class);
-    
-    private static final int DEFAULT_MAX_SIZE = 10000;
-    
-    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
-    private final int maxSize;
-    private final AtomicLong hits = new AtomicLong(0);
-    private final AtomicLong misses = new AtomicLong(0);
+    private final CacheRegion region;
     
     public LocalCacheImpl() {
-        this.maxSize = DEFAULT_MAX_SIZE;
+        this(new MultiRegionCache());
     }
     
+    /**
+     * Stand-alone cache of maxSize entries (outside the shared byte budget)
+     */
     public LocalCacheImpl(int maxSize) {
-        this.maxSize = maxSize;
+        this.region = new CacheRegion(MultiRegionCache.GENERAL, maxSize, Duration.ofHours(1));
+    }
+    
+    @Autowired
+    public LocalCacheImpl(MultiRegionCache regions) {
+        this.region = regions.region(MultiRegionCache.GENERAL);
     }
     
     /**
      * Put value in cache
      */
-    public synchronized void put(String key, Object value, long ttlSeconds) {
-        // Check if eviction needed
-        if (cache.size() >= maxSize) {
-            evictLRU();
-        }
-        
-        long expiryTime = System.currentTimeMillis() + (ttlSeconds * 1000);
-        cache.put(key, new CacheEntry(value, expiryTime));
+    public void put(String key, Object value, long ttlSeconds) {
+        region.put(key, value, Duration.ofSeconds(ttlSeconds));
     }
     
     /**
      * Get value from cache
      */
     public Object get(String key) {
-        CacheEntry entry = cache.get(key);
-        
-        if (entry == null) {
-            misses.incrementAndGet();
-            return null;
-        }
-        
-        // Check if expired
-        if (System.currentTimeMillis() > entry.expiryTime) {
-            cache.remove(key);
-            misses.incrementAndGet();
-            return null;
-        }
-        
-        hits.incrementAndGet();
-        entry.lastAccessTime = System.currentTimeMillis();
-        return entry.value;
+        return region.get(key);
     }
     
     /**
      * Remove from cache
      */
     public void remove(String key) {
-        cache.remove(key);
+        region.remove(key);
     }
     
     /**
      * Clear cache
      */
-    public synchronized void clear() {
-        cache.clear();
-        hits.set(0);
-        misses.set(0);
+    public void clear() {
+        region.clear();
+        region.resetStats();
     }
     
     /**
-     * Evict expired entries
+     * Evict expired entries (the timer wheel does this as the cache is used; this
+     * runs it now)
      */
-    public synchronized void evictExpired() {
-        long now = System.currentTimeMillis();
-        cache.entrySet().removeIf(entry -> now > entry.getValue().expiryTime);
+    public void evictExpired() {
+        region.cleanUp();
     }
     
     /**
-     * Evict LRU entry
+     * Statistics of the shared tier, or null without a shared state backend
      */
-    private void evictLRU() {
-        if (cache.isEmpty()) {
-            return;
-        }
-        
-        // Find least recently used entry
-        String lruKey = cache.entrySet().stream()
-            .min(Comparator.comparingLong(e -> e.getValue().lastAccessTime))
-            .map(Map.Entry::getKey)
-            .orElse(null);
-        
-        if (lruKey != null) {
-            cache.remove(lruKey);
-            logger.debug("🗑️ LRU evicted: {}", lruKey);
-        }
+    public Map<String, Object> getSharedStats() {
+        return region.getSharedStats();
     }
     
     /**
@@ -124,10 +92,11 @@ public class LocalCacheImpl {
      */
     public CacheManager.CacheStats getStats() {
         return new CacheManager.CacheStats(
-            cache.size(),
-            maxSize,
-            hits.get(),
-            misses.get()
+            size(),
+            (int) Math.min(Integer.MAX_VALUE, region.getMaxEntries()),
+            region.getHits(),
+            region.getMisses(),
+            region.getEvictions()
         );
     }
     
@@ -135,41 +104,13 @@ public class LocalCacheImpl {
      * Get cache size
      */
     public int size() {
-        return cache.size();
+        return region.size();
     }
     
     /**
      * Check if key exists
      */
     public boolean containsKey(String key) {
-        CacheEntry entry = cache.get(key);
-        if (entry == null) {
-            return false;
-        }
-        
-        // Check if expired
-        if (System.currentTimeMillis() > entry.expiryTime) {
-            cache.remove(key);
-            return false;
-        }
-        
-        return true;
-    }
-    
-    // ============ Inner Classes ============
-    
-    /**
-     * Cache entry with TTL and LRU tracking
-     */
-    private static class CacheEntry {
-        final Object value;
-        final long expiryTime;
-        long lastAccessTime;
-        
-        CacheEntry(Object value, long expiryTime) {
-            this.value = value;
-            this.expiryTime = expiryTime;
-            this.lastAccessTime = System.currentTimeMillis();
-        }
+        return region.containsKey(key);
     }
 }
@@ -0,0 +1,159 @@
+package com.vijay.service;
+
+import com.vijay.service.ConversationMemoryManager.ConversationMemory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 📚 LONG-TERM MEMORY INDEX - One User's Important Past Exchanges
+ *
+ * Purpose: Keep a user's long-term memories searchable by meaning in a fixed amount
+ * of memory, however long the user keeps chatting
+ *
+ * Responsibilities:
+ * - Store each memory with the unit-length embedding of its query
+ * - k-NN lookup: the k most similar memories above a minimum similarity
+ * - At capacity, replace the memory with the lowest retention score:
+ *   importance decayed by age (halves every half-life)
+ *
+ * Capacity is a few hundred entries per user, so the k-NN query is an exact scan of
+ * the user's vectors with a k-sized top list: no approximate index needed at this size.
+ * Memories stored without an embedding (embedding model unavailable) are matched by
+ * keyword overlap instead. All methods are thread-safe.
+ */
+public class LongTermMemoryIndex {
+
+    private final int capacity;
+    private final double halfLifeMinutes;
+
+    private final ConversationMemory[] memories;
+    private final float[][] vectors;
+    private int size;
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    public LongTermMemoryIndex(int capacity, Duration halfLife) {
+        this.capacity = Math.max(1, capacity);
+        this.halfLifeMinutes = Math.max(1, halfLife.toMinutes());
+        this.memories = new ConversationMemory[this.capacity];
+        this.vectors = new float[this.capacity][];
+    }
+
+    /**
+     * Add a memory; returns the memory it replaced, or null if there was room
+     */
+    public synchronized ConversationMemory add(ConversationMemory memory, float[] vector) {
+        lastAccessMillis = System.currentTimeMillis();
+        if (size < capacity) {
+            memories[size] = memory;
+            vectors[size] = vector;
+            size++;
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int weakest = 0;
+        double weakestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            double score = retention(memories[i], now);
+            if (score < weakestScore) {
+                weakestScore = score;
+                weakest = i;
+            }
+        }
+        // A new memory weaker than everything kept is not worth an old one
+        if (retention(memory, now) < weakestScore) {
+            return memory;
+        }
+        ConversationMemory evicted = memories[weakest];
+        memories[weakest] = memory;
+        vectors[weakest] = vector;
+        return evicted;
+    }
+
+    /**
+     * The k memories most similar to the query, most similar first
+     *
+     * @param query     unit-length query embedding, or null to match by keywords only
+     * @param queryText the query, for memories without an embedding
+     */
+    public synchronized List<ConversationMemory> nearest(float[] query, String queryText, int k, double minSimilarity) {
+        lastAccessMillis = System.currentTimeMillis();
+        if (k <= 0 || size == 0) {
+            return List.of();
+        }
+        int[] top = new int[k];
+        double[] topScores = new double[k];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            double similarity = query != null && vectors[i] != null
+                ? dot(query, vectors[i])
+                : keywordSimilarity(memories[i].getExchange().getUserQuery(), queryText);
+            if (similarity < minSimilarity || (found == k && similarity <= topScores[k - 1])) {
+                continue;
+            }
+            // Insertion into the k-sized top list
+            int position = found < k ? found++ : k - 1;
+            while (position > 0 && topScores[position - 1] < similarity) {
+                top[position] = top[position - 1];
+                topScores[position] = topScores[position - 1];
+                position--;
+            }
+            top[position] = i;
+            topScores[position] = similarity;
+        }
+        List<ConversationMemory> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(memories[top[i]]);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    private double retention(ConversationMemory memory, LocalDateTime now) {
+        long ageMinutes = Math.max(0, Duration.between(memory.getStoredTime(), now).toMinutes());
+        return memory.getImportanceScore() * Math.pow(0.5, ageMinutes / halfLifeMinutes);
+    }
+
+    static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Jaccard overlap of the lowercase words of two queries (0-1)
+     */
+    static double keywordSimilarity(String query1, String query2) {
+        if (query1 == null || query2 == null) {
+            return 0.0;
+        }
+        Set<String> words1 = new HashSet<>(Arrays.asList(query1.toLowerCase(Locale.ROOT).split("\\s+")));
+        Set<String> words2 = new HashSet<>(Arrays.asList(query2.toLowerCase(Locale.ROOT).split("\\s+")));
+
+        Set<String> intersection = new HashSet<>(words1);
+        intersection.retainAll(words2);
+
+        Set<String> union = new HashSet<>(words1);
+        union.addAll(words2);
+
+        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    }
+}
@@ -45,19 +45,16 @@ public class MemoryCleanupService {
         logger.info("📊 Memory Statistics:");
         logger.info("   🧠 Active sessions: {}", getActiveSessionCount());
         logger.info("   👥 Total users: {}", getTotalUserCount());
+        logger.info("   📚 Long-term memories: {}", memoryManager.getLongTermMemoryCount());
         logger.info("   💾 Memory usage: {}MB", getMemoryUsageMB());
     }
     
     private int getActiveSessionCount() {
-        // This would be implemented by adding a method to ConversationMemoryManager
-        // For now, return a placeholder
-        return 0;
+        return memoryManager.getActiveSessionCount();
     }
     
     private int getTotalUserCount() {
-        // This would be implemented by adding a method to ConversationMemoryManager
-        // For now, return a placeholder
-        return 0;
+        return memoryManager.getUserCount();
     }
     
     private long getMemoryUsageMB() {
@@ -1,11 +1,13 @@
 package com.vijay.service;
 
+import com.vijay.util.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.lang.management.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🧠 PERFORMANCE PROFILER - Phase 10
@@ -18,6 +20,9 @@ import java.util.*;
  * - Track GC pauses
  * - Track response times
  * - Generate performance reports
+ * 
+ * Latencies go into striped HDR-style histograms (overall and per component):
+ * recording is allocation-free and percentiles are read in O(buckets).
  */
 @Service
 public class PerformanceProfiler {
@@ -31,7 +36,8 @@ public class PerformanceProfiler {
     
     private long profilingStartTime = 0;
     private long initialCPUTime = 0;
-    private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    private final LatencyHistogram latencies = LatencyHistogram.striped();
+    private final Map<String, LatencyHistogram> componentLatencies = new ConcurrentHashMap<>();
     
     /**
      * Start profiling
@@ -39,7 +45,8 @@ public class PerformanceProfiler {
     public void startProfiling() {
         profilingStartTime = System.currentTimeMillis();
         initialCPUTime = threadBean.getCurrentThreadCpuTime();
-        latencies.clear();
+        latencies.reset();
+        componentLatencies.clear();
         logger.info("🚀 Performance profiling started");
     }
     
@@ -55,7 +62,15 @@ public class PerformanceProfiler {
      * Record latency
      */
     public void recordLatency(long latencyMs) {
-        latencies.add(latencyMs);
+        latencies.record(latencyMs);
+    }
+    
+    /**
+     * Record latency of one component (also counted in the overall latency)
+     */
+    public void recordLatency(String component, long latencyMs) {
+        latencies.record(latencyMs);
+        componentLatencies.computeIfAbsent(component, k -> LatencyHistogram.striped()).record(latencyMs);
     }
     
     /**
@@ -100,23 +115,25 @@ public class PerformanceProfiler {
      * Get latency statistics
      */
     public LatencyStats getLatencyStats() {
-        if (latencies.isEmpty()) {
+        return toLatencyStats(latencies);
+    }
+    
+    /**
+     * Get latency statistics per component
+     */
+    public Map<String, LatencyStats> getComponentLatencyStats() {
+        Map<String, LatencyStats> stats = new TreeMap<>();
+        componentLatencies.forEach((component, histogram) -> stats.put(component, toLatencyStats(histogram)));
+        return stats;
+    }
+    
+    private static LatencyStats toLatencyStats(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
             return new LatencyStats(0, 0, 0, 0, 0);
         }
         
-        List<Long> sorted = new ArrayList<>(latencies);
-        Collections.sort(sorted);
-        
-        long min = sorted.get(0);
-        long max = sorted.get(sorted.size() - 1);
-        double avg = latencies.stream().mapToLong(Long::longValue).average().orElse(0);
-        
-        // Calculate percentiles
-        long p50 = sorted.get((int)(sorted.size() * 0.50));
-        long p95 = sorted.get((int)(sorted.size() * 0.95));
-        long p99 = sorted.get((int)(sorted.size() * 0.99));
-        
-        return new LatencyStats(min, max, avg, p95, p99);
+        LatencyHistogram.HistogramSnapshot snapshot = histogram.snapshot();
+        return new LatencyStats(histogram.getMin(), snapshot.max, snapshot.mean, snapshot.p95, snapshot.p99);
     }
     
     /**
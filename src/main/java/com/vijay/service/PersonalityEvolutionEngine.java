@@ -1,12 +1,14 @@
 package com.vijay.service;
 
 import com.vijay.dto.PersonalityTraits;
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🧠 Personality Evolution Engine
@@ -19,14 +21,21 @@ public class PersonalityEvolutionEngine {
     
     private static final Logger logger = LoggerFactory.getLogger(PersonalityEvolutionEngine.class);
     
-    private final Map<String, PersonalityTraits> evolvedTraits = new ConcurrentHashMap<>();
-    private final Map<String, Integer> interactionCounts = new ConcurrentHashMap<>();
-    private final Map<String, Double> userSatisfactionScores = new ConcurrentHashMap<>();
+    // Evolution spans weeks of feedback: kept for 30 idle days
+    private static final int MAX_USERS = 50_000;
+    private static final Duration IDLE_TTL = Duration.ofDays(30);
+    
+    private final SessionNamespace<PersonalityTraits> evolvedTraits;
+    private final SessionNamespace<Integer> interactionCounts;
+    private final SessionNamespace<Double> userSatisfactionScores;
     
     private static final double EVOLUTION_RATE = 0.05; // 5% change per interaction
     private static final int EVOLUTION_THRESHOLD = 10; // Evolve after 10 interactions
     
-    public PersonalityEvolutionEngine() {
+    public PersonalityEvolutionEngine(SessionStateStore stateStore) {
+        this.evolvedTraits = stateStore.namespace("personality-traits", MAX_USERS, IDLE_TTL);
+        this.interactionCounts = stateStore.namespace("personality-interactions", MAX_USERS, IDLE_TTL);
+        this.userSatisfactionScores = stateStore.namespace("personality-satisfaction", MAX_USERS, IDLE_TTL);
         logger.info("🧠 Personality Evolution Engine initialized - Dynamic personality development");
     }
     
@@ -0,0 +1,194 @@
+package com.vijay.service;
+
+import com.vijay.context.RequestContext;
+import com.vijay.tools.ToolFinderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 🧠 PRE-LLM STAGE - Deadline-Bounded Context Lookups
+ *
+ * Purpose: Run the lookups that precede the main LLM call without letting a slow
+ * vector store hold the request
+ *
+ * Only lookups whose results the turn actually uses run here. Today that is ToolFinder
+ * (an embedding call plus a vector search) whose suggestions the Conductor reviews.
+ * Brain selection comes from the Conductor's plan, and DynamicContextAdvisor searches
+ * for brains itself only in its no-plan fallback, so neither is prefetched.
+ *
+ * Responsibilities:
+ * - Fork each lookup on a virtual thread
+ * - Propagate the RequestContext to every subtask
+ * - Join all subtasks against a single deadline
+ * - Cancel stragglers and substitute degraded results (no tools)
+ *
+ * Note: StructuredTaskScope is still a preview API in Java 21, so the scope is modelled
+ * with plain Futures: every subtask is owned by one run() call and is either complete
+ * or cancelled when run() returns.
+ */
+@Service
+public class PreLlmStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreLlmStage.class);
+
+    private final ToolFinderService toolFinder;
+
+    // Configuration
+    private final long deadlineMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Metrics
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong degradedTools = new AtomicLong();
+    private final AtomicLong totalStageMs = new AtomicLong();
+
+    public PreLlmStage(ToolFinderService toolFinder,
+                       @Value("${chat.prefetch.deadline-ms:2500}") long deadlineMs) {
+        this.toolFinder = toolFinder;
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Run the lookups for a query and wait at most the shared deadline
+     */
+    public PreLlmResult run(String query) {
+        runs.incrementAndGet();
+        long start = System.currentTimeMillis();
+        long deadline = start + deadlineMs;
+
+        RequestContext context = RequestContext.currentOrCreate();
+
+        Subtask<List<String>> tools = fork("toolFinder", context, () -> toolFinder.findToolsFor(query));
+
+        Set<String> degraded = new LinkedHashSet<>();
+
+        List<String> toolNames = tools.join(deadline, List.of());
+        if (tools.degraded) {
+            degraded.add(tools.name);
+            degradedTools.incrementAndGet();
+        }
+
+        long stageMs = System.currentTimeMillis() - start;
+        totalStageMs.addAndGet(stageMs);
+
+        if (degraded.isEmpty()) {
+            logger.info("⚡ PreLlmStage: lookups finished in {}ms", stageMs);
+        } else {
+            logger.warn("⚠️ PreLlmStage: {} degraded after {}ms (deadline {}ms)", degraded, stageMs, deadlineMs);
+        }
+
+        return new PreLlmResult(toolNames, degraded, stageMs);
+    }
+
+    private <T> Subtask<T> fork(String name, RequestContext context, Supplier<T> lookup) {
+        Subtask<T> subtask = new Subtask<>(name);
+        subtask.future = executor.submit(context.wrap(lookup::get));
+        return subtask;
+    }
+
+    /**
+     * Get stage statistics
+     */
+    public PreLlmStats getStats() {
+        long runCount = runs.get();
+        return new PreLlmStats(
+            runCount,
+            degradedTools.get(),
+            runCount > 0 ? (double) totalStageMs.get() / runCount : 0.0,
+            deadlineMs
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * One forked lookup
+     */
+    private static class Subtask<T> {
+        private final String name;
+        private Future<T> future;
+        private boolean degraded = false;
+
+        Subtask(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Wait until the shared deadline; on timeout or failure cancel and use the fallback
+         */
+        T join(long deadline, T fallback) {
+            long remaining = deadline - System.currentTimeMillis();
+            try {
+                T value = future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                if (value != null) {
+                    return value;
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                logger.warn("⏱️ PreLlmStage: {} missed the deadline, using degraded result", name);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.warn("⚠️ PreLlmStage: {} failed ({}), using degraded result", name,
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+            degraded = true;
+            return fallback;
+        }
+    }
+
+    /**
+     * Results of the pre-LLM lookups
+     */
+    public static class PreLlmResult {
+        public final List<String> suggestedTools;
+        public final Set<String> degraded;
+        public final long elapsedMs;
+
+        public PreLlmResult(List<String> suggestedTools, Set<String> degraded, long elapsedMs) {
+            this.suggestedTools = new ArrayList<>(suggestedTools);
+            this.degraded = Collections.unmodifiableSet(degraded);
+            this.elapsedMs = elapsedMs;
+        }
+
+        public boolean isDegraded() {
+            return !degraded.isEmpty();
+        }
+    }
+
+    /**
+     * Pre-LLM stage statistics
+     */
+    public static class PreLlmStats {
+        public final long runs;
+        public final long degradedTools;
+        public final double avgStageMs;
+        public final long deadlineMs;
+
+        public PreLlmStats(long runs, long degradedTools, double avgStageMs, long deadlineMs) {
+            this.runs = runs;
+            this.degradedTools = degradedTools;
+            this.avgStageMs = avgStageMs;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
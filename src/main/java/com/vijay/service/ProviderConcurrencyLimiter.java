@@ -0,0 +1,412 @@
+package com.vijay.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 🚦 PROVIDER CONCURRENCY LIMITER - Adaptive Admission Control per Provider
+ *
+ * Purpose: Keep each provider at its throughput sweet spot instead of letting a burst
+ * push dozens of parallel generations into one local Ollama instance
+ *
+ * Responsibilities:
+ * - Limit in-flight model calls per provider with an adaptive (AIMD) limit
+ *   - additive increase (+1 per limit's worth of calls) while latency stays near its long-term average
+ *   - multiplicative decrease (x0.9) when latency exceeds tolerance x average, (x0.75) on failures
+ * - Hold excess calls in a bounded wait queue with a deadline
+ * - Reject overload fast: 429 when the queue is full, 503 when the queue deadline passes,
+ *   both with a Retry-After estimate
+ * - Report queue depth, in-flight and rejection metrics
+ *
+ * Wraps provider ChatModels, so advisors and retrieval do not count against the provider.
+ * Tool execution does: Spring AI runs the tool-calling loop inside ChatModel.call, so a
+ * tool-using turn holds its permit (and is timed) across every round trip and tool run.
+ */
+@Service
+public class ProviderConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderConcurrencyLimiter.class);
+
+    private static final double LATENCY_EWMA_ALPHA = 0.05;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double FAILURE_BACKOFF = 0.75;
+
+    // Configuration
+    private final boolean enabled;
+    private final Map<String, Integer> initialLimits;
+    private final int defaultInitialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long queueTimeoutMs;
+    private final double latencyTolerance;
+
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    public ProviderConcurrencyLimiter(@Value("${chat.admission.enabled:true}") boolean enabled,
+                                      @Value("${chat.admission.initial-limits:ollama=2,openai=16,anthropic=16,google=16}") String initialLimits,
+                                      @Value("${chat.admission.default-initial-limit:8}") int defaultInitialLimit,
+                                      @Value("${chat.admission.min-limit:1}") int minLimit,
+                                      @Value("${chat.admission.max-limit:64}") int maxLimit,
+                                      @Value("${chat.admission.max-queue:32}") int maxQueue,
+                                      @Value("${chat.admission.queue-timeout-ms:10000}") long queueTimeoutMs,
+                                      @Value("${chat.admission.latency-tolerance:2.0}") double latencyTolerance) {
+        this.enabled = enabled;
+        this.initialLimits = parseLimits(initialLimits);
+        this.defaultInitialLimit = defaultInitialLimit;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+    }
+
+    /**
+     * Wrap a provider's model so every call needs a permit (returns the model itself when disabled)
+     */
+    public ChatModel wrap(String provider, ChatModel model) {
+        if (!enabled) {
+            return model;
+        }
+        String name = canonical(provider);
+        logger.info("🚦 Admission control enabled for {} (initial limit: {}, queue: {})",
+            name, initialLimitFor(name), maxQueue);
+        return new LimitedChatModel(name, model, this);
+    }
+
+    /**
+     * Wait for a permit (bounded queue, bounded wait) or fail fast with ProviderOverloadedException
+     */
+    public Permit acquire(String provider) {
+        return limitFor(canonical(provider)).acquire();
+    }
+
+    /**
+     * Shed load early: reject before any pre-LLM work if the provider's queue is already full
+     */
+    public void checkAdmission(String provider) {
+        if (!enabled) {
+            return;
+        }
+        AdaptiveLimit limit = limits.get(canonical(provider));
+        if (limit != null) {
+            limit.checkQueue();
+        }
+    }
+
+    /**
+     * Provider aliases used by ChatService, mapped to one limiter each
+     */
+    public static String canonical(String provider) {
+        String name = provider == null ? "ollama" : provider.toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "openai" -> "openai";
+            case "anthropic", "claude" -> "anthropic";
+            case "google", "gemini" -> "google";
+            case "ollama", "default" -> "ollama";
+            default -> name;
+        };
+    }
+
+    private AdaptiveLimit limitFor(String provider) {
+        return limits.computeIfAbsent(provider, p -> new AdaptiveLimit(p, initialLimitFor(p)));
+    }
+
+    private int initialLimitFor(String provider) {
+        int initial = initialLimits.getOrDefault(provider, defaultInitialLimit);
+        return Math.max(minLimit, Math.min(maxLimit, initial));
+    }
+
+    private static Map<String, Integer> parseLimits(String spec) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        if (spec == null) {
+            return parsed;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length == 2) {
+                try {
+                    parsed.put(canonical(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                } catch (NumberFormatException e) {
+                    logger.warn("⚠️ Ignoring invalid admission limit '{}'", pair);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Get per-provider admission statistics
+     */
+    public Map<String, AdmissionStats> getStats() {
+        Map<String, AdmissionStats> stats = new LinkedHashMap<>();
+        limits.forEach((provider, limit) -> stats.put(provider, limit.stats()));
+        return stats;
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * One provider's adaptive limit and wait queue
+     */
+    private final class AdaptiveLimit {
+        private final String provider;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+
+        private double limit;
+        private int inFlight;
+        private int waiting;
+        private double avgLatencyMs;
+        private long lastDecreaseAt;
+
+        // Metrics
+        private long admitted;
+        private long queued;
+        private long rejectedQueueFull;
+        private long rejectedTimeout;
+        private long failures;
+        private long totalQueueWaitMs;
+        private int peakInFlight;
+
+        AdaptiveLimit(String provider, int initialLimit) {
+            this.provider = provider;
+            this.limit = initialLimit;
+        }
+
+        Permit acquire() {
+            lock.lock();
+            try {
+                if (inFlight < (int) limit) {
+                    return admit(0);
+                }
+                checkQueue();
+
+                waiting++;
+                queued++;
+                long start = System.currentTimeMillis();
+                long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+                try {
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            rejectedTimeout++;
+                            logger.warn("🚦 {}: queue deadline of {}ms passed (in-flight {}, limit {})",
+                                provider, queueTimeoutMs, inFlight, (int) limit);
+                            throw overloaded(503, "Provider " + provider + " is overloaded (queue timeout)");
+                        }
+                        remaining = available.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw overloaded(503, "Interrupted while queued for provider " + provider);
+                } finally {
+                    waiting--;
+                }
+                return admit(System.currentTimeMillis() - start);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Reject with 429 when every slot is busy and the wait queue is full
+         */
+        void checkQueue() {
+            lock.lock();
+            try {
+                if (inFlight >= (int) limit && waiting >= maxQueue) {
+                    rejectedQueueFull++;
+                    throw overloaded(429, "Provider " + provider + " is at capacity (queue full)");
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Permit admit(long waitedMs) {
+            inFlight++;
+            admitted++;
+            totalQueueWaitMs += waitedMs;
+            peakInFlight = Math.max(peakInFlight, inFlight);
+            return new Permit(this);
+        }
+
+        void release(long latencyMs, boolean success) {
+            lock.lock();
+            try {
+                boolean limitWasReached = inFlight >= (int) limit;
+                inFlight--;
+                long now = System.currentTimeMillis();
+
+                if (!success) {
+                    failures++;
+                    decrease(FAILURE_BACKOFF, now);
+                } else {
+                    if (avgLatencyMs == 0) {
+                        avgLatencyMs = latencyMs;
+                    }
+                    if (latencyMs > Math.max(1.0, avgLatencyMs) * latencyTolerance) {
+                        decrease(LATENCY_BACKOFF, now);
+                    } else if (limitWasReached || waiting > 0) {
+                        // Additive increase: about +1 per full window of successful calls
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                    avgLatencyMs += LATENCY_EWMA_ALPHA * (latencyMs - avgLatencyMs);
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Multiplicative decrease, at most once per average latency window
+         */
+        private void decrease(double factor, long now) {
+            if (now - lastDecreaseAt < Math.max(1, (long) avgLatencyMs)) {
+                return;
+            }
+            lastDecreaseAt = now;
+            double previous = limit;
+            limit = Math.max(minLimit, limit * factor);
+            if ((int) previous != (int) limit) {
+                logger.info("🚦 {}: concurrency limit {} -> {} (avg latency {}ms)",
+                    provider, (int) previous, (int) limit, (long) avgLatencyMs);
+            }
+        }
+
+        private ProviderOverloadedException overloaded(int status, String message) {
+            // Rough time for the queue ahead of this caller to drain
+            double perSlotMs = avgLatencyMs > 0 ? avgLatencyMs : 1000;
+            long retryAfter = Math.max(1, (long) Math.ceil(perSlotMs * (waiting + 1) / Math.max(1, limit) / 1000.0));
+            return new ProviderOverloadedException(provider, status, retryAfter, message);
+        }
+
+        AdmissionStats stats() {
+            lock.lock();
+            try {
+                return new AdmissionStats(provider, (int) limit, inFlight, waiting, maxQueue, peakInFlight,
+                    admitted, queued, rejectedQueueFull, rejectedTimeout, failures,
+                    admitted > 0 ? (double) totalQueueWaitMs / admitted : 0.0, avgLatencyMs);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A held slot; close() releases it and feeds the call's latency and outcome back to the limit
+     */
+    public static final class Permit implements AutoCloseable {
+        private final AdaptiveLimit owner;
+        private final long start = System.currentTimeMillis();
+        private boolean success;
+        private boolean released;
+
+        private Permit(AdaptiveLimit owner) {
+            this.owner = owner;
+        }
+
+        public void success() {
+            success = true;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                owner.release(System.currentTimeMillis() - start, success);
+            }
+        }
+    }
+
+    /**
+     * ChatModel whose calls go through the provider's limiter
+     */
+    private static final class LimitedChatModel implements ChatModel {
+        private final String provider;
+        private final ChatModel delegate;
+        private final ProviderConcurrencyLimiter limiter;
+
+        LimitedChatModel(String provider, ChatModel delegate, ProviderConcurrencyLimiter limiter) {
+            this.provider = provider;
+            this.delegate = delegate;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            try (Permit permit = limiter.acquire(provider)) {
+                ChatResponse response = delegate.call(prompt);
+                permit.success();
+                return response;
+            }
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return delegate.stream(prompt);
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return delegate.getDefaultOptions();
+        }
+    }
+
+    /**
+     * Admission statistics for one provider
+     */
+    public static class AdmissionStats {
+        public final String provider;
+        public final int limit;
+        public final int inFlight;
+        public final int queueDepth;
+        public final int maxQueue;
+        public final int peakInFlight;
+        public final long admitted;
+        public final long queued;
+        public final long rejectedQueueFull;
+        public final long rejectedTimeout;
+        public final long failures;
+        public final double avgQueueWaitMs;
+        public final double avgLatencyMs;
+
+        public AdmissionStats(String provider, int limit, int inFlight, int queueDepth, int maxQueue,
+                              int peakInFlight, long admitted, long queued, long rejectedQueueFull,
+                              long rejectedTimeout, long failures, double avgQueueWaitMs, double avgLatencyMs) {
+            this.provider = provider;
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.queueDepth = queueDepth;
+            this.maxQueue = maxQueue;
+            this.peakInFlight = peakInFlight;
+            this.admitted = admitted;
+            this.queued = queued;
+            this.rejectedQueueFull = rejectedQueueFull;
+            this.rejectedTimeout = rejectedTimeout;
+            this.failures = failures;
+            this.avgQueueWaitMs = avgQueueWaitMs;
+            this.avgLatencyMs = avgLatencyMs;
+        }
+
+        public long getRejected() {
+            return rejectedQueueFull + rejectedTimeout;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.vijay.service;
+
+/**
+ * 🚦 Thrown when a provider's concurrency limit and wait queue are exhausted
+ *
+ * Carries the HTTP status to answer with (429 queue full, 503 queue timeout)
+ * and a Retry-After hint in seconds.
+ */
+public class ProviderOverloadedException extends RuntimeException {
+
+    private final String provider;
+    private final int status;
+    private final long retryAfterSeconds;
+
+    public ProviderOverloadedException(String provider, int status, long retryAfterSeconds, String message) {
+        super(message);
+        this.provider = provider;
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,241 @@
+package com.vijay.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧪 SCRIPTED CHAT MODEL - Offline ChatModel Timed Like a Real Provider
+ *
+ * Purpose: Load-test and benchmark the advisor chain, indexing and tool execution
+ * without a provider, with latency that scales the way a real model's does
+ *
+ * Responsibilities:
+ * - Answer with a reply derived only from the prompt text, so runs are reproducible
+ * - Take firstTokenDelay + responseTokens / tokensPerSecond per answer; streaming emits
+ *   one word per token at the same rate after the first-token delay
+ * - Every Nth request that offers tools answers with a tool call instead, built from the
+ *   first tool's input schema, and runs it through the ToolCallingManager like the real
+ *   chat models do (internal tool execution), then answers the follow-up
+ * - Report prompt/completion usage and count calls and emitted tool calls
+ *
+ * Backs the perf profile (PerfModelConfig), the offline "stub" provider and the "stub"
+ * hedging backup. With tokensPerSecond 0 every answer takes exactly firstTokenDelayMs.
+ */
+public class ScriptedChatModel implements ChatModel {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String[] VOCABULARY = {
+        "the", "service", "bean", "advisor", "returns", "request", "cache", "context", "method",
+        "class", "config", "token", "query", "response", "retry", "index", "vector", "thread",
+        "uses", "calls", "stores", "before", "after", "when", "spring", "java", "plan", "tool"
+    };
+
+    private final double tokensPerSecond;
+    private final long firstTokenDelayMs;
+    private final int responseTokens;
+    private final int toolCallEvery;
+    private final ToolCallingManager toolCallingManager;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong toolEligible = new AtomicLong();
+    private final AtomicLong toolCalls = new AtomicLong();
+
+    /**
+     * @param tokensPerSecond    generation rate; 0 or less generates instantly
+     * @param firstTokenDelayMs  time to first token (queueing + prompt processing)
+     * @param responseTokens     length of every scripted answer
+     * @param toolCallEvery      emit a tool call on every Nth request offering tools; 0 never
+     * @param toolCallingManager executes emitted tool calls; null returns them to the caller
+     */
+    public ScriptedChatModel(double tokensPerSecond, long firstTokenDelayMs, int responseTokens,
+                             int toolCallEvery, ToolCallingManager toolCallingManager) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.firstTokenDelayMs = firstTokenDelayMs;
+        this.responseTokens = Math.max(1, responseTokens);
+        this.toolCallEvery = toolCallEvery;
+        this.toolCallingManager = toolCallingManager;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        calls.incrementAndGet();
+        return respond(prompt, toolToCall(prompt));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        calls.incrementAndGet();
+        ToolCallback tool = toolToCall(prompt);
+        if (tool != null) {
+            // Tool rounds are answered in one piece; only text answers are streamed token by token
+            return Mono.fromCallable(() -> respond(prompt, tool)).flux();
+        }
+        String[] words = reply(prompt).split(" ");
+        long tokenNanos = generationNanos(1);
+        Flux<String> tokens = Flux.range(0, words.length).map(i -> i == 0 ? words[i] : " " + words[i]);
+        if (tokenNanos > 0) {
+            tokens = tokens.delayElements(Duration.ofNanos(tokenNanos));
+        }
+        return tokens
+            .delaySubscription(Duration.ofMillis(firstTokenDelayMs))
+            .map(token -> new ChatResponse(List.of(new Generation(new AssistantMessage(token)))));
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getToolCallCount() {
+        return toolCalls.get();
+    }
+
+    /**
+     * Scripted answer: responseTokens words picked by a hash of the prompt text
+     */
+    public String reply(Prompt prompt) {
+        long state = prompt.getContents().hashCode() * 0x9E3779B97F4A7C15L + 1;
+        StringBuilder reply = new StringBuilder(responseTokens * 7);
+        for (int i = 0; i < responseTokens; i++) {
+            state ^= state << 13;
+            state ^= state >>> 7;
+            state ^= state << 17;
+            if (i > 0) {
+                reply.append(' ');
+            }
+            reply.append(VOCABULARY[(int) Math.floorMod(state, (long) VOCABULARY.length)]);
+        }
+        return reply.toString();
+    }
+
+    private ChatResponse respond(Prompt prompt, ToolCallback tool) {
+        if (tool == null) {
+            pause(TimeUnit.MILLISECONDS.toNanos(firstTokenDelayMs) + generationNanos(responseTokens));
+            return textResponse(prompt, reply(prompt));
+        }
+
+        pause(TimeUnit.MILLISECONDS.toNanos(firstTokenDelayMs));
+        ChatResponse toolCallResponse = toolCallResponse(prompt, tool);
+        if (toolCallingManager == null || !ToolCallingChatOptions.isInternalToolExecutionEnabled(prompt.getOptions())) {
+            return toolCallResponse;
+        }
+        ToolExecutionResult result = toolCallingManager.executeToolCalls(prompt, toolCallResponse);
+        if (result.returnDirect()) {
+            return ChatResponse.builder()
+                .from(toolCallResponse)
+                .generations(ToolExecutionResult.buildGenerations(result))
+                .build();
+        }
+        // The follow-up with the tool results is a second model call, as with a real provider
+        return call(new Prompt(result.conversationHistory(), prompt.getOptions()));
+    }
+
+    private ToolCallback toolToCall(Prompt prompt) {
+        if (toolCallEvery <= 0) {
+            return null;
+        }
+        List<ToolCallback> tools = offeredTools(prompt);
+        if (tools.isEmpty() || lastMessageIsToolResponse(prompt)) {
+            return null;
+        }
+        long eligible = toolEligible.incrementAndGet();
+        return (eligible - 1) % toolCallEvery == 0 ? tools.get(0) : null;
+    }
+
+    private static List<ToolCallback> offeredTools(Prompt prompt) {
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options && options.getToolCallbacks() != null) {
+            return options.getToolCallbacks();
+        }
+        return List.of();
+    }
+
+    private static boolean lastMessageIsToolResponse(Prompt prompt) {
+        List<Message> messages = prompt.getInstructions();
+        return !messages.isEmpty() && messages.get(messages.size() - 1) instanceof ToolResponseMessage;
+    }
+
+    private ChatResponse toolCallResponse(Prompt prompt, ToolCallback tool) {
+        long id = toolCalls.incrementAndGet();
+        String name = tool.getToolDefinition().name();
+        AssistantMessage.ToolCall toolCall = new AssistantMessage.ToolCall(
+            "scripted-" + id, "function", name, placeholderArguments(tool.getToolDefinition().inputSchema()));
+        AssistantMessage message = new AssistantMessage("", Map.of(), List.of(toolCall));
+        return new ChatResponse(List.of(new Generation(message)), metadata(prompt, 0));
+    }
+
+    private ChatResponse textResponse(Prompt prompt, String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata(prompt, responseTokens));
+    }
+
+    private static ChatResponseMetadata metadata(Prompt prompt, int completionTokens) {
+        int promptTokens = (int) Math.ceil(prompt.getContents().length() / 4.0);
+        return ChatResponseMetadata.builder()
+            .model("scripted")
+            .usage(new DefaultUsage(promptTokens, completionTokens))
+            .build();
+    }
+
+    /**
+     * A value of the declared type for every required parameter, so tools pass validation
+     */
+    static String placeholderArguments(String inputSchema) {
+        ObjectNode arguments = MAPPER.createObjectNode();
+        try {
+            JsonNode schema = MAPPER.readTree(inputSchema);
+            JsonNode properties = schema.path("properties");
+            List<String> required = new ArrayList<>();
+            schema.path("required").forEach(name -> required.add(name.asText()));
+            for (String name : required) {
+                switch (properties.path(name).path("type").asText("string")) {
+                    case "integer", "number" -> arguments.put(name, 1);
+                    case "boolean" -> arguments.put(name, false);
+                    case "array" -> arguments.putArray(name);
+                    case "object" -> arguments.putObject(name);
+                    default -> arguments.put(name, "perf");
+                }
+            }
+        } catch (Exception e) {
+            // Unreadable schema: call without arguments, the tool reports the error itself
+        }
+        return arguments.toString();
+    }
+
+    private long generationNanos(int tokens) {
+        return tokensPerSecond > 0 ? (long) (tokens * 1_000_000_000L / tokensPerSecond) : 0;
+    }
+
+    private static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scripted call cancelled", e);
+        }
+    }
+}
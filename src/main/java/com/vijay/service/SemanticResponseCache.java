@@ -0,0 +1,396 @@
+package com.vijay.service;
+
+import com.vijay.util.QueryFeatureExtractor;
+import com.vijay.util.QueryFeatureExtractor.QueryFeatures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧠 SEMANTIC RESPONSE CACHE - Full-Response Cache in Front of the LLM
+ *
+ * Purpose: Answer repeated FAQ-style questions in milliseconds instead of seconds
+ *
+ * Key = provider + approved tool set + system prompt + hash of the conversation's recent
+ *       history (the "bucket") + normalized query, matched exactly or by embedding similarity
+ *
+ * The history is what the memory advisors would put in front of the model, so an answer
+ * is only reused for a conversation with the same recent history (in practice: fresh
+ * conversations share answers, ongoing ones only reuse their own).
+ *
+ * Responsibilities:
+ * - Exact lookup on the normalized query text (no embedding call)
+ * - Semantic lookup: nearest cached query in the same bucket above a similarity threshold
+ * - Bypass tool-using turns (Conductor would approve tools) and conversation-dependent turns
+ * - Store responses through CacheManager.cacheModelResponse (TTL handled there)
+ * - Record cache hits in ChatMemory so the conversation history stays complete
+ */
+@Service
+public class SemanticResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticResponseCache.class);
+
+    private final CacheManager cacheManager;
+    private final EmbeddingModel embeddingModel;
+    private final ChatMemory chatMemory;
+
+    // Configuration
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxEntries;
+
+    // Semantic index: bucket -> cached queries (unit-length embeddings)
+    private final Map<String, List<IndexEntry>> index = new ConcurrentHashMap<>();
+    private final Deque<IndexEntry> insertionOrder = new ConcurrentLinkedDeque<>();
+
+    // Metrics
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong semanticHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypassedTools = new AtomicLong();
+    private final AtomicLong bypassedContext = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong totalHitMs = new AtomicLong();
+
+    public SemanticResponseCache(CacheManager cacheManager,
+                                 @Qualifier("ollamaEmbeddingModel") EmbeddingModel embeddingModel,
+                                 ChatMemory chatMemory,
+                                 @Value("${chat.response-cache.enabled:true}") boolean enabled,
+                                 @Value("${chat.response-cache.similarity-threshold:0.92}") double similarityThreshold,
+                                 @Value("${chat.response-cache.max-entries:500}") int maxEntries) {
+        this.cacheManager = cacheManager;
+        this.embeddingModel = embeddingModel;
+        this.chatMemory = chatMemory;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Look up a cached response for this turn (call before any LLM work)
+     */
+    public Lookup lookup(String provider, String query, String systemPrompt, String conversationId) {
+        if (!enabled || query == null || query.isBlank()) {
+            return Lookup.bypass("DISABLED");
+        }
+
+        long start = System.currentTimeMillis();
+        QueryFeatures features = QueryFeatureExtractor.extract(query);
+
+        List<String> approvedTools = QueryFeatureExtractor.predictApprovedTools(features);
+        if (approvedTools == null || !approvedTools.isEmpty()) {
+            bypassedTools.incrementAndGet();
+            return Lookup.bypass("TOOLS");
+        }
+        if (features.contextDependent) {
+            bypassedContext.incrementAndGet();
+            return Lookup.bypass("CONVERSATION");
+        }
+
+        String normalized = normalize(query);
+        String bucket = sha256(provider + "|" + String.join(",", new TreeSet<>(approvedTools)) + "|"
+            + (systemPrompt != null ? systemPrompt : "") + "|" + historyFingerprint(conversationId));
+        String exactKey = bucket + ":" + sha256(normalized);
+
+        // 1. Exact match on the normalized text - no embedding needed
+        Object exact = cacheManager.getCachedModelResponse(provider, exactKey);
+        if (exact instanceof String response) {
+            exactHits.incrementAndGet();
+            return hit(start, provider, bucket, normalized, exactKey, null, response, 1.0);
+        }
+
+        // 2. Semantic match within the same bucket
+        float[] embedding = embed(normalized);
+        if (embedding != null) {
+            IndexEntry nearest = null;
+            double bestSimilarity = -1;
+            for (IndexEntry entry : index.getOrDefault(bucket, List.of())) {
+                double similarity = dot(embedding, entry.embedding);
+                if (similarity > bestSimilarity) {
+                    bestSimilarity = similarity;
+                    nearest = entry;
+                }
+            }
+            if (nearest != null && bestSimilarity >= similarityThreshold) {
+                Object cached = cacheManager.getCachedModelResponse(provider, nearest.promptHash);
+                if (cached instanceof String response) {
+                    semanticHits.incrementAndGet();
+                    // Promote: the next identical phrasing becomes an exact hit
+                    cacheManager.cacheModelResponse(provider, exactKey, response);
+                    logger.info("🎯 ResponseCache: semantic hit ({}) for '{}' ~ '{}'",
+                        String.format("%.3f", bestSimilarity), normalized, nearest.normalizedQuery);
+                    return hit(start, provider, bucket, normalized, exactKey, embedding, response, bestSimilarity);
+                }
+                // Expired or evicted underneath us
+                removeFromIndex(nearest);
+            }
+        }
+
+        misses.incrementAndGet();
+        return new Lookup(true, false, "MISS", provider, bucket, normalized, exactKey, embedding, null, 0.0);
+    }
+
+    /**
+     * Store the final response of a cacheable turn (skipped if the turn used tools after all)
+     */
+    public void store(Lookup lookup, String response, Collection<String> toolsUsed) {
+        if (lookup == null || !lookup.cacheable || lookup.hit || response == null || response.isBlank()) {
+            return;
+        }
+        if (toolsUsed != null && !toolsUsed.isEmpty()) {
+            bypassedTools.incrementAndGet();
+            logger.debug("💾 ResponseCache: not storing, turn used tools {}", toolsUsed);
+            return;
+        }
+
+        cacheManager.cacheModelResponse(lookup.provider, lookup.exactKey, response);
+        if (lookup.embedding != null) {
+            IndexEntry entry = new IndexEntry(lookup.bucket, lookup.exactKey, lookup.normalizedQuery, lookup.embedding);
+            index.computeIfAbsent(lookup.bucket, b -> new CopyOnWriteArrayList<>()).add(entry);
+            insertionOrder.addLast(entry);
+            while (insertionOrder.size() > maxEntries) {
+                IndexEntry oldest = insertionOrder.pollFirst();
+                if (oldest != null) {
+                    removeFromIndex(oldest);
+                }
+            }
+        }
+        stores.incrementAndGet();
+        logger.debug("💾 ResponseCache: stored response for '{}'", lookup.normalizedQuery);
+    }
+
+    /**
+     * Append a turn answered outside the advisor chain (cache hit or coalesced duplicate)
+     * to the conversation history
+     */
+    public void recordTurn(String conversationId, String query, String response) {
+        try {
+            chatMemory.add(conversationId, List.of(new UserMessage(query), new AssistantMessage(response)));
+        } catch (Exception e) {
+            logger.debug("Could not record cached turn in chat memory: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget the semantic index (cached values expire through CacheManager)
+     */
+    public void clear() {
+        index.clear();
+        insertionOrder.clear();
+    }
+
+    /**
+     * Hash of the conversation's messages in chat memory ("" for a new conversation).
+     * ChatService keys request coalescing on it as well.
+     */
+    String historyFingerprint(String conversationId) {
+        if (conversationId == null) {
+            return "";
+        }
+        List<Message> history;
+        try {
+            history = chatMemory.get(conversationId);
+        } catch (Exception e) {
+            logger.debug("Could not read chat memory, keying on conversation id: {}", e.getMessage());
+            return conversationId;
+        }
+        if (history == null || history.isEmpty()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Message message : history) {
+            text.append(message.getMessageType()).append(':').append(message.getText()).append('\n');
+        }
+        return sha256(text.toString());
+    }
+
+    private Lookup hit(long start, String provider, String bucket, String normalized, String exactKey,
+                       float[] embedding, String response, double similarity) {
+        totalHitMs.addAndGet(System.currentTimeMillis() - start);
+        return new Lookup(true, true, "HIT", provider, bucket, normalized, exactKey, embedding, response, similarity);
+    }
+
+    private void removeFromIndex(IndexEntry entry) {
+        List<IndexEntry> entries = index.get(entry.bucket);
+        if (entries != null) {
+            entries.remove(entry);
+        }
+        insertionOrder.remove(entry);
+    }
+
+    private float[] embed(String text) {
+        try {
+            float[] vector = embeddingModel.embed(text);
+            return vector != null && vector.length > 0 ? unit(vector) : null;
+        } catch (Exception e) {
+            logger.debug("Embedding failed, exact matching only: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lowercase, collapse whitespace, drop trailing punctuation
+     */
+    static String normalize(String query) {
+        String normalized = query.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        int end = normalized.length();
+        while (end > 0 && ".?!".indexOf(normalized.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalized.substring(0, end).trim();
+    }
+
+    private static float[] unit(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm == 0) {
+            return vector;
+        }
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    /**
+     * Get response cache statistics
+     */
+    public ResponseCacheStats getStats() {
+        long hits = exactHits.get() + semanticHits.get();
+        return new ResponseCacheStats(
+            exactHits.get(),
+            semanticHits.get(),
+            misses.get(),
+            bypassedTools.get(),
+            bypassedContext.get(),
+            stores.get(),
+            insertionOrder.size(),
+            hits > 0 ? (double) totalHitMs.get() / hits : 0.0,
+            similarityThreshold
+        );
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Result of a lookup; carries the key material so store() doesn't embed twice
+     */
+    public static class Lookup {
+        public final boolean cacheable;
+        public final boolean hit;
+        public final String reason;
+        public final String response;
+        public final double similarity;
+        private final String provider;
+        private final String bucket;
+        private final String normalizedQuery;
+        private final String exactKey;
+        private final float[] embedding;
+
+        private Lookup(boolean cacheable, boolean hit, String reason, String provider, String bucket,
+                       String normalizedQuery, String exactKey, float[] embedding, String response, double similarity) {
+            this.cacheable = cacheable;
+            this.hit = hit;
+            this.reason = reason;
+            this.provider = provider;
+            this.bucket = bucket;
+            this.normalizedQuery = normalizedQuery;
+            this.exactKey = exactKey;
+            this.embedding = embedding;
+            this.response = response;
+            this.similarity = similarity;
+        }
+
+        static Lookup bypass(String reason) {
+            return new Lookup(false, false, reason, null, null, null, null, null, null, 0.0);
+        }
+    }
+
+    private static class IndexEntry {
+        final String bucket;
+        final String promptHash;
+        final String normalizedQuery;
+        final float[] embedding;
+
+        IndexEntry(String bucket, String promptHash, String normalizedQuery, float[] embedding) {
+            this.bucket = bucket;
+            this.promptHash = promptHash;
+            this.normalizedQuery = normalizedQuery;
+            this.embedding = embedding;
+        }
+    }
+
+    /**
+     * Response cache statistics
+     */
+    public static class ResponseCacheStats {
+        public final long exactHits;
+        public final long semanticHits;
+        public final long misses;
+        public final long bypassedTools;
+        public final long bypassedConversation;
+        public final long stores;
+        public final int indexedQueries;
+        public final double avgHitMs;
+        public final double similarityThreshold;
+
+        public ResponseCacheStats(long exactHits, long semanticHits, long misses, long bypassedTools,
+                                  long bypassedConversation, long stores, int indexedQueries,
+                                  double avgHitMs, double similarityThreshold) {
+            this.exactHits = exactHits;
+            this.semanticHits = semanticHits;
+            this.misses = misses;
+            this.bypassedTools = bypassedTools;
+            this.bypassedConversation = bypassedConversation;
+            this.stores = stores;
+            this.indexedQueries = indexedQueries;
+            this.avgHitMs = avgHitMs;
+            this.similarityThreshold = similarityThreshold;
+        }
+
+        public double getHitRate() {
+            long total = exactHits + semanticHits + misses;
+            return total > 0 ? (double) (exactHits + semanticHits) / total * 100 : 0;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.vijay.service;
+
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * 💬 STATE BACKEND CHAT MEMORY REPOSITORY - Conversations Shared Between Replicas
+ *
+ * Purpose: With a shared state backend (chat.state.backend=redis), let any replica
+ * continue any conversation: the history lives in the backend instead of one
+ * instance's write-behind cache
+ *
+ * Responsibilities:
+ * - Keep each conversation in the "chat-memory" state namespace (near cache on the
+ *   heap, versioned value in the backend)
+ * - update(): read-modify-write with compare-and-set, so two replicas appending to the
+ *   same conversation never lose a message (SummarizingChatMemory uses it for add()
+ *   and compaction)
+ * - Store every history as an immutable list and replace it on each write, so readers
+ *   never see one being rebuilt
+ *
+ * Messages are stored as type + text, like JpaChatMemoryRepository; the rolling
+ * summary keeps its flag. findConversationIds() only knows this replica's near cache.
+ */
+public class StateBackendChatMemoryRepository implements ChatMemoryRepository {
+
+    private static final String SUMMARY_TYPE = "SUMMARY";
+
+    private final SessionNamespace<List<Message>> conversations;
+
+    public StateBackendChatMemoryRepository(SessionStateStore stateStore) {
+        this.conversations = stateStore.namespace("chat-memory", 10_000, Duration.ofDays(30), new MessagesCodec());
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        return new ArrayList<>(conversations.keySet());
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        List<Message> messages = conversations.get(conversationId);
+        return messages != null ? messages : List.of();
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        conversations.put(conversationId, List.copyOf(messages));
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        conversations.remove(conversationId);
+    }
+
+    /**
+     * Replace the conversation with change(current messages), retried against the latest
+     * version if another replica wrote it meanwhile. change may return null to leave the
+     * conversation as it is; returns what change returned on the attempt that was kept.
+     */
+    public List<Message> update(String conversationId, UnaryOperator<List<Message>> change) {
+        List<List<Message>> result = new ArrayList<>(1);
+        result.add(null);
+        conversations.compute(conversationId, id -> List.of(), stored -> {
+            List<Message> next = change.apply(stored);
+            result.set(0, next);
+            return next != null ? List.copyOf(next) : null;
+        });
+        return result.get(0);
+    }
+
+    public Map<String, Object> getStats() {
+        return conversations.getStats();
+    }
+
+    /**
+     * [count] then [type, text] per message
+     */
+    private static final class MessagesCodec implements SpillCodec<List<Message>> {
+
+        @Override
+        public byte[] encode(List<Message> messages) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(messages.size());
+                for (Message message : messages) {
+                    out.writeUTF(JpaChatMemoryRepository.isSummary(message) ? SUMMARY_TYPE : message.getMessageType().name());
+                    byte[] text = (message.getText() != null ? message.getText() : "").getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public List<Message> decode(byte[] bytes) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                int count = in.readInt();
+                List<Message> messages = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String type = in.readUTF();
+                    String text = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+                    Message message = toMessage(type, text);
+                    if (message != null) {
+                        messages.add(message);
+                    }
+                }
+                return List.copyOf(messages);
+            }
+        }
+
+        private static Message toMessage(String type, String text) {
+            if (SUMMARY_TYPE.equals(type)) {
+                return JpaChatMemoryRepository.summaryMessage(text);
+            }
+            return switch (MessageType.valueOf(type)) {
+                case USER -> new UserMessage(text);
+                case ASSISTANT -> new AssistantMessage(text);
+                case SYSTEM -> new SystemMessage(text);
+                default -> null;
+            };
+        }
+    }
+}
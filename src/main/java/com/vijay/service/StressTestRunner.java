@@ -1,30 +1,45 @@
 package com.vijay.service;
 
+import com.vijay.context.TraceContext;
+import com.vijay.dto.ChatRequest;
+import com.vijay.util.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 🧠 STRESS TEST RUNNER - Phase 10
- * 
- * Purpose: Run stress tests (100 req/sec)
- * 
+ *
+ * Purpose: Open-loop load generator against the real chat pipeline
+ *
  * Responsibilities:
  * - Generate test queries
- * - Send concurrent requests
- * - Track success/failure rates
- * - Measure throughput
+ * - Fire requests at a fixed arrival rate on virtual threads (open loop: a slow
+ *   response never delays the next arrival)
+ * - Drive ChatService.processChat or the pre-LLM retrieval stage
+ * - Track success/failure/dropped counts and achieved throughput
+ * - Measure latency from each request's INTENDED start time, correcting for
+ *   coordinated omission, next to the uncorrected service time
+ * - Break latency down per stage (advisor self times from the timeline)
  * - Generate stress test report
+ *
+ * Offline runs use provider "stub": the full advisor chain in front of a ScriptedChatModel
+ * (registered only with chat.stress.stub-enabled=true; the perf profile turns it on).
  */
 @Service
 public class StressTestRunner {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(StressTestRunner.class);
-    
+
+    /** Stage holding the part of each request not attributed to a named stage */
+    public static final String OTHER_STAGE = "other";
+
     private final List<String> testQueries = Arrays.asList(
         "How do I use lambdas in Java?",
         "Explain Spring Boot",
@@ -37,95 +52,218 @@ public class StressTestRunner {
         "Explain Kubernetes",
         "How do I write unit tests?"
     );
-    
+
+    private final ChatService chatService;
+    private final PreLlmStage preLlmStage;
+    private final TimelineVisualizer timelineVisualizer;
+    private final String defaultProvider;
+    private final int maxInFlight;
+    private final long drainTimeoutSeconds;
+    private final int conversations;
+
+    public StressTestRunner(ChatService chatService,
+                            PreLlmStage preLlmStage,
+                            TimelineVisualizer timelineVisualizer,
+                            @Value("${chat.stress.provider:stub}") String defaultProvider,
+                            @Value("${chat.stress.max-in-flight:2000}") int maxInFlight,
+                            @Value("${chat.stress.drain-timeout-seconds:60}") long drainTimeoutSeconds,
+                            @Value("${chat.stress.conversations:16}") int conversations) {
+        this.chatService = chatService;
+        this.preLlmStage = preLlmStage;
+        this.timelineVisualizer = timelineVisualizer;
+        this.defaultProvider = defaultProvider;
+        this.maxInFlight = maxInFlight;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+        this.conversations = Math.max(1, conversations);
+    }
+
     /**
-     * Run stress test
+     * Run stress test against the chat pipeline on the configured provider
      */
     public StressTestResult runStressTest(int requestsPerSecond, int durationSeconds) {
+        return runStressTest(requestsPerSecond, durationSeconds, "chat", null, true);
+    }
+
+    /**
+     * Run stress test
+     *
+     * @param target          "chat" (ChatService.processChat) or "retrieval" (pre-LLM lookups only)
+     * @param provider        chat provider, null for the configured default ("stub" runs offline)
+     * @param distinctQueries make every query unique so coalescing and the response cache
+     *                        do not absorb the load
+     */
+    public StressTestResult runStressTest(int requestsPerSecond, int durationSeconds, String target,
+                                          String provider, boolean distinctQueries) {
+        String chatProvider = provider != null && !provider.isBlank() ? provider : defaultProvider;
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        StressTarget stressTarget = switch (target == null ? "chat" : target.toLowerCase()) {
+            case "retrieval" -> retrievalTarget();
+            case "chat" -> chatTarget(chatProvider, runId);
+            default -> throw new IllegalArgumentException("Unknown stress target: " + target);
+        };
+
+        StressTestResult result = run(stressTarget, runId, requestsPerSecond, durationSeconds, distinctQueries);
+        result.target = target == null ? "chat" : target.toLowerCase();
+        result.provider = "retrieval".equals(result.target) ? null : chatProvider;
+        return result;
+    }
+
+    /**
+     * Fire requestsPerSecond x durationSeconds requests at evenly spaced intended start times
+     * (runId tags this run's trace IDs, conversations and distinct queries)
+     */
+    StressTestResult run(StressTarget target, String runId, int requestsPerSecond, int durationSeconds,
+                         boolean distinctQueries) {
         logger.info("🚀 Starting stress test: {} req/sec for {} seconds", requestsPerSecond, durationSeconds);
-        
+
         StressTestResult result = new StressTestResult();
         result.requestsPerSecond = requestsPerSecond;
         result.durationSeconds = durationSeconds;
         result.startTime = System.currentTimeMillis();
-        
-        ExecutorService executor = Executors.newFixedThreadPool(requestsPerSecond);
+
+        int totalRequests = Math.max(0, requestsPerSecond * durationSeconds);
+        long intervalNanos = requestsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / requestsPerSecond : 0;
+
         AtomicInteger successCount = new AtomicInteger(0);
         AtomicInteger failureCount = new AtomicInteger(0);
-        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        
-        // Calculate total requests
-        int totalRequests = requestsPerSecond * durationSeconds;
-        
-        // Submit requests
+        AtomicInteger inFlight = new AtomicInteger(0);
+        int dropped = 0;
+        LatencyHistogram latencyMicros = LatencyHistogram.striped();
+        LatencyHistogram serviceMicros = LatencyHistogram.striped();
+        Map<String, LatencyHistogram> stageMicros = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
         for (int i = 0; i < totalRequests; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            // Open loop: never wait for capacity, shed instead so the arrival rate holds
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                dropped++;
+                continue;
+            }
+
+            String query = testQueries.get(i % testQueries.size())
+                + (distinctQueries ? " (stress " + runId + " #" + i + ")" : "");
+            String traceId = "stress-" + runId + "-" + i;
             executor.submit(() -> {
+                long actualStart = System.nanoTime();
+                Map<String, Long> stages = Map.of();
                 try {
-                    long startTime = System.currentTimeMillis();
-                    
-                    // Simulate request
-                    String query = testQueries.get((int)(Math.random() * testQueries.size()));
-                    simulateRequest(query);
-                    
-                    long latency = System.currentTimeMillis() - startTime;
-                    latencies.add(latency);
+                    stages = target.execute(query, traceId);
                     successCount.incrementAndGet();
                 } catch (Exception e) {
                     failureCount.incrementAndGet();
+                    logger.debug("Stress request {} failed: {}", traceId, e.getMessage());
+                } finally {
+                    long end = System.nanoTime();
+                    long service = TimeUnit.NANOSECONDS.toMicros(end - actualStart);
+                    latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(end - intended));
+                    serviceMicros.record(service);
+                    recordStages(stageMicros, stages, service);
+                    inFlight.decrementAndGet();
                 }
             });
-            
-            // Rate limiting
-            if ((i + 1) % requestsPerSecond == 0) {
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
         }
-        
-        // Shutdown executor
+
         executor.shutdown();
         try {
-            executor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+            if (!executor.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("⚠️ Stress test: {} requests still running after {}s, cancelling",
+                    inFlight.get(), drainTimeoutSeconds);
+                executor.shutdownNow();
+            }
         } catch (InterruptedException e) {
+            executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
-        
+
         // Calculate results
         result.endTime = System.currentTimeMillis();
         result.totalRequests = totalRequests;
         result.successCount = successCount.get();
-        result.failureCount = failureCount.get();
-        result.successRate = totalRequests > 0 ? (double) successCount.get() / totalRequests * 100 : 0;
-        result.errorRate = totalRequests > 0 ? (double) failureCount.get() / totalRequests * 100 : 0;
-        result.throughput = (double) successCount.get() / ((result.endTime - result.startTime) / 1000.0);
-        
-        // Calculate latency stats
-        if (!latencies.isEmpty()) {
-            Collections.sort(latencies);
-            result.minLatency = latencies.get(0);
-            result.maxLatency = latencies.get(latencies.size() - 1);
-            result.avgLatency = latencies.stream().mapToLong(Long::longValue).average().orElse(0);
-            result.p95Latency = latencies.get((int)(latencies.size() * 0.95));
-            result.p99Latency = latencies.get((int)(latencies.size() * 0.99));
-        }
-        
-        logger.info("✅ Stress test completed: {} success, {} failed, {:.1f}% success rate", 
-            successCount.get(), failureCount.get(), result.successRate);
-        
+        result.droppedCount = dropped;
+        result.failureCount = failureCount.get() + dropped;
+        result.successRate = totalRequests > 0 ? (double) result.successCount / totalRequests * 100 : 0;
+        result.errorRate = totalRequests > 0 ? (double) result.failureCount / totalRequests * 100 : 0;
+        long elapsedMs = Math.max(1, result.endTime - result.startTime);
+        result.throughput = (double) result.successCount / (elapsedMs / 1000.0);
+
+        // Latency stats (coordinated-omission corrected, in ms)
+        LatencyHistogram.HistogramSnapshot latency = latencyMicros.snapshot();
+        result.latencyMicros = latency;
+        result.serviceTimeMicros = serviceMicros.snapshot();
+        result.minLatency = TimeUnit.MICROSECONDS.toMillis(latencyMicros.getMin());
+        result.maxLatency = TimeUnit.MICROSECONDS.toMillis(latency.max);
+        result.avgLatency = latency.mean / 1000.0;
+        result.p50Latency = TimeUnit.MICROSECONDS.toMillis(latency.p50);
+        result.p95Latency = TimeUnit.MICROSECONDS.toMillis(latency.p95);
+        result.p99Latency = TimeUnit.MICROSECONDS.toMillis(latency.p99);
+        result.stageMicros = new TreeMap<>();
+        stageMicros.forEach((stage, histogram) -> result.stageMicros.put(stage, histogram.snapshot()));
+
+        logger.info("✅ Stress test completed: {} success, {} failed ({} dropped), {}% success rate, p99 {}ms",
+            result.successCount, result.failureCount, dropped,
+            String.format("%.1f", result.successRate), result.p99Latency);
+
         return result;
     }
-    
+
+    /**
+     * Record named stage times; whatever they do not cover goes to "other"
+     */
+    private static void recordStages(Map<String, LatencyHistogram> histograms, Map<String, Long> stages, long serviceMicros) {
+        if (stages.isEmpty()) {
+            return;
+        }
+        long attributed = 0;
+        for (Map.Entry<String, Long> stage : stages.entrySet()) {
+            histograms.computeIfAbsent(stage.getKey(), k -> LatencyHistogram.striped()).record(stage.getValue());
+            attributed += stage.getValue();
+        }
+        histograms.computeIfAbsent(OTHER_STAGE, k -> LatencyHistogram.striped())
+            .record(Math.max(0, serviceMicros - attributed));
+    }
+
+    /**
+     * Full chat turn; stages are the advisors' self times recorded under the request's trace ID
+     */
+    private StressTarget chatTarget(String provider, String runId) {
+        AtomicInteger sequence = new AtomicInteger();
+        return (query, traceId) -> {
+            ChatRequest request = new ChatRequest(query, true);
+            request.setConversationId("stress_" + runId + "_" + (sequence.getAndIncrement() % conversations));
+
+            TraceContext.initialize(traceId);
+            try {
+                chatService.processChat(provider, request);
+            } finally {
+                TraceContext.clear();
+            }
+
+            Map<String, Long> stages = new HashMap<>();
+            for (TimelineVisualizer.TimelineEvent event : timelineVisualizer.getTimeline(traceId)) {
+                stages.merge(event.advisorName, event.selfMicros, Long::sum);
+            }
+            return stages;
+        };
+    }
+
     /**
-     * Simulate request
+     * Pre-LLM lookups only (PreLlmStage: the tool finder)
      */
-    private void simulateRequest(String query) throws InterruptedException {
-        // Simulate processing
-        Thread.sleep((long)(Math.random() * 100));
+    private StressTarget retrievalTarget() {
+        return (query, traceId) -> {
+            PreLlmStage.PreLlmResult prefetch = preLlmStage.run(query);
+            return Map.of("preLlm", TimeUnit.MILLISECONDS.toMicros(prefetch.elapsedMs));
+        };
     }
-    
+
     /**
      * Generate test queries
      */
@@ -136,13 +274,23 @@ public class StressTestRunner {
         }
         return queries;
     }
-    
+
     // ============ Inner Classes ============
-    
+
+    /**
+     * One request of a stress run; returns named stage durations in microseconds (may be empty)
+     */
+    @FunctionalInterface
+    interface StressTarget {
+        Map<String, Long> execute(String query, String traceId) throws Exception;
+    }
+
     /**
      * Stress test result
      */
     public static class StressTestResult {
+        public String target;
+        public String provider;
         public int requestsPerSecond;
         public int durationSeconds;
         public long startTime;
@@ -150,26 +298,33 @@ public class StressTestRunner {
         public int totalRequests;
         public int successCount;
         public int failureCount;
+        public int droppedCount;
         public double successRate;
         public double errorRate;
         public double throughput;
         public long minLatency;
         public long maxLatency;
         public double avgLatency;
+        public long p50Latency;
         public long p95Latency;
         public long p99Latency;
-        
+        /** Measured from each request's intended start (coordinated-omission corrected) */
+        public LatencyHistogram.HistogramSnapshot latencyMicros;
+        /** Measured from when the request actually started (what a closed-loop tool would report) */
+        public LatencyHistogram.HistogramSnapshot serviceTimeMicros;
+        public Map<String, LatencyHistogram.HistogramSnapshot> stageMicros = new TreeMap<>();
+
         @Override
         public String toString() {
             return String.format(
                 "Stress Test Result:\n" +
                 "  Total Requests: %d\n" +
                 "  Success: %d (%.1f%%)\n" +
-                "  Failures: %d (%.1f%%)\n" +
+                "  Failures: %d (%.1f%%, %d dropped)\n" +
                 "  Throughput: %.1f req/sec\n" +
-                "  Latency - Min: %dms, Avg: %.1fms, P95: %dms, P99: %dms, Max: %dms",
-                totalRequests, successCount, successRate, failureCount, errorRate,
-                throughput, minLatency, avgLatency, p95Latency, p99Latency, maxLatency
+                "  Latency - Min: %dms, Avg: %.1fms, P50: %dms, P95: %dms, P99: %dms, Max: %dms",
+                totalRequests, successCount, successRate, failureCount, errorRate, droppedCount,
+                throughput, minLatency, avgLatency, p50Latency, p95Latency, p99Latency, maxLatency
             );
         }
     }
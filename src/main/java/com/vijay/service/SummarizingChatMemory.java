@@ -0,0 +1,269 @@
+package com.vijay.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * 🧠 SUMMARIZING CHAT MEMORY - Bounded History with a Rolling Summary
+ *
+ * Purpose: Replace the fixed 20-message window, which resent up to 20 verbatim
+ * messages of any size on every turn
+ *
+ * Responsibilities:
+ * - get(): the rolling summary (if any) plus the newest messages that fit the
+ *   history token budget, at most maxMessages of them
+ * - add(): append to the conversation in the ChatMemoryRepository
+ * - When the verbatim history outgrows the budget by compactBatchTokens, fold the
+ *   oldest messages into the summary on a background thread; the repository then
+ *   holds [summary, recent messages...]
+ *
+ * A turn never waits for summarization. Messages added while a summary is being
+ * written are kept; the compaction is dropped if the conversation was cleared or
+ * rewritten meanwhile. With a StateBackendChatMemoryRepository both writes are
+ * compare-and-set, so this holds across replicas too.
+ */
+public class SummarizingChatMemory implements ChatMemory, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummarizingChatMemory.class);
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int MIN_RECENT_MESSAGES = 2;
+
+    private final ChatMemoryRepository repository;
+    private final ConversationSummarizer summarizer;
+    private final TokenCountingService tokenCountingService;
+    private final int historyBudgetTokens;
+    private final int maxMessages;
+    private final int compactBatchTokens;
+    private final Executor compactor;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Set<String> compacting = ConcurrentHashMap.newKeySet();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong compactedMessages = new AtomicLong();
+    private final AtomicLong abandonedCompactions = new AtomicLong();
+
+    public SummarizingChatMemory(ChatMemoryRepository repository,
+                                 ConversationSummarizer summarizer,
+                                 TokenCountingService tokenCountingService,
+                                 int historyBudgetTokens,
+                                 int maxMessages,
+                                 int compactBatchTokens) {
+        this(repository, summarizer, tokenCountingService, historyBudgetTokens, maxMessages, compactBatchTokens,
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chat-memory-compactor");
+                thread.setDaemon(true);
+                return thread;
+            }));
+    }
+
+    SummarizingChatMemory(ChatMemoryRepository repository,
+                          ConversationSummarizer summarizer,
+                          TokenCountingService tokenCountingService,
+                          int historyBudgetTokens,
+                          int maxMessages,
+                          int compactBatchTokens,
+                          Executor compactor) {
+        this.repository = repository;
+        this.summarizer = summarizer;
+        this.tokenCountingService = tokenCountingService;
+        this.historyBudgetTokens = Math.max(1, historyBudgetTokens);
+        this.maxMessages = Math.max(MIN_RECENT_MESSAGES, maxMessages);
+        this.compactBatchTokens = Math.max(1, compactBatchTokens);
+        this.compactor = compactor;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        List<Message> updated = rewrite(conversationId, current -> {
+            List<Message> appended = new ArrayList<>(current);
+            appended.addAll(messages);
+            return appended;
+        });
+        if (verbatimTokens(updated) > historyBudgetTokens + compactBatchTokens && compacting.add(conversationId)) {
+            compactor.execute(() -> {
+                try {
+                    compact(conversationId);
+                } catch (Exception e) {
+                    logger.warn("⚠️ Chat memory compaction failed for {}: {}", conversationId, e.getMessage());
+                } finally {
+                    compacting.remove(conversationId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        List<Message> all = repository.findByConversationId(conversationId);
+        int first = hasSummary(all) ? 1 : 0;
+
+        int from = all.size();
+        int budget = historyBudgetTokens;
+        while (from > first && all.size() - from < maxMessages) {
+            int tokens = tokensOf(all.get(from - 1));
+            // The newest message is always sent, whatever its size
+            if (from < all.size() && tokens > budget) {
+                break;
+            }
+            budget -= tokens;
+            from--;
+        }
+
+        List<Message> history = new ArrayList<>(all.size() - from + 1);
+        if (first == 1) {
+            history.add(all.get(0));
+        }
+        history.addAll(all.subList(from, all.size()));
+        return history;
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        synchronized (lockFor(conversationId)) {
+            repository.deleteByConversationId(conversationId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "historyBudgetTokens", historyBudgetTokens,
+            "maxMessages", maxMessages,
+            "compactions", compactions.get(),
+            "compactedMessages", compactedMessages.get(),
+            "abandonedCompactions", abandonedCompactions.get(),
+            "compactionsInFlight", compacting.size()
+        );
+    }
+
+    @Override
+    public void close() {
+        if (compactor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fold the oldest verbatim messages into the summary until the rest fits the budget
+     */
+    void compact(String conversationId) {
+        List<Message> before = repository.findByConversationId(conversationId);
+        int first = hasSummary(before) ? 1 : 0;
+
+        // Keep the newest messages that fit the budget (at least a user/assistant pair)
+        int keepFrom = before.size();
+        int kept = 0;
+        while (keepFrom > first) {
+            int tokens = tokensOf(before.get(keepFrom - 1));
+            if (keepFrom <= before.size() - MIN_RECENT_MESSAGES && kept + tokens > historyBudgetTokens) {
+                break;
+            }
+            kept += tokens;
+            keepFrom--;
+        }
+        if (keepFrom <= first) {
+            return;
+        }
+
+        String previous = first == 1 ? before.get(0).getText() : null;
+        String summary = summarizer.summarize(previous, before.subList(first, keepFrom));
+
+        int cut = keepFrom;
+        List<Message> compacted = rewrite(conversationId, now -> {
+            if (!startsWith(now, before.subList(0, cut))) {
+                return null;
+            }
+            List<Message> rewritten = new ArrayList<>(now.size() - cut + 1);
+            rewritten.add(JpaChatMemoryRepository.summaryMessage(summary));
+            rewritten.addAll(now.subList(cut, now.size()));
+            return rewritten;
+        });
+        if (compacted == null) {
+            abandonedCompactions.incrementAndGet();
+            return;
+        }
+        compactions.incrementAndGet();
+        compactedMessages.addAndGet(keepFrom - first);
+        logger.debug("🧠 Chat memory: compacted {} messages of {} into the summary", keepFrom - first, conversationId);
+    }
+
+    /**
+     * Replace the conversation with change(current), or leave it if change returns null;
+     * returns what change returned. Atomic per conversation: under the stripe lock, or
+     * compare-and-set against the shared backend.
+     */
+    private List<Message> rewrite(String conversationId, UnaryOperator<List<Message>> change) {
+        if (repository instanceof StateBackendChatMemoryRepository shared) {
+            return shared.update(conversationId, change);
+        }
+        synchronized (lockFor(conversationId)) {
+            List<Message> next = change.apply(repository.findByConversationId(conversationId));
+            if (next != null) {
+                repository.saveAll(conversationId, next);
+            }
+            return next;
+        }
+    }
+
+    private int verbatimTokens(List<Message> messages) {
+        int total = 0;
+        for (int i = hasSummary(messages) ? 1 : 0; i < messages.size(); i++) {
+            total += tokensOf(messages.get(i));
+        }
+        return total;
+    }
+
+    private int tokensOf(Message message) {
+        return tokenCountingService.countTokens(message.getText());
+    }
+
+    private static boolean hasSummary(List<Message> messages) {
+        return !messages.isEmpty() && JpaChatMemoryRepository.isSummary(messages.get(0));
+    }
+
+    private static boolean startsWith(List<Message> messages, List<Message> prefix) {
+        if (messages.size() < prefix.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!sameMessage(messages.get(i), prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same message, or an equal copy of it (e.g. read back from a shared backend)
+     */
+    private static boolean sameMessage(Message a, Message b) {
+        return a == b || (a.getMessageType() == b.getMessageType()
+            && JpaChatMemoryRepository.isSummary(a) == JpaChatMemoryRepository.isSummary(b)
+            && Objects.equals(a.getText(), b.getText()));
+    }
+
+    private Object lockFor(String conversationId) {
+        return locks[Math.floorMod(conversationId.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -1,11 +1,17 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -29,7 +35,9 @@ public class SupervisorBrain {
     private static final Logger logger = LoggerFactory.getLogger(SupervisorBrain.class);
     
     // Global state tracking
-    private final Map<String, ConversationState> conversationStates = new ConcurrentHashMap<>();
+    // Per-conversation orchestration state only matters while the conversation is active;
+    // shared between replicas (and changed through update()) when the state backend is
+    private final SessionNamespace<ConversationState> conversationStates;
     private final Map<String, BrainPerformance> brainPerformance = new ConcurrentHashMap<>();
     
     // Configuration
@@ -37,6 +45,11 @@ public class SupervisorBrain {
     private static final double CONSISTENCY_THRESHOLD = 0.85;
     private static final double QUALITY_THRESHOLD = 0.75;
     
+    public SupervisorBrain(SessionStateStore stateStore) {
+        this.conversationStates = stateStore.namespace("supervisor-conversation", 10_000, Duration.ofHours(1),
+            SpillCodec.serialized());
+    }
+    
     /**
      * Initialize supervisor for a new conversation
      */
@@ -50,9 +63,9 @@ public class SupervisorBrain {
      * Track brain output
      */
     public void recordBrainOutput(String conversationId, String brainName, String output, double quality) {
-        ConversationState state = conversationStates.get(conversationId);
+        ConversationState state = conversationStates.update(conversationId,
+            current -> current.recordBrainOutput(brainName, output, quality));
         if (state != null) {
-            state.recordBrainOutput(brainName, output, quality);
             
             // Update brain performance
             BrainPerformance perf = brainPerformance.computeIfAbsent(brainName, k -> new BrainPerformance(brainName));
@@ -105,17 +118,21 @@ public class SupervisorBrain {
      * Check if re-evaluation is needed
      */
     public boolean shouldReevaluate(String conversationId, double currentQuality) {
-        ConversationState state = conversationStates.get(conversationId);
-        if (state == null) {
+        if (currentQuality >= QUALITY_THRESHOLD) {
             return false;
         }
         
         // Re-evaluate if quality is below threshold and we haven't exceeded max cycles
-        boolean needsReevaluation = currentQuality < QUALITY_THRESHOLD && 
-                                   state.getReevaluationCycles() < MAX_REEVALUATION_CYCLES;
+        AtomicBoolean reevaluate = new AtomicBoolean();
+        ConversationState state = conversationStates.update(conversationId, current -> {
+            reevaluate.set(current.getReevaluationCycles() < MAX_REEVALUATION_CYCLES);
+            if (reevaluate.get()) {
+                current.incrementReevaluationCycles();
+            }
+        });
+        boolean needsReevaluation = state != null && reevaluate.get();
         
         if (needsReevaluation) {
-            state.incrementReevaluationCycles();
             logger.info("🧠 Supervisor: Triggering re-evaluation (quality: {:.2f}, cycle: {})", 
                 currentQuality, state.getReevaluationCycles());
         }
@@ -227,8 +244,8 @@ public class SupervisorBrain {
      */
     public void cleanupOldConversations(long maxAgeMs) {
         long now = System.currentTimeMillis();
-        conversationStates.entrySet().removeIf(entry -> 
-            (now - entry.getValue().getCreatedTime()) > maxAgeMs
+        conversationStates.removeIf((conversationId, state) -> 
+            (now - state.getCreatedTime()) > maxAgeMs
         );
         logger.debug("🧠 Supervisor: Cleaned up old conversations");
     }
@@ -238,7 +255,7 @@ public class SupervisorBrain {
     /**
      * Tracks state for a single conversation
      */
-    public static class ConversationState {
+    public static class ConversationState implements Serializable {
         private final String userId;
         private final String conversationId;
         private final long createdTime;
@@ -279,7 +296,7 @@ public class SupervisorBrain {
     /**
      * Represents output from a single brain
      */
-    public static class BrainOutput {
+    public static class BrainOutput implements Serializable {
         public final String brainName;
         public final String output;
         public final double quality;
@@ -1,11 +1,14 @@
 package com.vijay.service;
 
+import com.vijay.util.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 🧠 TIMELINE VISUALIZER - Phase 10
@@ -17,6 +20,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Generate timeline data
  * - Export to JSON/CSV
  * - Provide visualization
+ * - Keep per-advisor wall/self/CPU latency histograms fed by AdvisorTimingService
+ *
+ * Events recorded through recordAdvisorCall carry the request's trace ID, so one
+ * request's advisor chain can be pulled out of the shared timeline.
  */
 @Service
 public class TimelineVisualizer {
@@ -28,6 +35,10 @@ public class TimelineVisualizer {
     private final List<TimelineEvent> completedEvents = Collections.synchronizedList(new ArrayList<>());
     private long startTime = 0;
     
+    // Only the most recent events are kept; the histograms cover every call
+    private static final int MAX_EVENTS = 5000;
+    private final Map<String, AdvisorTiming> advisorTimings = new ConcurrentHashMap<>();
+    
     /**
      * Start advisor execution
      */
@@ -53,36 +64,105 @@ public class TimelineVisualizer {
             event.endMs = currentTime - startTime;
             event.durationMs = event.endMs - event.startMs;
             
-            completedEvents.add(event);
+            addEvent(event);
             
             logger.debug("⏱️ Timeline: Ended {} after {}ms", advisorName, event.durationMs);
         }
     }
     
+    /**
+     * Record one measured advisor call of a request
+     * 
+     * @param offsetMs   when the advisor was entered, relative to the request start
+     * @param wallNanos  wall time including the rest of the chain and the model call
+     * @param selfNanos  wall time spent in the advisor itself
+     * @param cpuNanos   CPU time of the advisor itself on the calling thread, -1 if unavailable
+     */
+    public void recordAdvisorCall(String traceId, String advisorName, int order, long offsetMs,
+                                  long wallNanos, long selfNanos, long cpuNanos, int injectedTokens) {
+        TimelineEvent event = new TimelineEvent(advisorName, order, offsetMs);
+        event.traceId = traceId;
+        event.durationMs = TimeUnit.NANOSECONDS.toMillis(wallNanos);
+        event.endMs = offsetMs + event.durationMs;
+        event.selfMicros = TimeUnit.NANOSECONDS.toMicros(selfNanos);
+        event.cpuMicros = cpuNanos >= 0 ? TimeUnit.NANOSECONDS.toMicros(cpuNanos) : -1;
+        event.injectedTokens = injectedTokens;
+        addEvent(event);
+        
+        advisorTimings.computeIfAbsent(advisorName, name -> new AdvisorTiming(name, order))
+            .record(wallNanos, selfNanos, cpuNanos, injectedTokens);
+        
+        logger.debug("⏱️ Timeline: [{}] {} took {}ms ({}µs self, {} tokens injected)",
+            traceId, advisorName, event.durationMs, event.selfMicros, injectedTokens);
+    }
+    
+    private void addEvent(TimelineEvent event) {
+        synchronized (completedEvents) {
+            completedEvents.add(event);
+            if (completedEvents.size() > MAX_EVENTS) {
+                completedEvents.subList(0, completedEvents.size() - MAX_EVENTS).clear();
+            }
+        }
+    }
+    
     /**
      * Get timeline events
      */
     public List<TimelineEvent> getTimeline() {
-        return new ArrayList<>(completedEvents);
+        synchronized (completedEvents) {
+            return new ArrayList<>(completedEvents);
+        }
+    }
+    
+    /**
+     * Get the advisor events of one request, in the order they finished
+     */
+    public List<TimelineEvent> getTimeline(String traceId) {
+        List<TimelineEvent> events = new ArrayList<>();
+        synchronized (completedEvents) {
+            for (TimelineEvent event : completedEvents) {
+                if (traceId.equals(event.traceId)) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+    
+    /**
+     * Get per-advisor latency histograms (microseconds), in chain order
+     */
+    public List<AdvisorLatencyStats> getAdvisorBreakdown() {
+        return advisorTimings.values().stream()
+            .sorted(Comparator.comparingInt((AdvisorTiming t) -> t.order).thenComparing(t -> t.advisorName))
+            .map(AdvisorTiming::toStats)
+            .toList();
     }
     
     /**
      * Export to JSON
      */
     public String exportToJSON() {
+        List<TimelineEvent> events = getTimeline();
         StringBuilder json = new StringBuilder("[\n");
         
-        for (int i = 0; i < completedEvents.size(); i++) {
-            TimelineEvent event = completedEvents.get(i);
+        for (int i = 0; i < events.size(); i++) {
+            TimelineEvent event = events.get(i);
             json.append("  {\n");
             json.append("    \"advisor\": \"").append(event.advisorName).append("\",\n");
+            if (event.traceId != null) {
+                json.append("    \"trace_id\": \"").append(event.traceId).append("\",\n");
+                json.append("    \"self_us\": ").append(event.selfMicros).append(",\n");
+                json.append("    \"cpu_us\": ").append(event.cpuMicros).append(",\n");
+                json.append("    \"injected_tokens\": ").append(event.injectedTokens).append(",\n");
+            }
             json.append("    \"order\": ").append(event.order).append(",\n");
             json.append("    \"start_ms\": ").append(event.startMs).append(",\n");
             json.append("    \"end_ms\": ").append(event.endMs).append(",\n");
             json.append("    \"duration_ms\": ").append(event.durationMs).append("\n");
             json.append("  }");
             
-            if (i < completedEvents.size() - 1) {
+            if (i < events.size() - 1) {
                 json.append(",");
             }
             json.append("\n");
@@ -96,14 +176,19 @@ public class TimelineVisualizer {
      * Export to CSV
      */
     public String exportToCSV() {
-        StringBuilder csv = new StringBuilder("advisor,order,start_ms,end_ms,duration_ms\n");
+        StringBuilder csv = new StringBuilder(
+            "advisor,order,start_ms,end_ms,duration_ms,trace_id,self_us,cpu_us,injected_tokens\n");
         
-        for (TimelineEvent event : completedEvents) {
+        for (TimelineEvent event : getTimeline()) {
             csv.append(event.advisorName).append(",");
             csv.append(event.order).append(",");
             csv.append(event.startMs).append(",");
             csv.append(event.endMs).append(",");
-            csv.append(event.durationMs).append("\n");
+            csv.append(event.durationMs).append(",");
+            csv.append(event.traceId != null ? event.traceId : "").append(",");
+            csv.append(event.selfMicros).append(",");
+            csv.append(event.cpuMicros).append(",");
+            csv.append(event.injectedTokens).append("\n");
         }
         
         return csv.toString();
@@ -115,6 +200,7 @@ public class TimelineVisualizer {
     public void reset() {
         activeAdvisors.clear();
         completedEvents.clear();
+        advisorTimings.clear();
         startTime = 0;
         logger.info("🔄 Timeline reset");
     }
@@ -123,11 +209,12 @@ public class TimelineVisualizer {
      * Get total duration
      */
     public long getTotalDuration() {
-        if (completedEvents.isEmpty()) {
+        List<TimelineEvent> events = getTimeline();
+        if (events.isEmpty()) {
             return 0;
         }
         
-        long maxEnd = completedEvents.stream()
+        long maxEnd = events.stream()
             .mapToLong(e -> e.endMs)
             .max()
             .orElse(0);
@@ -139,19 +226,20 @@ public class TimelineVisualizer {
      * Get timeline statistics
      */
     public TimelineStatistics getStatistics() {
+        List<TimelineEvent> events = getTimeline();
         long totalDuration = getTotalDuration();
-        double avgDuration = completedEvents.stream()
+        double avgDuration = events.stream()
             .mapToLong(e -> e.durationMs)
             .average()
             .orElse(0);
         
-        long maxDuration = completedEvents.stream()
+        long maxDuration = events.stream()
             .mapToLong(e -> e.durationMs)
             .max()
             .orElse(0);
         
         return new TimelineStatistics(
-            completedEvents.size(),
+            events.size(),
             totalDuration,
             avgDuration,
             maxDuration
@@ -169,6 +257,11 @@ public class TimelineVisualizer {
         public final long startMs;
         public long endMs;
         public long durationMs;
+        // Set for calls measured by AdvisorTimingService
+        public String traceId;
+        public long selfMicros;
+        public long cpuMicros = -1;
+        public int injectedTokens;
         
         public TimelineEvent(String advisorName, int order, long startMs) {
             this.advisorName = advisorName;
@@ -195,4 +288,70 @@ public class TimelineVisualizer {
             this.maxDuration = maxDuration;
         }
     }
+    
+    /**
+     * Running latency histograms of one advisor
+     */
+    private static class AdvisorTiming {
+        private final String advisorName;
+        private final int order;
+        private final LatencyHistogram wallMicros = new LatencyHistogram();
+        private final LatencyHistogram selfMicros = new LatencyHistogram();
+        private final LatencyHistogram cpuMicros = new LatencyHistogram();
+        private final LongAdder injectedTokens = new LongAdder();
+        
+        AdvisorTiming(String advisorName, int order) {
+            this.advisorName = advisorName;
+            this.order = order;
+        }
+        
+        void record(long wallNanos, long selfNanos, long cpuNanos, int tokens) {
+            wallMicros.record(TimeUnit.NANOSECONDS.toMicros(wallNanos));
+            selfMicros.record(TimeUnit.NANOSECONDS.toMicros(selfNanos));
+            if (cpuNanos >= 0) {
+                cpuMicros.record(TimeUnit.NANOSECONDS.toMicros(cpuNanos));
+            }
+            injectedTokens.add(tokens);
+        }
+        
+        AdvisorLatencyStats toStats() {
+            LatencyHistogram.HistogramSnapshot wall = wallMicros.snapshot();
+            return new AdvisorLatencyStats(
+                advisorName,
+                order,
+                wall.count,
+                wall,
+                selfMicros.snapshot(),
+                cpuMicros.snapshot(),
+                wall.count > 0 ? injectedTokens.sum() / (double) wall.count : 0.0
+            );
+        }
+    }
+    
+    /**
+     * Latency breakdown of one advisor across requests (all histograms in microseconds)
+     */
+    public static class AdvisorLatencyStats {
+        public final String advisorName;
+        public final int order;
+        public final long calls;
+        public final LatencyHistogram.HistogramSnapshot wallMicros;
+        public final LatencyHistogram.HistogramSnapshot selfMicros;
+        public final LatencyHistogram.HistogramSnapshot cpuMicros;
+        public final double avgInjectedTokens;
+        
+        public AdvisorLatencyStats(String advisorName, int order, long calls,
+                                   LatencyHistogram.HistogramSnapshot wallMicros,
+                                   LatencyHistogram.HistogramSnapshot selfMicros,
+                                   LatencyHistogram.HistogramSnapshot cpuMicros,
+                                   double avgInjectedTokens) {
+            this.advisorName = advisorName;
+            this.order = order;
+            this.calls = calls;
+            this.wallMicros = wallMicros;
+            this.selfMicros = selfMicros;
+            this.cpuMicros = cpuMicros;
+            this.avgInjectedTokens = avgInjectedTokens;
+        }
+    }
 }
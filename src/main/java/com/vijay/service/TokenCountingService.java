@@ -1,11 +1,13 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -27,14 +29,22 @@ public class TokenCountingService {
     
     private static final Logger logger = LoggerFactory.getLogger(TokenCountingService.class);
     
-    // Token tracking
-    private final Map<String, UserTokenBudget> userBudgets = new ConcurrentHashMap<>();
-    private final Map<String, TokenUsageHistory> usageHistory = new ConcurrentHashMap<>();
+    // Token tracking (budgets outlive a monthly quota period, then idle users are forgotten)
+    private final SessionNamespace<UserTokenBudget> userBudgets;
+    private final SessionNamespace<TokenUsageHistory> usageHistory;
     
     // Configuration
     private static final int TOKENS_PER_WORD = 1; // Simplified: 1 token per word
     private static final int DEFAULT_MONTHLY_QUOTA = 100000; // 100K tokens per month
     private static final int WARNING_THRESHOLD = 80; // Warn at 80% usage
+    private static final int MAX_TRACKED_USERS = 50_000;
+    private static final Duration IDLE_TTL = Duration.ofDays(35);
+    static final int MAX_HISTORY_ENTRIES = 1000; // Per user; totals and averages cover these
+    
+    public TokenCountingService(SessionStateStore stateStore) {
+        this.userBudgets = stateStore.namespace("token-budget", MAX_TRACKED_USERS, IDLE_TTL);
+        this.usageHistory = stateStore.namespace("token-usage", MAX_TRACKED_USERS, IDLE_TTL);
+    }
     
     /**
      * Initialize token budget for a user
@@ -261,7 +271,12 @@ public class TokenCountingService {
         }
         
         public void recordUsage(int requestTokens, int responseTokens) {
-            entries.add(new TokenUsageEntry(requestTokens, responseTokens));
+            synchronized (entries) {
+                entries.add(new TokenUsageEntry(requestTokens, responseTokens));
+                if (entries.size() > MAX_HISTORY_ENTRIES) {
+                    entries.remove(0);
+                }
+            }
         }
         
         public List<TokenUsageEntry> getEntries() {
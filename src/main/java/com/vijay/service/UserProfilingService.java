@@ -1,9 +1,14 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,24 +28,32 @@ public class UserProfilingService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserProfilingService.class);
     
-    private final Map<String, UserProfile> userProfiles = new ConcurrentHashMap<>();
+    // Profiles are learned over weeks: kept for 30 idle days
+    private final SessionNamespace<UserProfile> userProfiles;
+    
+    public UserProfilingService(SessionStateStore stateStore) {
+        this.userProfiles = stateStore.namespace("user-profile", 50_000, Duration.ofDays(30), SpillCodec.serialized());
+    }
     
     /**
-     * Get or create user profile
+     * Get or create user profile (read-only: changes go through update() so a
+     * shared backend sees them)
      */
     public UserProfile getUserProfile(String userId) {
-        return userProfiles.computeIfAbsent(userId, k -> {
-            logger.info("👤 User Profiling: Creating new profile for user: {}", userId);
-            return new UserProfile(userId);
-        });
+        return userProfiles.computeIfAbsent(userId, this::newProfile);
+    }
+    
+    private UserProfile newProfile(String userId) {
+        logger.info("👤 User Profiling: Creating new profile for user: {}", userId);
+        return new UserProfile(userId);
     }
     
     /**
      * Record user interaction
      */
     public void recordInteraction(String userId, String queryType, int responseQuality, String specialization) {
-        UserProfile profile = getUserProfile(userId);
-        profile.recordInteraction(queryType, responseQuality, specialization);
+        userProfiles.update(userId, this::newProfile,
+            profile -> profile.recordInteraction(queryType, responseQuality, specialization));
         
         logger.debug("👤 User Profiling: Recorded interaction for {} - Type: {}, Quality: {}", 
             userId, queryType, responseQuality);
@@ -50,8 +63,7 @@ public class UserProfilingService {
      * Record user feedback
      */
     public void recordFeedback(String userId, int rating, String feedback) {
-        UserProfile profile = getUserProfile(userId);
-        profile.recordFeedback(rating, feedback);
+        userProfiles.update(userId, this::newProfile, profile -> profile.recordFeedback(rating, feedback));
         
         logger.info("👤 User Profiling: Recorded feedback from {} - Rating: {}/5", userId, rating);
     }
@@ -60,8 +72,7 @@ public class UserProfilingService {
      * Update user preferences
      */
     public void updatePreference(String userId, String key, String value) {
-        UserProfile profile = getUserProfile(userId);
-        profile.setPreference(key, value);
+        userProfiles.update(userId, this::newProfile, profile -> profile.setPreference(key, value));
         
         logger.debug("👤 User Profiling: Updated preference for {} - {}: {}", userId, key, value);
     }
@@ -100,7 +111,7 @@ public class UserProfilingService {
     
     // Inner classes
     
-    public static class UserProfile {
+    public static class UserProfile implements Serializable {
         private final String userId;
         private int expertiseLevel = 2; // 1-5 scale, default intermediate
         private String preferredResponseFormat = "balanced"; // concise, detailed, code-heavy, balanced
@@ -213,7 +224,7 @@ public class UserProfilingService {
         }
     }
     
-    public static class Interaction {
+    public static class Interaction implements Serializable {
         public final String queryType;
         public final int responseQuality;
         public final String specialization;
@@ -227,7 +238,7 @@ public class UserProfilingService {
         }
     }
     
-    public static class Feedback {
+    public static class Feedback implements Serializable {
         public final int rating;
         public final String feedback;
         public final LocalDateTime timestamp;
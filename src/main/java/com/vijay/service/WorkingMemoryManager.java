@@ -1,12 +1,15 @@
 package com.vijay.service;
 
 import com.vijay.dto.WorkingMemoryState;
+import com.vijay.state.SessionNamespace;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.SpillCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🧠 Working Memory Manager
@@ -24,9 +27,12 @@ public class WorkingMemoryManager {
     
     private static final Logger logger = LoggerFactory.getLogger(WorkingMemoryManager.class);
     
-    private final Map<String, WorkingMemoryState> workingMemories = new ConcurrentHashMap<>();
+    // Working memory is about the current exchange: spilled to disk after an idle hour, forgotten after a day.
+    // Changes go through update() so they reach the other replicas when the state backend is shared.
+    private final SessionNamespace<WorkingMemoryState> workingMemories;
     
-    public WorkingMemoryManager() {
+    public WorkingMemoryManager(SessionStateStore stateStore) {
+        this.workingMemories = stateStore.namespace("working-memory", 10_000, Duration.ofHours(24), SpillCodec.serialized());
         logger.info("🧠 Working Memory Manager initialized - Short-term memory for human-like thinking");
     }
     
@@ -34,10 +40,12 @@ public class WorkingMemoryManager {
      * Get or create working memory for user
      */
     public WorkingMemoryState getWorkingMemory(String userId) {
-        return workingMemories.computeIfAbsent(userId, k -> {
-            logger.info("📝 Creating working memory for user: {}", userId);
-            return new WorkingMemoryState(userId);
-        });
+        return workingMemories.computeIfAbsent(userId, this::newWorkingMemory);
+    }
+    
+    private WorkingMemoryState newWorkingMemory(String userId) {
+        logger.info("📝 Creating working memory for user: {}", userId);
+        return new WorkingMemoryState(userId);
     }
     
     /**
@@ -46,8 +54,7 @@ public class WorkingMemoryManager {
     public void recordUserMessage(String userId, String message) {
         logger.debug("📝 Recording user message - User: {}", userId);
         
-        WorkingMemoryState memory = getWorkingMemory(userId);
-        memory.addUserMessage(message);
+        WorkingMemoryState memory = workingMemories.update(userId, this::newWorkingMemory, state -> state.addUserMessage(message));
         
         logger.debug("✅ User message recorded - {}", memory.getSummary());
     }
@@ -58,8 +65,7 @@ public class WorkingMemoryManager {
     public void recordBrainOutput(String userId, String brainName, String output) {
         logger.debug("🧠 Recording brain output - Brain: {}, User: {}", brainName, userId);
         
-        WorkingMemoryState memory = getWorkingMemory(userId);
-        memory.addBrainOutput(brainName, output);
+        WorkingMemoryState memory = workingMemories.update(userId, this::newWorkingMemory, state -> state.addBrainOutput(brainName, output));
         
         logger.debug("✅ Brain output recorded - {}", memory.getSummary());
     }
@@ -70,8 +76,7 @@ public class WorkingMemoryManager {
     public void recordIntent(String userId, String intent, double confidence) {
         logger.debug("🎯 Recording intent - Intent: {}, Confidence: {:.2f}", intent, confidence);
         
-        WorkingMemoryState memory = getWorkingMemory(userId);
-        memory.addIntent(intent, confidence);
+        WorkingMemoryState memory = workingMemories.update(userId, this::newWorkingMemory, state -> state.addIntent(intent, confidence));
         
         logger.debug("✅ Intent recorded - {}", memory.getSummary());
     }
@@ -82,8 +87,7 @@ public class WorkingMemoryManager {
     public void recordTone(String userId, String tone, double intensity) {
         logger.debug("😊 Recording tone - Tone: {}, Intensity: {:.2f}", tone, intensity);
         
-        WorkingMemoryState memory = getWorkingMemory(userId);
-        memory.addTone(tone, intensity);
+        WorkingMemoryState memory = workingMemories.update(userId, this::newWorkingMemory, state -> state.addTone(tone, intensity));
         
         logger.debug("✅ Tone recorded - {}", memory.getSummary());
     }
@@ -0,0 +1,125 @@
+package com.vijay.state;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 🔌 IN-MEMORY STATE BACKEND - Process-Local StateBackend (the default)
+ *
+ * Purpose: Single-instance deployments and tests: state stays in this JVM, exactly
+ * as before the SPI existed
+ *
+ * Responsibilities:
+ * - Versioned values in a ConcurrentHashMap; compare-and-set through compute()
+ * - Expire values lazily on read
+ * - Notify listeners of every write and delete
+ *
+ * Not shared: SessionStateStore keeps objects on the heap instead of writing them
+ * through to this backend.
+ */
+public class InMemoryStateBackend implements StateBackend {
+
+    private final Map<String, Stored> values = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongSupplier clock;
+    private final AtomicLong conflicts = new AtomicLong();
+
+    public InMemoryStateBackend() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryStateBackend(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Versioned get(String key) {
+        Stored stored = values.get(key);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.expiresAt <= clock.getAsLong()) {
+            values.remove(key, stored);
+            return null;
+        }
+        return new Versioned(stored.value, stored.version);
+    }
+
+    @Override
+    public long put(String key, byte[] value, Duration ttl) {
+        Stored stored = values.compute(key, (k, current) ->
+            new Stored(value, live(current) ? current.version + 1 : 1, expiry(ttl)));
+        notifyChange(key, stored.version);
+        return stored.version;
+    }
+
+    @Override
+    public long putIfVersion(String key, byte[] value, long expectedVersion, Duration ttl) {
+        long[] written = {-1};
+        values.compute(key, (k, current) -> {
+            long version = live(current) ? current.version : ABSENT;
+            if (version != expectedVersion) {
+                return current;
+            }
+            written[0] = version + 1;
+            return new Stored(value, version + 1, expiry(ttl));
+        });
+        if (written[0] < 0) {
+            conflicts.incrementAndGet();
+        } else {
+            notifyChange(key, written[0]);
+        }
+        return written[0];
+    }
+
+    @Override
+    public boolean delete(String key) {
+        boolean removed = values.remove(key) != null;
+        if (removed) {
+            notifyChange(key, DELETED);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public void addInvalidationListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "in-memory");
+        stats.put("keys", values.size());
+        stats.put("conflicts", conflicts.get());
+        return stats;
+    }
+
+    private boolean live(Stored stored) {
+        return stored != null && stored.expiresAt > clock.getAsLong();
+    }
+
+    private long expiry(Duration ttl) {
+        return ttl == null || ttl.isZero() ? Long.MAX_VALUE : clock.getAsLong() + ttl.toMillis();
+    }
+
+    private void notifyChange(String key, long version) {
+        for (InvalidationListener listener : listeners) {
+            listener.onChange(key, version);
+        }
+    }
+
+    private record Stored(byte[] value, long version, long expiresAt) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.vijay.state;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📏 OBJECT SIZE ESTIMATOR - Approximate Retained Heap of a Value
+ *
+ * Purpose: Let SessionStateStore report how much heap each namespace holds, without
+ * an agent or heap dump
+ *
+ * Responsibilities:
+ * - Walk the object graph reachable from a value (each object counted once)
+ * - Strings, arrays, collections and maps by their contents; application classes
+ *   field by field; other JDK objects (Instant, atomics, ...) as a small fixed size
+ * - Stop after MAX_OBJECTS objects, so one huge value can't stall the sweeper
+ *
+ * Assumes a 64-bit JVM with compressed oops: 12-byte headers, 4-byte references.
+ * The result is an estimate for dashboards, not an exact retained size.
+ */
+public final class ObjectSizeEstimator {
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int JDK_OBJECT = 32;
+    private static final int COLLECTION_ENTRY = 32;
+    private static final int MAX_OBJECTS = 20_000;
+
+    private static final Map<Class<?>, ClassLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private ObjectSizeEstimator() {
+    }
+
+    public static long estimate(Object root) {
+        if (root == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long total = 0;
+        while (!pending.isEmpty() && visited.size() < MAX_OBJECTS) {
+            Object object = pending.pop();
+            if (object == null || !visited.add(object)) {
+                continue;
+            }
+            total += shallowSize(object, pending);
+        }
+        return total;
+    }
+
+    private static long shallowSize(Object object, Deque<Object> pending) {
+        Class<?> type = object.getClass();
+        if (object instanceof String text) {
+            // Object + backing array, Latin-1 text at one byte per char
+            return align(HEADER + 12) + align(16 + text.length());
+        }
+        if (object instanceof Enum<?> || object instanceof Class<?>) {
+            return 0; // shared
+        }
+        if (type.isArray()) {
+            int length = Array.getLength(object);
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                return align(16 + (long) length * primitiveSize(component));
+            }
+            for (int i = 0; i < length; i++) {
+                pending.push(Array.get(object, i));
+            }
+            return align(16 + (long) length * REFERENCE);
+        }
+        if (object instanceof Collection<?> collection) {
+            pending.addAll(snapshot(collection));
+            return 48 + (long) collection.size() * COLLECTION_ENTRY;
+        }
+        if (object instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : snapshot(map.entrySet())) {
+                pending.push(entry.getKey());
+                pending.push(entry.getValue());
+            }
+            return 64 + (long) map.size() * COLLECTION_ENTRY;
+        }
+        if (type.getName().startsWith("java.") || type.getName().startsWith("jdk.")) {
+            return JDK_OBJECT;
+        }
+        ClassLayout layout = LAYOUTS.computeIfAbsent(type, ClassLayout::of);
+        for (Field field : layout.references) {
+            try {
+                pending.push(field.get(object));
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Not readable: counted as a reference only
+            }
+        }
+        return layout.shallowSize;
+    }
+
+    private static <T> List<T> snapshot(Collection<T> collection) {
+        try {
+            return new ArrayList<>(collection);
+        } catch (RuntimeException e) {
+            // Concurrently modified non-concurrent collection: size it without its contents
+            return List.of();
+        }
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Shallow size and reference fields of an application class, computed once per class
+     */
+    private record ClassLayout(long shallowSize, List<Field> references) {
+
+        static ClassLayout of(Class<?> type) {
+            long size = HEADER;
+            List<Field> references = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        size += primitiveSize(field.getType());
+                    } else {
+                        size += REFERENCE;
+                        if (field.trySetAccessible()) {
+                            references.add(field);
+                        }
+                    }
+                }
+            }
+            return new ClassLayout(align(size), List.copyOf(references));
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.vijay.state;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔌 REDIS STATE BACKEND - Shared StateBackend over the Redis Protocol
+ *
+ * Purpose: Keep session state in Redis so every chat replica sees the same
+ * conversations and a restarted replica picks up where it left off
+ *
+ * Responsibilities:
+ * - Store each key as a hash {v: version, d: bytes} under keyPrefix, with PEXPIRE as TTL
+ * - put(): MULTI / HINCRBY v / HSET d / PEXPIRE / EXEC, pipelined in one round trip
+ * - putIfVersion(): WATCH the key, compare v, then the same transaction; EXEC returns
+ *   nil if another writer touched the key in between
+ * - PUBLISH "version key" on keyPrefix + "invalidate" after every write and delete; a
+ *   subscriber thread turns those messages into invalidation callbacks (and reports
+ *   "everything stale" after reconnecting, since messages may have been missed)
+ * - Pool connections (chat.state.redis.pool-size); a broken connection is discarded, and
+ *   a command that fails on a pooled connection is retried once on a new one
+ *
+ * Only plain commands are used (no Lua), so any server speaking RESP2 with
+ * transactions and pub/sub works, including the embedded stand-in used in tests.
+ */
+public class RedisStateBackend implements StateBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStateBackend.class);
+
+    private static final String VERSION_FIELD = "v";
+    private static final String DATA_FIELD = "d";
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+    private final String password;
+    private final String keyPrefix;
+    private final String channel;
+
+    private final BlockingQueue<RespConnection> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread subscriber;
+    private volatile RespConnection subscription;
+    private volatile boolean closed;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong invalidationsReceived = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    public RedisStateBackend(String host, int port, String password, String keyPrefix, int poolSize, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+        this.password = password != null && !password.isBlank() ? password : null;
+        this.keyPrefix = keyPrefix;
+        this.channel = keyPrefix + "invalidate";
+        this.permits = new Semaphore(Math.max(1, poolSize));
+        this.subscriber = new Thread(this::subscribeLoop, "state-backend-invalidations");
+        subscriber.setDaemon(true);
+        subscriber.start();
+        logger.info("🔌 Redis state backend: {}:{} (prefix {}, {} connections)", host, port, keyPrefix, poolSize);
+    }
+
+    @Override
+    public Versioned get(String key) {
+        reads.incrementAndGet();
+        List<?> reply = (List<?>) execute(connection -> connection.call("HMGET", keyPrefix + key, VERSION_FIELD, DATA_FIELD));
+        if (reply == null || reply.get(1) == null) {
+            return null;
+        }
+        return new Versioned((byte[]) reply.get(1), parseVersion(reply.get(0)));
+    }
+
+    @Override
+    public long put(String key, byte[] value, Duration ttl) {
+        writes.incrementAndGet();
+        long version = execute(connection -> {
+            List<Object> replies = connection.pipeline(transaction(keyPrefix + key, value, ttl));
+            return exec(replies);
+        });
+        publish(key, version);
+        return version;
+    }
+
+    @Override
+    public long putIfVersion(String key, byte[] value, long expectedVersion, Duration ttl) {
+        writes.incrementAndGet();
+        String redisKey = keyPrefix + key;
+        long version = execute(connection -> {
+            connection.call("WATCH", redisKey);
+            long current = parseVersion(connection.call("HGET", redisKey, VERSION_FIELD));
+            if (current != expectedVersion) {
+                connection.call("UNWATCH");
+                return -1L;
+            }
+            return exec(connection.pipeline(transaction(redisKey, value, ttl)));
+        });
+        if (version < 0) {
+            conflicts.incrementAndGet();
+        } else {
+            publish(key, version);
+        }
+        return version;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        writes.incrementAndGet();
+        boolean deleted = (Long) execute(connection -> connection.call("DEL", keyPrefix + key)) > 0;
+        if (deleted) {
+            publish(key, DELETED);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void addInvalidationListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "redis");
+        stats.put("address", host + ":" + port);
+        stats.put("subscribed", subscription != null);
+        stats.put("idleConnections", idle.size());
+        stats.put("reads", reads.get());
+        stats.put("writes", writes.get());
+        stats.put("conflicts", conflicts.get());
+        stats.put("failures", failures.get());
+        stats.put("invalidationsReceived", invalidationsReceived.get());
+        stats.put("reconnects", reconnects.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        RespConnection current = subscription;
+        if (current != null) {
+            current.close();
+        }
+        subscriber.interrupt();
+        RespConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * MULTI / HINCRBY / HSET / [PEXPIRE] / EXEC for one pipelined round trip
+     */
+    private List<Object[]> transaction(String redisKey, byte[] value, Duration ttl) {
+        List<Object[]> commands = new ArrayList<>(5);
+        commands.add(new Object[]{"MULTI"});
+        commands.add(new Object[]{"HINCRBY", redisKey, VERSION_FIELD, 1});
+        commands.add(new Object[]{"HSET", redisKey, DATA_FIELD, value});
+        if (ttl != null && !ttl.isZero()) {
+            commands.add(new Object[]{"PEXPIRE", redisKey, ttl.toMillis()});
+        }
+        commands.add(new Object[]{"EXEC"});
+        return commands;
+    }
+
+    /**
+     * The new version from the EXEC reply (last of the pipeline), or -1 if the transaction was aborted
+     */
+    private static long exec(List<Object> replies) {
+        List<?> results = (List<?>) replies.get(replies.size() - 1);
+        if (results == null) {
+            return -1L;
+        }
+        if (results.get(0) instanceof RuntimeException error) {
+            throw new StateBackendException("Transaction failed: " + error.getMessage());
+        }
+        return (Long) results.get(0);
+    }
+
+    private void publish(String key, long version) {
+        try {
+            execute(connection -> connection.call("PUBLISH", channel, version + " " + key));
+        } catch (StateBackendException e) {
+            // Other replicas keep a stale copy until their next write conflicts or expires
+            logger.warn("⚠️ Could not publish invalidation for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private <T> T execute(Command<T> command) {
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                failures.incrementAndGet();
+                throw new StateBackendException("No Redis connection available within " + timeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StateBackendException("Interrupted waiting for a Redis connection", e);
+        }
+        RespConnection connection = null;
+        try {
+            connection = idle.poll();
+            if (connection != null) {
+                try {
+                    T result = command.run(connection);
+                    idle.offer(connection);
+                    return result;
+                } catch (IOException e) {
+                    // Idle connections die with server restarts and timeouts: retry once on a fresh one
+                    connection.close();
+                }
+            }
+            connection = connect(timeoutMs);
+            T result = command.run(connection);
+            idle.offer(connection);
+            return result;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            failures.incrementAndGet();
+            throw new StateBackendException("Redis " + host + ":" + port + " failed: " + e.getMessage(), e);
+        } catch (RespConnection.ServerError e) {
+            // The connection may still hold a WATCH: don't hand it to the next caller
+            if (connection != null) {
+                connection.close();
+            }
+            failures.incrementAndGet();
+            throw new StateBackendException("Redis error: " + e.getMessage(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private RespConnection connect(int readTimeoutMs) throws IOException {
+        RespConnection connection = new RespConnection(host, port, timeoutMs);
+        try {
+            if (password != null) {
+                connection.call("AUTH", password);
+            }
+            connection.setReadTimeout(readTimeoutMs);
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private void subscribeLoop() {
+        boolean reconnecting = false;
+        while (!closed) {
+            try (RespConnection connection = connect(0)) {
+                connection.call("SUBSCRIBE", channel);
+                subscription = connection;
+                if (reconnecting) {
+                    // Messages published while we were away are lost
+                    notifyListeners(null, DELETED);
+                }
+                while (!closed) {
+                    onMessage(connection.read());
+                }
+            } catch (IOException | RuntimeException e) {
+                subscription = null;
+                if (closed) {
+                    return;
+                }
+                reconnecting = true;
+                reconnects.incrementAndGet();
+                logger.warn("⚠️ State backend invalidation channel lost ({}), reconnecting", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void onMessage(Object reply) {
+        if (!(reply instanceof List<?> message) || message.size() < 3 || !"message".equals(text(message.get(0)))) {
+            return;
+        }
+        String payload = text(message.get(2));
+        int space = payload.indexOf(' ');
+        if (space < 0) {
+            return;
+        }
+        invalidationsReceived.incrementAndGet();
+        notifyListeners(payload.substring(space + 1), Long.parseLong(payload.substring(0, space)));
+    }
+
+    private void notifyListeners(String key, long version) {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onChange(key, version);
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Invalidation listener failed for {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static long parseVersion(Object reply) {
+        return reply == null ? ABSENT : Long.parseLong(text(reply));
+    }
+
+    private static String text(Object reply) {
+        return reply instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(reply);
+    }
+
+    @FunctionalInterface
+    private interface Command<T> {
+        T run(RespConnection connection) throws IOException;
+    }
+}
@@ -0,0 +1,171 @@
+package com.vijay.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🔌 RESP CONNECTION - One Socket Speaking the Redis Protocol (RESP2)
+ *
+ * Purpose: Talk to Redis (or anything speaking its protocol) without a client library
+ *
+ * Responsibilities:
+ * - Send commands as arrays of bulk strings (String, byte[] and numbers as arguments)
+ * - Send several commands in one write and read their replies in order (pipelining)
+ * - Parse replies: simple string -> String, integer -> Long, bulk -> byte[] (null when
+ *   missing), array -> List (null when missing); error replies throw ServerError
+ *   (inside an array they become the ServerError item)
+ *
+ * Not thread-safe: one caller at a time (RedisStateBackend pools connections).
+ */
+final class RespConnection implements AutoCloseable {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    RespConnection(String host, int port, int timeoutMs) throws IOException {
+        this.socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), timeoutMs);
+        socket.setSoTimeout(timeoutMs);
+        socket.setTcpNoDelay(true);
+        this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+    }
+
+    Object call(Object... args) throws IOException {
+        write(args);
+        out.flush();
+        return read();
+    }
+
+    /**
+     * Send all commands in one write, then read one reply per command
+     */
+    List<Object> pipeline(List<Object[]> commands) throws IOException {
+        for (Object[] command : commands) {
+            write(command);
+        }
+        out.flush();
+        List<Object> replies = new ArrayList<>(commands.size());
+        ServerError firstError = null;
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                replies.add(read());
+            } catch (ServerError e) {
+                // Keep reading so the connection stays in sync
+                replies.add(null);
+                firstError = firstError != null ? firstError : e;
+            }
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+        return replies;
+    }
+
+    void setReadTimeout(int timeoutMs) throws IOException {
+        socket.setSoTimeout(timeoutMs);
+    }
+
+    Object read() throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            throw new EOFException("Connection closed by server");
+        }
+        String line = readLine();
+        return switch (type) {
+            case '+' -> line;
+            case '-' -> throw new ServerError(line);
+            case ':' -> Long.parseLong(line);
+            case '$' -> readBulk(Integer.parseInt(line));
+            case '*' -> readArray(Integer.parseInt(line));
+            default -> throw new IOException("Unexpected reply type '" + (char) type + "'");
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already broken
+        }
+    }
+
+    private void write(Object[] args) throws IOException {
+        out.write('*');
+        out.write(ascii(args.length));
+        for (Object arg : args) {
+            byte[] bytes = arg instanceof byte[] raw ? raw : String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+            out.write('$');
+            out.write(ascii(bytes.length));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+    }
+
+    private byte[] readBulk(int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Connection closed mid-reply");
+        }
+        readLine();
+        return bytes;
+    }
+
+    private List<Object> readArray(int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        List<Object> items = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            try {
+                items.add(read());
+            } catch (ServerError e) {
+                // e.g. a failed command inside EXEC: the item is the error
+                items.add(e);
+            }
+        }
+        return items;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException("Connection closed mid-reply");
+            }
+            line.write(b);
+        }
+        in.read(); // '\n'
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(int value) {
+        return (value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * An error reply: the command failed but the connection is still usable
+     */
+    static final class ServerError extends RuntimeException {
+        ServerError(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,774 @@
+package com.vijay.state;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 🗂️ SESSION NAMESPACE - One Bounded Map of Per-User / Per-Conversation State
+ *
+ * Purpose: Replace the unbounded ConcurrentHashMaps that kept every user's state
+ * forever, with a map that forgets idle entries and caps its size
+ *
+ * Responsibilities:
+ * - Map-like access (get, computeIfAbsent, put, remove, removeIf) keyed by user or
+ *   conversation id; every access refreshes the entry's idle clock
+ * - Evict entries idle longer than the namespace TTL (on SessionStateStore's sweep)
+ * - Over maxEntries, evict the least recently used entries in one batch
+ * - Tell eviction listeners what was removed and why
+ * - Hit/miss/eviction counters and an estimate of the retained bytes
+ * - With a SpillFile: move entries idle longer than spillAfter (and size-cap victims)
+ *   to disk instead of dropping them, and rehydrate them on the next access. The idle
+ *   TTL then bounds how long an entry is kept at all, on heap or on disk.
+ * - With a shared StateBackend: the backend holds every entry (versioned, expiring after
+ *   the idle TTL) and the heap map is a near cache of the hot ones. Misses load from
+ *   the backend, update() writes back with compare-and-set and retries on conflict,
+ *   and entries changed by other replicas are dropped from the near cache.
+ *
+ * Values are held by reference: mutating a value returned by get() updates the
+ * stored state, exactly as with the maps this replaces. A caller still holding a value
+ * after it was spilled mutates a copy that is no longer stored. With a shared backend
+ * only changes made through update() or put() reach other replicas.
+ */
+public class SessionNamespace<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionNamespace.class);
+
+    // Entries sized per sweep to estimate the namespace's bytes
+    private static final int SIZE_SAMPLE = 128;
+    // Compare-and-set attempts of one update() before giving up on the write
+    private static final int MAX_UPDATE_ATTEMPTS = 16;
+
+    public enum RemovalCause { IDLE, SIZE, EXPLICIT }
+
+    @FunctionalInterface
+    public interface EvictionListener<V> {
+        void onRemoval(String key, V value, RemovalCause cause);
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final Duration idleTtl;
+    private final LongSupplier clock;
+    private final SpillFile spillFile;
+    private final SpillCodec<V> codec;
+    private final long spillAfterMs;
+    private final StateBackend backend;
+    private final String backendPrefix;
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final List<EvictionListener<V>> listeners = new CopyOnWriteArrayList<>();
+    private final Object evictionLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong sizeEvictions = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+    private final AtomicLong rehydrations = new AtomicLong();
+    private final AtomicLong spillFailures = new AtomicLong();
+    private final AtomicLong backendLoads = new AtomicLong();
+    private final AtomicLong backendWrites = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong backendFailures = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile long estimatedBytes;
+
+    SessionNamespace(String name, int maxEntries, Duration idleTtl, LongSupplier clock) {
+        this(name, maxEntries, idleTtl, clock, null, null, null, null);
+    }
+
+    SessionNamespace(String name, int maxEntries, Duration idleTtl, LongSupplier clock,
+                     SpillFile spillFile, SpillCodec<V> codec, Duration spillAfter) {
+        this(name, maxEntries, idleTtl, clock, spillFile, codec, spillAfter, null);
+    }
+
+    SessionNamespace(String name, int maxEntries, Duration idleTtl, LongSupplier clock,
+                     StateBackend backend, SpillCodec<V> codec) {
+        this(name, maxEntries, idleTtl, clock, null, codec, null, backend);
+    }
+
+    private SessionNamespace(String name, int maxEntries, Duration idleTtl, LongSupplier clock,
+                             SpillFile spillFile, SpillCodec<V> codec, Duration spillAfter, StateBackend backend) {
+        this.name = name;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.idleTtl = idleTtl;
+        this.clock = clock;
+        this.spillFile = spillFile;
+        this.codec = codec;
+        this.spillAfterMs = spillAfter != null ? spillAfter.toMillis() : Long.MAX_VALUE;
+        this.backend = backend;
+        this.backendPrefix = name + ":";
+        if (backend != null) {
+            backend.addInvalidationListener(this::onBackendChange);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Register a callback for every entry that leaves the namespace
+     */
+    public SessionNamespace<V> onRemoval(EvictionListener<V> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null && spillFile != null) {
+            entry = entries.computeIfAbsent(key, this::rehydrate);
+            enforceCapacity();
+        } else if (entry == null && backend != null) {
+            entry = load(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        entry.touch(clock.getAsLong());
+        return entry.value;
+    }
+
+    public V getOrDefault(String key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean containsKey(String key) {
+        return entries.containsKey(key) || (spillFile != null && spillFile.contains(key))
+            || (backend != null && get(key) != null);
+    }
+
+    public V computeIfAbsent(String key, Function<String, ? extends V> factory) {
+        long now = clock.getAsLong();
+        Entry<V> existing = entries.get(key);
+        if (existing != null) {
+            hits.incrementAndGet();
+            existing.touch(now);
+            return existing.value;
+        }
+        misses.incrementAndGet();
+        if (backend != null) {
+            Entry<V> shared = loadOrCreate(key, factory);
+            return shared != null ? shared.value : null;
+        }
+        Entry<V> entry = entries.computeIfAbsent(key, k -> {
+            Entry<V> spilled = rehydrate(k);
+            if (spilled != null) {
+                return spilled;
+            }
+            V value = factory.apply(k);
+            return value != null ? new Entry<>(value, now) : null;
+        });
+        if (entry == null) {
+            return null;
+        }
+        entry.touch(now);
+        enforceCapacity();
+        return entry.value;
+    }
+
+    public V put(String key, V value) {
+        Entry<V> entry = new Entry<>(value, clock.getAsLong());
+        if (backend != null) {
+            try {
+                entry.version = backend.put(backendPrefix + key, codec.encode(value), idleTtl);
+                backendWrites.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                backendFailure("write", key, e);
+            }
+        }
+        Entry<V> previous = entries.put(key, entry);
+        if (spillFile != null) {
+            spillFile.remove(key);
+        }
+        enforceCapacity();
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Apply a change to the key's value, if it has one; returns the changed value (or null).
+     * With a shared backend the change is written back with compare-and-set: on a conflict
+     * the latest value is loaded and the change applied again to it.
+     */
+    public V update(String key, Consumer<? super V> mutation) {
+        return update(key, null, mutation);
+    }
+
+    /**
+     * Like update(key, mutation), creating the value with the factory when the key has none
+     */
+    public V update(String key, Function<String, ? extends V> factory, Consumer<? super V> mutation) {
+        if (backend == null) {
+            V value = factory != null ? computeIfAbsent(key, factory) : get(key);
+            if (value != null) {
+                mutation.accept(value);
+            }
+            return value;
+        }
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                entry = factory != null ? loadOrCreate(key, factory) : load(key);
+                if (entry == null) {
+                    return null;
+                }
+            }
+            entry.touch(clock.getAsLong());
+            synchronized (entry) {
+                if (entries.get(key) != entry) {
+                    continue; // replaced by another replica's version meanwhile
+                }
+                mutation.accept(entry.value);
+                try {
+                    long version = backend.putIfVersion(backendPrefix + key, codec.encode(entry.value), entry.version, idleTtl);
+                    if (version >= 0) {
+                        entry.version = version;
+                        backendWrites.incrementAndGet();
+                        return entry.value;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Keep the change on this replica; it is retried with the next update
+                    backendFailure("write", key, e);
+                    return entry.value;
+                }
+            }
+            conflicts.incrementAndGet();
+            entries.remove(key, entry);
+            backOff(attempt);
+        }
+        logger.warn("⚠️ State namespace {}: gave up writing {} after {} conflicts", name, key, MAX_UPDATE_ATTEMPTS);
+        return get(key);
+    }
+
+    /**
+     * Replace the key's value with change(current value), creating it with the factory when
+     * the key has none. change must not modify the value it is given and may return null to
+     * keep it. Readers holding the old value never see a half-applied change. With a shared
+     * backend the new value is written back with compare-and-set, like update().
+     */
+    public V compute(String key, Function<String, ? extends V> factory, UnaryOperator<V> change) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                if (backend == null) {
+                    if (computeIfAbsent(key, factory) == null) {
+                        return null;
+                    }
+                    continue;
+                }
+                entry = loadOrCreate(key, factory);
+                if (entry == null) {
+                    return null;
+                }
+            }
+            long now = clock.getAsLong();
+            entry.touch(now);
+            synchronized (entry) {
+                if (entries.get(key) != entry) {
+                    continue; // replaced, spilled or invalidated meanwhile
+                }
+                V next = change.apply(entry.value);
+                if (next == null) {
+                    return entry.value;
+                }
+                Entry<V> replacement = new Entry<>(next, now);
+                replacement.version = entry.version;
+                if (backend == null) {
+                    entries.replace(key, entry, replacement);
+                    return next;
+                }
+                try {
+                    long version = backend.putIfVersion(backendPrefix + key, codec.encode(next), entry.version, idleTtl);
+                    if (version >= 0) {
+                        replacement.version = version;
+                        backendWrites.incrementAndGet();
+                        entries.replace(key, entry, replacement);
+                        return next;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Keep the change on this replica; it is retried with the next write
+                    backendFailure("write", key, e);
+                    entries.replace(key, entry, replacement);
+                    return next;
+                }
+            }
+            conflicts.incrementAndGet();
+            entries.remove(key, entry);
+            backOff(attempt);
+        }
+        logger.warn("⚠️ State namespace {}: gave up writing {} after {} conflicts", name, key, MAX_UPDATE_ATTEMPTS);
+        return get(key);
+    }
+
+    public V remove(String key) {
+        Entry<V> removed = entries.remove(key);
+        V value = removed != null ? removed.value : null;
+        if (backend != null) {
+            deleteShared(key);
+        }
+        if (spillFile != null) {
+            byte[] spilled = spillFile.take(key);
+            if (value == null && spilled != null) {
+                value = decode(key, spilled);
+            }
+        }
+        if (value != null) {
+            notifyRemoval(key, value, RemovalCause.EXPLICIT);
+        }
+        return value;
+    }
+
+    /**
+     * Remove every entry matching the predicate; returns the number removed. With a shared
+     * backend only the entries in this replica's near cache are tested.
+     */
+    public int removeIf(BiPredicate<String, V> predicate) {
+        int removed = 0;
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+            if (predicate.test(entry.getKey(), entry.getValue().value)
+                && entries.remove(entry.getKey(), entry.getValue())) {
+                if (backend != null) {
+                    deleteShared(entry.getKey());
+                }
+                notifyRemoval(entry.getKey(), entry.getValue().value, RemovalCause.EXPLICIT);
+                removed++;
+            }
+        }
+        if (spillFile != null) {
+            for (String key : spillFile.keys()) {
+                byte[] bytes = spillFile.read(key);
+                V value = bytes != null ? decode(key, bytes) : null;
+                if (value != null && predicate.test(key, value) && spillFile.remove(key)) {
+                    notifyRemoval(key, value, RemovalCause.EXPLICIT);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        removeIf((key, value) -> true);
+    }
+
+    /**
+     * Number of entries, on heap and spilled (with a shared backend: in the near cache)
+     */
+    public int size() {
+        return entries.size() + (spillFile != null ? spillFile.size() : 0);
+    }
+
+    /**
+     * Snapshot of the keys, on heap and spilled (with a shared backend: in the near cache)
+     */
+    public Set<String> keySet() {
+        Set<String> keys = new HashSet<>(entries.keySet());
+        if (spillFile != null) {
+            keys.addAll(spillFile.keys());
+        }
+        return keys;
+    }
+
+    /**
+     * Snapshot of the current values (does not refresh their idle clocks). Spilled values
+     * are decoded copies and stay on disk. With a shared backend: the near cache's values.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(entries.size());
+        for (Entry<V> entry : entries.values()) {
+            values.add(entry.value);
+        }
+        if (spillFile != null) {
+            for (String key : spillFile.keys()) {
+                byte[] bytes = spillFile.read(key);
+                V value = bytes != null ? decode(key, bytes) : null;
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Evict idle entries, spill entries idle past spillAfter, enforce the size cap,
+     * compact the spill file and re-estimate the retained bytes
+     */
+    void sweep() {
+        long now = clock.getAsLong();
+        long cutoff = now - idleTtl.toMillis();
+        long spillCutoff = now - spillAfterMs;
+        int idle = 0;
+        int spilled = 0;
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+            if (entry.getValue().lastAccess < cutoff) {
+                if (entries.remove(entry.getKey(), entry.getValue())) {
+                    idleEvictions.incrementAndGet();
+                    notifyRemoval(entry.getKey(), entry.getValue().value, RemovalCause.IDLE);
+                    idle++;
+                }
+            } else if (spillFile != null && entry.getValue().lastAccess < spillCutoff
+                && spill(entry.getKey(), entry.getValue(), false) == SpillOutcome.SPILLED) {
+                spilled++;
+            }
+        }
+        if (spillFile != null) {
+            idle += expireSpilled(cutoff);
+        }
+        evictOverflow();
+        if (spillFile != null) {
+            try {
+                if (spillFile.compactIfNeeded()) {
+                    logger.debug("💾 State namespace {}: spill file compacted to {} bytes", name, spillFile.getFileBytes());
+                }
+            } catch (IOException e) {
+                logger.warn("⚠️ State namespace {}: spill file compaction failed: {}", name, e.getMessage());
+            }
+        }
+        estimatedBytes = estimateBytes();
+        if (idle > 0 || spilled > 0) {
+            logger.debug("🗂️ State namespace {}: evicted {} idle entries, spilled {}, {} on heap",
+                name, idle, spilled, entries.size());
+        }
+    }
+
+    /**
+     * Close the spill file; spilled entries are discarded
+     */
+    void close() {
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                logger.warn("⚠️ State namespace {}: closing spill file failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("entries", size());
+        stats.put("heapEntries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("idleTtlSeconds", idleTtl.toSeconds());
+        stats.put("estimatedBytes", estimatedBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("idleEvictions", idleEvictions.get());
+        stats.put("sizeEvictions", sizeEvictions.get());
+        if (spillFile != null) {
+            stats.put("spilledEntries", spillFile.size());
+            stats.put("spilledBytes", spillFile.getLiveBytes());
+            stats.put("spillFileBytes", spillFile.getFileBytes());
+            stats.put("spillAfterSeconds", spillAfterMs / 1000);
+            stats.put("spills", spills.get());
+            stats.put("rehydrations", rehydrations.get());
+            stats.put("spillFailures", spillFailures.get());
+            stats.put("compactions", spillFile.getCompactions());
+        }
+        if (backend != null) {
+            stats.put("backendLoads", backendLoads.get());
+            stats.put("backendWrites", backendWrites.get());
+            stats.put("conflicts", conflicts.get());
+            stats.put("backendFailures", backendFailures.get());
+            stats.put("invalidations", invalidations.get());
+        }
+        return stats;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private void enforceCapacity() {
+        // Evict in batches (5% slack) so inserts at capacity don't each sort the namespace
+        if (entries.size() > maxEntries + maxEntries / 20) {
+            evictOverflow();
+        }
+    }
+
+    private void evictOverflow() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        synchronized (evictionLock) {
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, Entry<V>>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+            for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                Map.Entry<String, Entry<V>> victim = candidates.get(i);
+                if (spillFile != null) {
+                    SpillOutcome outcome = spill(victim.getKey(), victim.getValue(), true);
+                    if (outcome == SpillOutcome.FAILED) {
+                        sizeEvictions.incrementAndGet();
+                        notifyRemoval(victim.getKey(), victim.getValue().value, RemovalCause.SIZE);
+                    }
+                    if (outcome != SpillOutcome.GONE) {
+                        excess--;
+                    }
+                } else if (entries.remove(victim.getKey(), victim.getValue())) {
+                    sizeEvictions.incrementAndGet();
+                    notifyRemoval(victim.getKey(), victim.getValue().value, RemovalCause.SIZE);
+                    excess--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the entry to the spill file, atomically with respect to rehydration of its key.
+     * If encoding or writing fails the entry stays on heap, unless dropOnFailure is set.
+     */
+    private SpillOutcome spill(String key, Entry<V> entry, boolean dropOnFailure) {
+        SpillOutcome[] outcome = {SpillOutcome.GONE};
+        entries.computeIfPresent(key, (k, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            try {
+                spillFile.write(k, codec.encode(current.value), current.lastAccess);
+                spills.incrementAndGet();
+                outcome[0] = SpillOutcome.SPILLED;
+                return null;
+            } catch (IOException | RuntimeException e) {
+                spillFailures.incrementAndGet();
+                logger.debug("💾 State namespace {}: could not spill {}: {}", name, k, e.getMessage());
+                outcome[0] = SpillOutcome.FAILED;
+                return dropOnFailure ? null : current;
+            }
+        });
+        return outcome[0];
+    }
+
+    /**
+     * Load a spilled entry back onto the heap (called inside entries.computeIfAbsent)
+     */
+    private Entry<V> rehydrate(String key) {
+        if (spillFile == null) {
+            return null;
+        }
+        byte[] bytes = spillFile.take(key);
+        if (bytes == null) {
+            return null;
+        }
+        V value = decode(key, bytes);
+        if (value == null) {
+            return null;
+        }
+        rehydrations.incrementAndGet();
+        return new Entry<>(value, clock.getAsLong());
+    }
+
+    private int expireSpilled(long cutoff) {
+        int expired = 0;
+        for (String key : spillFile.keysIdleSince(cutoff)) {
+            byte[] bytes = spillFile.take(key);
+            if (bytes == null) {
+                continue;
+            }
+            idleEvictions.incrementAndGet();
+            expired++;
+            if (!listeners.isEmpty()) {
+                V value = decode(key, bytes);
+                if (value != null) {
+                    notifyRemoval(key, value, RemovalCause.IDLE);
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Load the key from the shared backend into the near cache
+     */
+    private Entry<V> load(String key) {
+        StateBackend.Versioned stored;
+        try {
+            stored = backend.get(backendPrefix + key);
+        } catch (RuntimeException e) {
+            backendFailure("read", key, e);
+            return null;
+        }
+        if (stored == null) {
+            return null;
+        }
+        V value = decode(key, stored.value());
+        if (value == null) {
+            return null;
+        }
+        backendLoads.incrementAndGet();
+        Entry<V> entry = new Entry<>(value, clock.getAsLong());
+        entry.version = stored.version();
+        Entry<V> existing = entries.putIfAbsent(key, entry);
+        enforceCapacity();
+        return existing != null ? existing : entry;
+    }
+
+    /**
+     * Load the key from the shared backend, or create it there (losing a creation race
+     * to another replica loads the winner's value)
+     */
+    private Entry<V> loadOrCreate(String key, Function<String, ? extends V> factory) {
+        Entry<V> loaded = load(key);
+        if (loaded != null) {
+            loaded.touch(clock.getAsLong());
+            return loaded;
+        }
+        V value = factory.apply(key);
+        if (value == null) {
+            return null;
+        }
+        Entry<V> entry = new Entry<>(value, clock.getAsLong());
+        try {
+            long version = backend.putIfVersion(backendPrefix + key, codec.encode(value), StateBackend.ABSENT, idleTtl);
+            if (version < 0) {
+                conflicts.incrementAndGet();
+                Entry<V> winner = load(key);
+                if (winner != null) {
+                    return winner;
+                }
+            } else {
+                entry.version = version;
+                backendWrites.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            backendFailure("write", key, e);
+        }
+        Entry<V> existing = entries.putIfAbsent(key, entry);
+        enforceCapacity();
+        return existing != null ? existing : entry;
+    }
+
+    /**
+     * Random pause growing with the attempt, so replicas racing on one key stop colliding
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(attempt + 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deleteShared(String key) {
+        try {
+            backend.delete(backendPrefix + key);
+        } catch (RuntimeException e) {
+            backendFailure("delete", key, e);
+        }
+    }
+
+    /**
+     * Another writer changed a key: drop our copy unless it is that very version (null key:
+     * drop everything). Not "older than": a key that expired in the backend starts over at
+     * version 1, so a newer write can carry a lower version than the copy we hold.
+     */
+    private void onBackendChange(String backendKey, long version) {
+        if (backendKey == null) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            return;
+        }
+        if (!backendKey.startsWith(backendPrefix)) {
+            return;
+        }
+        String key = backendKey.substring(backendPrefix.length());
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        // Waits for an update() of ours in flight, so its own write doesn't evict it
+        synchronized (entry) {
+            if (entry.version != version && entries.remove(key, entry)) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private void backendFailure(String operation, String key, Exception e) {
+        backendFailures.incrementAndGet();
+        logger.warn("⚠️ State namespace {}: backend {} of {} failed: {}", name, operation, key, e.getMessage());
+    }
+
+    private V decode(String key, byte[] bytes) {
+        try {
+            return codec.decode(bytes);
+        } catch (IOException | RuntimeException e) {
+            spillFailures.incrementAndGet();
+            logger.warn("⚠️ State namespace {}: could not read spilled {}: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private long estimateBytes() {
+        int size = entries.size();
+        if (size == 0) {
+            return 0;
+        }
+        long sampled = 0;
+        int count = 0;
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+            sampled += ObjectSizeEstimator.estimate(entry.getKey()) + ObjectSizeEstimator.estimate(entry.getValue().value);
+            if (++count == SIZE_SAMPLE) {
+                break;
+            }
+        }
+        // Map node + Entry wrapper per key, plus the sampled average for the rest
+        return size * (sampled / count + 56L);
+    }
+
+    private void notifyRemoval(String key, V value, RemovalCause cause) {
+        for (EvictionListener<V> listener : listeners) {
+            try {
+                listener.onRemoval(key, value, cause);
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ State namespace {} removal listener failed for {}: {}", name, key, e.getMessage());
+            }
+        }
+    }
+
+    private enum SpillOutcome { SPILLED, FAILED, GONE }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess;
+        // Backend version this value was read or written as (shared namespaces only)
+        volatile long version;
+
+        Entry(V value, long now) {
+            this.value = value;
+            this.lastAccess = now;
+        }
+
+        void touch(long now) {
+            lastAccess = now;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.vijay.state;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 🗂️ SESSION STATE STORE - Bounded Home for Per-User and Per-Conversation State
+ *
+ * Purpose: Stop the heap from creeping upward on long-running instances. Services
+ * keep their per-user state in named SessionNamespaces instead of private maps that
+ * never shrink.
+ *
+ * Responsibilities:
+ * - Create namespaces with a size cap and an idle TTL; each can be overridden with
+ *   chat.state.<namespace>.max-entries and chat.state.<namespace>.idle-ttl-minutes
+ * - Sweep every namespace on a background thread: idle eviction, size cap and
+ *   retained-bytes estimate
+ * - Give namespaces created with a SpillCodec a disk tier: a SpillFile per namespace in
+ *   chat.state.spill.directory, holding entries idle longer than
+ *   chat.state.spill.after-minutes (or chat.state.<namespace>.spill-after-minutes)
+ * - With a shared StateBackend (chat.state.backend=redis), write namespaces created with
+ *   a codec through to the backend instead, keeping only a near cache on the heap, so
+ *   any replica can serve any user
+ * - Report per-namespace stats for the dashboard (/dashboard/state)
+ */
+@Service
+public class SessionStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStateStore.class);
+
+    private final Environment environment;
+    private final LongSupplier clock;
+    private final Path spillDirectory;
+    private final StateBackend backend;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, SessionNamespace<?>> namespaces = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionStateStore(Environment environment, StateBackend backend) {
+        this(environment, backend, System::currentTimeMillis,
+            environment.getProperty("chat.state.sweep-interval-seconds", Long.class, 60L),
+            environment.getProperty("chat.state.spill.enabled", Boolean.class, true)
+                ? Path.of(environment.getProperty("chat.state.spill.directory",
+                    System.getProperty("java.io.tmpdir") + "/coding-assistant-state"))
+                : null);
+    }
+
+    /**
+     * Standalone store with default limits, no disk tier and no background sweep (call sweep() to evict)
+     */
+    public SessionStateStore() {
+        this(null, System::currentTimeMillis, 0, null);
+    }
+
+    SessionStateStore(Environment environment, LongSupplier clock, long sweepIntervalSeconds, Path spillDirectory) {
+        this(environment, new InMemoryStateBackend(clock), clock, sweepIntervalSeconds, spillDirectory);
+    }
+
+    SessionStateStore(Environment environment, StateBackend backend, LongSupplier clock,
+                      long sweepIntervalSeconds, Path spillDirectory) {
+        this.environment = environment;
+        this.backend = backend;
+        this.clock = clock;
+        this.spillDirectory = spillDirectory;
+        if (sweepIntervalSeconds > 0) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "session-state-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweepQuietly, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+            logger.info("🗂️ Session state store: sweeping every {}s", sweepIntervalSeconds);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * The namespace with this name, created on first use with the given default limits
+     */
+    public <V> SessionNamespace<V> namespace(String name, int defaultMaxEntries, Duration defaultIdleTtl) {
+        return namespace(name, defaultMaxEntries, defaultIdleTtl, null);
+    }
+
+    /**
+     * Like namespace(), with idle entries spilled to disk through the codec instead of
+     * dropped, or written through to the backend if it is shared. Without a codec or
+     * spill directory (or if the file can't be created) this is a plain namespace.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> SessionNamespace<V> namespace(String name, int defaultMaxEntries, Duration defaultIdleTtl,
+                                             SpillCodec<V> codec) {
+        return (SessionNamespace<V>) namespaces.computeIfAbsent(name, n -> {
+            int maxEntries = property(n + ".max-entries", Integer.class, defaultMaxEntries);
+            Duration idleTtl = Duration.ofMinutes(property(n + ".idle-ttl-minutes", Long.class, defaultIdleTtl.toMinutes()));
+            if (codec != null && backend.isShared()) {
+                logger.info("🗂️ State namespace {}: shared through the state backend, near cache of {} entries, idle TTL {} min",
+                    n, maxEntries, idleTtl.toMinutes());
+                return new SessionNamespace<>(n, maxEntries, idleTtl, clock, backend, codec);
+            }
+            if (codec != null && spillDirectory != null) {
+                long spillAfterMinutes = property(n + ".spill-after-minutes", Long.class,
+                    property("spill.after-minutes", Long.class, 60L));
+                try {
+                    SpillFile spillFile = new SpillFile(spillDirectory.resolve(n + ".spill"));
+                    logger.info("🗂️ State namespace {}: at most {} entries on heap, spilled after {} min idle, idle TTL {} min",
+                        n, maxEntries, spillAfterMinutes, idleTtl.toMinutes());
+                    return new SessionNamespace<>(n, maxEntries, idleTtl, clock,
+                        spillFile, codec, Duration.ofMinutes(spillAfterMinutes));
+                } catch (IOException e) {
+                    logger.warn("⚠️ State namespace {}: no spill file ({}), idle entries will be dropped", n, e.getMessage());
+                }
+            }
+            logger.info("🗂️ State namespace {}: at most {} entries, idle TTL {} min", n, maxEntries, idleTtl.toMinutes());
+            return new SessionNamespace<V>(n, maxEntries, idleTtl, clock);
+        });
+    }
+
+    /**
+     * Whether namespaces with a codec are shared with other replicas through the backend
+     */
+    public boolean isShared() {
+        return backend.isShared();
+    }
+
+    public StateBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Sweep every namespace now
+     */
+    public void sweep() {
+        for (SessionNamespace<?> namespace : namespaces.values()) {
+            namespace.sweep();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> perNamespace = new ArrayList<>();
+        long totalBytes = 0;
+        int totalEntries = 0;
+        for (SessionNamespace<?> namespace : namespaces.values()) {
+            perNamespace.add(namespace.getStats());
+            totalBytes += namespace.getEstimatedBytes();
+            totalEntries += namespace.size();
+        }
+        perNamespace.sort((a, b) -> String.valueOf(a.get("name")).compareTo(String.valueOf(b.get("name"))));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("namespaces", perNamespace);
+        stats.put("totalEntries", totalEntries);
+        stats.put("totalEstimatedBytes", totalBytes);
+        stats.put("backend", backend.getStats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        for (SessionNamespace<?> namespace : namespaces.values()) {
+            namespace.close();
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.warn("⚠️ Session state sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private <T> T property(String key, Class<T> type, T defaultValue) {
+        return environment != null ? environment.getProperty("chat.state." + key, type, defaultValue) : defaultValue;
+    }
+}
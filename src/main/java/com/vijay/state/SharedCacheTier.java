@@ -0,0 +1,160 @@
+package com.vijay.state;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 🔌 SHARED CACHE TIER - Second Cache Level in the Shared State Backend
+ *
+ * Purpose: Let replicas reuse each other's cache entries: a key computed on one
+ * instance is a hit on every other one
+ *
+ * Responsibilities:
+ * - Write cache entries through to the backend with their expiry (the backend TTL is
+ *   the time left), read them back on a local miss
+ * - Report keys changed by other writers to the owning cache so it drops its local copy
+ * - Skip values that can't be serialized; they stay local to this instance
+ *
+ * Only exists when the backend is shared (forBackend() returns null otherwise), so a
+ * single instance pays nothing for it.
+ */
+public final class SharedCacheTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedCacheTier.class);
+
+    private final StateBackend backend;
+    private final String prefix;
+    private final LongSupplier clock;
+    private final SpillCodec<Object> codec = SpillCodec.serialized();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private SharedCacheTier(StateBackend backend, String prefix, LongSupplier clock,
+                            StateBackend.InvalidationListener onChange) {
+        this.backend = backend;
+        this.prefix = prefix;
+        this.clock = clock;
+        backend.addInvalidationListener((key, version) -> {
+            if (key == null) {
+                onChange.onChange(null, version);
+            } else if (key.startsWith(prefix)) {
+                onChange.onChange(key.substring(prefix.length()), version);
+            }
+        });
+    }
+
+    /**
+     * The shared tier for the cache keys under prefix, or null if the backend isn't shared.
+     * onChange receives the cache's own keys (null: everything may be stale).
+     */
+    public static SharedCacheTier forBackend(StateBackend backend, String prefix,
+                                             StateBackend.InvalidationListener onChange) {
+        return forBackend(backend, prefix, onChange, System::currentTimeMillis);
+    }
+
+    static SharedCacheTier forBackend(StateBackend backend, String prefix,
+                                      StateBackend.InvalidationListener onChange, LongSupplier clock) {
+        if (backend == null || !backend.isShared()) {
+            return null;
+        }
+        logger.info("🔌 Cache {} shares entries through the state backend", prefix);
+        return new SharedCacheTier(backend, prefix, clock, onChange);
+    }
+
+    /**
+     * The entry stored by any replica, or null if there is none (or it expired)
+     */
+    public Loaded get(String key) {
+        try {
+            StateBackend.Versioned stored = backend.get(prefix + key);
+            if (stored != null) {
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(stored.value()))) {
+                    long expiresAt = in.readLong();
+                    if (expiresAt > clock.getAsLong()) {
+                        Object value = codec.decode(in.readAllBytes());
+                        hits.incrementAndGet();
+                        return new Loaded(value, expiresAt, stored.version());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure("read", key, e);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store the entry until expiresAt; returns its version, or -1 if it was not shared
+     */
+    public long put(String key, Object value, long expiresAt) {
+        long ttlMillis = expiresAt - clock.getAsLong();
+        if (ttlMillis <= 0) {
+            return -1;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeLong(expiresAt);
+                out.write(codec.encode(value));
+            }
+            bytes = buffer.toByteArray();
+        } catch (IOException e) {
+            skipped.incrementAndGet();
+            return -1;
+        }
+        try {
+            long version = backend.put(prefix + key, bytes, Duration.ofMillis(ttlMillis));
+            writes.incrementAndGet();
+            return version;
+        } catch (RuntimeException e) {
+            failure("write", key, e);
+            return -1;
+        }
+    }
+
+    public void remove(String key) {
+        try {
+            backend.delete(prefix + key);
+        } catch (RuntimeException e) {
+            failure("delete", key, e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("notSerializable", skipped.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    private void failure(String operation, String key, Exception e) {
+        failures.incrementAndGet();
+        logger.warn("⚠️ Shared cache {} of {}{} failed: {}", operation, prefix, key, e.getMessage());
+    }
+
+    /**
+     * An entry read from the backend
+     */
+    public record Loaded(Object value, long expiresAt, long version) {
+    }
+}
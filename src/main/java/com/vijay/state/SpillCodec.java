@@ -0,0 +1,77 @@
+package com.vijay.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 💾 SPILL CODEC - Turns a Session Value into Bytes for the Disk Tier
+ *
+ * Purpose: Let a SessionNamespace write idle values to its SpillFile and read them back
+ *
+ * Responsibilities:
+ * - encode(value) to a compact byte array, decode(bytes) back to an equal value
+ * - Throw IOException for values that can't be encoded; the namespace then evicts
+ *   the value instead of spilling it
+ * - Throw IOException for bytes that decode to a class outside the allow-list:
+ *   spilled bytes may come from a shared backend (Redis), not only from this process
+ */
+public interface SpillCodec<V> {
+
+    byte[] encode(V value) throws IOException;
+
+    V decode(byte[] bytes) throws IOException;
+
+    /**
+     * Classes serialized() may instantiate: the application's own session DTOs and the
+     * JDK value and collection types they are built from. Anything else (and any graph
+     * nested deeper than maxdepth) is rejected before it is constructed.
+     */
+    String SERIALIZED_ALLOW_LIST = "maxdepth=64;"
+        + "com.vijay.**;"
+        + "java.lang.*;java.util.*;java.time.*;"
+        + "java.util.concurrent.*;java.util.concurrent.atomic.*;java.util.concurrent.locks.*;"
+        + "!*";
+
+    /**
+     * Java serialization, deflated. Values (and everything they reference) must be Serializable
+     * and covered by SERIALIZED_ALLOW_LIST to be read back.
+     */
+    static <V> SpillCodec<V> serialized() {
+        ObjectInputFilter filter = ObjectInputFilter.Config.createFilter(SERIALIZED_ALLOW_LIST);
+        return new SpillCodec<>() {
+            @Override
+            public byte[] encode(V value) throws IOException {
+                if (!(value instanceof Serializable)) {
+                    throw new IOException("Not serializable: " + value.getClass().getName());
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+                    out.writeObject(value);
+                } finally {
+                    deflater.end();
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V decode(byte[] bytes) throws IOException {
+                try (ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+                    in.setObjectInputFilter(filter);
+                    return (V) in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown class in spilled value", e);
+                }
+            }
+        };
+    }
+}
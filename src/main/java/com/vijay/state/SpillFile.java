@@ -0,0 +1,222 @@
+package com.vijay.state;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 💾 SPILL FILE - Append-Only, Memory-Mapped Disk Tier of One Namespace
+ *
+ * Purpose: Hold idle session values off the heap. Only the offset index (key, offset,
+ * length, last access) stays in memory.
+ *
+ * Responsibilities:
+ * - Append records ([int length][bytes]) to a memory-mapped file, growing the mapping
+ *   by doubling up to MAX_FILE_BYTES
+ * - Read a record back by key; rewriting or removing a key only marks the old record dead
+ * - Compact (copy the live records into a fresh file) once dead bytes outweigh live ones
+ *
+ * The file only lives as long as the process: it is recreated on open and deleted on
+ * close. All methods are synchronized; compaction blocks reads and writes while it copies.
+ */
+class SpillFile implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillFile.class);
+
+    static final long MAX_FILE_BYTES = 1L << 30;
+    private static final int INITIAL_BYTES = 1 << 20;
+    // Don't bother compacting files with less garbage than this
+    private static final long MIN_COMPACT_BYTES = 4L << 20;
+
+    private final Path path;
+    private final Map<String, Slot> index = new HashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long writePosition;
+    private long liveBytes;
+    private long compactions;
+
+    SpillFile(Path path) throws IOException {
+        this.path = path;
+        Files.createDirectories(path.getParent());
+        Files.deleteIfExists(path);
+        this.channel = open(path);
+        this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_BYTES);
+    }
+
+    /**
+     * Append the record for this key, replacing any previous one
+     */
+    synchronized void write(String key, byte[] bytes, long lastAccess) throws IOException {
+        long recordBytes = Integer.BYTES + (long) bytes.length;
+        ensureCapacity(recordBytes);
+        long offset = writePosition;
+        mapped.putInt((int) offset, bytes.length);
+        mapped.put((int) offset + Integer.BYTES, bytes);
+        writePosition += recordBytes;
+
+        Slot previous = index.put(key, new Slot(offset, bytes.length, lastAccess));
+        if (previous != null) {
+            liveBytes -= previous.recordBytes();
+        }
+        liveBytes += recordBytes;
+    }
+
+    /**
+     * The record for this key, or null
+     */
+    synchronized byte[] read(String key) {
+        Slot slot = index.get(key);
+        return slot != null ? copy(slot) : null;
+    }
+
+    /**
+     * Remove the key and return its record (null if it had none)
+     */
+    synchronized byte[] take(String key) {
+        Slot slot = index.remove(key);
+        if (slot == null) {
+            return null;
+        }
+        liveBytes -= slot.recordBytes();
+        return copy(slot);
+    }
+
+    synchronized boolean remove(String key) {
+        Slot slot = index.remove(key);
+        if (slot != null) {
+            liveBytes -= slot.recordBytes();
+        }
+        return slot != null;
+    }
+
+    synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized Set<String> keys() {
+        return Set.copyOf(index.keySet());
+    }
+
+    /**
+     * Keys whose last access is before the cutoff
+     */
+    synchronized List<String> keysIdleSince(long cutoff) {
+        List<String> idle = new ArrayList<>();
+        for (Map.Entry<String, Slot> entry : index.entrySet()) {
+            if (entry.getValue().lastAccess() < cutoff) {
+                idle.add(entry.getKey());
+            }
+        }
+        return idle;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        liveBytes = 0;
+        writePosition = 0;
+    }
+
+    /**
+     * Copy the live records into a fresh file once more than half of the file is dead
+     */
+    synchronized boolean compactIfNeeded() throws IOException {
+        long deadBytes = writePosition - liveBytes;
+        if (deadBytes < MIN_COMPACT_BYTES || deadBytes < liveBytes) {
+            return false;
+        }
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        FileChannel newChannel = open(compacted);
+        MappedByteBuffer newMapped = newChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+            Math.min(MAX_FILE_BYTES, Math.max(INITIAL_BYTES, Long.highestOneBit(Math.max(1, liveBytes)) << 1)));
+        long position = 0;
+        Map<String, Slot> moved = new HashMap<>(index.size() * 2);
+        for (Map.Entry<String, Slot> entry : index.entrySet()) {
+            Slot slot = entry.getValue();
+            newMapped.putInt((int) position, slot.length());
+            newMapped.put((int) position + Integer.BYTES, copy(slot));
+            moved.put(entry.getKey(), new Slot(position, slot.length(), slot.lastAccess()));
+            position += slot.recordBytes();
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING);
+
+        logger.debug("💾 Compacted {}: {} -> {} bytes", path.getFileName(), writePosition, position);
+        channel = newChannel;
+        mapped = newMapped;
+        writePosition = position;
+        liveBytes = position;
+        index.clear();
+        index.putAll(moved);
+        compactions++;
+        return true;
+    }
+
+    synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    synchronized long getFileBytes() {
+        return writePosition;
+    }
+
+    synchronized long getCompactions() {
+        return compactions;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void ensureCapacity(long recordBytes) throws IOException {
+        long required = writePosition + recordBytes;
+        if (required <= mapped.capacity()) {
+            return;
+        }
+        if (required > MAX_FILE_BYTES) {
+            throw new IOException("Spill file " + path.getFileName() + " is full");
+        }
+        long capacity = mapped.capacity();
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, MAX_FILE_BYTES));
+    }
+
+    private byte[] copy(Slot slot) {
+        byte[] bytes = new byte[slot.length()];
+        mapped.get((int) slot.offset() + Integer.BYTES, bytes);
+        return bytes;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private record Slot(long offset, int length, long lastAccess) {
+        long recordBytes() {
+            return Integer.BYTES + (long) length;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.vijay.state;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 🔌 STATE BACKEND - Where Session State Lives (SPI)
+ *
+ * Purpose: Let chat instances keep conversational state outside the process, so any
+ * replica can serve any conversation and a restart loses nothing
+ *
+ * Responsibilities:
+ * - Byte-level get / put / delete by key, each value carrying a version that every
+ *   write increments
+ * - putIfVersion(): compare-and-set on the version, so concurrent replicas never
+ *   silently overwrite each other's updates
+ * - Tell listeners which keys changed (on any replica), so near caches can drop
+ *   stale copies
+ *
+ * Implementations: InMemoryStateBackend (process-local, the default) and
+ * RedisStateBackend (chat.state.backend=redis). Only shared backends are written
+ * through by SessionStateStore and the caches.
+ */
+public interface StateBackend extends AutoCloseable {
+
+    /** Version of a key that doesn't exist */
+    long ABSENT = 0;
+
+    /** Version passed to listeners when a key was deleted */
+    long DELETED = Long.MAX_VALUE;
+
+    /**
+     * The value and its version, or null
+     */
+    Versioned get(String key);
+
+    /**
+     * Write unconditionally; returns the new version. A null or zero ttl never expires.
+     */
+    long put(String key, byte[] value, Duration ttl);
+
+    /**
+     * Write only if the stored version is expectedVersion (ABSENT: only if the key
+     * doesn't exist); returns the new version, or -1 if another writer got there first
+     */
+    long putIfVersion(String key, byte[] value, long expectedVersion, Duration ttl);
+
+    boolean delete(String key);
+
+    /**
+     * Whether other processes see this backend's writes
+     */
+    boolean isShared();
+
+    /**
+     * Called for every key written or deleted by any writer, this process included
+     */
+    void addInvalidationListener(InvalidationListener listener);
+
+    Map<String, Object> getStats();
+
+    @Override
+    default void close() {
+    }
+
+    record Versioned(byte[] value, long version) {
+    }
+
+    @FunctionalInterface
+    interface InvalidationListener {
+        /**
+         * key is null when changes may have been missed (e.g. after a reconnect):
+         * everything cached should be considered stale
+         */
+        void onChange(String key, long version);
+    }
+}
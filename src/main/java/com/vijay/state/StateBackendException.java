@@ -0,0 +1,17 @@
+package com.vijay.state;
+
+/**
+ * 🔌 Thrown when a StateBackend can't be reached or rejects a command
+ *
+ * Callers keep serving from their near cache and count the failure.
+ */
+public class StateBackendException extends RuntimeException {
+
+    public StateBackendException(String message) {
+        super(message);
+    }
+
+    public StateBackendException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,6 +2,8 @@ package com.vijay.tools;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.cache.CacheStrategy;
+import com.vijay.cache.ToolCache;
 import com.vijay.manager.AiToolProvider;
 import lombok.RequiredArgsConstructor;
 
@@ -166,6 +168,7 @@ public class AIAgentToolService implements AiToolProvider {
      * This is a "normal" method that returns a simple string.
      */
     @Tool(description = "Get the 5-day weather forecast for a specific city.")
+    @ToolCache(CacheStrategy.MODERATELY_CHANGING)
     public String getWeatherForecast(WeatherRequest request) {
         logger.info("--- AI TOOL: Calling OpenWeatherMap for forecast in: {}", request.city());
 
@@ -1,6 +1,8 @@
 package com.vijay.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.cache.CacheStrategy;
+import com.vijay.cache.ToolCache;
 import com.vijay.manager.AiToolProvider;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -40,6 +42,7 @@ public class ArchitectureSuggestionToolService implements AiToolProvider {
      * Analyze project architecture
      */
     @Tool(description = "Analyze project architecture and provide improvement suggestions")
+    @ToolCache(CacheStrategy.SLOWLY_CHANGING)
     public String analyzeProjectArchitecture(
             @ToolParam(description = "Project root path") String projectRoot,
             @ToolParam(description = "Project type (spring-boot/microservices/monolith/library)") String projectType,
@@ -1,6 +1,8 @@
 package com.vijay.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.cache.CacheStrategy;
+import com.vijay.cache.ToolCache;
 import com.vijay.manager.AiToolProvider;
 import com.vijay.service.CodeIntelligenceEngine;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +44,7 @@ public class CodeQualityToolService implements AiToolProvider {
      * Scan code quality in project
      */
     @Tool(description = "Scan code quality: detect issues, metrics, and recommendations")
+    @ToolCache(CacheStrategy.SLOWLY_CHANGING)
     public String scanCodeQuality(
             @ToolParam(description = "Project path to scan") String projectPath) {
         
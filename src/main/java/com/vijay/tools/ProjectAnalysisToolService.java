@@ -1,10 +1,13 @@
 package com.vijay.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vijay.cache.CacheStrategy;
+import com.vijay.cache.ToolCache;
 import com.vijay.manager.AiToolProvider;
 import com.vijay.service.CodeIntelligenceEngine;
 import com.vijay.service.CodeRetrieverService;
 import com.vijay.service.DependencyGraphBuilder;
+import com.vijay.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,14 +45,37 @@ public class ProjectAnalysisToolService implements AiToolProvider {
     private final DependencyGraphBuilder graphBuilder;
     private final CodeIntelligenceEngine intelligenceEngine;
     
+    // Concurrent analyses of the same project share one walk of the file tree. Keyed by the
+    // normalized path, so "./proj" and "/abs/proj" coalesce where the tool-result cache's
+    // raw-arguments key does not
+    private final SingleFlight<String, String> analysisFlight = new SingleFlight<>();
+    
     /**
      * Comprehensive project analysis tool
      * Analyzes structure, languages, quality, dependencies, and provides recommendations
      */
     @Tool(description = "Comprehensive project analysis: structure, languages, quality, dependencies, and recommendations")
+    @ToolCache(CacheStrategy.SLOWLY_CHANGING)
     public String analyzeProjectComprehensive(
             @ToolParam(description = "Project path to analyze") String projectPath) {
         
+        SingleFlight.Result<String> result = analysisFlight.execute(flightKey(projectPath),
+            () -> runComprehensiveAnalysis(projectPath));
+        if (result.shared) {
+            logger.info("🛫 Joined in-flight project analysis for: {}", projectPath);
+        }
+        return result.value;
+    }
+    
+    private static String flightKey(String projectPath) {
+        try {
+            return Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        } catch (Exception e) {
+            return String.valueOf(projectPath);
+        }
+    }
+    
+    private String runComprehensiveAnalysis(String projectPath) {
         logger.info("🔍 Starting comprehensive project analysis for: {}", projectPath);
         
         try {
@@ -0,0 +1,187 @@
+package com.vijay.tools;
+
+import com.vijay.cache.CachingToolCallback;
+import com.vijay.cache.SmartCacheManager;
+import com.vijay.cache.ToolCache;
+import com.vijay.manager.AiToolProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 🗂️ ToolCallbackRegistry - Precomputed @Tool Callbacks
+ *
+ * Builds every ToolCallback from the AiToolProvider beans ONCE and keys it by tool name.
+ * The JSON input schema of each tool is generated at build time and cached here, so a
+ * request only pays for the schemas it actually attaches.
+ *
+ * Usage:
+ * - ToolCallAdvisor (Brain 2): attaches only the Conductor-approved subset to the prompt
+ * - ToolCallingManager: resolves tool names through this registry
+ * - Clients without the Conductor (HuggingFace, dynamic brain clients): offer every tool
+ *
+ * Tools with a cacheable strategy (@ToolCache on the method, or a SmartCacheManager
+ * default for the tool name) are registered wrapped in a CachingToolCallback, so both
+ * paths return memoized results.
+ *
+ * Providers are looked up lazily through an ObjectProvider because several tool services
+ * depend on ChatClient, which depends on the ToolCallingManager, which depends on this registry.
+ */
+@Service
+public class ToolCallbackRegistry implements ToolCallbackResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolCallbackRegistry.class);
+
+    private final ObjectProvider<AiToolProvider> toolProviders;
+    // Null: tool results are not memoized
+    private final SmartCacheManager toolResultCache;
+
+    private volatile Map<String, ToolCallback> callbacks;
+    private volatile Map<String, Integer> schemaSizes;
+
+    public ToolCallbackRegistry(ObjectProvider<AiToolProvider> toolProviders) {
+        this(toolProviders, null);
+    }
+
+    @Autowired
+    public ToolCallbackRegistry(ObjectProvider<AiToolProvider> toolProviders, SmartCacheManager toolResultCache) {
+        this.toolProviders = toolProviders;
+        this.toolResultCache = toolResultCache;
+    }
+
+    /**
+     * Resolve a single tool by name (ToolCallbackResolver contract)
+     */
+    @Override
+    public ToolCallback resolve(String toolName) {
+        return getCallbacks().get(toolName);
+    }
+
+    /**
+     * Resolve the approved subset, skipping names that are not registered tools
+     */
+    public List<ToolCallback> resolveAll(Collection<String> toolNames) {
+        if (toolNames == null || toolNames.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, ToolCallback> all = getCallbacks();
+        List<ToolCallback> resolved = new ArrayList<>(toolNames.size());
+        for (String name : new LinkedHashSet<>(toolNames)) {
+            ToolCallback callback = all.get(name);
+            if (callback != null) {
+                resolved.add(callback);
+            } else {
+                logger.debug("🗂️ ToolCallbackRegistry: '{}' is not a registered tool, skipping", name);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Every registered tool, for clients that offer all of them up front
+     */
+    public List<ToolCallback> getAllCallbacks() {
+        return List.copyOf(getCallbacks().values());
+    }
+
+    /**
+     * Names of all registered tools
+     */
+    public Set<String> getToolNames() {
+        return getCallbacks().keySet();
+    }
+
+    /**
+     * Cached size (chars) of the serialized schemas for the given tools
+     */
+    public int getSchemaSize(Collection<String> toolNames) {
+        if (toolNames == null) {
+            return 0;
+        }
+        getCallbacks();
+        int size = 0;
+        for (String name : toolNames) {
+            size += schemaSizes.getOrDefault(name, 0);
+        }
+        return size;
+    }
+
+    /**
+     * Cached size (chars) of every registered tool schema
+     */
+    public int getTotalSchemaSize() {
+        getCallbacks();
+        return schemaSizes.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private Map<String, ToolCallback> getCallbacks() {
+        Map<String, ToolCallback> current = callbacks;
+        if (current == null) {
+            synchronized (this) {
+                current = callbacks;
+                if (current == null) {
+                    current = build();
+                }
+            }
+        }
+        return current;
+    }
+
+    private Map<String, ToolCallback> build() {
+        Map<String, ToolCallback> byName = new LinkedHashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+
+        toolProviders.orderedStream().forEach(provider -> {
+            registerCacheStrategies(provider);
+            for (ToolCallback callback : ToolCallbacks.from(provider)) {
+                String name = callback.getToolDefinition().name();
+                if (toolResultCache != null && toolResultCache.getStrategy(name).isCacheable()) {
+                    callback = new CachingToolCallback(callback, toolResultCache);
+                }
+                if (byName.putIfAbsent(name, callback) != null) {
+                    logger.warn("⚠️ ToolCallbackRegistry: duplicate tool name '{}' in {}, keeping the first",
+                        name, provider.getClass().getSimpleName());
+                    continue;
+                }
+                sizes.put(name, callback.getToolDefinition().name().length()
+                    + callback.getToolDefinition().description().length()
+                    + callback.getToolDefinition().inputSchema().length());
+            }
+        });
+
+        this.schemaSizes = Collections.unmodifiableMap(sizes);
+        this.callbacks = Collections.unmodifiableMap(byName);
+        logger.info("🗂️ ToolCallbackRegistry: {} tools registered ({} schema chars cached, {} with memoized results)",
+            byName.size(), sizes.values().stream().mapToInt(Integer::intValue).sum(),
+            byName.values().stream().filter(CachingToolCallback.class::isInstance).count());
+        return this.callbacks;
+    }
+
+    /**
+     * Hand the @ToolCache strategies of the provider's @Tool methods to the cache
+     */
+    private void registerCacheStrategies(AiToolProvider provider) {
+        if (toolResultCache == null) {
+            return;
+        }
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(provider))) {
+            Tool tool = method.getAnnotation(Tool.class);
+            ToolCache cache = method.getAnnotation(ToolCache.class);
+            if (tool != null && cache != null) {
+                toolResultCache.registerStrategy(tool.name().isEmpty() ? method.getName() : tool.name(), cache.value());
+            }
+        }
+    }
+}
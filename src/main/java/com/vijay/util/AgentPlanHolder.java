@@ -1,12 +1,14 @@
 package com.vijay.util;
 
+import com.vijay.context.RequestContext;
 import com.vijay.dto.AgentPlan;
 
 /**
- * 📌 AgentPlanHolder - Thread-Local Storage for Master Plan
+ * 📌 AgentPlanHolder - Request-Scoped Storage for Master Plan
  * 
- * Since ChatClientRequest doesn't have a context map, we use thread-local storage
- * to pass the master AgentPlan from ConductorAdvisor to downstream brains.
+ * Passes the master AgentPlan from ConductorAdvisor to downstream brains.
+ * The plan lives in the request's RequestContext (also carried in
+ * ChatClientRequest.context()), so it survives thread hops.
  * 
  * Usage:
  * - ConductorAdvisor (Brain 0): AgentPlanHolder.setPlan(masterPlan)
@@ -17,34 +19,40 @@ import com.vijay.dto.AgentPlan;
  */
 public class AgentPlanHolder {
     
-    private static final ThreadLocal<AgentPlan> planHolder = new ThreadLocal<>();
-    
     /**
-     * Store the master plan in thread-local storage
+     * Store the master plan in the request context
      */
     public static void setPlan(AgentPlan plan) {
-        planHolder.set(plan);
+        if (plan == null && RequestContext.current() == null) {
+            return;
+        }
+        RequestContext.currentOrCreate().setPlan(plan);
     }
     
     /**
-     * Retrieve the master plan from thread-local storage
+     * Retrieve the master plan from the request context
      */
     public static AgentPlan getPlan() {
-        return planHolder.get();
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getPlan() : null;
     }
     
     /**
      * Check if a plan is available
      */
     public static boolean hasPlan() {
-        return planHolder.get() != null;
+        return getPlan() != null;
     }
     
     /**
-     * Clear the plan from thread-local storage
+     * Clear the plan from the request context
      * (Should be called after request is processed)
      */
     public static void clear() {
-        planHolder.remove();
+        RequestContext context = RequestContext.current();
+        if (context != null) {
+            context.setPlan(null);
+            RequestContext.releaseIfEmpty();
+        }
     }
 }
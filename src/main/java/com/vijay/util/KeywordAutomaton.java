@@ -0,0 +1,225 @@
+package com.vijay.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 🔎 KeywordAutomaton - Aho-Corasick Multi-Keyword Matcher
+ *
+ * Finds every occurrence of every keyword in ONE left-to-right pass over the text,
+ * instead of one String.contains / String.matches scan per keyword.
+ *
+ * - Built once (immutable, thread-safe, share it as a static constant)
+ * - Compiled to a dense DFA: one table lookup per input character
+ * - Case-insensitive: keywords are lowercased at build time, input is folded while scanning
+ * - Reports keyword id plus [start, end) so callers can apply their own word-boundary rules
+ *
+ * Keywords are limited to ASCII; non-ASCII input characters simply never match.
+ *
+ * Usage:
+ * - KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+ * - int bugId = builder.add("bug");
+ * - builder.build().scan(text, (id, start, end) -> ...);
+ */
+public final class KeywordAutomaton {
+
+    private static final int ASCII = 128;
+
+    private final int alphabetSize;
+    private final int[] charClass;      // ASCII char -> class (0 = not used by any keyword)
+    private final int[] transitions;    // state * alphabetSize + class -> next state
+    private final int[] outputStart;    // state -> offset into outputIds/outputLengths
+    private final int[] outputIds;
+    private final int[] outputLengths;
+    private final int keywordCount;
+
+    private KeywordAutomaton(int alphabetSize, int[] charClass, int[] transitions,
+                             int[] outputStart, int[] outputIds, int[] outputLengths, int keywordCount) {
+        this.alphabetSize = alphabetSize;
+        this.charClass = charClass;
+        this.transitions = transitions;
+        this.outputStart = outputStart;
+        this.outputIds = outputIds;
+        this.outputLengths = outputLengths;
+        this.keywordCount = keywordCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Report every keyword occurrence in the text (overlapping matches included)
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            int cls = c < ASCII ? charClass[c] : 0;
+            state = transitions[state * alphabetSize + cls];
+            for (int o = outputStart[state], end = outputStart[state + 1]; o < end; o++) {
+                listener.onMatch(outputIds[o], i + 1 - outputLengths[o], i + 1);
+            }
+        }
+    }
+
+    /**
+     * Whether any keyword occurs in the text
+     */
+    public boolean containsAny(CharSequence text) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            state = transitions[state * alphabetSize + (c < ASCII ? charClass[c] : 0)];
+            if (outputStart[state] != outputStart[state + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getKeywordCount() {
+        return keywordCount;
+    }
+
+    public int getStateCount() {
+        return outputStart.length - 1;
+    }
+
+    /**
+     * Callback for each keyword occurrence; end is exclusive
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int keywordId, int start, int end);
+    }
+
+    // ============ Builder ============
+
+    public static final class Builder {
+
+        private final List<String> keywords = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add a keyword and return its id (ids are assigned in insertion order)
+         */
+        public int add(String keyword) {
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keyword must not be empty");
+            }
+            String folded = keyword.toLowerCase();
+            for (int i = 0; i < folded.length(); i++) {
+                if (folded.charAt(i) >= ASCII) {
+                    throw new IllegalArgumentException("Keyword must be ASCII: " + keyword);
+                }
+            }
+            keywords.add(folded);
+            return keywords.size() - 1;
+        }
+
+        public KeywordAutomaton build() {
+            // Compact alphabet: only characters that occur in keywords get a class
+            int[] charClass = new int[ASCII];
+            int classes = 1;
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (charClass[c] == 0) {
+                        charClass[c] = classes++;
+                    }
+                }
+            }
+            for (char c = 'a'; c <= 'z'; c++) {
+                charClass[Character.toUpperCase(c)] = charClass[c];
+            }
+            int alphabetSize = classes;
+
+            // Trie
+            List<int[]> gotoRows = new ArrayList<>();
+            List<List<Integer>> outputs = new ArrayList<>();
+            gotoRows.add(newRow(alphabetSize));
+            outputs.add(new ArrayList<>());
+            for (int id = 0; id < keywords.size(); id++) {
+                String keyword = keywords.get(id);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int cls = charClass[keyword.charAt(i)];
+                    int next = gotoRows.get(state)[cls];
+                    if (next < 0) {
+                        next = gotoRows.size();
+                        gotoRows.add(newRow(alphabetSize));
+                        outputs.add(new ArrayList<>());
+                        gotoRows.get(state)[cls] = next;
+                    }
+                    state = next;
+                }
+                outputs.get(state).add(id);
+            }
+
+            // Failure links (BFS), folded into a complete DFA
+            int stateCount = gotoRows.size();
+            int[] fail = new int[stateCount];
+            Deque<Integer> queue = new ArrayDeque<>();
+            int[] root = gotoRows.get(0);
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                if (root[cls] < 0) {
+                    root[cls] = 0;
+                } else {
+                    fail[root[cls]] = 0;
+                    queue.add(root[cls]);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                int[] row = gotoRows.get(state);
+                for (int cls = 0; cls < alphabetSize; cls++) {
+                    int next = row[cls];
+                    if (next < 0) {
+                        row[cls] = gotoRows.get(fail[state])[cls];
+                    } else {
+                        fail[next] = gotoRows.get(fail[state])[cls];
+                        outputs.get(next).addAll(outputs.get(fail[next]));
+                        queue.add(next);
+                    }
+                }
+            }
+
+            // Flatten
+            int[] transitions = new int[stateCount * alphabetSize];
+            int[] outputStart = new int[stateCount + 1];
+            int totalOutputs = 0;
+            for (int state = 0; state < stateCount; state++) {
+                System.arraycopy(gotoRows.get(state), 0, transitions, state * alphabetSize, alphabetSize);
+                outputStart[state] = totalOutputs;
+                totalOutputs += outputs.get(state).size();
+            }
+            outputStart[stateCount] = totalOutputs;
+
+            int[] outputIds = new int[totalOutputs];
+            int[] outputLengths = new int[totalOutputs];
+            int o = 0;
+            for (int state = 0; state < stateCount; state++) {
+                for (int id : outputs.get(state)) {
+                    outputIds[o] = id;
+                    outputLengths[o] = keywords.get(id).length();
+                    o++;
+                }
+            }
+
+            return new KeywordAutomaton(alphabetSize, charClass, transitions,
+                outputStart, outputIds, outputLengths, keywords.size());
+        }
+
+        private static int[] newRow(int alphabetSize) {
+            int[] row = new int[alphabetSize];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.vijay.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 📊 LatencyHistogram - Lock-Free Log-Linear Histogram
+ *
+ * Records non-negative values (typically milliseconds) into HDR-style buckets:
+ * every power-of-two range is split into 8 linear sub-buckets, so any reported
+ * percentile is within 12.5% of the true value, whatever the magnitude.
+ *
+ * - Fixed memory (~4 KB per stripe), no allocation per record
+ * - record() is an atomic increment on the calling thread's stripe, safe from any thread
+ * - Percentiles are computed on read by merging the stripes and scanning the buckets once
+ *
+ * One stripe is enough for histograms written a few times per request; striped()
+ * spreads hot, shared histograms (API log, profiler) over several bucket arrays so
+ * concurrent writers of similar values do not fight over the same counters.
+ *
+ * Usage:
+ * - LatencyHistogram histogram = new LatencyHistogram();
+ * - histogram.record(elapsedMs);
+ * - long p95 = histogram.getValueAtPercentile(95.0);
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final int MAX_STRIPES = 8;
+
+    // Stripe-major: stripe s owns [s * BUCKET_COUNT, (s + 1) * BUCKET_COUNT)
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+
+    public LatencyHistogram() {
+        this(1);
+    }
+
+    /**
+     * @param stripes number of bucket arrays, rounded up to a power of two (at most 8)
+     */
+    public LatencyHistogram(int stripes) {
+        int rounded = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, stripes)) * 2 - 1);
+        this.counts = new AtomicLongArray(rounded * BUCKET_COUNT);
+        this.stripeMask = rounded - 1;
+    }
+
+    /**
+     * Histogram with one stripe per core (up to 8), for values recorded from many threads at once
+     */
+    public static LatencyHistogram striped() {
+        return new LatencyHistogram(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Record one value (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        counts.incrementAndGet(stripe * BUCKET_COUNT + bucketIndex(v));
+        totalCount.increment();
+        totalSum.add(v);
+        if (v > maxValue.get()) {
+            maxValue.accumulateAndGet(v, Math::max);
+        }
+        if (v < minValue.get()) {
+            minValue.accumulateAndGet(v, Math::min);
+        }
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Smallest recorded value, 0 when empty
+     */
+    public long getMin() {
+        long min = minValue.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count > 0 ? (double) totalSum.sum() / count : 0.0;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), capped at the max seen
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] merged = mergeStripes();
+        return valueAtPercentile(merged, total(merged), percentile);
+    }
+
+    /**
+     * Forget all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalSum.reset();
+        maxValue.set(0);
+        minValue.set(Long.MAX_VALUE);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] merged = mergeStripes();
+        long count = total(merged);
+        return new HistogramSnapshot(count, getMean(),
+            valueAtPercentile(merged, count, 50), valueAtPercentile(merged, count, 90),
+            valueAtPercentile(merged, count, 95), valueAtPercentile(merged, count, 99),
+            valueAtPercentile(merged, count, 99.9), getMax());
+    }
+
+    private long[] mergeStripes() {
+        long[] merged = new long[BUCKET_COUNT];
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * BUCKET_COUNT;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += counts.get(base + i);
+            }
+        }
+        return merged;
+    }
+
+    private static long total(long[] buckets) {
+        long total = 0;
+        for (long c : buckets) {
+            total += c;
+        }
+        return total;
+    }
+
+    private long valueAtPercentile(long[] buckets, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Point-in-time percentiles
+     */
+    public static class HistogramSnapshot {
+        public final long count;
+        public final double mean;
+        public final long p50;
+        public final long p90;
+        public final long p95;
+        public final long p99;
+        public final long p999;
+        public final long max;
+
+        public HistogramSnapshot(long count, double mean, long p50, long p90, long p95,
+                                 long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+    }
+}
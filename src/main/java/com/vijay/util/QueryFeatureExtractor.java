@@ -0,0 +1,545 @@
+package com.vijay.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 🔎 QueryFeatureExtractor - Single-Pass Query Classification
+ *
+ * Shared by ConductorAdvisor (Brain 0) and QueryPlanner (code retrieval).
+ * Both used to classify the same query with their own keyword checks: about 20
+ * String.matches calls (each compiling a fresh Pattern) plus long contains chains.
+ *
+ * Now every keyword of both components lives in ONE precompiled Aho-Corasick automaton:
+ * - One automaton scan finds every keyword (word-boundary and substring rules per feature)
+ * - One character pass counts words/questions and collects search keywords
+ * - Two precompiled patterns extract class/method entities (only when the automaton saw
+ *   a class suffix or method prefix)
+ *
+ * Produces intent, complexity, ambiguity, focus, tool hints and fast-path decision for the
+ * Conductor, intent, complexity, entities and search strategy for the QueryPlanner, and
+ * whether the query refers back to the conversation (for the response cache).
+ *
+ * Matching is case-insensitive throughout (the Conductor's intent rules used to be case-sensitive,
+ * so "Fix the bug" and "fix the bug" now classify the same way).
+ */
+public final class QueryFeatureExtractor {
+
+    /** Technical keywords reported as QueryPlanner entities, in report order */
+    private static final String[] TECH_KEYWORDS = {
+        "chatservice", "aiproviderconfig", "advisor", "retriever", "planner",
+        "vectorstore", "embedding", "dependency", "graph", "context", "budget",
+        "token", "chunk", "summary", "brain", "query", "intent", "planning"
+    };
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "how", "does", "what", "is", "the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by");
+
+    private static final Pattern CLASS_PATTERN =
+        Pattern.compile("\\b[A-Z][a-zA-Z]*(?:Service|Controller|Config|Manager|Advisor|Builder)\\b");
+    private static final Pattern METHOD_PATTERN =
+        Pattern.compile("\\b(?:get|set|process|handle|create|build|configure|manage)[A-Z][a-zA-Z]*\\b");
+
+    private static final KeywordAutomaton AUTOMATON;
+    private static final long[] WORD_MASKS;
+    private static final long[] SUBSTRING_MASKS;
+    private static final int[] ENTITY_BITS;
+
+    static {
+        KeywordTable table = new KeywordTable();
+
+        // Conductor: complexity / ambiguity
+        table.word(Feature.COMPLEXITY_TERM, "algorithm", "architecture", "optimization", "refactor", "debug");
+        table.word(Feature.AMBIGUITY_VAGUE, "it", "this", "that", "thing", "stuff", "something");
+        table.word(Feature.AMBIGUITY_HEDGE, "maybe", "probably", "might", "could");
+        table.word(Feature.AMBIGUITY_PRONOUN, "he", "she", "they", "we");
+
+        // Conductor: focus / ignore areas
+        table.substring(Feature.FOCUS_DEBUG, "bug", "error", "fix");
+        table.substring(Feature.FOCUS_REFACTOR, "refactor", "improve", "optimize");
+        table.substring(Feature.FOCUS_TESTING, "test");
+        table.substring(Feature.FOCUS_ARCHITECTURE, "architecture", "design");
+        table.substring(Feature.FOCUS_PERFORMANCE, "performance", "speed");
+        table.substring(Feature.FOCUS_SECURITY, "security");
+        table.substring(Feature.FOCUS_IMPLEMENTATION, "implement", "create", "build");
+        table.substring(Feature.IGNORE_CONSTRAINTS, "don't", "not", "avoid");
+
+        // Conductor: intent
+        table.word(Feature.INTENT_CALCULATION, "add", "calculate", "compute", "sum", "total");
+        table.word(Feature.INTENT_DEBUG, "bug", "error", "fix", "crash", "fail");
+        table.word(Feature.INTENT_REFACTOR, "refactor", "improve", "optimize", "clean");
+        table.word(Feature.INTENT_IMPLEMENTATION, "implement", "create", "build", "write", "code");
+        table.word(Feature.INTENT_EXPLANATION, "explain", "understand", "how", "why", "what");
+        table.word(Feature.INTENT_TESTING, "test", "unit", "integration");
+        table.substring(Feature.CONFIDENT_ADD, "add");
+        table.substring(Feature.CONFIDENT_BUG, "bug");
+        table.substring(Feature.CONFIDENT_REFACTOR, "refactor");
+
+        // Conductor: tool hints
+        table.substring(Feature.ANALYSIS_QUERY, "analyze", "analyse", "check", "review", "inspect", "audit",
+            "project", "code", "repository", "codebase", "bug", "error", ".java", "spring");
+        table.word(Feature.CALCULATION_GATE, "add", "calculate", "sum", "total", "plus", "+", "how much", "what is");
+        table.word(Feature.TOOL_ADD, "add", "calculate", "sum", "total", "plus", "+", "how much");
+        table.word(Feature.TOOL_SUBTRACT, "subtract", "minus", "-");
+        table.word(Feature.TOOL_MULTIPLY, "multiply", "times", "*");
+        table.word(Feature.TOOL_DIVIDE, "divide", "divided", "/");
+        table.word(Feature.TOOL_DATE_TIME, "date", "today", "time", "current", "now", "when", "what time",
+            "what's the date", "tody");
+        table.word(Feature.TOOL_WEATHER, "weather", "temperature", "rain", "sunny", "forecast", "what's the weather",
+            "celsius", "fahrenheit");
+        table.word(Feature.TOOL_EMAIL, "email", "send", "mail", "message", "write an email");
+        table.substring(Feature.TOOL_SEARCH, "search", "find", "look up", "latest", "version of");
+        table.substring(Feature.TOOL_CALENDAR, "event", "meeting", "schedule", "calendar", "appointment");
+
+        // Conductor: fast path
+        table.substring(Feature.COMPLEX_KEYWORD, "why", "how", "explain", "architecture", "design", "refactor",
+            "optimize", "spring", "version", "latest", "documentation", "tutorial", "guide", "research", "find",
+            "search", "what is", "tell me about", "weather", "forecast", "temperature", "city", "location");
+        table.substring(Feature.FAST_ARITHMETIC, "+", "-", "*", "/");
+        table.substring(Feature.FAST_TIME_QUESTION, "what time", "what date");
+        table.substring(Feature.FAST_DATE_TIME, "date", "time", "today");
+        table.substring(Feature.FAST_ADD, "add", "plus", "+");
+        table.substring(Feature.FAST_MULTIPLY, "multiply", "times", "*");
+
+        // Response cache: references to earlier turns make an answer conversation-dependent
+        table.word(Feature.CONTEXT_REFERENCE, "it", "this", "that", "these", "those", "he", "she", "they", "them",
+            "previous", "earlier", "above", "again", "before", "last", "my", "mine", "you said", "i said", "as well");
+
+        // QueryPlanner: intent / complexity
+        table.substring(Feature.PLAN_DEBUG, "error", "bug", "issue", "problem");
+        table.substring(Feature.PLAN_CONFIG, "config", "setup", "configure");
+        table.substring(Feature.PLAN_ARCHITECTURE, "architecture", "structure", "design");
+        table.substring(Feature.PLAN_IMPLEMENTATION, "implement", "code", "method");
+        table.substring(Feature.PLAN_CODE, "chatservice", "aiproviderconfig", "advisor", "service", "config",
+            "class", "method", "how does", "show me", "explain", "architecture", "implementation", "dependency",
+            "brain", "code", "function", "java", "spring", "component", "controller", "repository");
+        table.substring(Feature.PLAN_TOOLS, "weather", "temperature", "calendar", "meeting", "schedule", "search",
+            "email", "time", "date", "forecast", "event", "appointment", "google", "find", "version",
+            "latest", "current", "today", "now", "when", "what time");
+        table.substring(Feature.PLAN_CONJUNCTION, " and ", " also ");
+
+        // QueryPlanner: starting-file hints
+        table.substring(Feature.FILE_CHAT, "chat");
+        table.substring(Feature.FILE_PROVIDER_CONFIG, "config", "provider");
+        table.substring(Feature.FILE_ADVISOR, "advisor", "brain");
+
+        // QueryPlanner: entity regexes only run when their suffix/prefix occurs at all
+        table.substring(Feature.CLASS_SUFFIX, "service", "controller", "config", "manager", "advisor", "builder");
+        table.substring(Feature.METHOD_PREFIX, "get", "set", "process", "handle", "create", "build", "configure", "manage");
+
+        for (int i = 0; i < TECH_KEYWORDS.length; i++) {
+            table.entity(TECH_KEYWORDS[i], i);
+        }
+
+        AUTOMATON = table.buildAutomaton();
+        WORD_MASKS = table.wordMasks();
+        SUBSTRING_MASKS = table.substringMasks();
+        ENTITY_BITS = table.entityBits();
+    }
+
+    private QueryFeatureExtractor() {
+    }
+
+    /**
+     * Classify a query in a single pass
+     */
+    public static QueryFeatures extract(String query) {
+        String text = query != null ? query : "";
+
+        Scan scan = new Scan(text);
+        AUTOMATON.scan(text, scan);
+        long mask = scan.mask;
+
+        Tokens tokens = tokenize(text);
+
+        return new QueryFeatures(text, mask, scan.entityBits, tokens);
+    }
+
+    /**
+     * Tools the Conductor would approve from keywords alone; null when it defers to ToolFinder
+     */
+    public static List<String> predictApprovedTools(QueryFeatures features) {
+        if (features.simpleQuery) {
+            return features.fastPathTools;
+        }
+        return features.analysisQuery ? null : features.toolHints;
+    }
+
+    /**
+     * Number of distinct keywords in the shared automaton
+     */
+    public static int getKeywordCount() {
+        return AUTOMATON.getKeywordCount();
+    }
+
+    /**
+     * Word count (as split("\\s+")), question count (as split("\\?") - 1) and search keywords
+     */
+    private static Tokens tokenize(String text) {
+        int n = text.length();
+        int words = 0;
+        boolean inWord = false;
+        int lastNonQuestion = -1;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+            if (c != '?') {
+                lastNonQuestion = i;
+            }
+        }
+        if (words == 0 || (n > 0 && Character.isWhitespace(text.charAt(0)))) {
+            words++;
+        }
+
+        int questions = 0;
+        for (int i = 0; i < lastNonQuestion; i++) {
+            if (text.charAt(i) == '?') {
+                questions++;
+            }
+        }
+
+        Set<String> keywords = new LinkedHashSet<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= n && keywords.size() < 6; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (current.length() > 2 && !STOP_WORDS.contains(current.toString())) {
+                    keywords.add(current.toString());
+                }
+                current.setLength(0);
+            } else {
+                char lower = Character.toLowerCase(c);
+                if ((lower >= 'a' && lower <= 'z') || (lower >= '0' && lower <= '9')) {
+                    current.append(lower);
+                }
+            }
+        }
+
+        return new Tokens(words, questions, new ArrayList<>(keywords));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Regex \b semantics: word/non-word transition at index
+     */
+    private static boolean isBoundary(CharSequence text, int index) {
+        boolean before = index > 0 && isWordChar(text.charAt(index - 1));
+        boolean after = index < text.length() && isWordChar(text.charAt(index));
+        return before != after;
+    }
+
+    // ============ Inner Classes ============
+
+    private enum Feature {
+        COMPLEXITY_TERM, AMBIGUITY_VAGUE, AMBIGUITY_HEDGE, AMBIGUITY_PRONOUN,
+        FOCUS_DEBUG, FOCUS_REFACTOR, FOCUS_TESTING, FOCUS_ARCHITECTURE, FOCUS_PERFORMANCE,
+        FOCUS_SECURITY, FOCUS_IMPLEMENTATION, IGNORE_CONSTRAINTS,
+        INTENT_CALCULATION, INTENT_DEBUG, INTENT_REFACTOR, INTENT_IMPLEMENTATION, INTENT_EXPLANATION,
+        INTENT_TESTING, CONFIDENT_ADD, CONFIDENT_BUG, CONFIDENT_REFACTOR,
+        ANALYSIS_QUERY, CALCULATION_GATE, TOOL_ADD, TOOL_SUBTRACT, TOOL_MULTIPLY, TOOL_DIVIDE,
+        TOOL_DATE_TIME, TOOL_WEATHER, TOOL_EMAIL, TOOL_SEARCH, TOOL_CALENDAR,
+        COMPLEX_KEYWORD, FAST_ARITHMETIC, FAST_TIME_QUESTION, FAST_DATE_TIME, FAST_ADD, FAST_MULTIPLY,
+        PLAN_DEBUG, PLAN_CONFIG, PLAN_ARCHITECTURE, PLAN_IMPLEMENTATION, PLAN_CODE, PLAN_TOOLS,
+        PLAN_CONJUNCTION, FILE_CHAT, FILE_PROVIDER_CONFIG, FILE_ADVISOR, CLASS_SUFFIX, METHOD_PREFIX,
+        CONTEXT_REFERENCE;
+
+        long bit() {
+            return 1L << ordinal();
+        }
+    }
+
+    /**
+     * Collects keyword -> feature bits while the static tables are built
+     */
+    private static final class KeywordTable {
+        private final Map<String, long[]> masks = new LinkedHashMap<>();   // [word, substring, entity]
+
+        void word(Feature feature, String... keywords) {
+            for (String keyword : keywords) {
+                slot(keyword)[0] |= feature.bit();
+            }
+        }
+
+        void substring(Feature feature, String... keywords) {
+            for (String keyword : keywords) {
+                slot(keyword)[1] |= feature.bit();
+            }
+        }
+
+        void entity(String keyword, int index) {
+            slot(keyword)[2] |= 1L << index;
+        }
+
+        private long[] slot(String keyword) {
+            return masks.computeIfAbsent(keyword, k -> new long[3]);
+        }
+
+        KeywordAutomaton buildAutomaton() {
+            KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+            masks.keySet().forEach(builder::add);
+            return builder.build();
+        }
+
+        long[] wordMasks() {
+            return masks.values().stream().mapToLong(m -> m[0]).toArray();
+        }
+
+        long[] substringMasks() {
+            return masks.values().stream().mapToLong(m -> m[1]).toArray();
+        }
+
+        int[] entityBits() {
+            return masks.values().stream().mapToInt(m -> (int) m[2]).toArray();
+        }
+    }
+
+    /**
+     * Accumulates feature bits for one scan
+     */
+    private static final class Scan implements KeywordAutomaton.MatchListener {
+        private final CharSequence text;
+        private long mask;
+        private int entityBits;
+
+        Scan(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public void onMatch(int keywordId, int start, int end) {
+            mask |= SUBSTRING_MASKS[keywordId];
+            entityBits |= ENTITY_BITS[keywordId];
+            long word = WORD_MASKS[keywordId];
+            if (word != 0 && (mask & word) != word && isBoundary(text, start) && isBoundary(text, end)) {
+                mask |= word;
+            }
+        }
+    }
+
+    private record Tokens(int wordCount, int questionCount, List<String> searchKeywords) {
+    }
+
+    /**
+     * Everything both planners need to know about a query
+     */
+    public static final class QueryFeatures {
+
+        public final String query;
+        public final int wordCount;
+        public final int questionCount;
+
+        // Conductor view
+        public final String intent;
+        public final double intentConfidence;
+        public final int complexity;
+        public final int ambiguity;
+        public final String focusArea;
+        public final String ignoreArea;
+        public final boolean analysisQuery;
+        public final List<String> toolHints;
+        public final boolean simpleQuery;
+        public final List<String> fastPathTools;
+        public final boolean contextDependent;
+
+        // QueryPlanner view
+        public final String searchIntent;
+        public final double searchConfidence;
+        public final String searchComplexity;
+        public final List<String> entities;
+        public final List<String> searchKeywords;
+        public final String searchStrategy;
+        public final List<String> startingFileHints;
+
+        private QueryFeatures(String query, long mask, int entityBits, Tokens tokens) {
+            this.query = query;
+            this.wordCount = tokens.wordCount();
+            this.questionCount = tokens.questionCount();
+
+            this.intent = intent(mask);
+            this.intentConfidence = intentConfidence(intent, mask);
+            this.complexity = complexity(query.length(), wordCount, questionCount, mask);
+            this.ambiguity = ambiguity(query.length(), mask);
+            this.focusArea = focusArea(mask);
+            this.ignoreArea = has(mask, Feature.IGNORE_CONSTRAINTS) ? "CONSTRAINTS" : "NONE";
+            this.analysisQuery = has(mask, Feature.ANALYSIS_QUERY);
+            this.toolHints = Collections.unmodifiableList(toolHints(intent, mask));
+            this.simpleQuery = simpleQuery(query.length(), questionCount, mask);
+            this.fastPathTools = Collections.unmodifiableList(fastPathTools(mask));
+            this.contextDependent = has(mask, Feature.CONTEXT_REFERENCE);
+
+            this.searchIntent = searchIntent(mask);
+            this.searchConfidence = searchConfidence(searchIntent);
+            this.searchComplexity = searchComplexity(wordCount, mask);
+            this.entities = Collections.unmodifiableList(entities(query, mask, entityBits));
+            this.searchKeywords = Collections.unmodifiableList(tokens.searchKeywords());
+            this.searchStrategy = searchStrategy(searchIntent, entities);
+            this.startingFileHints = Collections.unmodifiableList(startingFileHints(mask));
+        }
+
+        private static boolean has(long mask, Feature feature) {
+            return (mask & feature.bit()) != 0;
+        }
+
+        private static String intent(long mask) {
+            if (has(mask, Feature.INTENT_CALCULATION)) return "CALCULATION";
+            if (has(mask, Feature.INTENT_DEBUG)) return "DEBUG";
+            if (has(mask, Feature.INTENT_REFACTOR)) return "REFACTOR";
+            if (has(mask, Feature.INTENT_IMPLEMENTATION)) return "IMPLEMENTATION";
+            if (has(mask, Feature.INTENT_EXPLANATION)) return "EXPLANATION";
+            if (has(mask, Feature.INTENT_TESTING)) return "TESTING";
+            return "GENERAL";
+        }
+
+        private static double intentConfidence(String intent, long mask) {
+            if (intent.equals("CALCULATION") && has(mask, Feature.CONFIDENT_ADD)) return 0.95;
+            if (intent.equals("DEBUG") && has(mask, Feature.CONFIDENT_BUG)) return 0.95;
+            if (intent.equals("REFACTOR") && has(mask, Feature.CONFIDENT_REFACTOR)) return 0.95;
+            return 0.7;
+        }
+
+        private static int complexity(int length, int wordCount, int questionCount, long mask) {
+            int score = 1;
+            if (length > 100) score += 2;
+            if (length > 200) score += 2;
+            score += Math.min(wordCount / 5, 3);
+            if (has(mask, Feature.COMPLEXITY_TERM)) score += 2;
+            score += questionCount;
+            return Math.min(score, 10);
+        }
+
+        private static int ambiguity(int length, long mask) {
+            int score = 0;
+            if (has(mask, Feature.AMBIGUITY_VAGUE)) score += 2;
+            if (has(mask, Feature.AMBIGUITY_HEDGE)) score += 1;
+            if (length < 20) score += 2;
+            if (has(mask, Feature.AMBIGUITY_PRONOUN)) score += 1;
+            return Math.min(score, 10);
+        }
+
+        private static String focusArea(long mask) {
+            if (has(mask, Feature.FOCUS_DEBUG)) return "DEBUG";
+            if (has(mask, Feature.FOCUS_REFACTOR)) return "REFACTOR";
+            if (has(mask, Feature.FOCUS_TESTING)) return "TESTING";
+            if (has(mask, Feature.FOCUS_ARCHITECTURE)) return "ARCHITECTURE";
+            if (has(mask, Feature.FOCUS_PERFORMANCE)) return "PERFORMANCE";
+            if (has(mask, Feature.FOCUS_SECURITY)) return "SECURITY";
+            if (has(mask, Feature.FOCUS_IMPLEMENTATION)) return "IMPLEMENTATION";
+            return "GENERAL";
+        }
+
+        private static List<String> toolHints(String intent, long mask) {
+            List<String> tools = new ArrayList<>();
+            if (intent.equals("CALCULATION") || has(mask, Feature.CALCULATION_GATE)) {
+                if (has(mask, Feature.TOOL_ADD)) tools.add("add");
+                if (has(mask, Feature.TOOL_SUBTRACT)) tools.add("subtract");
+                if (has(mask, Feature.TOOL_MULTIPLY)) tools.add("multiply");
+                if (has(mask, Feature.TOOL_DIVIDE)) tools.add("divide");
+            }
+            if (has(mask, Feature.TOOL_DATE_TIME)) tools.add("getCurrentDateTime");
+            if (has(mask, Feature.TOOL_WEATHER)) tools.add("getWeather");
+            if (has(mask, Feature.TOOL_EMAIL)) tools.add("sendEmail");
+            if (has(mask, Feature.TOOL_SEARCH)) tools.add("search");
+            if (has(mask, Feature.TOOL_CALENDAR)) tools.add("calendar");
+            return tools;
+        }
+
+        private static boolean simpleQuery(int length, int questionCount, long mask) {
+            if (length == 0 || has(mask, Feature.COMPLEX_KEYWORD)) return false;
+            if (length > 40 || questionCount > 1) return false;
+            return has(mask, Feature.FAST_ARITHMETIC) || has(mask, Feature.FAST_TIME_QUESTION);
+        }
+
+        private static List<String> fastPathTools(long mask) {
+            List<String> tools = new ArrayList<>();
+            if (has(mask, Feature.FAST_DATE_TIME)) {
+                tools.add("getCurrentDateTime");
+            } else if (has(mask, Feature.FAST_ADD)) {
+                tools.add("add");
+            } else if (has(mask, Feature.FAST_MULTIPLY)) {
+                tools.add("multiply");
+            }
+            return tools;
+        }
+
+        private static String searchIntent(long mask) {
+            if (has(mask, Feature.PLAN_DEBUG)) return "DEBUG";
+            if (has(mask, Feature.PLAN_CONFIG)) return "CONFIG";
+            if (has(mask, Feature.PLAN_ARCHITECTURE)) return "ARCHITECTURE";
+            if (has(mask, Feature.PLAN_IMPLEMENTATION)) return "IMPLEMENTATION";
+            if (has(mask, Feature.PLAN_CODE)) return "CODE";
+            if (has(mask, Feature.PLAN_TOOLS)) return "TOOLS";
+            return "GENERAL";
+        }
+
+        private static double searchConfidence(String searchIntent) {
+            return switch (searchIntent) {
+                case "DEBUG", "ARCHITECTURE" -> 0.9;
+                case "CONFIG" -> 0.85;
+                case "IMPLEMENTATION", "TOOLS" -> 0.8;
+                case "CODE" -> 0.75;
+                default -> 0.6;
+            };
+        }
+
+        private static String searchComplexity(int wordCount, long mask) {
+            if (wordCount > 20 || has(mask, Feature.PLAN_CONJUNCTION)) return "HIGH";
+            if (wordCount > 8 || has(mask, Feature.PLAN_ARCHITECTURE)) return "MEDIUM";
+            return "LOW";
+        }
+
+        private static List<String> entities(String query, long mask, int entityBits) {
+            Set<String> entities = new LinkedHashSet<>();
+            if (has(mask, Feature.CLASS_SUFFIX)) {
+                Matcher classMatcher = CLASS_PATTERN.matcher(query);
+                while (classMatcher.find()) {
+                    entities.add(classMatcher.group());
+                }
+            }
+            if (has(mask, Feature.METHOD_PREFIX)) {
+                Matcher methodMatcher = METHOD_PATTERN.matcher(query);
+                while (methodMatcher.find()) {
+                    entities.add(methodMatcher.group());
+                }
+            }
+            for (int i = 0; i < TECH_KEYWORDS.length && entityBits != 0; i++) {
+                if ((entityBits & (1 << i)) != 0) {
+                    entities.add(TECH_KEYWORDS[i]);
+                }
+            }
+            return entities.stream().limit(8).toList();
+        }
+
+        private static String searchStrategy(String searchIntent, List<String> entities) {
+            return switch (searchIntent) {
+                case "DEBUG" -> "error_trace";
+                case "ARCHITECTURE" -> "dependency_graph";
+                case "IMPLEMENTATION" -> "method_focused";
+                case "CONFIG" -> "configuration_chain";
+                default -> entities.isEmpty() ? "similarity_search" : "entity_centered";
+            };
+        }
+
+        private static List<String> startingFileHints(long mask) {
+            List<String> files = new ArrayList<>();
+            if (has(mask, Feature.FILE_CHAT)) files.add("ChatService.java");
+            if (has(mask, Feature.FILE_PROVIDER_CONFIG)) files.add("AIProviderConfig.java");
+            if (has(mask, Feature.FILE_ADVISOR)) files.add("QueryPlannerAdvisor.java");
+            return files;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.vijay.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔎 ResponseScanner - Single-Pass Response Feature Extraction
+ *
+ * Shared by HallucinationDetector and ConsistencyCheckService. Both used to lowercase the
+ * same response several times and run one String.contains per rule phrase, known fact and
+ * suspicious pattern (plus indexOf loops for brace counting), so judging a 30 KB answer
+ * meant dozens of full passes over it.
+ *
+ * Now every rule phrase of both services lives in ONE precompiled Aho-Corasick automaton:
+ * - One streaming scan records count and first position of every phrase, case folded per
+ *   character (the response is never lowercased as a whole)
+ * - The same pass counts braces/parentheses/brackets, splits sentences for the
+ *   incomplete-statement checks and extracts "class Name" declarations
+ * - Code heuristics that were case-sensitive ("public", "class", ...) stay case-sensitive
+ *
+ * The result is a Features vector both services consume. Phrases that were not compiled in
+ * (non-ASCII or added after the scan) still work: they fall back to a lazily lowercased copy.
+ *
+ * Instances are immutable and thread-safe; HallucinationDetector builds one that also holds
+ * its known facts and suspicious patterns, DEFAULT holds only the fixed rule phrases.
+ */
+public final class ResponseScanner {
+
+    /** Phrases tested by the consistency and hallucination rules (case-insensitive substrings) */
+    private static final String[] RULE_PHRASES = {
+        // ConsistencyCheckService: contradictions
+        "yes", "no", "always", "never", "must", "optional",
+        // ConsistencyCheckService: logical flow
+        "however", "therefore", "thus", "moreover", "furthermore", "meanwhile", "subsequently",
+        // HallucinationDetector: false claims
+        "can read minds", "predict the future", "the only way", "one way", "all ",
+        // HallucinationDetector: logical inconsistencies
+        "is required", "is optional", "must be", "must not be", "before", "after",
+        // HallucinationDetector: missing evidence
+        "studies show", "study", "research proves", "research", "experts agree", "expert"
+    };
+
+    /** Code markers the services check with exact case */
+    private static final String[] EXACT_PHRASES = {"```", "public", "class", "function", "def"};
+
+    // Fixed slots: sentence terminators first, then structure characters
+    private static final String[] SENTENCE_ENDS = {".", "!", "?"};
+    private static final String[] STRUCTURE = {"{", "}", "(", ")", "[", "]"};
+    private static final int OPEN_BRACE = 3;
+    private static final int OPEN_PAREN = 5;
+    private static final int OPEN_BRACKET = 7;
+    private static final int CLASS_EXACT = 2;
+
+    private static final String[] INCOMPLETE_LEADS = {"For example", "Such as"};
+
+    public static final ResponseScanner DEFAULT = create(List.of());
+
+    private final KeywordAutomaton automaton;
+    private final Map<String, Integer> phraseIds;   // folded phrase -> slot
+    private final int[] keywordSlots;               // automaton keyword -> slot, or -(exact index)-1
+
+    private ResponseScanner(KeywordAutomaton automaton, Map<String, Integer> phraseIds, int[] keywordSlots) {
+        this.automaton = automaton;
+        this.phraseIds = phraseIds;
+        this.keywordSlots = keywordSlots;
+    }
+
+    /**
+     * Compile the fixed rule phrases plus caller-specific ones (facts, patterns) into one scanner
+     */
+    public static ResponseScanner create(Collection<String> extraPhrases) {
+        Map<String, Integer> phraseIds = new LinkedHashMap<>();
+        for (String phrase : SENTENCE_ENDS) {
+            phraseIds.put(phrase, phraseIds.size());
+        }
+        for (String phrase : STRUCTURE) {
+            phraseIds.put(phrase, phraseIds.size());
+        }
+        for (String phrase : RULE_PHRASES) {
+            phraseIds.putIfAbsent(phrase, phraseIds.size());
+        }
+        for (String phrase : extraPhrases) {
+            if (phrase != null && !phrase.isEmpty() && isAscii(phrase)) {
+                phraseIds.putIfAbsent(phrase.toLowerCase(), phraseIds.size());
+            }
+        }
+
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        List<Integer> slots = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : phraseIds.entrySet()) {
+            builder.add(entry.getKey());
+            slots.add(entry.getValue());
+        }
+        for (int i = 0; i < EXACT_PHRASES.length; i++) {
+            builder.add(EXACT_PHRASES[i]);
+            slots.add(-i - 1);
+        }
+
+        return new ResponseScanner(builder.build(), Collections.unmodifiableMap(phraseIds),
+            slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Extract the feature vector of a response in one pass
+     */
+    public Features scan(String response) {
+        String text = response != null ? response : "";
+        Scan scan = new Scan(text, phraseIds.size());
+        automaton.scan(text, scan);
+        scan.endSentence(text.length());
+        return new Features(this, text, scan);
+    }
+
+    /**
+     * Number of distinct phrases compiled into the automaton
+     */
+    public int getPhraseCount() {
+        return phraseIds.size() + EXACT_PHRASES.length;
+    }
+
+    private static boolean isAscii(String phrase) {
+        for (int i = 0; i < phrase.length(); i++) {
+            if (phrase.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Regex \w (ASCII, as in the original CLASS_PATTERN)
+     */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Regex \s (ASCII)
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Accumulates counts, positions, sentences and declarations for one scan
+     */
+    private final class Scan implements KeywordAutomaton.MatchListener {
+        private final String text;
+        private final int[] counts;
+        private final int[] firstIndex;
+        private final int[] exactCounts = new int[EXACT_PHRASES.length];
+        private final List<String> incompleteStatements = new ArrayList<>();
+        private final List<String> classDeclarations = new ArrayList<>();
+        private int danglingReferences;
+        private int sentenceStart;
+        private int declarationEnd;
+
+        Scan(String text, int slots) {
+            this.text = text;
+            this.counts = new int[slots];
+            this.firstIndex = new int[slots];
+            Arrays.fill(firstIndex, -1);
+        }
+
+        @Override
+        public void onMatch(int keywordId, int start, int end) {
+            int slot = keywordSlots[keywordId];
+            if (slot >= 0) {
+                if (counts[slot]++ == 0) {
+                    firstIndex[slot] = start;
+                }
+                if (slot < SENTENCE_ENDS.length) {
+                    endSentence(start);
+                }
+                return;
+            }
+            int exact = -slot - 1;
+            if (text.startsWith(EXACT_PHRASES[exact], start)) {
+                exactCounts[exact]++;
+                if (exact == CLASS_EXACT) {
+                    classDeclaration(start, end);
+                }
+            }
+        }
+
+        /**
+         * One split("[.!?]") segment: incomplete "For example ...," leads and short dangling "this"/"that"
+         */
+        void endSentence(int end) {
+            int from = sentenceStart;
+            int to = end;
+            sentenceStart = end + 1;
+            while (from < to && text.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && text.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (from == to) {
+                return;
+            }
+            char last = text.charAt(to - 1);
+            if (last == ',' || last == ':') {
+                for (String lead : INCOMPLETE_LEADS) {
+                    if (text.startsWith(lead, from)) {
+                        incompleteStatements.add(text.substring(from, Math.min(from + 50, to)));
+                        break;
+                    }
+                }
+            }
+            if (to - from < 20) {
+                String sentence = text.substring(from, to);
+                if (sentence.contains("this") || sentence.contains("that")) {
+                    danglingReferences++;
+                }
+            }
+        }
+
+        /**
+         * \bclass\s+\w+ with non-overlapping matches, like Matcher.find()
+         */
+        private void classDeclaration(int start, int end) {
+            if (start < declarationEnd || (start > 0 && isWordChar(text.charAt(start - 1)))) {
+                return;
+            }
+            int i = end;
+            while (i < text.length() && isSpace(text.charAt(i))) {
+                i++;
+            }
+            if (i == end) {
+                return;
+            }
+            int nameStart = i;
+            while (i < text.length() && isWordChar(text.charAt(i))) {
+                i++;
+            }
+            if (i > nameStart) {
+                classDeclarations.add(text.substring(start, i));
+                declarationEnd = i;
+            }
+        }
+    }
+
+    /**
+     * Everything the consistency and hallucination rules need to know about a response
+     */
+    public static final class Features {
+        public final String text;
+        public final int length;
+
+        public final int openBraces;
+        public final int closeBraces;
+        public final int openParens;
+        public final int closeParens;
+        public final int openBrackets;
+        public final int closeBrackets;
+
+        /** Sentences starting "For example"/"Such as" and ending in ',' or ':' (first 50 chars) */
+        public final List<String> incompleteStatements;
+        /** Sentences shorter than 20 chars that mention "this" or "that" */
+        public final int danglingReferences;
+        /** "class Name" declarations in order of appearance */
+        public final List<String> classDeclarations;
+
+        private final ResponseScanner scanner;
+        private final int[] counts;
+        private final int[] firstIndex;
+        private final int[] exactCounts;
+        private String lower;
+        private int lazyLookups;
+
+        private Features(ResponseScanner scanner, String text, Scan scan) {
+            this.scanner = scanner;
+            this.text = text;
+            this.length = text.length();
+            this.counts = scan.counts;
+            this.firstIndex = scan.firstIndex;
+            this.exactCounts = scan.exactCounts;
+            this.openBraces = counts[OPEN_BRACE];
+            this.closeBraces = counts[OPEN_BRACE + 1];
+            this.openParens = counts[OPEN_PAREN];
+            this.closeParens = counts[OPEN_PAREN + 1];
+            this.openBrackets = counts[OPEN_BRACKET];
+            this.closeBrackets = counts[OPEN_BRACKET + 1];
+            this.incompleteStatements = List.copyOf(scan.incompleteStatements);
+            this.danglingReferences = scan.danglingReferences;
+            this.classDeclarations = List.copyOf(scan.classDeclarations);
+        }
+
+        /**
+         * Case-insensitive substring test (response.toLowerCase().contains(phrase))
+         */
+        public boolean contains(String phrase) {
+            return indexOf(phrase) >= 0;
+        }
+
+        /**
+         * Case-insensitive first position of a phrase, -1 when absent
+         */
+        public int indexOf(String phrase) {
+            Integer slot = scanner.phraseIds.get(phrase);
+            if (slot != null) {
+                return firstIndex[slot];
+            }
+            lazyLookups++;
+            return lower().indexOf(phrase.toLowerCase());
+        }
+
+        /**
+         * Case-insensitive occurrence count (overlapping) of a compiled phrase
+         */
+        public int count(String phrase) {
+            Integer slot = scanner.phraseIds.get(phrase);
+            return slot != null ? counts[slot] : 0;
+        }
+
+        /**
+         * Case-sensitive substring test for the code markers (```, public, class, function, def)
+         */
+        public boolean containsExact(String marker) {
+            for (int i = 0; i < EXACT_PHRASES.length; i++) {
+                if (EXACT_PHRASES[i].equals(marker)) {
+                    return exactCounts[i] > 0;
+                }
+            }
+            lazyLookups++;
+            return text.contains(marker);
+        }
+
+        /**
+         * Lookups that missed the automaton and had to search the text again (0 on the hot path)
+         */
+        public int getLazyLookups() {
+            return lazyLookups;
+        }
+
+        private String lower() {
+            if (lower == null) {
+                lower = text.toLowerCase();
+            }
+            return lower;
+        }
+    }
+}
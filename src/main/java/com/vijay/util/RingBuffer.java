@@ -0,0 +1,87 @@
+package com.vijay.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 🔁 RingBuffer - Fixed-Capacity Lock-Free Buffer of Recent Entries
+ *
+ * Keeps the last N entries written by any number of threads:
+ * - add() claims a sequence number with one atomic increment and stores into its slot,
+ *   overwriting the entry written capacity sequences earlier
+ * - No locks and no allocation per add; memory is fixed at construction
+ * - recent() reads the newest slots without blocking writers; under concurrent writes a
+ *   read may miss an entry whose slot was claimed but not stored yet
+ *
+ * Usage:
+ * - RingBuffer<Entry> recent = new RingBuffer<>(4096);
+ * - recent.add(entry);
+ * - List<Entry> last100 = recent.recent(100);
+ */
+public final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile long clearedAt;
+
+    /**
+     * @param capacity number of retained entries, rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        int rounded = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(rounded);
+        this.mask = rounded - 1;
+    }
+
+    public void add(T entry) {
+        long sequence = cursor.getAndIncrement();
+        slots.set((int) (sequence & mask), entry);
+    }
+
+    /**
+     * Up to count of the newest entries, oldest first
+     */
+    public List<T> recent(int count) {
+        long end = cursor.get();
+        long start = Math.max(Math.max(clearedAt, end - slots.length()), end - Math.max(0, count));
+        List<T> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            T entry = slots.get((int) (sequence & mask));
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Number of entries currently retained
+     */
+    public int size() {
+        return (int) Math.min(slots.length(), cursor.get() - clearedAt);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Entries added since construction or the last clear, including overwritten ones
+     */
+    public long getTotalAdded() {
+        return cursor.get() - clearedAt;
+    }
+
+    /**
+     * Drop all retained entries
+     */
+    public void clear() {
+        clearedAt = cursor.get();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
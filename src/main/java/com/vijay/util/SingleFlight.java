@@ -0,0 +1,168 @@
+package com.vijay.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🛫 SingleFlight - Coalesce Identical Concurrent Calls
+ *
+ * The first caller for a key executes the work on its own thread; callers that
+ * arrive with the same key while it is in flight attach to the same future and
+ * receive the same value (or the same exception). Nothing is cached: once the
+ * call completes, the next caller for that key executes again.
+ *
+ * - Leader runs inline, so its thread-local / request context is untouched
+ * - Followers block until the leader finishes (virtual threads make this cheap); with a
+ *   max wait, a follower that waits longer runs the call itself
+ * - RuntimeExceptions are rethrown as-is to leader and followers
+ *
+ * Usage:
+ * - private final SingleFlight<String, String> flight = new SingleFlight<>();
+ * - String result = flight.execute(key, () -> expensiveCall()).value;
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+
+    /**
+     * Execute the call for this key, or join the identical call already in flight
+     */
+    public Result<V> execute(K key, Callable<V> call) {
+        return execute(key, call, 0);
+    }
+
+    /**
+     * Like execute(key, call), but a follower waits at most maxWaitMs for the leader and
+     * then runs the call on its own (maxWaitMs <= 0 waits indefinitely)
+     */
+    public Result<V> execute(K key, Callable<V> call, long maxWaitMs) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            if (maxWaitMs <= 0) {
+                return new Result<>(await(existing), true);
+            }
+            try {
+                return new Result<>(await(existing, maxWaitMs), true);
+            } catch (TimeoutException e) {
+                waitTimeouts.incrementAndGet();
+                executions.incrementAndGet();
+                return new Result<>(callDirect(call), false);
+            }
+        }
+
+        executions.incrementAndGet();
+        try {
+            V value = call.call();
+            own.complete(value);
+            return new Result<>(value, false);
+        } catch (Throwable t) {
+            own.completeExceptionally(t);
+            throw propagate(t);
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Calls currently being executed
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public FlightStats getStats() {
+        return new FlightStats(executions.get(), coalesced.get(), waitTimeouts.get(), inFlight.size());
+    }
+
+    private static <V> V callDirect(Callable<V> call) {
+        try {
+            return call.call();
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future, long maxWaitMs) throws TimeoutException {
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced call", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced call", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(t.getMessage(), t);
+    }
+
+    // ============ Inner Classes ============
+
+    /**
+     * Value of the call plus whether this caller shared another caller's execution
+     */
+    public static final class Result<V> {
+        public final V value;
+        public final boolean shared;
+
+        public Result(V value, boolean shared) {
+            this.value = value;
+            this.shared = shared;
+        }
+    }
+
+    /**
+     * Coalescing statistics
+     */
+    public static class FlightStats {
+        public final long executions;
+        public final long coalesced;
+        // Followers that gave up waiting for the leader and ran the call themselves
+        public final long waitTimeouts;
+        public final int inFlight;
+
+        public FlightStats(long executions, long coalesced, long waitTimeouts, int inFlight) {
+            this.executions = executions;
+            this.coalesced = coalesced;
+            this.waitTimeouts = waitTimeouts;
+            this.inFlight = inFlight;
+        }
+
+        public double getCoalescedRate() {
+            long total = executions + coalesced;
+            return total > 0 ? (double) coalesced / total * 100 : 0;
+        }
+    }
+}
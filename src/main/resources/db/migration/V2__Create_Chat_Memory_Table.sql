@@ -0,0 +1,20 @@
+-- ============================================================================
+-- CHAT MEMORY PERSISTENCE
+-- ============================================================================
+
+-- ============================================================================
+-- TABLE: chat_memory_message
+-- Description: Conversation history behind ChatMemory (JpaChatMemoryRepository).
+--              Rows are written behind in batches; compacted turns are replaced by
+--              one SUMMARY row at the head of the conversation.
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS chat_memory_message (
+    conversation_id VARCHAR(255) NOT NULL,
+    seq INT NOT NULL,
+    message_type VARCHAR(20) NOT NULL,
+    content LONGTEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (conversation_id, seq),
+    INDEX idx_chat_memory_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,122 @@
+package com.vijay.cache;
+
+import com.vijay.config.DevExConfig;
+import com.vijay.state.InMemoryStateBackend;
+import com.vijay.state.StateBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiRegionCacheTest {
+
+    @Test
+    @DisplayName("Regions get their TTL and entry cap from config and a share of the byte budget by weight")
+    void testRegionsFromConfig() {
+        MultiRegionCache cache = new MultiRegionCache(config(100_000), null);
+
+        CacheRegion light = cache.region("light");
+        CacheRegion heavy = cache.region("heavy");
+        assertThat(light.getMaxBytes()).isEqualTo(25_000);
+        assertThat(heavy.getMaxBytes()).isEqualTo(75_000);
+        assertThat(light.getMaxEntries()).isEqualTo(1_000);
+        assertThat(heavy.getDefaultTtl()).isEqualTo(Duration.ofMinutes(10));
+        assertThatThrownBy(() -> cache.region("missing")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Large values are evicted by estimated bytes; the cache stays within its budget")
+    void testByteBudget() {
+        MultiRegionCache cache = new MultiRegionCache(config(100_000), null);
+        CacheRegion light = cache.region("light");
+
+        for (int i = 0; i < 200; i++) {
+            light.put("doc" + i, "x".repeat(2_000));
+        }
+        light.cleanUp();
+
+        assertThat(light.getEstimatedBytes()).isLessThanOrEqualTo(light.getMaxBytes());
+        assertThat(light.size()).isLessThan(200);
+        assertThat(light.getEvictions()).isPositive();
+        assertThat(cache.getEstimatedBytes()).isLessThanOrEqualTo(cache.getMaxBytes());
+    }
+
+    @Test
+    @DisplayName("Stats report totals across regions and each region's hits and misses")
+    @SuppressWarnings("unchecked")
+    void testStats() {
+        MultiRegionCache cache = new MultiRegionCache(config(100_000), null);
+        cache.region("light").put("a", "1");
+        cache.region("light").get("a");
+        cache.region("heavy").get("b");
+
+        Map<String, Object> stats = cache.getStats();
+        assertThat(stats).containsEntry("hits", 1L).containsEntry("misses", 1L).containsEntry("entries", 1L);
+        Map<String, Object> regions = (Map<String, Object>) stats.get("regions");
+        assertThat(regions).containsOnlyKeys("light", "heavy");
+        assertThat((Map<String, Object>) regions.get("heavy")).containsEntry("misses", 1L);
+
+        cache.clear();
+        assertThat(cache.region("light").get("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("A disabled cache stores nothing")
+    void testDisabled() {
+        DevExConfig config = config(100_000);
+        config.getCaching().setEnabled(false);
+        MultiRegionCache cache = new MultiRegionCache(config, null);
+
+        cache.region("light").put("a", "1");
+
+        assertThat(cache.region("light").get("a")).isNull();
+        assertThat(cache.region("light").size()).isZero();
+    }
+
+    @Test
+    @DisplayName("The default config has a region for every cache facade")
+    void testDefaultRegions() {
+        MultiRegionCache cache = new MultiRegionCache();
+
+        for (String name : new String[] {MultiRegionCache.ADVISOR_OUTPUTS, MultiRegionCache.MODEL_RESPONSES,
+                MultiRegionCache.TOOL_RESULTS, MultiRegionCache.USER_PREFERENCES, MultiRegionCache.KNOWLEDGE_GRAPH,
+                MultiRegionCache.ANALYSIS, MultiRegionCache.GENERAL}) {
+            assertThat(cache.region(name).getMaxBytes()).isLessThan(cache.getMaxBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("With a shared backend, a replica keeps its own writes and drops copies another replica rewrote")
+    void testSharedInvalidation() {
+        StateBackend backend = new InMemoryStateBackend() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+        MultiRegionCache first = new MultiRegionCache(config(100_000), backend);
+        MultiRegionCache second = new MultiRegionCache(config(100_000), backend);
+
+        first.region("light").put("k", "a");
+        assertThat(first.region("light").size()).isEqualTo(1);
+
+        second.region("light").put("k", "b");
+        assertThat(first.region("light").size()).isZero();
+        assertThat(first.region("light").get("k")).isEqualTo("b");
+    }
+
+    private static DevExConfig config(long maxBytes) {
+        DevExConfig config = new DevExConfig();
+        Map<String, DevExConfig.RegionConfig> regions = new LinkedHashMap<>();
+        regions.put("light", new DevExConfig.RegionConfig(1_000, 1, 60));
+        regions.put("heavy", new DevExConfig.RegionConfig(1_000, 3, 600));
+        config.getCaching().setRegions(regions);
+        config.getCaching().setMaxBytes(maxBytes);
+        return config;
+    }
+}
@@ -0,0 +1,114 @@
+package com.vijay.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmartCacheManagerTest {
+
+    @Test
+    @DisplayName("Keys ignore JSON key order and whitespace but not argument values")
+    void testCanonicalKeys() {
+        SmartCacheManager cache = new SmartCacheManager();
+
+        String key = cache.generateKey("getWeather", "{\"city\": \"Pune\", \"days\": 5}");
+        assertThat(cache.generateKey("getWeather", "{\"days\":5,\"city\":\"Pune\"}")).isEqualTo(key);
+        assertThat(cache.generateKey("getWeather", "{\"city\": \"Pune\", \"days\": 3}")).isNotEqualTo(key);
+        assertThat(cache.generateKey("getStockPrice", "{\"city\": \"Pune\", \"days\": 5}")).isNotEqualTo(key);
+        assertThat(cache.generateKey("getWeather", "not json")).startsWith("getWeather:");
+    }
+
+    @Test
+    @DisplayName("A repeated call is served from the cache and counted as a hit")
+    void testGetOrCompute() {
+        SmartCacheManager cache = new SmartCacheManager();
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = cache.getOrCompute("getWeather", "{\"city\":\"Pune\"}", () -> "sunny #" + calls.incrementAndGet());
+        String second = cache.getOrCompute("getWeather", "{ \"city\" : \"Pune\" }", () -> "sunny #" + calls.incrementAndGet());
+
+        assertThat(second).isEqualTo(first);
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getStats().hits).isEqualTo(1);
+        assertThat(cache.getStats().tokensSaved).isPositive();
+    }
+
+    @Test
+    @DisplayName("Tools without a cacheable strategy run on every call")
+    void testNotCacheable() {
+        SmartCacheManager cache = new SmartCacheManager();
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.registerStrategy("sendEmail", CacheStrategy.NONE);
+
+        cache.getOrCompute("sendEmail", "{}", () -> "sent #" + calls.incrementAndGet());
+        cache.getOrCompute("sendEmail", "{}", () -> "sent #" + calls.incrementAndGet());
+        cache.getOrCompute("unknownTool", "{}", () -> "x #" + calls.incrementAndGet());
+
+        assertThat(calls).hasValue(3);
+        assertThat(cache.getCacheSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent identical calls run the tool once")
+    void testSingleFlight() throws Exception {
+        SmartCacheManager cache = new SmartCacheManager();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.getOrCompute("getProjectList", "{\"team\":\"core\"}", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "projects";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("projects");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getStats().coalesced + cache.getStats().hits).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("A failed call is not cached")
+    void testFailureNotCached() {
+        SmartCacheManager cache = new SmartCacheManager();
+
+        assertThatThrownBy(() -> cache.getOrCompute("getWeather", "{\"city\":\"Pune\"}", () -> {
+            throw new IllegalStateException("weather service down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("weather service down");
+
+        assertThat(cache.getOrCompute("getWeather", "{\"city\":\"Pune\"}", () -> "sunny")).isEqualTo("sunny");
+        assertThat(cache.getCacheSize()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
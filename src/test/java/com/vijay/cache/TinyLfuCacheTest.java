@@ -0,0 +1,198 @@
+package com.vijay.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TinyLfuCacheTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    private AtomicLong ticker;
+
+    @BeforeEach
+    void setUp() {
+        ticker = new AtomicLong(TimeUnit.DAYS.toNanos(3));
+    }
+
+    @Test
+    @DisplayName("Values are returned until removed or replaced")
+    void testPutGetRemove() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, ticker::get);
+
+        cache.put("a", "1", HOUR);
+        cache.put("a", "2", HOUR);
+        assertThat(cache.get("a")).isEqualTo("2");
+        assertThat(cache.remove("a", "1")).isFalse();
+        assertThat(cache.remove("a", "2")).isTrue();
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.remove("a")).isNull();
+    }
+
+    @Test
+    @DisplayName("Size stays at the maximum; evictions are counted")
+    void testBounded() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100, ticker::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i, HOUR);
+        }
+        cache.cleanUp();
+
+        assertThat(cache.estimatedSize()).isEqualTo(100);
+        assertThat(cache.getEvictionCount()).isEqualTo(900);
+    }
+
+    @Test
+    @DisplayName("Frequently read keys survive a scan of one-off keys")
+    void testScanResistance() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, ticker::get);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, "v", HOUR);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot" + i);
+            }
+        }
+        cache.cleanUp();
+
+        // One-off keys stream through while the hot keys stay in use
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan" + i, "v", HOUR);
+            cache.get("hot" + (i % 50));
+        }
+        cache.cleanUp();
+
+        int hotLeft = 0;
+        for (int i = 0; i < 50; i++) {
+            hotLeft += cache.peek("hot" + i) != null ? 1 : 0;
+        }
+        assertThat(hotLeft).isEqualTo(50);
+        assertThat(cache.getRejectionCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Entries expire on read at once and are cleaned up by the timer wheel")
+    void testExpiry() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, ticker::get);
+        cache.put("short", "v", TimeUnit.SECONDS.toNanos(30));
+        cache.put("long", "v", TimeUnit.DAYS.toNanos(2));
+        cache.put("read", "v", TimeUnit.SECONDS.toNanos(30));
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertThat(cache.get("read")).isNull();
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cache.cleanUp();
+        assertThat(cache.estimatedSize()).isEqualTo(1);
+        assertThat(cache.getExpirationCount()).isEqualTo(2);
+
+        ticker.addAndGet(TimeUnit.DAYS.toNanos(3));
+        cache.cleanUp();
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("put() refreshes the TTL of an existing key")
+    void testRefreshTtl() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, ticker::get);
+        cache.put("k", "v", TimeUnit.SECONDS.toNanos(10));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(8));
+        cache.put("k", "v2", TimeUnit.SECONDS.toNanos(10));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(8));
+        cache.cleanUp();
+
+        assertThat(cache.get("k")).isEqualTo("v2");
+    }
+
+    @Test
+    @DisplayName("A weighed cache stays within its weight and its entry cap; replacing a value re-weighs it")
+    void testWeightBound() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(50, 1_000, (key, value) -> value.length(), ticker::get);
+
+        for (int i = 0; i < 200; i++) {
+            cache.put("k" + i, "x".repeat(40), HOUR);
+        }
+        cache.cleanUp();
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(1_000);
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(25);
+
+        for (int i = 0; i < 200; i++) {
+            cache.put("small" + i, "x", HOUR);
+        }
+        cache.cleanUp();
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(50);
+
+        cache.clear();
+        cache.put("grows", "x", HOUR);
+        cache.put("grows", "x".repeat(300), HOUR);
+        cache.cleanUp();
+        assertThat(cache.weightedSize()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("The sketch counts accesses")
+    void testFrequency() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, ticker::get);
+        cache.put("k", "v", HOUR);
+        for (int i = 0; i < 4; i++) {
+            cache.get("k");
+        }
+
+        assertThat(cache.frequency("k")).isEqualTo(5);
+        assertThat(cache.frequency("other")).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent readers and writers keep the cache within bounds and consistent")
+    void testConcurrentAccess() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(500);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int seed = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = (i * 31 + seed * 7) % 2_000;
+                        if (i % 4 == 0) {
+                            cache.put(key, key, HOUR);
+                        } else if (i % 97 == 0) {
+                            cache.remove(key);
+                        } else {
+                            Integer value = cache.get(key);
+                            if (value != null && value != key) {
+                                throw new AssertionError("key " + key + " maps to " + value);
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        cache.cleanUp();
+
+        assertThat(failures).isEmpty();
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(500);
+    }
+}
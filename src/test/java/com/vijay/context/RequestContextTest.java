@@ -0,0 +1,118 @@
+package com.vijay.context;
+
+import com.vijay.dto.AgentPlan;
+import com.vijay.util.AgentPlanHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestContextTest {
+
+    @AfterEach
+    void tearDown() {
+        GlobalBrainContext.clear();
+        TraceContext.clear();
+        AgentPlanHolder.clear();
+    }
+
+    @Test
+    @DisplayName("static accessors should share one request context")
+    void staticAccessors_shareOneContext() {
+        TraceContext.initialize("trace-1");
+        GlobalBrainContext.put("provider", "ollama");
+        AgentPlanHolder.setPlan(new AgentPlan().setIntent("DEBUG"));
+
+        RequestContext context = RequestContext.current();
+        assertThat(context.getTraceId()).isEqualTo("trace-1");
+        assertThat(context.get("provider")).isEqualTo("ollama");
+        assertThat(context.getPlan().getIntent()).isEqualTo("DEBUG");
+    }
+
+    @Test
+    @DisplayName("TraceContext.initialize should keep existing plan and brain state")
+    void initialize_keepsState() {
+        AgentPlanHolder.setPlan(new AgentPlan().setIntent("REFACTOR"));
+
+        TraceContext.initialize();
+
+        assertThat(TraceContext.isInitialized()).isTrue();
+        assertThat(AgentPlanHolder.getPlan().getIntent()).isEqualTo("REFACTOR");
+    }
+
+    @Test
+    @DisplayName("wrapped tasks should see the request context on another thread")
+    void wrap_propagatesToOtherThread() throws Exception {
+        TraceContext.initialize("trace-async");
+        GlobalBrainContext.put("conversationId", "conv-1");
+        RequestContext context = RequestContext.current();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> unwrapped = executor.submit(TraceContext::getTraceId);
+            assertThat(unwrapped.get()).isEqualTo("NO_TRACE_ID");
+
+            Future<String> wrapped = executor.submit(context.wrap(() -> {
+                AgentPlanHolder.setPlan(new AgentPlan().setIntent("ASYNC"));
+                return TraceContext.getTraceId() + "/" + GlobalBrainContext.get("conversationId");
+            }));
+            assertThat(wrapped.get()).isEqualTo("trace-async/conv-1");
+
+            // Binding is removed from the worker afterwards, state written there is visible here
+            assertThat(executor.submit(() -> RequestContext.current()).get()).isNull();
+            assertThat(AgentPlanHolder.getPlan().getIntent()).isEqualTo("ASYNC");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("restore should re-bind the context carried in ChatClientRequest.context()")
+    void restore_fromChatClientRequest() throws Exception {
+        TraceContext.initialize("trace-carried");
+        RequestContext context = RequestContext.current();
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt("hello"))
+                .context(Map.of(RequestContext.KEY, context))
+                .build();
+
+        AtomicReference<String> seenTraceId = new AtomicReference<>();
+        AtomicReference<RequestContext> afterClose = new AtomicReference<>(context);
+        Thread worker = new Thread(() -> {
+            try (RequestContext.Scope scope = RequestContext.restore(request)) {
+                seenTraceId.set(TraceContext.getTraceId());
+            }
+            afterClose.set(RequestContext.current());
+        });
+        worker.start();
+        worker.join();
+
+        assertThat(seenTraceId.get()).isEqualTo("trace-carried");
+        assertThat(afterClose.get()).isNull();
+        assertThat(RequestContext.from(request)).isSameAs(context);
+    }
+
+    @Test
+    @DisplayName("clearing every accessor should release the binding")
+    void clear_releasesBinding() {
+        TraceContext.initialize();
+        GlobalBrainContext.put("key", "value");
+        AgentPlanHolder.setPlan(new AgentPlan());
+
+        GlobalBrainContext.clear();
+        TraceContext.clear();
+        AgentPlanHolder.clear();
+
+        assertThat(RequestContext.current()).isNull();
+        assertThat(GlobalBrainContext.size()).isZero();
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vijay.dto.ChatRequest;
 import com.vijay.dto.ChatResponse;
 import com.vijay.service.ChatService;
+import com.vijay.service.ProviderOverloadedException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +63,21 @@ class ChatControllerTest {
                 .andExpect(jsonPath("$.response").value(org.hamcrest.Matchers.containsString("Invalid provider")));
     }
 
+    @Test
+    @DisplayName("POST /api/chat/{provider} should return 429 with Retry-After when the provider is overloaded")
+    void chat_providerOverloaded() throws Exception {
+        when(chatService.processChat(eq("ollama"), any(ChatRequest.class)))
+                .thenThrow(new ProviderOverloadedException("ollama", 429, 4, "queue full"));
+
+        ChatRequest request = new ChatRequest("Hello", true);
+
+        mockMvc.perform(post("/api/chat/{provider}", "ollama")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "4"));
+    }
+
     @Test
     @DisplayName("GET /api/chat/providers should return provider list")
     void getSupportedProviders() throws Exception {
@@ -1,6 +1,8 @@
 package com.vijay.controller;
 
+import com.vijay.manager.SelfRefineV3Advisor;
 import com.vijay.service.*;
+import com.vijay.util.LatencyHistogram;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.verify;
@@ -27,6 +31,11 @@ class DevExDashboardTest {
     @MockBean private PerformanceProfiler performanceProfiler;
     @MockBean private StressTestRunner stressTestRunner;
     @MockBean private CacheManager cacheManager;
+    @MockBean private IterationController iterationController;
+    @MockBean private PreLlmStage preLlmStage;
+    @MockBean private SemanticResponseCache responseCache;
+    @MockBean private ChatHedgingService hedgingService;
+    @MockBean private SelfRefineV3Advisor judge;
 
     @Test
     @DisplayName("GET /api/devex/logs should return logs and stats")
@@ -72,6 +81,29 @@ class DevExDashboardTest {
                 .andExpect(jsonPath("$.stats.maxDuration").value(60));
     }
 
+    @Test
+    @DisplayName("GET /api/devex/timeline should include per-advisor histograms and one request's events")
+    void getTimeline_advisorBreakdown() throws Exception {
+        TimelineVisualizer.TimelineStatistics stats = new TimelineVisualizer.TimelineStatistics(1, 40L, 40.0, 40L);
+        LatencyHistogram.HistogramSnapshot wall = new LatencyHistogram.HistogramSnapshot(10, 900.0, 800, 1500, 1800, 2000, 2000, 2100);
+        LatencyHistogram.HistogramSnapshot self = new LatencyHistogram.HistogramSnapshot(10, 120.0, 100, 200, 240, 300, 300, 310);
+        LatencyHistogram.HistogramSnapshot cpu = new LatencyHistogram.HistogramSnapshot(10, 90.0, 80, 150, 160, 170, 170, 180);
+        TimelineVisualizer.TimelineEvent event = new TimelineVisualizer.TimelineEvent("ConductorAdvisor", 0, 5L);
+        event.traceId = "trace-1";
+        when(timelineVisualizer.exportToJSON()).thenReturn("[]");
+        when(timelineVisualizer.getStatistics()).thenReturn(stats);
+        when(timelineVisualizer.getAdvisorBreakdown()).thenReturn(List.of(
+                new TimelineVisualizer.AdvisorLatencyStats("ConductorAdvisor", 0, 10, wall, self, cpu, 42.5)));
+        when(timelineVisualizer.getTimeline("trace-1")).thenReturn(List.of(event));
+
+        mockMvc.perform(get("/api/devex/timeline").param("traceId", "trace-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.advisors[0].advisorName").value("ConductorAdvisor"))
+                .andExpect(jsonPath("$.advisors[0].selfMicros.p99").value(300))
+                .andExpect(jsonPath("$.advisors[0].avgInjectedTokens").value(42.5))
+                .andExpect(jsonPath("$.request[0].traceId").value("trace-1"));
+    }
+
     @Test
     @DisplayName("GET /api/devex/profile should return profiler data")
     void getProfile_basic() throws Exception {
@@ -102,7 +134,7 @@ class DevExDashboardTest {
         result.successRate = 95.0;
         result.errorRate = 5.0;
 
-        when(stressTestRunner.runStressTest(100, 10)).thenReturn(result);
+        when(stressTestRunner.runStressTest(100, 10, "chat", null, true)).thenReturn(result);
 
         mockMvc.perform(post("/api/devex/stress-test"))
                 .andExpect(status().isOk())
@@ -162,6 +194,53 @@ class DevExDashboardTest {
                 .andExpect(jsonPath("$.cache.size").value(7));
     }
 
+    @Test
+    @DisplayName("GET /api/devex/iterations should return refine-loop and judge stats")
+    void getIterationStats_basic() throws Exception {
+        IterationController.IterationStats stats =
+                new IterationController.IterationStats(10, 12, 2, 1, 8, 0, 0, 1, 4.1, 0.3);
+        when(iterationController.getStats()).thenReturn(stats);
+        SelfRefineV3Advisor.JudgeStats judgeStats = new SelfRefineV3Advisor.JudgeStats(
+                0.5, 6, 4, 0, 1, 2, 3.9, 1, 1, 0,
+                new LatencyHistogram.HistogramSnapshot(6, 12.0, 10, 20, 20, 25, 25, 25));
+        when(judge.getStats()).thenReturn(judgeStats);
+
+        mockMvc.perform(get("/api/devex/iterations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stats.requests").value(10))
+                .andExpect(jsonPath("$.stats.secondPasses").value(2))
+                .andExpect(jsonPath("$.stats.improvedSecondPasses").value(1))
+                .andExpect(jsonPath("$.judge.evaluated").value(6))
+                .andExpect(jsonPath("$.judge.skippedSampling").value(4));
+    }
+
+    @Test
+    @DisplayName("GET /api/devex/prefetch should return pre-LLM stage stats")
+    void getPrefetchStats_basic() throws Exception {
+        PreLlmStage.PreLlmStats stats = new PreLlmStage.PreLlmStats(5, 1, 120.0, 2500);
+        when(preLlmStage.getStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/devex/prefetch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stats.runs").value(5))
+                .andExpect(jsonPath("$.stats.degradedTools").value(1))
+                .andExpect(jsonPath("$.stats.deadlineMs").value(2500));
+    }
+
+    @Test
+    @DisplayName("GET /api/devex/hedging should return provider hedging stats")
+    void getHedgingStats_basic() throws Exception {
+        ChatHedgingService.HedgingStats stats = new ChatHedgingService.HedgingStats(true, 4, 3, 1, 3,
+                Map.of(), Map.of("openai", 1200L));
+        when(hedgingService.getStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/devex/hedging"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stats.hedges").value(4))
+                .andExpect(jsonPath("$.stats.backupWins").value(3))
+                .andExpect(jsonPath("$.stats.hedgeDelayMs.openai").value(1200));
+    }
+
     @Test
     @DisplayName("GET /api/devex/health should return ok")
     void health_basic() throws Exception {
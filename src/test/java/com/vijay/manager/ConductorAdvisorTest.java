@@ -3,6 +3,7 @@ package com.vijay.manager;
 import com.vijay.context.GlobalBrainContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ReasoningState;
+import com.vijay.service.ProviderOverloadedException;
 import com.vijay.util.AgentPlanHolder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,7 @@ import org.springframework.ai.chat.messages.UserMessage;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class ConductorAdvisorTest {
@@ -147,4 +149,22 @@ class ConductorAdvisorTest {
         assertThat(plan.getUserQuery()).isEqualTo("(default plan)");
         assertThat(plan.getIntent()).isEqualTo("GENERAL");
     }
+
+    @Test
+    @DisplayName("adviseCall should let a downstream overload propagate without re-running the chain")
+    void adviseCall_downstreamOverload_propagates() {
+        ChatClientRequest request = mock(ChatClientRequest.class);
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        org.springframework.ai.chat.prompt.Prompt prompt = mock(org.springframework.ai.chat.prompt.Prompt.class);
+        UserMessage userMessage = mock(UserMessage.class);
+
+        when(request.prompt()).thenReturn(prompt);
+        when(prompt.getInstructions()).thenReturn(List.of(userMessage));
+        when(userMessage.getText()).thenReturn("Please refactor this code and improve performance");
+        when(chain.nextCall(request)).thenThrow(new ProviderOverloadedException("ollama", 429, 3, "queue full"));
+
+        assertThatThrownBy(() -> advisor.adviseCall(request, chain))
+                .isInstanceOf(ProviderOverloadedException.class);
+        verify(chain, times(1)).nextCall(request);
+    }
 }
@@ -1,6 +1,8 @@
 package com.vijay.manager;
 
+import com.vijay.context.GlobalBrainContext;
 import com.vijay.dto.AgentPlan;
+import com.vijay.dto.ReasoningState;
 import com.vijay.service.BrainFinderService;
 import com.vijay.tools.ToolFinderService;
 import com.vijay.util.AgentPlanHolder;
@@ -37,6 +39,7 @@ class DynamicContextAdvisorTest {
     @AfterEach
     void tearDown() {
         AgentPlanHolder.clear();
+        GlobalBrainContext.clear();
     }
 
     @Test
@@ -94,4 +97,31 @@ class DynamicContextAdvisorTest {
         verify(toolFinderService, times(1)).findToolsFor(contains("Analyze"));
         verify(chain, times(1)).nextCall(request);
     }
+
+    @Test
+    @DisplayName("adviseCall fallback should reuse the pre-LLM tool suggestions instead of searching again")
+    void adviseCall_noPlan_reusesPrefetchedTools() {
+        AgentPlanHolder.clear();
+        ReasoningState state = new ReasoningState("Analyze this project architecture");
+        state.setSuggestedTools(List.of("toolX"));
+        GlobalBrainContext.setReasoningState(state);
+
+        ChatClientRequest request = mock(ChatClientRequest.class);
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        ChatClientResponse response = mock(ChatClientResponse.class);
+        org.springframework.ai.chat.prompt.Prompt prompt = mock(org.springframework.ai.chat.prompt.Prompt.class);
+        UserMessage userMessage = mock(UserMessage.class);
+
+        when(request.prompt()).thenReturn(prompt);
+        when(prompt.getInstructions()).thenReturn(List.of(userMessage));
+        when(userMessage.getText()).thenReturn("Analyze this project architecture");
+        when(chain.nextCall(request)).thenReturn(response);
+        when(brainFinderService.findBrainsFor(anyString())).thenReturn(List.of("brainA"));
+
+        ChatClientResponse result = advisor.adviseCall(request, chain);
+
+        assertThat(result).isSameAs(response);
+        verify(brainFinderService, times(1)).findBrainsFor(contains("Analyze"));
+        verifyNoInteractions(toolFinderService);
+    }
 }
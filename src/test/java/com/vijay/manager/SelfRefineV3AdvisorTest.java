@@ -7,6 +7,7 @@ import com.vijay.service.OutputMerger;
 import com.vijay.service.SupervisorBrain;
 import com.vijay.service.TokenCountingService;
 import com.vijay.util.AgentPlanHolder;
+import com.vijay.util.ResponseScanner;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,12 +16,19 @@ import org.mockito.Mockito;
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -49,13 +57,52 @@ class SelfRefineV3AdvisorTest {
                 tokenCountingService,
                 consistencyCheckService,
                 hallucinationDetector,
-                outputMerger
+                outputMerger,
+                1.0,
+                64,
+                2_000
         );
+        when(hallucinationDetector.scan(anyString()))
+                .thenAnswer(invocation -> ResponseScanner.DEFAULT.scan(invocation.getArgument(0)));
     }
 
     @AfterEach
     void tearDown() {
         AgentPlanHolder.clear();
+        advisor.shutdown();
+    }
+
+    private static ChatResponse chatResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private ChatClientRequest complexRequest(String query, Map<String, Object> context) {
+        AgentPlanHolder.setPlan(new AgentPlan().setIntent("GENERAL").setComplexity(5).setStrategy("BALANCED"));
+        ChatClientRequest request = mock(ChatClientRequest.class);
+        org.springframework.ai.chat.prompt.Prompt prompt = mock(org.springframework.ai.chat.prompt.Prompt.class);
+        UserMessage userMessage = mock(UserMessage.class);
+        when(request.prompt()).thenReturn(prompt);
+        when(request.context()).thenReturn(context);
+        when(prompt.getInstructions()).thenReturn(List.of(userMessage));
+        when(userMessage.getText()).thenReturn(query);
+        return request;
+    }
+
+    private void stubChecks(String badContent) {
+        ConsistencyCheckService.ConsistencyReport consistent = new ConsistencyCheckService.ConsistencyReport();
+        when(consistencyCheckService.checkConsistency(any(ResponseScanner.Features.class))).thenReturn(consistent);
+        when(consistencyCheckService.validateCodeStructure(any(ResponseScanner.Features.class)))
+                .thenReturn(new ConsistencyCheckService.CodeStructureReport());
+        when(hallucinationDetector.detectHallucinations(any(ResponseScanner.Features.class))).thenAnswer(invocation -> {
+            HallucinationDetector.HallucinationReport report = new HallucinationDetector.HallucinationReport();
+            if (badContent.equals(invocation.<ResponseScanner.Features>getArgument(0).text)) {
+                report.addHallucination("invented API", HallucinationDetector.HallucinationSeverity.HIGH);
+                report.setHallucinationScore(5.0);
+            }
+            return report;
+        });
+        when(tokenCountingService.recordTokenUsage(anyString(), anyString(), anyString()))
+                .thenReturn(new TokenCountingService.TokenUsageRecord("user", 10, 40, 50, 10.0));
     }
 
     @Test
@@ -87,7 +134,7 @@ class SelfRefineV3AdvisorTest {
     }
 
     @Test
-    @DisplayName("adviseCall should perform enhanced evaluation for complex queries and invoke services")
+    @DisplayName("adviseCall should return immediately and evaluate complex responses in the background")
     void adviseCall_complexQuery_performsEvaluation() {
         AgentPlan plan = new AgentPlan()
                 .setIntent("GENERAL")
@@ -118,13 +165,13 @@ class SelfRefineV3AdvisorTest {
         ConsistencyCheckService.ConsistencyReport consistencyReport = mock(ConsistencyCheckService.ConsistencyReport.class);
         when(consistencyReport.isConsistent()).thenReturn(true);
         when(consistencyReport.getIssues()).thenReturn(List.of());
-        when(consistencyCheckService.checkConsistency(anyString())).thenReturn(consistencyReport);
-        when(consistencyCheckService.validateCodeStructure(anyString()))
+        when(consistencyCheckService.checkConsistency(any(ResponseScanner.Features.class))).thenReturn(consistencyReport);
+        when(consistencyCheckService.validateCodeStructure(any(ResponseScanner.Features.class)))
                 .thenReturn(new ConsistencyCheckService.CodeStructureReport());
 
         HallucinationDetector.HallucinationReport hallucinationReport =
                 new HallucinationDetector.HallucinationReport();
-        when(hallucinationDetector.detectHallucinations(anyString())).thenReturn(hallucinationReport);
+        when(hallucinationDetector.detectHallucinations(any(ResponseScanner.Features.class))).thenReturn(hallucinationReport);
 
         when(tokenCountingService.countTokens(anyString())).thenReturn(50);
         TokenCountingService.TokenUsageRecord tokenRecord =
@@ -135,23 +182,98 @@ class SelfRefineV3AdvisorTest {
         ChatClientResponse result = advisor.adviseCall(request, chain);
 
         assertThat(result).isSameAs(response);
-        verify(consistencyCheckService).checkConsistency(content);
-        verify(hallucinationDetector).detectHallucinations(content);
-        verify(tokenCountingService).countTokens(content);
-        verify(tokenCountingService).recordTokenUsage(anyString(), anyString(), eq(content));
-        // Only one downstream call when no exception occurs
+        // One scan of the response feeds every check
+        verify(hallucinationDetector, timeout(2_000)).scan(content);
+        verify(consistencyCheckService, timeout(2_000)).checkConsistency(any(ResponseScanner.Features.class));
+        verify(hallucinationDetector, timeout(2_000)).detectHallucinations(any(ResponseScanner.Features.class));
+        verify(tokenCountingService, timeout(2_000)).countTokens(content);
+        verify(tokenCountingService, timeout(2_000)).recordTokenUsage(anyString(), anyString(), eq(content));
+        // Only one downstream call when no exception occurs, and no refinement LLM call
         verify(chain, times(1)).nextCall(request);
+        verifyNoInteractions(chatModel);
+        verify(supervisorBrain, timeout(2_000)).logStatus(anyString());
+        assertThat(advisor.getStats().evaluated).isEqualTo(1);
     }
 
     @Test
-    @DisplayName("adviseCall should recover when chain throws by returning fallback response")
-    void adviseCall_chainThrows_returnsFallback() {
+    @DisplayName("adviseCall should skip background evaluation for unsampled responses")
+    void adviseCall_sampledOut_noEvaluation() {
+        advisor.shutdown();
+        advisor = new SelfRefineV3Advisor(chatModel, supervisorBrain, tokenCountingService,
+                consistencyCheckService, hallucinationDetector, outputMerger, 0.0, 64, 2_000);
+
+        ChatClientRequest request = complexRequest("Explain the design", Map.of());
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        ChatClientResponse response = mock(ChatClientResponse.class, Mockito.RETURNS_DEEP_STUBS);
+        when(chain.nextCall(request)).thenReturn(response);
+        when(response.chatResponse().getResult().getOutput().getText()).thenReturn("A long enough answer.");
+
+        assertThat(advisor.adviseCall(request, chain)).isSameAs(response);
+
+        verifyNoInteractions(consistencyCheckService, hallucinationDetector, tokenCountingService);
+        assertThat(advisor.getStats().skippedSampling).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("blocking refine should return the refined response when it rates higher")
+    void adviseCall_blockingRefine_returnsRefinedResponse() {
+        String original = "Use the magicSort() method on every collection to sort it in place.";
+        String refined = "Call Collections.sort(list) for a List, or list.sort(comparator) with a custom order.";
+        stubChecks(original);
+        when(chatModel.getDefaultOptions()).thenReturn(OpenAiChatOptions.builder().build());
+        when(chatModel.call(any(org.springframework.ai.chat.prompt.Prompt.class))).thenReturn(chatResponse(refined));
+
+        ChatClientRequest request = complexRequest("How do I sort a collection in Java?",
+                Map.of(SelfRefineV3Advisor.BLOCKING_REFINE_PARAM, true));
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        when(chain.nextCall(request)).thenReturn(
+                ChatClientResponse.builder().chatResponse(chatResponse(original)).build());
+
+        ChatClientResponse result = advisor.adviseCall(request, chain);
+
+        assertThat(result.chatResponse().getResult().getOutput().getText()).isEqualTo(refined);
+        SelfRefineV3Advisor.JudgeStats stats = advisor.getStats();
+        assertThat(stats.blockingRefines).isEqualTo(1);
+        assertThat(stats.refinesAdopted).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("blocking refine should keep the original response when the deadline passes")
+    void adviseCall_blockingRefine_deadlineKeepsOriginal() {
+        advisor.shutdown();
+        advisor = new SelfRefineV3Advisor(chatModel, supervisorBrain, tokenCountingService,
+                consistencyCheckService, hallucinationDetector, outputMerger, 1.0, 64, 100);
+
+        String original = "Use the magicSort() method on every collection to sort it in place.";
+        stubChecks(original);
+        when(chatModel.getDefaultOptions()).thenReturn(OpenAiChatOptions.builder().build());
+        when(chatModel.call(any(org.springframework.ai.chat.prompt.Prompt.class))).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return chatResponse("too late");
+        });
+
+        ChatClientRequest request = complexRequest("How do I sort a collection in Java?",
+                Map.of(SelfRefineV3Advisor.BLOCKING_REFINE_PARAM, true));
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        ChatClientResponse response = ChatClientResponse.builder().chatResponse(chatResponse(original)).build();
+        when(chain.nextCall(request)).thenReturn(response);
+
+        long start = System.currentTimeMillis();
+        ChatClientResponse result = advisor.adviseCall(request, chain);
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(2_000);
+        assertThat(result).isSameAs(response);
+        assertThat(advisor.getStats().refineDeadlineMisses).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("adviseCall should let a downstream failure propagate without re-running the chain")
+    void adviseCall_chainThrows_propagates() {
         // No plan or complex plan -> we go through normal path, but chain fails on first call
         AgentPlanHolder.clear();
 
         ChatClientRequest request = mock(ChatClientRequest.class);
         CallAdvisorChain chain = mock(CallAdvisorChain.class);
-        ChatClientResponse response = mock(ChatClientResponse.class);
         org.springframework.ai.chat.prompt.Prompt prompt = mock(org.springframework.ai.chat.prompt.Prompt.class);
         UserMessage userMessage = mock(UserMessage.class);
 
@@ -159,14 +281,28 @@ class SelfRefineV3AdvisorTest {
         when(prompt.getInstructions()).thenReturn(List.of(userMessage));
         when(userMessage.getText()).thenReturn("Some complex query that triggers evaluation");
 
-        when(chain.nextCall(request))
-                .thenThrow(new RuntimeException("primary call failed"))
-                .thenReturn(response);
+        when(chain.nextCall(request)).thenThrow(new RuntimeException("primary call failed"));
+
+        assertThatThrownBy(() -> advisor.adviseCall(request, chain))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("primary call failed");
+        verify(chain, times(1)).nextCall(request);
+    }
+
+    @Test
+    @DisplayName("adviseCall should keep the response it has when its own evaluation fails")
+    void adviseCall_evaluationFails_keepsResponse() {
+        ChatClientRequest request = complexRequest("Analyze the architecture of my project", Map.of());
+        when(request.context()).thenThrow(new IllegalStateException("context unavailable"));
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        ChatClientResponse response = ChatClientResponse.builder()
+                .chatResponse(chatResponse("The project uses a layered architecture."))
+                .build();
+        when(chain.nextCall(request)).thenReturn(response);
 
         ChatClientResponse result = advisor.adviseCall(request, chain);
 
         assertThat(result).isSameAs(response);
-        // First call fails inside try, second call happens in catch block
-        verify(chain, times(2)).nextCall(request);
+        verify(chain, times(1)).nextCall(request);
     }
 }
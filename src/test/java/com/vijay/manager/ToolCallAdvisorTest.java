@@ -3,6 +3,7 @@ package com.vijay.manager;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ReasoningState;
 import com.vijay.context.GlobalBrainContext;
+import com.vijay.tools.ToolCallbackRegistry;
 import com.vijay.util.AgentPlanHolder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,9 +13,15 @@ import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.mockito.ArgumentCaptor;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -25,7 +32,61 @@ class ToolCallAdvisorTest {
 
     @BeforeEach
     void setUp() {
-        advisor = new ToolCallAdvisor();
+        advisor = new ToolCallAdvisor(mock(ToolCallbackRegistry.class));
+    }
+
+    static class SampleTools implements AiToolProvider {
+        @Tool(description = "Tool A")
+        public String toolA() {
+            return "a";
+        }
+
+        @Tool(description = "Tool C")
+        public String toolC() {
+            return "c";
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ToolCallbackRegistry registryOf(AiToolProvider provider) {
+        ObjectProvider<AiToolProvider> providers = mock(ObjectProvider.class);
+        when(providers.orderedStream()).thenAnswer(invocation -> Stream.of(provider));
+        return new ToolCallbackRegistry(providers);
+    }
+
+    @Test
+    @DisplayName("adviseCall should attach only the approved tool callbacks to the prompt options")
+    void adviseCall_withPlan_attachesOnlyApprovedToolSchemas() {
+        advisor = new ToolCallAdvisor(registryOf(new SampleTools()));
+
+        AgentPlan plan = new AgentPlan()
+                .setIntent("ANALYSIS")
+                .setRequiredTools(List.of("toolA", "unknownTool"));
+        AgentPlanHolder.setPlan(plan);
+
+        ReasoningState state = new ReasoningState();
+        state.setSuggestedTools(List.of("toolA", "toolC"));
+        GlobalBrainContext.setReasoningState(state);
+
+        ToolCallingChatOptions options = ToolCallingChatOptions.builder()
+                .toolNames("toolA", "toolC")
+                .build();
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt(List.<Message>of(new UserMessage("analyze my project")), options))
+                .build();
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        ChatClientResponse response = mock(ChatClientResponse.class);
+        when(chain.nextCall(any(ChatClientRequest.class))).thenReturn(response);
+
+        advisor.adviseCall(request, chain);
+
+        ArgumentCaptor<ChatClientRequest> captor = ArgumentCaptor.forClass(ChatClientRequest.class);
+        verify(chain).nextCall(captor.capture());
+        ToolCallingChatOptions sent = (ToolCallingChatOptions) captor.getValue().prompt().getOptions();
+        assertThat(sent.getToolCallbacks())
+                .extracting(callback -> callback.getToolDefinition().name())
+                .containsExactly("toolA");
+        assertThat(sent.getToolNames()).isEmpty();
     }
 
     @AfterEach
@@ -1,5 +1,6 @@
 package com.vijay.memory;
 
+import com.vijay.state.SessionStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,7 +15,7 @@ class ConversationMemoryServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new ConversationMemoryService();
+        service = new ConversationMemoryService(new SessionStateStore());
     }
 
     @Test
@@ -4,19 +4,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.lang.reflect.Field;
-import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class ShortTermMemoryTest {
 
+    private static final long EXPIRY_MS = 30 * 60 * 1000;
+
+    private AtomicLong now;
     private ShortTermMemory shortTermMemory;
 
     @BeforeEach
     void setUp() {
-        shortTermMemory = new ShortTermMemory();
+        now = new AtomicLong(1_000_000L);
+        shortTermMemory = new ShortTermMemory(10, EXPIRY_MS, 100, now::get);
     }
 
     @Test
@@ -28,7 +31,7 @@ class ShortTermMemoryTest {
 
         assertThat(shortTermMemory.size()).isEqualTo(10);
 
-        List<ShortTermMemory.MemoryMessage> lastMessages = shortTermMemory.getLastMessages(10);
+        List<ShortTermMemory.MemoryMessage> lastMessages = shortTermMemory.getLastMessages("user", 10);
         assertThat(lastMessages).hasSize(10);
         assertThat(lastMessages.get(0).content).isEqualTo("msg-5");
         assertThat(lastMessages.get(9).content).isEqualTo("msg-14");
@@ -41,7 +44,7 @@ class ShortTermMemoryTest {
         shortTermMemory.addMessage("user", "assistant", "second");
         shortTermMemory.addMessage("user", "user", "third");
 
-        List<ShortTermMemory.MemoryMessage> lastTwo = shortTermMemory.getLastMessages(2);
+        List<ShortTermMemory.MemoryMessage> lastTwo = shortTermMemory.getLastMessages("user", 2);
 
         assertThat(lastTwo).hasSize(2);
         assertThat(lastTwo.get(0).content).isEqualTo("second");
@@ -49,41 +52,58 @@ class ShortTermMemoryTest {
     }
 
     @Test
-    @DisplayName("getLastMessages should skip expired messages based on timestamp")
-    void getLastMessages_skipsExpiredMessages() throws Exception {
-        // Access internal messages deque via reflection so we can control timestamps
-        Field messagesField = ShortTermMemory.class.getDeclaredField("messages");
-        messagesField.setAccessible(true);
-        @SuppressWarnings("unchecked")
-        Deque<ShortTermMemory.MemoryMessage> messages =
-                (Deque<ShortTermMemory.MemoryMessage>) messagesField.get(shortTermMemory);
-
-        messages.clear();
-
-        ShortTermMemory.MemoryMessage expired =
-                new ShortTermMemory.MemoryMessage("user", "user", "old");
-        ShortTermMemory.MemoryMessage recent =
-                new ShortTermMemory.MemoryMessage("user", "assistant", "new");
+    @DisplayName("users should not evict each other's messages")
+    void addMessage_keepsUsersSeparate() {
+        shortTermMemory.addMessage("alice", "user", "alice-question");
+        for (int i = 0; i < 15; i++) {
+            shortTermMemory.addMessage("bob", "user", "bob-" + i);
+        }
 
-        // Make the first message older than expiry threshold
-        Field expiryField = ShortTermMemory.class.getDeclaredField("EXPIRY_TIME_MS");
-        expiryField.setAccessible(true);
-        long expiryMs = (long) expiryField.get(null);
-        expired.timestamp = System.currentTimeMillis() - expiryMs - 1_000L;
+        assertThat(shortTermMemory.getLastMessages("alice", 5))
+                .extracting(m -> m.content).containsExactly("alice-question");
+        assertThat(shortTermMemory.size("bob")).isEqualTo(10);
+        assertThat(shortTermMemory.size()).isEqualTo(11);
+    }
 
-        messages.addLast(expired);
-        messages.addLast(recent);
+    @Test
+    @DisplayName("getLastMessages should skip expired messages based on timestamp")
+    void getLastMessages_skipsExpiredMessages() {
+        shortTermMemory.addMessage("user", "user", "old");
+        now.addAndGet(EXPIRY_MS - 1_000L);
+        shortTermMemory.addMessage("user", "assistant", "new");
+        now.addAndGet(2_000L);
 
-        List<ShortTermMemory.MemoryMessage> result = shortTermMemory.getLastMessages(5);
+        List<ShortTermMemory.MemoryMessage> result = shortTermMemory.getLastMessages("user", 5);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).content).isEqualTo("new");
     }
 
+    @Test
+    @DisplayName("idle users should be dropped and the user count bounded")
+    void sweep_dropsIdleUsersAndEnforcesCap() {
+        ShortTermMemory bounded = new ShortTermMemory(10, EXPIRY_MS, 2, now::get);
+        bounded.addMessage("u1", "user", "one");
+        now.incrementAndGet();
+        bounded.addMessage("u2", "user", "two");
+        now.incrementAndGet();
+        bounded.addMessage("u3", "user", "three");
+
+        // Over the cap of 2 users: the least recently active one goes
+        assertThat(bounded.size("u1")).isZero();
+        assertThat(bounded.size()).isEqualTo(2);
+
+        now.addAndGet(EXPIRY_MS + 1);
+        bounded.sweep(false);
+
+        assertThat(bounded.size()).isZero();
+        assertThat(bounded.getStats()).containsEntry("users", 0).containsEntry("approximateBytes", 0L);
+    }
+
     @Test
     @DisplayName("getContextForLLM should return empty string when there is no context")
     void getContextForLLM_emptyMemory_returnsEmptyString() {
-        String context = shortTermMemory.getContextForLLM();
+        String context = shortTermMemory.getContextForLLM("user");
         assertThat(context).isEmpty();
     }
 
@@ -93,7 +113,7 @@ class ShortTermMemoryTest {
         shortTermMemory.addMessage("user", "user", "hello");
         shortTermMemory.addMessage("user", "assistant", "hi there");
 
-        String context = shortTermMemory.getContextForLLM();
+        String context = shortTermMemory.getContextForLLM("user");
 
         assertThat(context).contains("Recent conversation context:");
         assertThat(context).contains("user: hello");
@@ -110,6 +130,6 @@ class ShortTermMemoryTest {
         shortTermMemory.clear();
 
         assertThat(shortTermMemory.size()).isEqualTo(0);
-        assertThat(shortTermMemory.getLastMessages(5)).isEmpty();
+        assertThat(shortTermMemory.getLastMessages("user", 5)).isEmpty();
     }
 }
@@ -67,4 +67,27 @@ class APILoggerTest {
         assertThat(apiLogger.getAllStats()).isEmpty();
         assertThat(apiLogger.getRecentLogs(5)).isEmpty();
     }
+
+    @Test
+    @DisplayName("advisor and model stats should carry latency percentiles; recent logs stay bounded")
+    void stats_histogramsAndBoundedLog() {
+        for (int i = 1; i <= 5_000; i++) {
+            apiLogger.logAdvisorCall("advisorA", i % 100, 1, "OK");
+        }
+        apiLogger.logModelCall("llama3", 200, 1_500, "OK");
+
+        APILogger.AdvisorStats advisor = apiLogger.getAdvisorStats("advisorA");
+        assertThat(advisor.callCount).isEqualTo(5_000);
+        assertThat(advisor.minDuration).isEqualTo(0L);
+        assertThat(advisor.maxDuration).isEqualTo(99L);
+        assertThat(advisor.latencyMs.p99).isBetween(98L, 99L);
+
+        Map<String, APILogger.AdvisorStats> models = apiLogger.getModelStats();
+        assertThat(models.get("llama3").totalTokens).isEqualTo(200);
+
+        assertThat(apiLogger.getTotalStats().totalCalls).isEqualTo(5_001);
+        List<APILogger.APILogEntry> recent = apiLogger.getRecentLogs(10_000);
+        assertThat(recent).hasSizeLessThan(5_001);
+        assertThat(recent.get(recent.size() - 1).component).isEqualTo("MODEL:llama3");
+    }
 }
@@ -0,0 +1,157 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdvisorTimingServiceTest {
+
+    private TimelineVisualizer timeline;
+    private APILogger apiLogger;
+    private AdvisorTimingService service;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new TimelineVisualizer();
+        apiLogger = mock(APILogger.class);
+        service = new AdvisorTimingService(timeline, apiLogger, true);
+    }
+
+    private static ChatClientRequest request(String text) {
+        ChatClientRequest request = mock(ChatClientRequest.class);
+        when(request.prompt()).thenReturn(new Prompt(text));
+        return request;
+    }
+
+    /**
+     * Busy-waits before and inside the downstream call, optionally swapping in a bigger request
+     */
+    private static class SleepyAdvisor implements CallAdvisor {
+        private final long ownMillis;
+        private final ChatClientRequest forwarded;
+
+        SleepyAdvisor(long ownMillis, ChatClientRequest forwarded) {
+            this.ownMillis = ownMillis;
+            this.forwarded = forwarded;
+        }
+
+        @Override
+        public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+            sleep(ownMillis);
+            return chain.nextCall(forwarded != null ? forwarded : request);
+        }
+
+        @Override
+        public String getName() {
+            return "SleepyAdvisor";
+        }
+
+        @Override
+        public int getOrder() {
+            return 7;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("wrap should keep the advisor's name and order and not wrap twice")
+    void wrap_keepsIdentity() {
+        CallAdvisor wrapped = service.wrap(new SleepyAdvisor(0, null));
+
+        assertThat(wrapped.getName()).isEqualTo("SleepyAdvisor");
+        assertThat(wrapped.getOrder()).isEqualTo(7);
+        assertThat(service.wrap(wrapped)).isSameAs(wrapped);
+    }
+
+    @Test
+    @DisplayName("disabled timing should return advisors unchanged")
+    void wrap_disabled() {
+        AdvisorTimingService disabled = new AdvisorTimingService(timeline, apiLogger, false);
+        CallAdvisor advisor = new SleepyAdvisor(0, null);
+
+        assertThat(disabled.wrapAll(advisor)).containsExactly(advisor);
+    }
+
+    @Test
+    @DisplayName("self time should exclude the downstream chain, and injected prompt tokens should be estimated")
+    void adviseCall_recordsSelfTimeAndTokens() {
+        ChatClientRequest received = request("explain the cache");
+        ChatClientRequest forwarded = request("explain the cache and two more words.");
+        ChatClientResponse response = mock(ChatClientResponse.class);
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        when(chain.nextCall(forwarded)).thenAnswer(invocation -> {
+            sleep(60);
+            return response;
+        });
+
+        CallAdvisor wrapped = service.wrap(new SleepyAdvisor(20, forwarded));
+        ChatClientResponse result = wrapped.adviseCall(received, chain);
+
+        assertThat(result).isSameAs(response);
+        List<TimelineVisualizer.TimelineEvent> events = timeline.getTimeline();
+        assertThat(events).hasSize(1);
+        TimelineVisualizer.TimelineEvent event = events.get(0);
+        assertThat(event.advisorName).isEqualTo("SleepyAdvisor");
+        assertThat(event.durationMs).isGreaterThanOrEqualTo(80L);
+        assertThat(event.selfMicros).isBetween(20_000L, 60_000L);
+        assertThat(event.injectedTokens).isEqualTo(5);
+
+        TimelineVisualizer.AdvisorLatencyStats stats = timeline.getAdvisorBreakdown().get(0);
+        assertThat(stats.calls).isEqualTo(1);
+        assertThat(stats.avgInjectedTokens).isEqualTo(5.0);
+        verify(apiLogger).logAdvisorCall(eq("SleepyAdvisor"), anyLong(), eq(5), eq("OK"));
+    }
+
+    @Test
+    @DisplayName("a failure further down the chain should be logged as propagated, not as this advisor's error")
+    void adviseCall_downstreamFailure() {
+        ChatClientRequest received = request("hi");
+        CallAdvisorChain chain = mock(CallAdvisorChain.class);
+        when(chain.nextCall(received)).thenThrow(new IllegalStateException("model down"));
+
+        CallAdvisor wrapped = service.wrap(new SleepyAdvisor(0, null));
+
+        assertThrows(IllegalStateException.class, () -> wrapped.adviseCall(received, chain));
+        verify(apiLogger).logAdvisorCall(eq("SleepyAdvisor"), anyLong(), eq(0), eq("PROPAGATED"));
+    }
+
+    @Test
+    @DisplayName("an exception thrown by the advisor itself should be logged as its error")
+    void adviseCall_ownFailure() {
+        CallAdvisor failing = new SleepyAdvisor(0, null) {
+            @Override
+            public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+                throw new IllegalArgumentException("bad plan");
+            }
+        };
+
+        CallAdvisor wrapped = service.wrap(failing);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> wrapped.adviseCall(request("hi"), mock(CallAdvisorChain.class)));
+        verify(apiLogger).logAdvisorCall(eq("SleepyAdvisor"), anyLong(), eq(0), startsWith("ERROR"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.vijay.service;
 
+import com.vijay.cache.MultiRegionCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,41 +11,44 @@ import static org.mockito.Mockito.*;
 class CacheManagerTest {
 
     private LocalCacheImpl localCache;
+    private MultiRegionCache regions;
     private CacheManager cacheManager;
 
     @BeforeEach
     void setUp() {
         localCache = mock(LocalCacheImpl.class);
-        cacheManager = new CacheManager(localCache);
+        regions = new MultiRegionCache();
+        cacheManager = new CacheManager(localCache, regions);
     }
 
     @Test
-    @DisplayName("put and get should delegate to LocalCacheImpl and support advisor/model/user helpers")
-    void putAndGet_delegatesAndHelpers() {
+    @DisplayName("put and get should delegate to LocalCacheImpl")
+    void putAndGet_delegates() {
         cacheManager.put("key", "value", 10);
         verify(localCache).put("key", "value", 10);
 
         when(localCache.get("key")).thenReturn("value");
         Object value = cacheManager.get("key");
         assertThat(value).isEqualTo("value");
+    }
 
+    @Test
+    @DisplayName("advisor/model/user/knowledge-graph helpers should use their own regions")
+    void helpers_useRegions() {
         cacheManager.cacheAdvisorOutput("Adv", "hash1", "out1");
-        verify(localCache).put(eq("advisor:Adv:hash1"), eq("out1"), anyLong());
-
-        when(localCache.get("advisor:Adv:hash1")).thenReturn("out1");
-        assertThat(cacheManager.getCachedAdvisorOutput("Adv", "hash1")).isEqualTo("out1");
-
         cacheManager.cacheModelResponse("Model", "phash", "resp");
-        verify(localCache).put(eq("model:Model:phash"), eq("resp"), anyLong());
-
-        when(localCache.get("model:Model:phash")).thenReturn("resp");
-        assertThat(cacheManager.getCachedModelResponse("Model", "phash")).isEqualTo("resp");
-
         cacheManager.cacheUserPreferences("u1", "prefs");
-        verify(localCache).put(eq("user:u1:preferences"), eq("prefs"), anyLong());
+        cacheManager.cacheKnowledgeGraph("graph", "nodes");
 
-        when(localCache.get("user:u1:preferences")).thenReturn("prefs");
+        assertThat(cacheManager.getCachedAdvisorOutput("Adv", "hash1")).isEqualTo("out1");
+        assertThat(cacheManager.getCachedModelResponse("Model", "phash")).isEqualTo("resp");
         assertThat(cacheManager.getCachedUserPreferences("u1")).isEqualTo("prefs");
+        assertThat(cacheManager.getCachedKnowledgeGraph("graph")).isEqualTo("nodes");
+        verify(localCache, never()).put(anyString(), any(), anyLong());
+
+        assertThat(regions.region(MultiRegionCache.MODEL_RESPONSES).size()).isEqualTo(1);
+        assertThat(regions.region(MultiRegionCache.ADVISOR_OUTPUTS).getDefaultTtl().toSeconds()).isEqualTo(3600);
+        assertThat(regions.region(MultiRegionCache.MODEL_RESPONSES).getDefaultTtl().toSeconds()).isEqualTo(7200);
     }
 
     @Test
@@ -56,8 +60,10 @@ class CacheManagerTest {
         cacheManager.remove("key");
         verify(localCache).remove("key");
 
+        cacheManager.cacheModelResponse("Model", "phash", "resp");
         cacheManager.clear();
         verify(localCache).clear();
+        assertThat(cacheManager.getCachedModelResponse("Model", "phash")).isNull();
 
         CacheManager.CacheStats returned = cacheManager.getStats();
         assertThat(returned).isSameAs(stats);
@@ -0,0 +1,124 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ChatHedgingServiceTest {
+
+    private ChatHedgingService hedging;
+
+    @BeforeEach
+    void setUp() {
+        // Cold start: hedge after 100ms until 5 samples are known
+        hedging = new ChatHedgingService(mock(ApplicationContext.class), mock(ProviderConcurrencyLimiter.class),
+                true, "stubA=stubB", 95, 5, 100, 20, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedging.shutdown();
+    }
+
+    private static String text(ChatModel model, Prompt prompt) {
+        return model.call(prompt).getResult().getOutput().getText();
+    }
+
+    @Test
+    @DisplayName("a fast primary should answer alone without a hedge")
+    void call_fastPrimary_noHedge() {
+        StubChatModel primary = new StubChatModel("primary", 10);
+        StubChatModel backup = new StubChatModel("backup", 10);
+        ChatModel model = hedging.wrap("stubA", primary, "stubB", backup);
+
+        assertThat(text(model, new Prompt("hi"))).isEqualTo("primary");
+        assertThat(backup.getCallCount()).isZero();
+        assertThat(hedging.getStats().hedges).isZero();
+    }
+
+    @Test
+    @DisplayName("a stalled primary should be hedged, lose to the backup and be cancelled")
+    void call_stalledPrimary_backupWins() {
+        StubChatModel primary = new StubChatModel("primary", 10_000);
+        StubChatModel backup = new StubChatModel("backup", 20);
+        ChatModel model = hedging.wrap("stubA", primary, "stubB", backup);
+
+        long start = System.currentTimeMillis();
+        String answer = text(model, new Prompt("hi"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertThat(answer).isEqualTo("backup");
+        assertThat(elapsed).isLessThan(2_000);
+        ChatHedgingService.HedgingStats stats = hedging.getStats();
+        assertThat(stats.hedges).isEqualTo(1);
+        assertThat(stats.backupWins).isEqualTo(1);
+        assertThat(stats.cancelledLosers).isEqualTo(1);
+        // The cancelled primary still counts, with at least the hedge delay it ran for
+        assertThat(stats.providerLatency.get("stubA").count).isEqualTo(1);
+        assertThat(stats.providerLatency.get("stubA").max).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("a failing primary should fail over to the backup immediately")
+    void call_failingPrimary_failsOver() {
+        ChatModel primary = prompt -> {
+            throw new IllegalStateException("503 from provider");
+        };
+        StubChatModel backup = new StubChatModel("backup", 0);
+        ChatModel model = hedging.wrap("stubA", primary, "stubB", backup);
+
+        assertThat(text(model, new Prompt("hi"))).isEqualTo("backup");
+        assertThat(hedging.getStats().failovers).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("tool-calling prompts should never be hedged")
+    void call_toolPrompt_notHedged() {
+        StubChatModel primary = new StubChatModel("primary", 300);
+        StubChatModel backup = new StubChatModel("backup", 0);
+        ChatModel model = hedging.wrap("stubA", primary, "stubB", backup);
+
+        Prompt toolPrompt = new Prompt("weather?", ToolCallingChatOptions.builder().toolNames("getWeather").build());
+
+        assertThat(text(model, toolPrompt)).isEqualTo("primary");
+        assertThat(backup.getCallCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("the hedge delay should follow the primary's observed p95 once warmed up")
+    void hedgeDelay_followsObservedP95() {
+        assertThat(hedging.getHedgeDelayMs("stubA")).isEqualTo(100);
+
+        StubChatModel primary = new StubChatModel("primary", 40);
+        ChatModel model = hedging.wrap("stubA", primary, "stubB", new StubChatModel("backup", 0));
+        for (int i = 0; i < 5; i++) {
+            text(model, new Prompt("hi"));
+        }
+
+        assertThat(hedging.getHedgeDelayMs("stubA")).isBetween(40L, 60L);
+        assertThat(hedging.getStats().providerLatency.get("stubA").count).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("wrap should return the model unchanged when hedging is disabled")
+    void wrap_disabled_returnsModel() {
+        ChatHedgingService disabled = new ChatHedgingService(mock(ApplicationContext.class),
+                mock(ProviderConcurrencyLimiter.class), false, "openai=ollama", 95, 20, 3000, 250, 15_000);
+        StubChatModel model = new StubChatModel("x", 0);
+
+        assertThat(disabled.wrap("openai", model)).isSameAs(model);
+        assertThat(hedging.wrap("unconfigured", model)).isSameAs(model);
+        assertThat(List.of(disabled.getStats().enabled, hedging.getStats().enabled)).containsExactly(false, true);
+        disabled.shutdown();
+    }
+}
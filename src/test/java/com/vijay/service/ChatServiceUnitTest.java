@@ -5,6 +5,7 @@ import com.vijay.context.TraceContext;
 import com.vijay.dto.AgentPlan;
 import com.vijay.dto.ChatRequest;
 import com.vijay.dto.ChatResponse;
+import com.vijay.state.SessionStateStore;
 import com.vijay.tools.ToolFinderService;
 import com.vijay.util.AgentPlanHolder;
 import org.junit.jupiter.api.AfterEach;
@@ -12,10 +13,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.context.ApplicationContext;
 import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,6 +36,8 @@ class ChatServiceUnitTest {
     private ChatClient chatClient;
     private ToolFinderService toolFinderService;
     private SupervisorBrain supervisorBrain;
+    private ChatMemory chatMemory;
+    private ProviderConcurrencyLimiter concurrencyLimiter;
     private ChatService chatService;
 
     @BeforeEach
@@ -35,6 +46,8 @@ class ChatServiceUnitTest {
         chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
         toolFinderService = mock(ToolFinderService.class);
         supervisorBrain = mock(SupervisorBrain.class);
+        chatMemory = mock(ChatMemory.class);
+        concurrencyLimiter = mock(ProviderConcurrencyLimiter.class);
 
         when(applicationContext.getBean(org.mockito.ArgumentMatchers.anyString(), eq(ChatClient.class))).thenReturn(chatClient);
         when(toolFinderService.findToolsFor(org.mockito.ArgumentMatchers.anyString())).thenReturn(List.of("toolA", "toolB"));
@@ -43,7 +56,14 @@ class ChatServiceUnitTest {
         when(chatClient.prompt().call().content()).thenReturn("answer");
 
         TraceContext.initialize();
-        chatService = new ChatService(applicationContext, List.of(), toolFinderService, supervisorBrain);
+        IterationController iterationController =
+                new IterationController(new TokenCountingService(new SessionStateStore()), 2, 3.8, 30_000, 4000, 250);
+        PreLlmStage preLlmStage = new PreLlmStage(toolFinderService, 2500);
+        SemanticResponseCache responseCache = new SemanticResponseCache(mock(CacheManager.class),
+                mock(org.springframework.ai.embedding.EmbeddingModel.class),
+                chatMemory, false, 0.92, 500);
+        chatService = new ChatService(applicationContext, supervisorBrain,
+                iterationController, preLlmStage, responseCache, concurrencyLimiter, 30_000);
     }
 
     @AfterEach
@@ -53,6 +73,17 @@ class ChatServiceUnitTest {
         AgentPlanHolder.clear();
     }
 
+    @SuppressWarnings("unchecked")
+    private void onEachPass(Answer<String> pass) {
+        when(chatClient.prompt()
+                .system(anyString())
+                .user(anyString())
+                .toolNames(any(String[].class))
+                .advisors(any(Consumer.class))
+                .call()
+                .content()).thenAnswer(pass);
+    }
+
     @Test
     @DisplayName("processChat should call ChatClient, use ToolFinder, and return ChatResponse with used tools")
     void processChat_basicFlow() {
@@ -73,6 +104,140 @@ class ChatServiceUnitTest {
         verify(supervisorBrain, times(1)).initializeConversation(eq("default_user"), anyString());
     }
 
+    @Test
+    @DisplayName("processChat should run a refine pass only when the quality signal is low")
+    void processChat_lowQuality_runsSecondPass() {
+        AgentPlan plan = new AgentPlan().setComplexity(5);
+        plan.setRequiredTools(List.of("toolA"));
+        AgentPlanHolder.setPlan(plan);
+
+        AtomicInteger passes = new AtomicInteger();
+        double[] ratings = {2.0, 4.5};
+        onEachPass(invocation -> {
+            // What SelfRefineV3Advisor publishes for the pass
+            GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, ratings[passes.getAndIncrement()]);
+            return "answer";
+        });
+
+        ChatRequest req = new ChatRequest();
+        req.setMessage("Analyze my project");
+        req.setConversationId("conv-refine");
+
+        ChatResponse resp = chatService.processChat("ollama", req);
+
+        assertThat(resp).isNotNull();
+        assertThat(passes).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("processChat should not issue a second pass when the first answer is good enough")
+    void processChat_goodQuality_singlePass() {
+        AgentPlan plan = new AgentPlan().setComplexity(5);
+        plan.setRequiredTools(List.of("toolA"));
+        AgentPlanHolder.setPlan(plan);
+
+        AtomicInteger passes = new AtomicInteger();
+        onEachPass(invocation -> {
+            passes.incrementAndGet();
+            GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, 4.6);
+            return "answer";
+        });
+
+        ChatRequest req = new ChatRequest();
+        req.setMessage("Analyze my project");
+        req.setConversationId("conv-single");
+
+        chatService.processChat("ollama", req);
+
+        assertThat(passes).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("processChat should coalesce identical concurrent requests with the same history onto one chain execution")
+    void processChat_concurrentDuplicates_coalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        })
+                .when(supervisorBrain).initializeConversation(anyString(), anyString());
+
+        ChatRequest first = new ChatRequest();
+        first.setMessage("What is a Java record?");
+        first.setConversationId("conv-a");
+        ChatRequest duplicate = new ChatRequest();
+        duplicate.setMessage("what is a java record");
+        duplicate.setConversationId("conv-b");
+
+        CompletableFuture<ChatResponse> leader =
+                CompletableFuture.supplyAsync(() -> chatService.processChat("ollama", first));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (chatService.getCoalescingStats().inFlight == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        CompletableFuture<ChatResponse> follower =
+                CompletableFuture.supplyAsync(() -> chatService.processChat("ollama", duplicate));
+        while (chatService.getCoalescingStats().coalesced == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS).getResponse())
+                .isEqualTo(leader.get(5, TimeUnit.SECONDS).getResponse());
+        verify(supervisorBrain, times(1)).initializeConversation(anyString(), anyString());
+        verify(toolFinderService, times(1)).findToolsFor(anyString());
+        // The duplicate's conversation still gets the turn in its history
+        verify(chatMemory).add(eq("conv-b"), anyList());
+    }
+
+    @Test
+    @DisplayName("processChat should not share an answer between conversations with different history")
+    void processChat_otherHistory_notCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        })
+                .when(supervisorBrain).initializeConversation(anyString(), eq("conv-a"));
+        when(chatMemory.get("conv-b")).thenReturn(List.of(new UserMessage("I only use Kotlin")));
+
+        ChatRequest first = new ChatRequest();
+        first.setMessage("What is a Java record?");
+        first.setConversationId("conv-a");
+        ChatRequest other = new ChatRequest();
+        other.setMessage("What is a Java record?");
+        other.setConversationId("conv-b");
+
+        CompletableFuture<ChatResponse> leader =
+                CompletableFuture.supplyAsync(() -> chatService.processChat("ollama", first));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (chatService.getCoalescingStats().inFlight == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        chatService.processChat("ollama", other);
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+
+        assertThat(chatService.getCoalescingStats().coalesced).isZero();
+        verify(supervisorBrain, times(2)).initializeConversation(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("processChat should shed load before pre-LLM work and surface the overload unwrapped")
+    void processChat_providerOverloaded_rejectedEarly() {
+        ChatRequest req = new ChatRequest();
+        req.setMessage("Hello overloaded");
+        req.setConversationId("conv-overloaded");
+        doThrow(new ProviderOverloadedException("ollama", 429, 3, "queue full"))
+                .when(concurrencyLimiter).checkAdmission("ollama");
+
+        ProviderOverloadedException e = assertThrows(ProviderOverloadedException.class,
+                () -> chatService.processChat("ollama", req));
+
+        assertThat(e.getRetryAfterSeconds()).isEqualTo(3);
+        verify(toolFinderService, never()).findToolsFor(anyString());
+    }
+
     @Test
     @DisplayName("getSupportedProviders should list known providers")
     void getSupportedProviders_basic() {
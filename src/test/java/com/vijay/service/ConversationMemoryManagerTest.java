@@ -1,5 +1,6 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,7 +16,7 @@ class ConversationMemoryManagerTest {
 
     @BeforeEach
     void setUp() {
-        manager = new ConversationMemoryManager();
+        manager = new ConversationMemoryManager(new SessionStateStore(), new HashingEmbeddingModel(256, 0), 3, 2, 30, 0.6, 0.75);
     }
 
     @Test
@@ -177,4 +178,39 @@ class ConversationMemoryManagerTest {
         assertThat(formatted).contains("Recent Conversation");
         assertThat(formatted).contains("Question about architecture");
     }
+
+    @Test
+    @DisplayName("long-term memories are looked up per user by similarity")
+    void longTermMemory_perUserNearestNeighbours() {
+        manager.storeConversation("s-a", "alice", "Explain the architecture of ChatService",
+                "It delegates to the advisor chain...", "hybrid", 0.95);
+        manager.storeConversation("s-b", "bob", "Explain the architecture of ChatService",
+                "It delegates to the advisor chain...", "hybrid", 0.95);
+
+        ConversationMemoryManager.ConversationContext alice =
+                manager.getRelevantContext("s-a2", "alice", "explain the ChatService architecture");
+        ConversationMemoryManager.ConversationContext carol =
+                manager.getRelevantContext("s-c", "carol", "explain the ChatService architecture");
+
+        assertThat(alice.getLongTermMemories()).hasSize(1);
+        assertThat(alice.getLongTermMemories().get(0).getSessionId()).isEqualTo("s-a");
+        assertThat(carol.getLongTermMemories()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("long-term memory stays bounded per user and in number of users")
+    void longTermMemory_isBounded() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            manager.storeConversation("s-" + i, "u-bounded", "architecture question number " + i,
+                    "answer", "hybrid", 0.9);
+        }
+        assertThat(manager.getLongTermMemoryCount()).isEqualTo(3);
+
+        Thread.sleep(10); // u-bounded becomes the least recently used user
+        manager.storeConversation("s-x", "u-second", "architecture of x", "answer", "hybrid", 0.9);
+        manager.storeConversation("s-y", "u-third", "architecture of y", "answer", "hybrid", 0.9);
+
+        // Capacity is 2 users: the idlest user's memories were dropped
+        assertThat(manager.getLongTermMemoryCount()).isEqualTo(2);
+    }
 }
@@ -0,0 +1,64 @@
+package com.vijay.service;
+
+import com.vijay.state.SessionStateStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationSummarizerTest {
+
+    private final List<Message> turns = List.of(
+        new UserMessage("How do I cache embeddings? They are slow."),
+        new AssistantMessage("Use EmbeddingCacheService. It keys vectors by content hash."));
+
+    @Test
+    @DisplayName("Uses the model's summary when available")
+    void testLlmSummary() {
+        ChatModel model = mock(ChatModel.class);
+        when(model.call(anyString())).thenReturn("  User wants embedding caching.  ");
+        ConversationSummarizer summarizer = new ConversationSummarizer(model, new TokenCountingService(new SessionStateStore()), true, 400);
+
+        assertThat(summarizer.summarize(null, turns)).isEqualTo("User wants embedding caching.");
+        assertThat(summarizer.getLlmSummaryCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Falls back to the extractive summary when the model fails")
+    void testFallbackOnFailure() {
+        ChatModel model = mock(ChatModel.class);
+        when(model.call(anyString())).thenThrow(new RuntimeException("connection refused"));
+        ConversationSummarizer summarizer = new ConversationSummarizer(model, new TokenCountingService(new SessionStateStore()), true, 400);
+
+        String summary = summarizer.summarize("- User: hello", turns);
+
+        assertThat(summary).isEqualTo("""
+            - User: hello
+            - User: How do I cache embeddings?
+            - Assistant: Use EmbeddingCacheService.""");
+        assertThat(summarizer.getExtractiveSummaryCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Disabled model is never called and the oldest lines go first")
+    void testDisabledAndBounded() {
+        ChatModel model = mock(ChatModel.class);
+        ConversationSummarizer summarizer = new ConversationSummarizer(model, new TokenCountingService(new SessionStateStore()), false, 20);
+
+        String summary = summarizer.summarize("- User: a much older question about something else entirely", turns);
+
+        verify(model, never()).call(anyString());
+        assertThat(summary).doesNotContain("older question").contains("EmbeddingCacheService");
+    }
+}
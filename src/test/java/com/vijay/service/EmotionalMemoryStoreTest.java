@@ -2,9 +2,13 @@ package com.vijay.service;
 
 import com.vijay.dto.EmotionalContext;
 import com.vijay.dto.EmotionalState;
+import com.vijay.state.InMemoryStateBackend;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.StateBackend;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,7 +18,7 @@ class EmotionalMemoryStoreTest {
 
     @BeforeEach
     void setUp() {
-        store = new EmotionalMemoryStore();
+        store = new EmotionalMemoryStore(new SessionStateStore());
     }
 
     private EmotionalContext ctx(EmotionalState state, int intensity) {
@@ -60,4 +64,33 @@ class EmotionalMemoryStoreTest {
         store.clearEmotionalHistory(userId);
         assertThat(store.getEmotionalHistory(userId)).isEmpty();
     }
+
+    @Test
+    @DisplayName("storeEmotionalContext should write through, so another store on a shared backend reads it")
+    void storeEmotionalContext_sharedBackend() {
+        StateBackend backend = sharedBackend();
+        EmotionalMemoryStore first = new EmotionalMemoryStore(sharedStore(backend));
+        EmotionalMemoryStore second = new EmotionalMemoryStore(sharedStore(backend));
+
+        first.storeEmotionalContext("u3", ctx(EmotionalState.FRUSTRATED, 80));
+        first.storeEmotionalContext("u3", ctx(EmotionalState.FRUSTRATED, 90));
+
+        assertThat(second.getEmotionalHistory("u3")).hasSize(2);
+        assertThat(second.getAverageEmotionalIntensity("u3")).isEqualTo(85);
+    }
+
+    private static StateBackend sharedBackend() {
+        return new InMemoryStateBackend() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+    }
+
+    private static SessionStateStore sharedStore(StateBackend backend) {
+        return new SessionStateStore(new MockEnvironment()
+                .withProperty("chat.state.spill.enabled", "false")
+                .withProperty("chat.state.sweep-interval-seconds", "0"), backend);
+    }
 }
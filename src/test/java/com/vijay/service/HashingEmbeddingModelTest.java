@@ -0,0 +1,61 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HashingEmbeddingModelTest {
+
+    @Test
+    @DisplayName("same text should always embed to the same unit vector")
+    void hash_deterministicAndNormalized() {
+        HashingEmbeddingModel model = new HashingEmbeddingModel(64, 0);
+
+        float[] first = model.embed("QueryPlanner creates a search plan");
+        float[] second = new HashingEmbeddingModel(64, 0).embed(new Document("QueryPlanner creates a search plan"));
+
+        assertThat(first).hasSize(64).containsExactly(second);
+        assertThat(dot(first, first)).isCloseTo(1.0, within(1e-5));
+        assertThat(model.dimensions()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("texts sharing words should be closer than unrelated texts")
+    void hash_sharedWordsAreSimilar() {
+        HashingEmbeddingModel model = new HashingEmbeddingModel(256, 0);
+
+        float[] planner = model.embed("QueryPlanner search plan");
+        float[] related = model.embed("query planner builds the search plan");
+        float[] unrelated = model.embed("emotional tone adjuster");
+
+        assertThat(dot(planner, related)).isGreaterThan(dot(planner, unrelated));
+    }
+
+    @Test
+    @DisplayName("call should embed every instruction in order and count the call once")
+    void call_embedsBatch() {
+        HashingEmbeddingModel model = new HashingEmbeddingModel(32, 0);
+
+        EmbeddingResponse response = model.call(new EmbeddingRequest(List.of("a b", "", "c"), null));
+
+        assertThat(response.getResults()).hasSize(3);
+        assertThat(response.getResults().get(0).getOutput()).containsExactly(model.hash("a b"));
+        assertThat(response.getResults().get(1).getOutput()).containsOnly(0f);
+        assertThat(model.getCallCount()).isEqualTo(1);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,140 @@
+package com.vijay.service;
+
+import com.vijay.context.GlobalBrainContext;
+import com.vijay.dto.AgentPlan;
+import com.vijay.state.SessionStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IterationControllerTest {
+
+    private IterationController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new IterationController(new TokenCountingService(new SessionStateStore()), 2, 3.8, 30_000, 4000, 250);
+    }
+
+    @AfterEach
+    void tearDown() {
+        GlobalBrainContext.clear();
+    }
+
+    private static void rating(double value) {
+        GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, value);
+    }
+
+    @Test
+    @DisplayName("afterPass should stop when quality is above threshold")
+    void afterPass_goodQuality_stops() {
+        rating(4.5);
+
+        IterationController.RequestBudget budget = controller.begin();
+        IterationController.Decision decision =
+                controller.afterPass(budget, 1, "explain DI", "Dependency injection is...", new AgentPlan());
+
+        assertThat(decision.refine).isFalse();
+        assertThat(decision.reason).isEqualTo("QUALITY_OK");
+        assertThat(controller.getStats().skippedQualityOk).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("afterPass should request a refine pass when quality is low and record improvement")
+    void afterPass_lowQuality_refinesAndTracksImprovement() {
+        IterationController.RequestBudget budget = controller.begin();
+        rating(2.0);
+        IterationController.Decision first =
+                controller.afterPass(budget, 1, "analyze project", "meh", new AgentPlan());
+        assertThat(first.refine).isTrue();
+
+        rating(4.0);
+        IterationController.Decision second =
+                controller.afterPass(budget, 2, "refine: analyze project", "a much better answer", new AgentPlan());
+        assertThat(second.refine).isFalse();
+        assertThat(second.reason).isEqualTo("MAX_ITERATIONS");
+        assertThat(budget.getBestIteration()).isEqualTo(2);
+
+        IterationController.IterationStats stats = controller.getStats();
+        assertThat(stats.secondPasses).isEqualTo(1);
+        assertThat(stats.improvedSecondPasses).isEqualTo(1);
+        assertThat(stats.avgSecondPassDelta).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("afterPass should wait for the judge's off-path rating when it is still pending")
+    void afterPass_awaitsPendingJudgeRating() {
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+        GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, pending);
+        CompletableFuture.runAsync(() -> pending.complete(2.5),
+                CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+
+        IterationController.Decision decision =
+                controller.afterPass(controller.begin(), 1, "q", "answer", new AgentPlan());
+
+        assertThat(decision.quality).isEqualTo(2.5);
+        assertThat(decision.refine).isTrue();
+    }
+
+    @Test
+    @DisplayName("afterPass should not refine a pass the judge did not rate in time")
+    void afterPass_unratedPass_stops() {
+        GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, new CompletableFuture<Double>());
+
+        IterationController.Decision late =
+                controller.afterPass(controller.begin(), 1, "q", "answer", new AgentPlan());
+        GlobalBrainContext.put(IterationController.JUDGE_RATING_KEY, null);
+        IterationController.Decision skipped =
+                controller.afterPass(controller.begin(), 1, "q", "answer", new AgentPlan());
+
+        assertThat(late.refine).isFalse();
+        assertThat(late.quality).isEqualTo(3.8);
+        assertThat(skipped.reason).isEqualTo("QUALITY_OK");
+        assertThat(controller.getStats().unratedPasses).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("afterPass should not refine when the token budget would be exceeded")
+    void afterPass_tokenBudgetExceeded_stops() {
+        IterationController tight = new IterationController(new TokenCountingService(new SessionStateStore()), 2, 3.8, 30_000, 5, 250);
+        rating(1.0);
+
+        IterationController.Decision decision = tight.afterPass(tight.begin(), 1,
+                "please analyze this project", "a fairly long but poor answer", new AgentPlan());
+
+        assertThat(decision.refine).isFalse();
+        assertThat(decision.reason).isEqualTo("TOKEN_BUDGET");
+        assertThat(tight.getStats().skippedTokenBudget).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("afterPass should not refine when the latency deadline would be exceeded")
+    void afterPass_deadlineExceeded_stops() {
+        IterationController strict = new IterationController(new TokenCountingService(new SessionStateStore()), 2, 3.8, -1, 4000, 250);
+        rating(1.0);
+
+        IterationController.Decision decision =
+                strict.afterPass(strict.begin(), 1, "q", "poor", new AgentPlan());
+
+        assertThat(decision.refine).isFalse();
+        assertThat(decision.reason).isEqualTo("DEADLINE");
+    }
+
+    @Test
+    @DisplayName("afterPass should stop when no plan was produced")
+    void afterPass_noPlan_stops() {
+        rating(1.0);
+
+        IterationController.Decision decision =
+                controller.afterPass(controller.begin(), 1, "q", "poor", null);
+
+        assertThat(decision.refine).isFalse();
+        assertThat(decision.reason).isEqualTo("NO_PLAN");
+    }
+}
@@ -0,0 +1,123 @@
+package com.vijay.service;
+
+import com.vijay.model.ChatMemoryMessage;
+import com.vijay.repository.ChatMemoryMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JpaChatMemoryRepositoryTest {
+
+    private ChatMemoryMessageRepository messageRepository;
+    private JpaChatMemoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(ChatMemoryMessageRepository.class);
+        when(messageRepository.findByConversationIdOrderBySeqAsc(anyString())).thenReturn(List.of());
+        // Flush interval 0: the tests flush by hand
+        repository = new JpaChatMemoryRepository(messageRepository, mock(PlatformTransactionManager.class), 0, 50, 10_000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChatMemoryMessage> lastSavedRows() {
+        ArgumentCaptor<List<ChatMemoryMessage>> rows = ArgumentCaptor.forClass(List.class);
+        verify(messageRepository, atLeastOnce()).saveAll(rows.capture());
+        return rows.getValue();
+    }
+
+    @Test
+    @DisplayName("saveAll is visible immediately and written on flush")
+    void testWriteBehind() {
+        List<Message> messages = List.of(new UserMessage("hi"), new AssistantMessage("hello"));
+        repository.saveAll("c1", messages);
+
+        assertThat(repository.findByConversationId("c1")).containsExactlyElementsOf(messages);
+        assertThat(repository.getDirtyCount()).isEqualTo(1);
+        verify(messageRepository, never()).saveAll(any());
+
+        assertThat(repository.flush()).isEqualTo(1);
+        List<ChatMemoryMessage> rows = lastSavedRows();
+        assertThat(rows).extracting(ChatMemoryMessage::getSeq).containsExactly(0, 1);
+        assertThat(rows).extracting(ChatMemoryMessage::getMessageType).containsExactly("USER", "ASSISTANT");
+        assertThat(repository.getDirtyCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Appended messages insert only the new rows")
+    void testAppendWritesTail() {
+        List<Message> messages = new ArrayList<>(List.of(new UserMessage("q1"), new AssistantMessage("a1")));
+        repository.saveAll("c1", messages);
+        repository.flush();
+
+        messages.add(new UserMessage("q2"));
+        repository.saveAll("c1", messages);
+        repository.flush();
+
+        assertThat(lastSavedRows()).extracting(ChatMemoryMessage::getSeq).containsExactly(2);
+        verify(messageRepository, never()).deleteFromSeq(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("A rewritten head (summary) replaces the stored rows")
+    void testRewrite() {
+        repository.saveAll("c1", List.of(new UserMessage("q1"), new AssistantMessage("a1"), new UserMessage("q2")));
+        repository.flush();
+
+        Message summary = JpaChatMemoryRepository.summaryMessage("- User: q1");
+        repository.saveAll("c1", List.of(summary, new UserMessage("q2")));
+        repository.flush();
+
+        verify(messageRepository).deleteFromSeq("c1", 0);
+        List<ChatMemoryMessage> rows = lastSavedRows();
+        assertThat(rows).extracting(ChatMemoryMessage::getMessageType).containsExactly("SUMMARY", "USER");
+    }
+
+    @Test
+    @DisplayName("A conversation unknown in memory is loaded from the database once")
+    void testColdLoad() {
+        when(messageRepository.findByConversationIdOrderBySeqAsc("c2")).thenReturn(List.of(
+            ChatMemoryMessage.builder().conversationId("c2").seq(0).messageType("SUMMARY").content("earlier").build(),
+            ChatMemoryMessage.builder().conversationId("c2").seq(1).messageType("USER").content("q").build()));
+
+        List<Message> loaded = repository.findByConversationId("c2");
+        repository.findByConversationId("c2");
+
+        assertThat(loaded).hasSize(2);
+        assertThat(JpaChatMemoryRepository.isSummary(loaded.get(0))).isTrue();
+        assertThat(loaded.get(1).getText()).isEqualTo("q");
+        verify(messageRepository, times(1)).findByConversationIdOrderBySeqAsc("c2");
+    }
+
+    @Test
+    @DisplayName("Deleting a conversation removes its rows on flush")
+    void testDelete() {
+        repository.saveAll("c1", List.of(new UserMessage("q1")));
+        repository.flush();
+
+        repository.deleteByConversationId("c1");
+        assertThat(repository.findByConversationId("c1")).isEmpty();
+        repository.flush();
+
+        verify(messageRepository).deleteFromSeq("c1", 0);
+    }
+}
@@ -49,4 +49,21 @@ class PerformanceProfilerTest {
         assertThat(latency.max).isEqualTo(0L);
         assertThat(latency.avg).isEqualTo(0.0);
     }
+
+    @Test
+    @DisplayName("component latencies should be reported separately and counted in the overall stats")
+    void componentLatencyStats() {
+        profiler.recordLatency("retrieval", 40);
+        profiler.recordLatency("retrieval", 60);
+        profiler.recordLatency("model", 900);
+
+        PerformanceProfiler.LatencyStats retrieval = profiler.getComponentLatencyStats().get("retrieval");
+        PerformanceProfiler.LatencyStats overall = profiler.getLatencyStats();
+
+        assertThat(profiler.getComponentLatencyStats()).containsOnlyKeys("model", "retrieval");
+        assertThat(retrieval.min).isEqualTo(40L);
+        assertThat(retrieval.max).isEqualTo(60L);
+        assertThat(retrieval.avg).isEqualTo(50.0);
+        assertThat(overall.max).isEqualTo(900L);
+    }
 }
@@ -1,6 +1,7 @@
 package com.vijay.service;
 
 import com.vijay.dto.PersonalityTraits;
+import com.vijay.state.SessionStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,7 +14,7 @@ class PersonalityEvolutionEngineTest {
 
     @BeforeEach
     void setUp() {
-        engine = new PersonalityEvolutionEngine();
+        engine = new PersonalityEvolutionEngine(new SessionStateStore());
     }
 
     @Test
@@ -0,0 +1,99 @@
+package com.vijay.service;
+
+import com.vijay.context.GlobalBrainContext;
+import com.vijay.context.TraceContext;
+import com.vijay.tools.ToolFinderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PreLlmStageTest {
+
+    private ToolFinderService toolFinder;
+
+    @BeforeEach
+    void setUp() {
+        toolFinder = mock(ToolFinderService.class);
+        TraceContext.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        GlobalBrainContext.clear();
+        TraceContext.clear();
+    }
+
+    private static <T> org.mockito.stubbing.Answer<T> after(long millis, T value) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return value;
+        };
+    }
+
+    @Test
+    @DisplayName("run should return the tools ToolFinder suggests")
+    void run_returnsSuggestedTools() {
+        when(toolFinder.findToolsFor(anyString())).thenReturn(List.of("toolA"));
+
+        PreLlmStage stage = new PreLlmStage(toolFinder, 5_000);
+        PreLlmStage.PreLlmResult result = stage.run("find the bug");
+
+        assertThat(result.suggestedTools).containsExactly("toolA");
+        assertThat(result.isDegraded()).isFalse();
+        assertThat(stage.getStats().runs).isEqualTo(1);
+        stage.shutdown();
+    }
+
+    @Test
+    @DisplayName("run should use degraded results for lookups that miss the deadline")
+    void run_slowLookup_degraded() {
+        when(toolFinder.findToolsFor(anyString())).thenAnswer(after(5_000, List.of("toolA")));
+
+        PreLlmStage stage = new PreLlmStage(toolFinder, 200);
+        PreLlmStage.PreLlmResult result = stage.run("q");
+
+        assertThat(result.suggestedTools).isEmpty();
+        assertThat(result.degraded).containsExactly("toolFinder");
+        assertThat(result.elapsedMs).isLessThan(2_000);
+        assertThat(stage.getStats().degradedTools).isEqualTo(1);
+        stage.shutdown();
+    }
+
+    @Test
+    @DisplayName("run should fall back to no tools when ToolFinder fails")
+    void run_failingLookup_degraded() {
+        when(toolFinder.findToolsFor(anyString())).thenThrow(new IllegalStateException("vector store down"));
+
+        PreLlmStage stage = new PreLlmStage(toolFinder, 1_000);
+        PreLlmStage.PreLlmResult result = stage.run("q");
+
+        assertThat(result.suggestedTools).isEmpty();
+        assertThat(result.degraded).containsExactly("toolFinder");
+        stage.shutdown();
+    }
+
+    @Test
+    @DisplayName("run should propagate the request context to the lookup threads")
+    void run_propagatesRequestContext() {
+        String traceId = TraceContext.getTraceId();
+        AtomicReference<String> seen = new AtomicReference<>();
+        when(toolFinder.findToolsFor(anyString())).thenAnswer(invocation -> {
+            seen.set(TraceContext.getTraceId());
+            return List.of();
+        });
+
+        PreLlmStage stage = new PreLlmStage(toolFinder, 1_000);
+        stage.run("q");
+
+        assertThat(seen.get()).isEqualTo(traceId);
+        stage.shutdown();
+    }
+}
@@ -0,0 +1,149 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProviderConcurrencyLimiterTest {
+
+    private static ProviderConcurrencyLimiter limiter(String limits, int maxQueue, long queueTimeoutMs) {
+        return new ProviderConcurrencyLimiter(true, limits, 8, 1, 64, maxQueue, queueTimeoutMs, 2.0);
+    }
+
+    private static long awaitQueueDepth(ProviderConcurrencyLimiter limiter, String provider, int depth)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            ProviderConcurrencyLimiter.AdmissionStats stats = limiter.getStats().get(provider);
+            if (stats != null && stats.queueDepth >= depth) {
+                return stats.queueDepth;
+            }
+            Thread.sleep(5);
+        }
+        return -1;
+    }
+
+    @Test
+    @DisplayName("wrapped model should never exceed the provider's concurrency limit")
+    void wrap_boundsInFlightCalls() throws Exception {
+        ProviderConcurrencyLimiter limiter = limiter("ollama=2", 64, 10_000);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ChatModel model = limiter.wrap("ollama", prompt -> {
+            peak.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return new StubChatModel("ok", 0).call(prompt);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(() -> model.call(new Prompt("hi"))));
+            }
+            for (Future<?> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ProviderConcurrencyLimiter.AdmissionStats stats = limiter.getStats().get("ollama");
+        assertThat(stats.admitted).isEqualTo(8);
+        assertThat(peak.get()).isEqualTo(stats.peakInFlight).isLessThanOrEqualTo(stats.limit);
+        assertThat(stats.queued).isPositive();
+        assertThat(stats.getRejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("acquire should reject with 429 and Retry-After once the wait queue is full")
+    void acquire_queueFull_429() throws Exception {
+        ProviderConcurrencyLimiter limiter = limiter("ollama=1", 1, 5_000);
+        ProviderConcurrencyLimiter.Permit held = limiter.acquire("ollama");
+
+        Thread waiter = new Thread(() -> limiter.acquire("ollama").close());
+        waiter.start();
+        assertThat(awaitQueueDepth(limiter, "ollama", 1)).isEqualTo(1);
+
+        ProviderOverloadedException e = assertThrows(ProviderOverloadedException.class,
+                () -> limiter.acquire("ollama"));
+        assertThat(e.getStatus()).isEqualTo(429);
+        assertThat(e.getRetryAfterSeconds()).isPositive();
+
+        // The early check used by ChatService rejects the same way
+        assertThrows(ProviderOverloadedException.class, () -> limiter.checkAdmission("ollama"));
+
+        held.close();
+        waiter.join(5_000);
+        assertThat(limiter.getStats().get("ollama").rejectedQueueFull).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("acquire should give up with 503 when the queue deadline passes")
+    void acquire_queueTimeout_503() {
+        ProviderConcurrencyLimiter limiter = limiter("ollama=1", 8, 50);
+        ProviderConcurrencyLimiter.Permit held = limiter.acquire("ollama");
+
+        ProviderOverloadedException e = assertThrows(ProviderOverloadedException.class,
+                () -> limiter.acquire("ollama"));
+
+        assertThat(e.getStatus()).isEqualTo(503);
+        assertThat(limiter.getStats().get("ollama").rejectedTimeout).isEqualTo(1);
+        held.close();
+    }
+
+    @Test
+    @DisplayName("the limit should shrink on failures and grow again while latency stays healthy")
+    void release_adaptsLimit() {
+        ProviderConcurrencyLimiter limiter = limiter("openai=8", 8, 1_000);
+
+        try (ProviderConcurrencyLimiter.Permit permit = limiter.acquire("openai")) {
+            // no success() -> failure
+        }
+        int afterFailure = limiter.getStats().get("openai").limit;
+        assertThat(afterFailure).isLessThan(8);
+
+        // Saturate the limit repeatedly with healthy (fast, successful) calls
+        for (int round = 0; round < 50; round++) {
+            List<ProviderConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            int limit = limiter.getStats().get("openai").limit;
+            for (int i = 0; i < limit; i++) {
+                permits.add(limiter.acquire("openai"));
+            }
+            for (ProviderConcurrencyLimiter.Permit permit : permits) {
+                permit.success();
+                permit.close();
+            }
+        }
+        assertThat(limiter.getStats().get("openai").limit).isGreaterThan(afterFailure);
+    }
+
+    @Test
+    @DisplayName("wrap should return the model unchanged when admission control is disabled")
+    void wrap_disabled_returnsModel() {
+        ProviderConcurrencyLimiter disabled = new ProviderConcurrencyLimiter(false, "", 8, 1, 64, 32, 1_000, 2.0);
+        ChatModel model = new StubChatModel("x", 0);
+
+        assertThat(disabled.wrap("ollama", model)).isSameAs(model);
+        assertThat(ProviderConcurrencyLimiter.canonical("claude")).isEqualTo("anthropic");
+        assertThat(ProviderConcurrencyLimiter.canonical("default")).isEqualTo("ollama");
+    }
+}
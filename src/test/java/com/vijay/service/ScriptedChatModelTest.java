@@ -0,0 +1,112 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScriptedChatModelTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{"
+            + "\"query\":{\"type\":\"string\"},\"limit\":{\"type\":\"integer\"},\"deep\":{\"type\":\"boolean\"}},"
+            + "\"required\":[\"query\",\"limit\"]}";
+
+    @Test
+    @DisplayName("call should answer the same prompt with the same text after first-token delay plus generation time")
+    void call_deterministicAndTimed() {
+        ScriptedChatModel model = new ScriptedChatModel(1000, 20, 50, 0, null);
+        Prompt prompt = new Prompt("How does the QueryPlanner work?");
+
+        long start = System.nanoTime();
+        ChatResponse first = model.call(prompt);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        ChatResponse second = model.call(new Prompt("How does the QueryPlanner work?"));
+
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(65);
+        assertThat(first.getResult().getOutput().getText()).isEqualTo(second.getResult().getOutput().getText());
+        assertThat(first.getResult().getOutput().getText().split(" ")).hasSize(50);
+        assertThat(first.getMetadata().getUsage().getCompletionTokens()).isEqualTo(50);
+        assertThat(model.getCallCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("every Nth request offering tools should get a tool call with schema-typed required arguments")
+    void call_emitsToolCallEveryNth() {
+        ScriptedChatModel model = new ScriptedChatModel(0, 0, 10, 2, null);
+        Prompt prompt = new Prompt(List.of(new UserMessage("search the code")),
+                ToolCallingChatOptions.builder().toolCallbacks(tool("searchCode")).build());
+
+        AssistantMessage first = model.call(prompt).getResult().getOutput();
+        AssistantMessage second = model.call(prompt).getResult().getOutput();
+
+        assertThat(first.getToolCalls()).singleElement().satisfies(call -> {
+            assertThat(call.name()).isEqualTo("searchCode");
+            assertThat(call.arguments()).isEqualTo("{\"query\":\"perf\",\"limit\":1}");
+        });
+        assertThat(second.hasToolCalls()).isFalse();
+        assertThat(model.getToolCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("emitted tool calls should run through the ToolCallingManager and be followed by a second call")
+    void call_executesToolCallsInternally() {
+        ToolCallingManager manager = mock(ToolCallingManager.class);
+        ScriptedChatModel model = new ScriptedChatModel(0, 0, 10, 1, manager);
+        Prompt prompt = new Prompt(List.of(new UserMessage("search the code")),
+                ToolCallingChatOptions.builder().toolCallbacks(tool("searchCode")).build());
+        ToolResponseMessage toolResult = new ToolResponseMessage(
+                List.of(new ToolResponseMessage.ToolResponse("scripted-1", "searchCode", "found")));
+        when(manager.executeToolCalls(any(Prompt.class), any(ChatResponse.class)))
+                .thenReturn(ToolExecutionResult.builder()
+                        .conversationHistory(List.of(new UserMessage("search the code"), toolResult))
+                        .build());
+
+        ChatResponse response = model.call(prompt);
+
+        verify(manager).executeToolCalls(any(Prompt.class), any(ChatResponse.class));
+        assertThat(response.getResult().getOutput().hasToolCalls()).isFalse();
+        assertThat(response.getResult().getOutput().getText()).isNotBlank();
+        assertThat(model.getCallCount()).isEqualTo(2);
+        assertThat(model.getToolCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stream should emit one chunk per token that joins up to the call() answer")
+    void stream_tokenByToken() {
+        ScriptedChatModel model = new ScriptedChatModel(2000, 5, 12, 0, null);
+        Prompt prompt = new Prompt("explain the cache");
+
+        List<ChatResponse> chunks = model.stream(prompt).collectList().block();
+
+        assertThat(chunks).hasSize(12);
+        assertThat(chunks.stream().map(chunk -> chunk.getResult().getOutput().getText()).collect(Collectors.joining()))
+                .isEqualTo(model.reply(prompt));
+    }
+
+    private static ToolCallback tool(String name) {
+        ToolCallback callback = mock(ToolCallback.class);
+        when(callback.getToolDefinition()).thenReturn(ToolDefinition.builder()
+                .name(name)
+                .description("test tool")
+                .inputSchema(SCHEMA)
+                .build());
+        return callback;
+    }
+}
@@ -0,0 +1,134 @@
+package com.vijay.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SemanticResponseCacheTest {
+
+    private static final String QUERY = "What is a Java record?";
+    private static final String PARAPHRASE = "explain a java record";
+
+    private EmbeddingModel embeddingModel;
+    private ChatMemory chatMemory;
+    private SemanticResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        embeddingModel = mock(EmbeddingModel.class);
+        chatMemory = mock(ChatMemory.class);
+        when(embeddingModel.embed(anyString())).thenReturn(new float[]{0f, 0f, 1f});
+        when(embeddingModel.embed("what is a java record")).thenReturn(new float[]{1f, 0f, 0f});
+        when(embeddingModel.embed(PARAPHRASE)).thenReturn(new float[]{0.98f, 0.2f, 0f});
+        cache = new SemanticResponseCache(new CacheManager(new LocalCacheImpl()), embeddingModel, chatMemory,
+                true, 0.92, 500);
+    }
+
+    private void storeAnswer(String query, String answer) {
+        SemanticResponseCache.Lookup miss = cache.lookup("openai", query, "state", "conv-1");
+        assertThat(miss.hit).isFalse();
+        cache.store(miss, answer, List.of());
+    }
+
+    @Test
+    @DisplayName("lookup should hit on the same question after normalization")
+    void lookup_exactHit() {
+        storeAnswer(QUERY, "A record is ...");
+
+        SemanticResponseCache.Lookup lookup = cache.lookup("openai", "  what is a   java record ", "state", "conv-1");
+
+        assertThat(lookup.hit).isTrue();
+        assertThat(lookup.response).isEqualTo("A record is ...");
+        assertThat(cache.getStats().exactHits).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("lookup should hit on a paraphrase above the similarity threshold")
+    void lookup_semanticHit() {
+        storeAnswer(QUERY, "A record is ...");
+
+        SemanticResponseCache.Lookup lookup = cache.lookup("openai", PARAPHRASE, "state", "conv-1");
+
+        assertThat(lookup.hit).isTrue();
+        assertThat(lookup.similarity).isGreaterThan(0.92);
+        assertThat(cache.getStats().semanticHits).isEqualTo(1);
+
+        // Promoted to an exact entry
+        cache.lookup("openai", PARAPHRASE, "state", "conv-1");
+        assertThat(cache.getStats().exactHits).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("lookup should miss below the threshold and across providers or system prompts")
+    void lookup_missOutsideBucketOrThreshold() {
+        storeAnswer(QUERY, "A record is ...");
+
+        assertThat(cache.lookup("openai", "what is aspect oriented programming", "state", "conv-1").hit).isFalse();
+        assertThat(cache.lookup("claude", QUERY, "state", "conv-1").hit).isFalse();
+        assertThat(cache.lookup("openai", QUERY, "other-state", "conv-1").hit).isFalse();
+    }
+
+    @Test
+    @DisplayName("lookup should share answers between conversations only when their histories match")
+    void lookup_keyedOnHistory() {
+        storeAnswer(QUERY, "A record is ...");
+        when(chatMemory.get("conv-3")).thenReturn(List.of(new UserMessage("my project uses Kotlin"),
+                new AssistantMessage("Noted.")));
+
+        assertThat(cache.lookup("openai", QUERY, "state", "conv-2").hit).isTrue();
+        assertThat(cache.lookup("openai", QUERY, "state", "conv-3").hit).isFalse();
+    }
+
+    @Test
+    @DisplayName("lookup should bypass tool-using and conversation-dependent turns")
+    void lookup_bypass() {
+        SemanticResponseCache.Lookup tools = cache.lookup("openai", "what's the weather in Pune today", "state", "conv-1");
+        SemanticResponseCache.Lookup context = cache.lookup("openai", "explain it again", "state", "conv-1");
+
+        assertThat(tools.cacheable).isFalse();
+        assertThat(tools.reason).isEqualTo("TOOLS");
+        assertThat(context.cacheable).isFalse();
+        assertThat(context.reason).isEqualTo("CONVERSATION");
+        verifyNoInteractions(embeddingModel);
+    }
+
+    @Test
+    @DisplayName("store should skip turns that ended up using tools")
+    void store_skipsToolTurns() {
+        SemanticResponseCache.Lookup miss = cache.lookup("openai", QUERY, "state", "conv-1");
+        cache.store(miss, "answer", List.of("searchCode"));
+
+        assertThat(cache.lookup("openai", QUERY, "state", "conv-1").hit).isFalse();
+        assertThat(cache.getStats().stores).isZero();
+    }
+
+    @Test
+    @DisplayName("disabled cache should never look anything up")
+    void lookup_disabled() {
+        SemanticResponseCache disabled = new SemanticResponseCache(mock(CacheManager.class), embeddingModel,
+                chatMemory, false, 0.92, 500);
+
+        assertThat(disabled.lookup("openai", QUERY, "state", "conv-1").reason).isEqualTo("DISABLED");
+        verifyNoInteractions(embeddingModel);
+    }
+
+    @Test
+    @DisplayName("recordTurn should append the turn to chat memory")
+    void recordTurn_addsToChatMemory() {
+        cache.recordTurn("user-1", QUERY, "A record is ...");
+
+        verify(chatMemory).add(eq("user-1"), anyList());
+    }
+}
@@ -1,20 +1,41 @@
 package com.vijay.service;
 
+import com.vijay.context.TraceContext;
+import com.vijay.dto.ChatRequest;
+import com.vijay.dto.ChatResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class StressTestRunnerTest {
 
+    private ChatService chatService;
+    private TimelineVisualizer timeline;
     private StressTestRunner runner;
 
     @BeforeEach
     void setUp() {
-        runner = new StressTestRunner();
+        chatService = mock(ChatService.class);
+        timeline = new TimelineVisualizer();
+        runner = new StressTestRunner(chatService, mock(PreLlmStage.class), timeline, "stub", 2000, 30, 4);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @Test
@@ -30,11 +51,69 @@ class StressTestRunnerTest {
     @Test
     @DisplayName("runStressTest should produce a reasonable result without throwing")
     void runStressTest_basic() {
+        when(chatService.processChat(eq("stub"), any(ChatRequest.class)))
+                .thenReturn(new ChatResponse("ok", "stub"));
+
         StressTestRunner.StressTestResult result = runner.runStressTest(2, 1);
 
         assertThat(result.totalRequests).isEqualTo(2);
         assertThat(result.successCount + result.failureCount).isEqualTo(2);
         assertThat(result.successRate + result.errorRate).isBetween(99.0, 101.0);
+        assertThat(result.provider).isEqualTo("stub");
         assertThat(result.toString()).contains("Stress Test Result:");
     }
+
+    @Test
+    @DisplayName("chat runs should break latency down by the advisors recorded under each request's trace ID")
+    void runStressTest_chatStageBreakdown() {
+        when(chatService.processChat(eq("stub"), any(ChatRequest.class))).thenAnswer(invocation -> {
+            timeline.recordAdvisorCall(TraceContext.getTraceId(), "ConductorAdvisor", 0, 0L,
+                    12_000_000L, 2_000_000L, -1L, 0);
+            sleep(12);
+            return new ChatResponse("ok", "stub");
+        });
+
+        StressTestRunner.StressTestResult result = runner.runStressTest(20, 1, "chat", null, true);
+
+        assertThat(result.successCount).isEqualTo(20);
+        assertThat(result.stageMicros).containsKeys("ConductorAdvisor", StressTestRunner.OTHER_STAGE);
+        assertThat(result.stageMicros.get("ConductorAdvisor").count).isEqualTo(20);
+        assertThat(result.stageMicros.get("ConductorAdvisor").max).isEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("latency should be measured from the intended start, so it never undercuts service time")
+    void run_coordinatedOmissionCorrected() {
+        StressTestRunner.StressTestResult result = runner.run((query, traceId) -> {
+            sleep(30);
+            return Map.of("work", 30_000L);
+        }, "test", 25, 1, false);
+
+        assertThat(result.successCount).isEqualTo(25);
+        assertThat(result.latencyMicros.count).isEqualTo(25);
+        assertThat(result.latencyMicros.p50).isGreaterThanOrEqualTo(result.serviceTimeMicros.p50);
+        assertThat(result.p50Latency).isGreaterThanOrEqualTo(30L);
+        assertThat(result.stageMicros.get("work").count).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("arrivals beyond the in-flight cap should be dropped instead of slowing the arrival rate")
+    void run_dropsBeyondInFlightCap() {
+        StressTestRunner capped = new StressTestRunner(chatService, mock(PreLlmStage.class), timeline, "stub", 1, 30, 4);
+
+        StressTestRunner.StressTestResult result = capped.run((query, traceId) -> {
+            sleep(300);
+            return Map.of();
+        }, "test", 20, 1, false);
+
+        assertThat(result.droppedCount).isGreaterThan(0);
+        assertThat(result.successCount + result.failureCount).isEqualTo(20);
+        assertThat(result.endTime - result.startTime).isLessThan(2_000L);
+    }
+
+    @Test
+    @DisplayName("an unknown target should be rejected")
+    void runStressTest_unknownTarget() {
+        assertThrows(IllegalArgumentException.class, () -> runner.runStressTest(1, 1, "nope", null, true));
+    }
 }
@@ -0,0 +1,69 @@
+package com.vijay.service;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 🧪 STUB CHAT MODEL - Offline ChatModel with Scripted Latency
+ *
+ * Purpose: Exercise hedging, failover and latency tracking without any provider
+ * (test fixture; the application's offline model is ScriptedChatModel)
+ *
+ * Responsibilities:
+ * - Answer every prompt with a scripted reply after a scripted delay
+ * - Honour interruption, so a cancelled hedge loser stops immediately
+ * - Count calls and interruptions for assertions
+ *
+ * Usage:
+ * - new StubChatModel("pong", 50)                      fixed 50ms
+ * - new StubChatModel(p -> "pong", () -> nextLatency)  scripted per call
+ */
+public class StubChatModel implements ChatModel {
+
+    private final Function<Prompt, String> reply;
+    private final LongSupplier latencyMs;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger interrupted = new AtomicInteger();
+
+    public StubChatModel(String reply, long latencyMs) {
+        this(prompt -> reply, () -> latencyMs);
+    }
+
+    public StubChatModel(Function<Prompt, String> reply, LongSupplier latencyMs) {
+        this.reply = reply;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        calls.incrementAndGet();
+        long delay = latencyMs.getAsLong();
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Stub call cancelled", e);
+            }
+        }
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(reply.apply(prompt)))));
+    }
+
+    public int getCallCount() {
+        return calls.get();
+    }
+
+    public int getInterruptedCount() {
+        return interrupted.get();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vijay.service;
+
+import com.vijay.state.SessionStateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SummarizingChatMemoryTest {
+
+    private InMemoryChatMemoryRepository repository;
+    private ConversationSummarizer summarizer;
+    private SummarizingChatMemory memory;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryChatMemoryRepository();
+        summarizer = mock(ConversationSummarizer.class);
+        when(summarizer.summarize(any(), anyList())).thenReturn("- User: earlier question");
+        // Budget 10 tokens, compaction once 5 more accumulate; compaction runs inline
+        memory = new SummarizingChatMemory(repository, summarizer, new TokenCountingService(new SessionStateStore()), 10, 20, 5, Runnable::run);
+    }
+
+    private static String words(int count) {
+        return "word ".repeat(count).trim();
+    }
+
+    @Test
+    @DisplayName("Short conversations are returned verbatim")
+    void testShortHistory() {
+        memory.add("c1", List.of(new UserMessage("hi"), new AssistantMessage("hello")));
+
+        assertThat(memory.get("c1")).extracting(Message::getText).containsExactly("hi", "hello");
+        verify(summarizer, never()).summarize(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("get() returns only the newest messages within the token budget")
+    void testBudgetedGet() {
+        // 12 tokens: over the budget, but not by a compaction batch yet
+        memory.add("c1", List.of(new UserMessage(words(4)), new AssistantMessage(words(4)), new UserMessage("a b c d")));
+
+        List<Message> history = memory.get("c1");
+
+        assertThat(history).extracting(Message::getText).containsExactly(words(4), "a b c d");
+        assertThat(repository.findByConversationId("c1")).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("The newest message is returned even when it exceeds the budget")
+    void testOversizedNewest() {
+        memory.add("c1", List.of(new UserMessage(words(12))));
+
+        assertThat(memory.get("c1")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Overflowing history is folded into a summary at the head")
+    void testCompaction() {
+        memory.add("c1", List.of(new UserMessage(words(8)), new AssistantMessage(words(8))));
+        memory.add("c1", List.of(new UserMessage("q2"), new AssistantMessage("a2")));
+
+        verify(summarizer).summarize(isNull(), anyList());
+        List<Message> stored = repository.findByConversationId("c1");
+        assertThat(JpaChatMemoryRepository.isSummary(stored.get(0))).isTrue();
+        assertThat(stored).extracting(Message::getText).endsWith("q2", "a2");
+
+        List<Message> history = memory.get("c1");
+        assertThat(history.get(0).getText()).isEqualTo("- User: earlier question");
+        assertThat(history).extracting(Message::getText).endsWith("q2", "a2");
+        assertThat(memory.getStats()).containsEntry("compactions", 1L);
+    }
+
+    @Test
+    @DisplayName("The previous summary is passed on to the next compaction")
+    void testRollingSummary() {
+        memory.add("c1", List.of(new UserMessage(words(8)), new AssistantMessage(words(8))));
+        memory.add("c1", List.of(new UserMessage("q2"), new AssistantMessage("a2")));
+        memory.add("c1", List.of(new UserMessage(words(8)), new AssistantMessage(words(8))));
+
+        verify(summarizer).summarize(eq("- User: earlier question"), anyList());
+        assertThat(repository.findByConversationId("c1"))
+            .filteredOn(JpaChatMemoryRepository::isSummary).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("clear() removes the conversation")
+    void testClear() {
+        memory.add("c1", List.of(new UserMessage("hi")));
+        memory.clear("c1");
+
+        assertThat(memory.get("c1")).isEmpty();
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TimelineVisualizerTest {
@@ -69,4 +71,27 @@ class TimelineVisualizerTest {
         assertThat(visualizer.getTimeline()).isEmpty();
         assertThat(visualizer.getTotalDuration()).isEqualTo(0L);
     }
+
+    @Test
+    @DisplayName("recordAdvisorCall should tag events with the trace ID and feed per-advisor histograms")
+    void recordAdvisorCall_perTraceAndHistograms() {
+        visualizer.recordAdvisorCall("trace-1", "DynamicContextAdvisor", 1, 10L, 4_000_000L, 1_500_000L, 900_000L, 120);
+        visualizer.recordAdvisorCall("trace-2", "DynamicContextAdvisor", 1, 12L, 6_000_000L, 2_500_000L, -1L, 80);
+        visualizer.recordAdvisorCall("trace-1", "ConductorAdvisor", 0, 2L, 9_000_000L, 500_000L, 400_000L, 0);
+
+        assertThat(visualizer.getTimeline("trace-1")).extracting(e -> e.advisorName)
+                .containsExactly("DynamicContextAdvisor", "ConductorAdvisor");
+        TimelineVisualizer.TimelineEvent event = visualizer.getTimeline("trace-1").get(0);
+        assertThat(event.endMs).isEqualTo(14L);
+        assertThat(event.selfMicros).isEqualTo(1_500L);
+
+        List<TimelineVisualizer.AdvisorLatencyStats> breakdown = visualizer.getAdvisorBreakdown();
+        assertThat(breakdown).extracting(s -> s.advisorName)
+                .containsExactly("ConductorAdvisor", "DynamicContextAdvisor");
+        TimelineVisualizer.AdvisorLatencyStats context = breakdown.get(1);
+        assertThat(context.calls).isEqualTo(2);
+        assertThat(context.cpuMicros.count).isEqualTo(1);
+        assertThat(context.avgInjectedTokens).isEqualTo(100.0);
+        assertThat(visualizer.exportToCSV()).contains("trace-2");
+    }
 }
@@ -1,5 +1,6 @@
 package com.vijay.service;
 
+import com.vijay.state.SessionStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,7 +13,7 @@ class TokenCountingServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new TokenCountingService();
+        service = new TokenCountingService(new SessionStateStore());
     }
 
     @Test
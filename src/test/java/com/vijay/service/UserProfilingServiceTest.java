@@ -1,8 +1,12 @@
 package com.vijay.service;
 
+import com.vijay.state.InMemoryStateBackend;
+import com.vijay.state.SessionStateStore;
+import com.vijay.state.StateBackend;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
 
 import java.util.List;
 
@@ -14,7 +18,7 @@ class UserProfilingServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new UserProfilingService();
+        service = new UserProfilingService(new SessionStateStore());
     }
 
     @Test
@@ -51,4 +55,36 @@ class UserProfilingServiceTest {
         service.updatePreference(userId, "responseFormat", "code-heavy");
         assertThat(service.getPreferredResponseFormat(userId)).isEqualTo("code-heavy");
     }
+
+    @Test
+    @DisplayName("profile changes should write through, so another service on a shared backend reads them")
+    void profileChanges_sharedBackend() {
+        StateBackend backend = sharedBackend();
+        UserProfilingService first = new UserProfilingService(sharedStore(backend));
+        UserProfilingService second = new UserProfilingService(sharedStore(backend));
+
+        first.recordInteraction("user3", "ARCHITECTURE", 5, "spring");
+        first.recordFeedback("user3", 4, "useful");
+        first.updatePreference("user3", "responseFormat", "concise");
+
+        UserProfilingService.UserProfileSummary summary = second.getProfileSummary("user3");
+        assertThat(summary.interactionCount).isEqualTo(1);
+        assertThat(second.getUserSpecializations("user3")).contains("spring");
+        assertThat(second.getPreferredResponseFormat("user3")).isEqualTo("concise");
+    }
+
+    private static StateBackend sharedBackend() {
+        return new InMemoryStateBackend() {
+            @Override
+            public boolean isShared() {
+                return true;
+            }
+        };
+    }
+
+    private static SessionStateStore sharedStore(StateBackend backend) {
+        return new SessionStateStore(new MockEnvironment()
+                .withProperty("chat.state.spill.enabled", "false")
+                .withProperty("chat.state.sweep-interval-seconds", "0"), backend);
+    }
 }
@@ -1,6 +1,7 @@
 package com.vijay.service;
 
 import com.vijay.dto.WorkingMemoryState;
+import com.vijay.state.SessionStateStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,7 +16,7 @@ class WorkingMemoryManagerTest {
 
     @BeforeEach
     void setUp() {
-        manager = new WorkingMemoryManager();
+        manager = new WorkingMemoryManager(new SessionStateStore());
     }
 
     @Test
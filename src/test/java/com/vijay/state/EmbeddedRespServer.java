@@ -0,0 +1,333 @@
+package com.vijay.state;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process stand-in for a Redis server: just the commands RedisStateBackend
+ * sends (AUTH, PING, HMGET, HGET, HINCRBY, HSET, PEXPIRE, DEL, WATCH, UNWATCH, MULTI,
+ * EXEC, DISCARD, PUBLISH, SUBSCRIBE), one thread per connection, one lock for the data.
+ */
+class EmbeddedRespServer implements AutoCloseable {
+
+    // EXEC's reply when a watched key changed
+    private static final Object NIL_ARRAY = new Object();
+
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final Map<String, Map<String, byte[]>> hashes = new HashMap<>();
+    private final Map<String, Long> expiries = new HashMap<>();
+    private final Map<String, Long> modifications = new HashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private long modificationCounter;
+
+    EmbeddedRespServer(String password) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.password = password;
+        Thread acceptor = new Thread(this::acceptLoop, "embedded-resp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Drop every client connection (as a server restart would), keeping the data
+     */
+    void disconnectClients() {
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        disconnectClients();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Client client = new Client(serverSocket.accept());
+                clients.add(client);
+                Thread thread = new Thread(client::serve, "embedded-resp-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private Object execute(Client client, List<byte[]> command) {
+        String name = text(command.get(0)).toUpperCase();
+        if (!client.authenticated && !name.equals("AUTH")) {
+            return new Error("NOAUTH Authentication required.");
+        }
+        if (client.queued != null && !Set.of("EXEC", "DISCARD", "MULTI", "WATCH").contains(name)) {
+            client.queued.add(command);
+            return "QUEUED";
+        }
+        synchronized (this) {
+            return switch (name) {
+                case "AUTH" -> auth(client, text(command.get(1)));
+                case "PING" -> "PONG";
+                case "MULTI" -> {
+                    client.queued = new ArrayList<>();
+                    yield "OK";
+                }
+                case "DISCARD" -> {
+                    client.queued = null;
+                    client.watched.clear();
+                    yield "OK";
+                }
+                case "WATCH" -> {
+                    for (int i = 1; i < command.size(); i++) {
+                        String key = text(command.get(i));
+                        client.watched.put(key, modifications.getOrDefault(key, 0L));
+                    }
+                    yield "OK";
+                }
+                case "UNWATCH" -> {
+                    client.watched.clear();
+                    yield "OK";
+                }
+                case "EXEC" -> exec(client);
+                case "SUBSCRIBE" -> {
+                    String channel = text(command.get(1));
+                    subscribers.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet()).add(client);
+                    yield List.of(bytes("subscribe"), bytes(channel), 1L);
+                }
+                default -> data(name, command);
+            };
+        }
+    }
+
+    private Object auth(Client client, String given) {
+        if (password != null && !password.equals(given)) {
+            return new Error("WRONGPASS invalid password");
+        }
+        client.authenticated = true;
+        return "OK";
+    }
+
+    private Object exec(Client client) {
+        List<List<byte[]>> queued = client.queued;
+        client.queued = null;
+        if (queued == null) {
+            return new Error("ERR EXEC without MULTI");
+        }
+        boolean aborted = client.watched.entrySet().stream()
+            .anyMatch(watch -> !modifications.getOrDefault(watch.getKey(), 0L).equals(watch.getValue()));
+        client.watched.clear();
+        if (aborted) {
+            return NIL_ARRAY;
+        }
+        List<Object> results = new ArrayList<>();
+        for (List<byte[]> command : queued) {
+            results.add(data(text(command.get(0)).toUpperCase(), command));
+        }
+        return results;
+    }
+
+    private Object data(String name, List<byte[]> command) {
+        String key = command.size() > 1 ? text(command.get(1)) : null;
+        if (key != null && !name.equals("PUBLISH")) {
+            expireIfDue(key);
+        }
+        Map<String, byte[]> hash = key != null ? hashes.get(key) : null;
+        switch (name) {
+            case "HGET":
+                return hash != null ? hash.get(text(command.get(2))) : null;
+            case "HMGET": {
+                List<Object> values = new ArrayList<>();
+                for (int i = 2; i < command.size(); i++) {
+                    values.add(hash != null ? hash.get(text(command.get(i))) : null);
+                }
+                return values;
+            }
+            case "HINCRBY": {
+                Map<String, byte[]> target = hashes.computeIfAbsent(key, k -> new HashMap<>());
+                String field = text(command.get(2));
+                long value = (target.containsKey(field) ? Long.parseLong(text(target.get(field))) : 0)
+                    + Long.parseLong(text(command.get(3)));
+                target.put(field, bytes(String.valueOf(value)));
+                touch(key);
+                return value;
+            }
+            case "HSET": {
+                hashes.computeIfAbsent(key, k -> new HashMap<>()).put(text(command.get(2)), command.get(3));
+                touch(key);
+                return 1L;
+            }
+            case "PEXPIRE": {
+                if (hash == null) {
+                    return 0L;
+                }
+                expiries.put(key, System.currentTimeMillis() + Long.parseLong(text(command.get(2))));
+                touch(key);
+                return 1L;
+            }
+            case "DEL": {
+                boolean removed = hashes.remove(key) != null;
+                expiries.remove(key);
+                if (removed) {
+                    touch(key);
+                }
+                return removed ? 1L : 0L;
+            }
+            case "PUBLISH": {
+                Set<Client> receivers = subscribers.getOrDefault(key, Set.of());
+                for (Client receiver : receivers) {
+                    receiver.send(List.of(bytes("message"), bytes(key), command.get(2)));
+                }
+                return (long) receivers.size();
+            }
+            default:
+                return new Error("ERR unknown command '" + name + "'");
+        }
+    }
+
+    private void expireIfDue(String key) {
+        Long expiresAt = expiries.get(key);
+        if (expiresAt != null && expiresAt <= System.currentTimeMillis()) {
+            hashes.remove(key);
+            expiries.remove(key);
+            touch(key);
+        }
+    }
+
+    private void touch(String key) {
+        modifications.put(key, ++modificationCounter);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Error(String message) {
+    }
+
+    private final class Client {
+        private final Socket socket;
+        private final Map<String, Long> watched = new HashMap<>();
+        private List<List<byte[]>> queued;
+        private boolean authenticated = password == null;
+        private OutputStream out;
+
+        Client(Socket socket) {
+            this.socket = socket;
+        }
+
+        void serve() {
+            try (socket) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                out = socket.getOutputStream();
+                List<byte[]> command;
+                while ((command = readCommand(in)) != null) {
+                    send(execute(this, command));
+                }
+            } catch (IOException e) {
+                // Client went away
+            } finally {
+                clients.remove(this);
+                subscribers.values().forEach(set -> set.remove(this));
+            }
+        }
+
+        synchronized void send(Object reply) {
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                write(buffer, reply);
+                out.write(buffer.toByteArray());
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+
+        private List<byte[]> readCommand(InputStream in) throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                return null;
+            }
+            if (type != '*') {
+                throw new IOException("Expected an array");
+            }
+            int count = Integer.parseInt(readLine(in));
+            List<byte[]> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.read(); // '$'
+                int length = Integer.parseInt(readLine(in));
+                args.add(in.readNBytes(length));
+                readLine(in);
+            }
+            return args;
+        }
+
+        private String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new IOException("Connection closed");
+                }
+                line.append((char) b);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        private void write(ByteArrayOutputStream buffer, Object reply) throws IOException {
+            if (reply == NIL_ARRAY) {
+                buffer.write(bytes("*-1\r\n"));
+            } else if (reply == null) {
+                buffer.write(bytes("$-1\r\n"));
+            } else if (reply instanceof String simple) {
+                buffer.write(bytes("+" + simple + "\r\n"));
+            } else if (reply instanceof Error error) {
+                buffer.write(bytes("-" + error.message() + "\r\n"));
+            } else if (reply instanceof Long number) {
+                buffer.write(bytes(":" + number + "\r\n"));
+            } else if (reply instanceof byte[] bulk) {
+                buffer.write(bytes("$" + bulk.length + "\r\n"));
+                buffer.write(bulk);
+                buffer.write(bytes("\r\n"));
+            } else if (reply instanceof List<?> items) {
+                buffer.write(bytes("*" + items.size() + "\r\n"));
+                for (Object item : items) {
+                    write(buffer, item);
+                }
+            }
+        }
+    }
+}
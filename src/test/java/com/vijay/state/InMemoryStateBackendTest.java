@@ -0,0 +1,64 @@
+package com.vijay.state;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryStateBackendTest {
+
+    private AtomicLong now;
+    private InMemoryStateBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        backend = new InMemoryStateBackend(now::get);
+    }
+
+    @Test
+    @DisplayName("putIfVersion succeeds only against the current version")
+    void testCompareAndSet() {
+        assertThat(backend.putIfVersion("k", bytes("a"), StateBackend.ABSENT, null)).isEqualTo(1);
+        assertThat(backend.putIfVersion("k", bytes("b"), StateBackend.ABSENT, null)).isEqualTo(-1);
+        assertThat(backend.putIfVersion("k", bytes("b"), 1, null)).isEqualTo(2);
+        assertThat(backend.put("k", bytes("c"), null)).isEqualTo(3);
+
+        assertThat(backend.get("k").version()).isEqualTo(3);
+        assertThat(backend.getStats()).containsEntry("conflicts", 1L);
+        assertThat(backend.isShared()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Values expire after their TTL and the key starts over at version 1")
+    void testExpiry() {
+        backend.put("k", bytes("a"), Duration.ofMinutes(1));
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+
+        assertThat(backend.get("k")).isNull();
+        assertThat(backend.putIfVersion("k", bytes("b"), StateBackend.ABSENT, null)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Listeners hear about writes and deletes")
+    void testListeners() {
+        List<String> changes = new ArrayList<>();
+        backend.addInvalidationListener((key, version) -> changes.add(key + "@" + version));
+
+        backend.put("k", bytes("a"), null);
+        backend.delete("k");
+
+        assertThat(changes).containsExactly("k@1", "k@" + StateBackend.DELETED);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
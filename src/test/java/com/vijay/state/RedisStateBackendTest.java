@@ -0,0 +1,179 @@
+package com.vijay.state;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisStateBackendTest {
+
+    private EmbeddedRespServer server;
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedRespServer("secret");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Values are read back with a version that every write increments")
+    void testPutAndGet() {
+        RedisStateBackend backend = backend();
+
+        assertThat(backend.get("k")).isNull();
+        assertThat(backend.put("k", bytes("one"), Duration.ofMinutes(5))).isEqualTo(1);
+        assertThat(backend.put("k", bytes("two"), Duration.ofMinutes(5))).isEqualTo(2);
+
+        StateBackend.Versioned stored = backend.get("k");
+        assertThat(stored.version()).isEqualTo(2);
+        assertThat(new String(stored.value(), StandardCharsets.UTF_8)).isEqualTo("two");
+
+        assertThat(backend.delete("k")).isTrue();
+        assertThat(backend.get("k")).isNull();
+    }
+
+    @Test
+    @DisplayName("putIfVersion writes only over the expected version")
+    void testCompareAndSet() {
+        RedisStateBackend backend = backend();
+
+        assertThat(backend.putIfVersion("k", bytes("first"), StateBackend.ABSENT, null)).isEqualTo(1);
+        assertThat(backend.putIfVersion("k", bytes("again"), StateBackend.ABSENT, null)).isEqualTo(-1);
+        assertThat(backend.putIfVersion("k", bytes("second"), 1, null)).isEqualTo(2);
+        assertThat(backend.putIfVersion("k", bytes("stale"), 1, null)).isEqualTo(-1);
+
+        assertThat(new String(backend.get("k").value(), StandardCharsets.UTF_8)).isEqualTo("second");
+        assertThat(backend.getStats()).containsEntry("conflicts", 2L);
+    }
+
+    @Test
+    @DisplayName("Writes on one backend are announced to listeners on another")
+    void testInvalidations() {
+        RedisStateBackend writer = backend();
+        RedisStateBackend reader = backend();
+        List<String> changes = new CopyOnWriteArrayList<>();
+        reader.addInvalidationListener((key, version) -> changes.add(key + "@" + version));
+        await(() -> Boolean.TRUE.equals(reader.getStats().get("subscribed")));
+
+        writer.put("k", bytes("v"), null);
+        writer.delete("k");
+
+        await(() -> changes.size() == 2);
+        assertThat(changes).containsExactly("k@1", "k@" + StateBackend.DELETED);
+    }
+
+    @Test
+    @DisplayName("A wrong password surfaces as a StateBackendException")
+    void testAuthFailure() {
+        RedisStateBackend backend = track(new RedisStateBackend("127.0.0.1", server.getPort(), "wrong", "test:", 2, 2000));
+
+        assertThatThrownBy(() -> backend.get("k")).isInstanceOf(StateBackendException.class);
+    }
+
+    @Test
+    @DisplayName("After the server drops every connection, commands and the subscription recover")
+    void testReconnect() {
+        RedisStateBackend backend = backend();
+        List<String> changes = new CopyOnWriteArrayList<>();
+        backend.addInvalidationListener((key, version) -> changes.add(String.valueOf(key)));
+        backend.put("k", bytes("before"), null);
+        await(() -> Boolean.TRUE.equals(backend.getStats().get("subscribed")));
+
+        server.disconnectClients();
+
+        assertThat(backend.put("k", bytes("after"), null)).isEqualTo(2);
+        // Everything is reported stale once the subscription is back
+        await(() -> changes.contains("null"));
+        assertThat((Long) backend.getStats().get("reconnects")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Two stores on the same backend share namespace state; concurrent updates are never lost")
+    void testReplicasShareState() throws Exception {
+        SessionNamespace<ArrayList<String>> first = replica().namespace("shared", 100, Duration.ofHours(1), SpillCodec.serialized());
+        SessionNamespace<ArrayList<String>> second = replica().namespace("shared", 100, Duration.ofHours(1), SpillCodec.serialized());
+
+        first.update("conversation", key -> new ArrayList<>(), list -> list.add("hello"));
+        assertThat(second.get("conversation")).containsExactly("hello");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (SessionNamespace<ArrayList<String>> replica : List.of(first, second)) {
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20; i++) {
+                    replica.update("conversation", list -> list.add("turn"));
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Every write landed once, whichever replica lost a race
+        await(() -> {
+            ArrayList<String> seen = second.get("conversation");
+            return seen != null && seen.size() == 41;
+        });
+        assertThat(first.get("conversation")).hasSize(41);
+
+        first.remove("conversation");
+        await(() -> second.get("conversation") == null);
+    }
+
+    private SessionStateStore replica() {
+        return new SessionStateStore(null, backend(), System::currentTimeMillis, 0, null);
+    }
+
+    private RedisStateBackend backend() {
+        return track(new RedisStateBackend("127.0.0.1", server.getPort(), "secret", "test:", 4, 2000));
+    }
+
+    private RedisStateBackend track(RedisStateBackend backend) {
+        closeables.add(backend);
+        return backend;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
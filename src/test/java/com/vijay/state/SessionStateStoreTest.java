@@ -0,0 +1,213 @@
+package com.vijay.state;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionStateStoreTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private AtomicLong now;
+    private SessionStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        store = new SessionStateStore(null, now::get, 0, null);
+    }
+
+    @Test
+    @DisplayName("Sweep evicts entries idle past the TTL and reports them as IDLE")
+    void testIdleEviction() {
+        SessionNamespace<String> namespace = store.namespace("test", 100, Duration.ofMinutes(10));
+        List<String> evicted = new ArrayList<>();
+        namespace.onRemoval((key, value, cause) -> evicted.add(key + ":" + cause));
+
+        namespace.put("idle", "a");
+        namespace.put("active", "b");
+        now.addAndGet(Duration.ofMinutes(8).toMillis());
+        namespace.get("active");
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        store.sweep();
+
+        assertThat(namespace.keySet()).containsExactly("active");
+        assertThat(evicted).containsExactly("idle:IDLE");
+    }
+
+    @Test
+    @DisplayName("Over the size cap the least recently used entries are evicted")
+    void testSizeEviction() {
+        SessionNamespace<String> namespace = store.namespace("test", 3, Duration.ofHours(1));
+        List<String> evicted = new ArrayList<>();
+        namespace.onRemoval((key, value, cause) -> evicted.add(key + ":" + cause));
+
+        for (String key : List.of("u1", "u2", "u3")) {
+            namespace.put(key, key);
+            now.incrementAndGet();
+        }
+        namespace.get("u1");
+        now.incrementAndGet();
+        namespace.put("u4", "u4");
+        store.sweep();
+
+        assertThat(namespace.size()).isEqualTo(3);
+        assertThat(namespace.containsKey("u1")).isTrue();
+        assertThat(evicted).containsExactly("u2:SIZE");
+    }
+
+    @Test
+    @DisplayName("computeIfAbsent creates once and explicit removal is reported")
+    void testComputeAndRemove() {
+        SessionNamespace<List<String>> namespace = store.namespace("test", 10, Duration.ofHours(1));
+        List<String> evicted = new ArrayList<>();
+        namespace.onRemoval((key, value, cause) -> evicted.add(key + ":" + cause));
+
+        namespace.computeIfAbsent("u1", k -> new ArrayList<>()).add("x");
+        namespace.computeIfAbsent("u1", k -> new ArrayList<>()).add("y");
+        assertThat(namespace.get("u1")).containsExactly("x", "y");
+
+        assertThat(namespace.removeIf((key, value) -> value.size() > 1)).isEqualTo(1);
+        assertThat(namespace.get("u1")).isNull();
+        assertThat(evicted).containsExactly("u1:EXPLICIT");
+    }
+
+    @Test
+    @DisplayName("compute replaces the value instead of changing the one readers hold")
+    void testComputeReplaces() {
+        SessionNamespace<List<String>> namespace = store.namespace("test", 10, Duration.ofHours(1));
+
+        List<String> first = namespace.compute("c1", k -> List.of(), current -> append(current, "x"));
+        List<String> second = namespace.compute("c1", k -> List.of(), current -> append(current, "y"));
+        List<String> kept = namespace.compute("c1", k -> List.of(), current -> null);
+
+        assertThat(first).containsExactly("x");
+        assertThat(second).containsExactly("x", "y");
+        assertThat(kept).isSameAs(second);
+        assertThat(namespace.get("c1")).isSameAs(second);
+    }
+
+    @Test
+    @DisplayName("A write after the key expired in the backend invalidates copies with a higher version")
+    void testInvalidationAfterBackendExpiry() {
+        InMemoryStateBackend backend = new InMemoryStateBackend(now::get);
+        SessionNamespace<String> first = new SessionNamespace<>("test", 10, Duration.ofMinutes(10), now::get,
+                backend, SpillCodec.serialized());
+        SessionNamespace<String> second = new SessionNamespace<>("test", 10, Duration.ofMinutes(10), now::get,
+                backend, SpillCodec.serialized());
+
+        first.put("k", "a");
+        first.put("k", "b");
+        first.put("k", "c");
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+        second.put("k", "fresh");
+
+        assertThat(first.get("k")).isEqualTo("fresh");
+    }
+
+    @Test
+    @DisplayName("A shared value of a class outside the codec's allow-list reads as a miss")
+    void testRejectsUnlistedClassFromBackend() throws Exception {
+        InMemoryStateBackend backend = new InMemoryStateBackend(now::get);
+        SpillCodec<Object> codec = SpillCodec.serialized();
+        SessionNamespace<Object> namespace = new SessionNamespace<>("test", 10, Duration.ofMinutes(10), now::get,
+                backend, codec);
+
+        backend.put("test:k", codec.encode(URI.create("http://example.com")), null);
+
+        assertThat(namespace.get("k")).isNull();
+    }
+
+    private static List<String> append(List<String> list, String value) {
+        List<String> next = new ArrayList<>(list);
+        next.add(value);
+        return List.copyOf(next);
+    }
+
+    @Test
+    @DisplayName("The same name returns the same namespace and stats include estimated bytes")
+    void testStats() {
+        SessionNamespace<String> first = store.namespace("profiles", 10, Duration.ofHours(1));
+        SessionNamespace<String> second = store.namespace("profiles", 99, Duration.ofMinutes(1));
+        first.put("u1", "x".repeat(1000));
+        store.sweep();
+
+        Map<String, Object> stats = store.getStats();
+
+        assertThat(second).isSameAs(first);
+        assertThat(stats.get("totalEntries")).isEqualTo(1);
+        assertThat((Long) stats.get("totalEstimatedBytes")).isGreaterThan(1000L);
+    }
+
+    @Test
+    @DisplayName("Entries idle past spillAfter move to disk and come back on access")
+    void testSpillAndRehydrate() {
+        SessionStateStore spilling = new SessionStateStore(null, now::get, 0, spillDirectory);
+        SessionNamespace<ArrayList<String>> namespace =
+            spilling.namespace("history", 100, Duration.ofHours(24), SpillCodec.serialized());
+        namespace.computeIfAbsent("u1", k -> new ArrayList<>()).add("hello");
+        namespace.computeIfAbsent("u2", k -> new ArrayList<>()).add("hi");
+
+        now.addAndGet(Duration.ofMinutes(61).toMillis());
+        namespace.get("u2");
+        spilling.sweep();
+
+        assertThat(namespace.getStats()).containsEntry("heapEntries", 1).containsEntry("spilledEntries", 1);
+        assertThat(namespace.size()).isEqualTo(2);
+        assertThat(namespace.containsKey("u1")).isTrue();
+        assertThat(namespace.values()).hasSize(2);
+
+        assertThat(namespace.get("u1")).containsExactly("hello");
+        assertThat(namespace.getStats()).containsEntry("heapEntries", 2).containsEntry("rehydrations", 1L);
+        spilling.shutdown();
+    }
+
+    @Test
+    @DisplayName("Over the size cap entries are spilled, and spilled entries still expire after the idle TTL")
+    void testSpillOnSizeAndExpiry() {
+        SessionStateStore spilling = new SessionStateStore(null, now::get, 0, spillDirectory);
+        SessionNamespace<String> namespace = spilling.namespace("profiles", 2, Duration.ofHours(2), SpillCodec.serialized());
+        List<String> evicted = new ArrayList<>();
+        namespace.onRemoval((key, value, cause) -> evicted.add(key + ":" + cause));
+        for (String key : List.of("u1", "u2", "u3")) {
+            namespace.put(key, "profile-" + key);
+            now.incrementAndGet();
+        }
+
+        assertThat(namespace.getStats()).containsEntry("heapEntries", 2).containsEntry("spilledEntries", 1);
+        assertThat(namespace.get("u1")).isEqualTo("profile-u1");
+        assertThat(evicted).isEmpty();
+
+        now.addAndGet(Duration.ofHours(3).toMillis());
+        spilling.sweep();
+
+        assertThat(namespace.size()).isZero();
+        assertThat(evicted).hasSize(3).allMatch(removal -> removal.endsWith(":IDLE"));
+        spilling.shutdown();
+    }
+
+    @Test
+    @DisplayName("Object size estimate grows with the contents of a value")
+    void testObjectSizeEstimate() {
+        List<String> small = List.of("a");
+        List<String> large = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            large.add("message " + i);
+        }
+
+        assertThat(ObjectSizeEstimator.estimate(null)).isZero();
+        assertThat(ObjectSizeEstimator.estimate(large)).isGreaterThan(ObjectSizeEstimator.estimate(small) * 10);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vijay.state;
+
+import com.vijay.dto.EmotionalContext;
+import com.vijay.dto.EmotionalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpillCodecTest {
+
+    private final SpillCodec<Object> codec = SpillCodec.serialized();
+
+    @Test
+    @DisplayName("Session DTOs and JDK collections round-trip")
+    void testRoundTrip() throws Exception {
+        Map<String, Object> value = new HashMap<>();
+        value.put("history", new ArrayList<>(List.of(new EmotionalContext(EmotionalState.FRUSTRATED, 70, "broken", "empathetic", 0.9))));
+        value.put("updated", LocalDateTime.of(2025, 1, 2, 3, 4));
+        value.put("scores", new ConcurrentHashMap<>(Map.of("spring", 3)));
+
+        Object decoded = codec.decode(codec.encode(value));
+
+        assertThat(decoded).isInstanceOf(HashMap.class);
+        assertThat(((Map<?, ?>) decoded).get("updated")).isEqualTo(LocalDateTime.of(2025, 1, 2, 3, 4));
+        assertThat(((Map<?, ?>) decoded).get("scores")).isEqualTo(Map.of("spring", 3));
+        List<?> history = (List<?>) ((Map<?, ?>) decoded).get("history");
+        assertThat(((EmotionalContext) history.get(0)).getCurrentState()).isEqualTo(EmotionalState.FRUSTRATED);
+    }
+
+    @Test
+    @DisplayName("Classes outside the allow-list are rejected, also when nested in a collection")
+    void testRejectsUnlistedClasses() throws Exception {
+        byte[] direct = codec.encode(URI.create("http://example.com"));
+        byte[] nested = codec.encode(new ArrayList<>(List.of(URI.create("http://example.com"))));
+
+        assertThatThrownBy(() -> codec.decode(direct)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.decode(nested)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vijay.state;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillFileTest {
+
+    @TempDir
+    Path directory;
+
+    private SpillFile file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = new SpillFile(directory.resolve("test.spill"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        file.close();
+    }
+
+    @Test
+    @DisplayName("Records are read back by key; take removes them")
+    void testWriteReadTake() throws Exception {
+        file.write("u1", bytes("first"), 1L);
+        file.write("u2", bytes("second"), 2L);
+        file.write("u1", bytes("first, updated"), 3L);
+
+        assertThat(file.read("u1")).isEqualTo(bytes("first, updated"));
+        assertThat(file.take("u2")).isEqualTo(bytes("second"));
+        assertThat(file.read("u2")).isNull();
+        assertThat(file.size()).isEqualTo(1);
+        assertThat(file.keysIdleSince(4L)).containsExactly("u1");
+    }
+
+    @Test
+    @DisplayName("The mapping grows past its initial size")
+    void testGrowth() throws Exception {
+        byte[] large = new byte[700_000];
+        Arrays.fill(large, (byte) 7);
+
+        for (int i = 0; i < 4; i++) {
+            file.write("u" + i, large, i);
+        }
+
+        assertThat(file.read("u0")).isEqualTo(large);
+        assertThat(file.read("u3")).isEqualTo(large);
+        assertThat(file.getFileBytes()).isGreaterThan(2_800_000L);
+    }
+
+    @Test
+    @DisplayName("Compaction drops dead records and keeps the live ones readable")
+    void testCompaction() throws Exception {
+        byte[] large = new byte[1_000_000];
+        for (int i = 0; i < 6; i++) {
+            Arrays.fill(large, (byte) i);
+            file.write("u1", large, i);
+        }
+        file.write("u2", bytes("small"), 10L);
+
+        assertThat(file.compactIfNeeded()).isTrue();
+
+        assertThat(file.getFileBytes()).isEqualTo(file.getLiveBytes()).isLessThan(1_100_000L);
+        assertThat(file.read("u1")).containsOnly((byte) 5);
+        assertThat(file.read("u2")).isEqualTo(bytes("small"));
+        assertThat(Files.exists(directory.resolve("test.spill"))).isTrue();
+        assertThat(file.compactIfNeeded()).isFalse();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package com.vijay.tools;
+
+import com.vijay.cache.CacheStrategy;
+import com.vijay.cache.SmartCacheManager;
+import com.vijay.cache.ToolCache;
+import com.vijay.manager.AiToolProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ToolCallbackRegistryTest {
+
+    private ObjectProvider<AiToolProvider> providers;
+    private ToolCallbackRegistry registry;
+
+    static class SampleTools implements AiToolProvider {
+        final AtomicInteger scans = new AtomicInteger();
+
+        @Tool(description = "Get the weather for a city")
+        public String getWeather(String city) {
+            return "sunny in " + city;
+        }
+
+        @Tool(description = "Scan a project")
+        @ToolCache(CacheStrategy.SLOWLY_CHANGING)
+        public String scanProject(String path, boolean deep) {
+            return "scanned " + path + " #" + scans.incrementAndGet();
+        }
+
+        @Tool(description = "Add two numbers")
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        providers = mock(ObjectProvider.class);
+        when(providers.orderedStream()).thenAnswer(invocation -> Stream.of(new SampleTools()));
+        registry = new ToolCallbackRegistry(providers);
+    }
+
+    @Test
+    @DisplayName("resolve should return the callback registered under the tool name")
+    void resolve_knownTool() {
+        assertThat(registry.resolve("getWeather")).isNotNull();
+        assertThat(registry.resolve("getWeather").getToolDefinition().inputSchema()).contains("city");
+        assertThat(registry.resolve("missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("resolveAll should return only the registered subset, without duplicates")
+    void resolveAll_subset() {
+        assertThat(registry.resolveAll(List.of("add", "add", "sendEmail")))
+                .extracting(callback -> callback.getToolDefinition().name())
+                .containsExactly("add");
+        assertThat(registry.resolveAll(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("callbacks should be built once and schema sizes cached")
+    void build_isCached() {
+        registry.getToolNames();
+        registry.resolve("add");
+        int total = registry.getTotalSchemaSize();
+
+        verify(providers, times(1)).orderedStream();
+        assertThat(registry.getToolNames()).containsExactlyInAnyOrder("getWeather", "scanProject", "add");
+        assertThat(registry.getSchemaSize(List.of("add"))).isPositive().isLessThan(total);
+    }
+
+    @Test
+    @DisplayName("@ToolCache tools should run once for equal arguments when a cache is configured")
+    @SuppressWarnings("unchecked")
+    void toolCache_memoizesResults() {
+        SampleTools tools = new SampleTools();
+        ObjectProvider<AiToolProvider> cachedProviders = mock(ObjectProvider.class);
+        when(cachedProviders.orderedStream()).thenAnswer(invocation -> Stream.of(tools));
+        SmartCacheManager cache = new SmartCacheManager();
+        ToolCallbackRegistry cachedRegistry = new ToolCallbackRegistry(cachedProviders, cache);
+
+        String first = cachedRegistry.resolve("scanProject").call("{\"path\": \"/repo\", \"deep\": true}");
+        String second = cachedRegistry.resolve("scanProject").call("{\"deep\":true,\"path\":\"/repo\"}");
+        cachedRegistry.resolve("scanProject").call("{\"path\": \"/other\", \"deep\": true}");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(tools.scans).hasValue(2);
+        assertThat(cache.getStrategy("scanProject")).isEqualTo(CacheStrategy.SLOWLY_CHANGING);
+        assertThat(cache.getStats().hits).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("tools without a cacheable strategy should run on every call")
+    @SuppressWarnings("unchecked")
+    void toolCache_skipsUncachedTools() {
+        ObjectProvider<AiToolProvider> cachedProviders = mock(ObjectProvider.class);
+        when(cachedProviders.orderedStream()).thenAnswer(invocation -> Stream.of(new SampleTools()));
+        SmartCacheManager cache = new SmartCacheManager();
+        ToolCallbackRegistry cachedRegistry = new ToolCallbackRegistry(cachedProviders, cache);
+
+        cachedRegistry.resolve("add").call("{\"a\": 1, \"b\": 2}");
+        cachedRegistry.resolve("add").call("{\"a\": 1, \"b\": 2}");
+
+        assertThat(cache.getCacheSize()).isZero();
+        assertThat(registry.resolve("scanProject").call("{\"path\": \"/repo\", \"deep\": false}"))
+                .isNotEqualTo(registry.resolve("scanProject").call("{\"path\": \"/repo\", \"deep\": false}"));
+    }
+}
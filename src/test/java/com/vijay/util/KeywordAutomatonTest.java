@@ -0,0 +1,55 @@
+package com.vijay.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeywordAutomatonTest {
+
+    private static List<String> matches(KeywordAutomaton automaton, String text) {
+        List<String> found = new ArrayList<>();
+        automaton.scan(text, (id, start, end) -> found.add(id + ":" + text.substring(start, end)));
+        return found;
+    }
+
+    @Test
+    @DisplayName("scan should report overlapping and nested keywords with positions")
+    void scan_overlappingMatches() {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        int he = builder.add("he");
+        int she = builder.add("she");
+        int his = builder.add("his");
+        int hers = builder.add("hers");
+        KeywordAutomaton automaton = builder.build();
+
+        assertThat(matches(automaton, "ushers"))
+                .containsExactlyInAnyOrder(she + ":she", he + ":he", hers + ":hers");
+        assertThat(matches(automaton, "this")).containsExactly(his + ":his");
+    }
+
+    @Test
+    @DisplayName("scan should be case-insensitive and ignore non-ASCII input")
+    void scan_caseInsensitive() {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        builder.add("Bug");
+        builder.add(".java");
+        KeywordAutomaton automaton = builder.build();
+
+        assertThat(matches(automaton, "Fix the BUG in Main.JAVA ✅")).containsExactly("0:BUG", "1:.JAVA");
+        assertThat(automaton.containsAny("no match here ✅")).isFalse();
+        assertThat(automaton.containsAny("debugging")).isTrue();
+    }
+
+    @Test
+    @DisplayName("builder should reject empty and non-ASCII keywords")
+    void builder_rejectsInvalidKeywords() {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add(""));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("café"));
+    }
+}
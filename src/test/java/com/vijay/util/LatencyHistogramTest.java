@@ -0,0 +1,73 @@
+package com.vijay.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("percentiles should be within the bucket precision of the true value")
+    void percentiles_withinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.getMean()).isCloseTo(5000.5, within(0.01));
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(5_000L, 5_625L);
+        assertThat(histogram.getValueAtPercentile(95)).isBetween(9_500L, 10_000L);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000L);
+        assertThat(histogram.getMax()).isEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("bucket index and upper bound should round-trip for every magnitude")
+    void buckets_roundTrip() {
+        for (long v : new long[]{0, 1, 7, 8, 9, 15, 16, 100, 1_000, 123_456, Long.MAX_VALUE / 3}) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).as("value %d", v).isGreaterThanOrEqualTo(v);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).as("value %d", v).isLessThanOrEqualTo(Math.max(v, v + v / 8));
+        }
+    }
+
+    @Test
+    @DisplayName("empty and reset histograms should report zero")
+    void emptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+
+        histogram.record(42);
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.snapshot().p99).isZero();
+    }
+
+    @Test
+    @DisplayName("striped histogram should merge concurrent writers and track the minimum")
+    void striped_concurrentWriters() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (long v = 5; v <= 1_004; v++) {
+                    histogram.record(v);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        LatencyHistogram.HistogramSnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count).isEqualTo(4_000);
+        assertThat(histogram.getMin()).isEqualTo(5L);
+        assertThat(snapshot.max).isEqualTo(1_004L);
+        assertThat(snapshot.p50).isBetween(504L, 567L);
+    }
+}
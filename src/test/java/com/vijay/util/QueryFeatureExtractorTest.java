@@ -0,0 +1,132 @@
+package com.vijay.util;
+
+import com.vijay.util.QueryFeatureExtractor.QueryFeatures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryFeatureExtractorTest {
+
+    private static final List<String> CORPUS = List.of(
+            "Please refactor this code and improve performance",
+            "1 + 2",
+            "what time is it?",
+            "I get this error when running tests, how to debug this issue?",
+            "Explain the architecture and structure of this Spring Boot service layer",
+            "How does ChatService interact with AIProviderConfig?",
+            "send an email to the team about the meeting schedule",
+            "what's the weather in Pune today",
+            "maybe they could build something that calculates the total",
+            "add 5 and 7",
+            "write unit tests for processChat in ChatService",
+            "12*4",
+            "adding numbers is additive",
+            "we should clean up the code before the release? or after? not sure");
+
+    /** The Conductor's former regex rules, applied to the lowercased query */
+    private static String regexIntent(String q) {
+        if (q.matches(".*\\b(add|calculate|compute|sum|total)\\b.*")) return "CALCULATION";
+        if (q.matches(".*\\b(bug|error|fix|crash|fail)\\b.*")) return "DEBUG";
+        if (q.matches(".*\\b(refactor|improve|optimize|clean)\\b.*")) return "REFACTOR";
+        if (q.matches(".*\\b(implement|create|build|write|code)\\b.*")) return "IMPLEMENTATION";
+        if (q.matches(".*\\b(explain|understand|how|why|what)\\b.*")) return "EXPLANATION";
+        if (q.matches(".*\\b(test|unit|integration)\\b.*")) return "TESTING";
+        return "GENERAL";
+    }
+
+    private static int regexAmbiguity(String q) {
+        int score = 0;
+        if (q.matches(".*\\b(it|this|that|thing|stuff|something)\\b.*")) score += 2;
+        if (q.matches(".*\\b(maybe|probably|might|could)\\b.*")) score += 1;
+        if (q.length() < 20) score += 2;
+        if (q.matches(".*\\b(he|she|they|we)\\b.*")) score += 1;
+        return Math.min(score, 10);
+    }
+
+    private static int regexComplexity(String q) {
+        int score = 1;
+        if (q.length() > 100) score += 2;
+        if (q.length() > 200) score += 2;
+        score += Math.min(q.split("\\s+").length / 5, 3);
+        if (q.matches(".*\\b(algorithm|architecture|optimization|refactor|debug)\\b.*")) score += 2;
+        score += q.split("\\?").length - 1;
+        return Math.min(score, 10);
+    }
+
+    @Test
+    @DisplayName("extract should agree with the former regex rules for intent, complexity and ambiguity")
+    void extract_matchesRegexRules() {
+        for (String query : CORPUS) {
+            String lower = query.toLowerCase();
+            QueryFeatures features = QueryFeatureExtractor.extract(query);
+
+            assertThat(features.intent).as(query).isEqualTo(regexIntent(lower));
+            assertThat(features.ambiguity).as(query).isEqualTo(regexAmbiguity(lower));
+            assertThat(features.complexity).as(query).isEqualTo(regexComplexity(lower));
+        }
+    }
+
+    @Test
+    @DisplayName("extract should apply word boundaries to intent keywords but not to substring rules")
+    void extract_wordBoundaries() {
+        QueryFeatures features = QueryFeatureExtractor.extract("adding numbers is additive");
+
+        assertThat(features.intent).isNotEqualTo("CALCULATION");
+        assertThat(features.toolHints).doesNotContain("add");
+    }
+
+    @Test
+    @DisplayName("extract should produce Conductor tool hints and fast-path decisions")
+    void extract_toolHintsAndFastPath() {
+        assertThat(QueryFeatureExtractor.extract("what's the weather in Pune today").toolHints)
+                .containsExactly("getCurrentDateTime", "getWeather");
+        assertThat(QueryFeatureExtractor.extract("send an email about the meeting").toolHints)
+                .containsExactly("sendEmail", "calendar");
+
+        QueryFeatures arithmetic = QueryFeatureExtractor.extract("12*4");
+        assertThat(arithmetic.simpleQuery).isTrue();
+        assertThat(arithmetic.fastPathTools).containsExactly("multiply");
+
+        assertThat(QueryFeatureExtractor.extract("how does 1 + 2 work").simpleQuery).isFalse();
+        assertThat(QueryFeatureExtractor.extract("please analyze this project").analysisQuery).isTrue();
+    }
+
+    @Test
+    @DisplayName("extract should produce the QueryPlanner view: intent, entities, keywords and strategy")
+    void extract_searchPlanView() {
+        QueryFeatures features = QueryFeatureExtractor.extract("How does ChatService interact with AIProviderConfig?");
+
+        assertThat(features.searchIntent).isEqualTo("CONFIG");
+        assertThat(features.searchStrategy).isEqualTo("configuration_chain");
+        assertThat(features.entities).containsExactly("ChatService", "AIProviderConfig", "chatservice", "aiproviderconfig");
+        assertThat(features.searchKeywords).containsExactly("chatservice", "interact", "aiproviderconfig");
+        assertThat(features.startingFileHints).containsExactly("ChatService.java", "AIProviderConfig.java");
+    }
+
+    @Test
+    @DisplayName("extract should flag conversation-dependent queries and predict approved tools")
+    void extract_contextDependenceAndPredictedTools() {
+        assertThat(QueryFeatureExtractor.extract("explain it again").contextDependent).isTrue();
+        assertThat(QueryFeatureExtractor.extract("what is a java record").contextDependent).isFalse();
+
+        assertThat(QueryFeatureExtractor.predictApprovedTools(QueryFeatureExtractor.extract("what is a java record")))
+                .isEmpty();
+        assertThat(QueryFeatureExtractor.predictApprovedTools(QueryFeatureExtractor.extract("12*4")))
+                .containsExactly("multiply");
+        assertThat(QueryFeatureExtractor.predictApprovedTools(QueryFeatureExtractor.extract("please analyze this project")))
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("extract should handle null and empty queries")
+    void extract_emptyQuery() {
+        QueryFeatures features = QueryFeatureExtractor.extract(null);
+
+        assertThat(features.intent).isEqualTo("GENERAL");
+        assertThat(features.simpleQuery).isFalse();
+        assertThat(features.searchStrategy).isEqualTo("similarity_search");
+    }
+}
@@ -0,0 +1,72 @@
+package com.vijay.util;
+
+import com.vijay.service.ConsistencyCheckService;
+import com.vijay.service.HallucinationDetector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseScannerTest {
+
+    @Test
+    @DisplayName("scan should record phrase positions case-insensitively and code markers case-sensitively")
+    void scan_phrasesAndMarkers() {
+        ResponseScanner.Features features = ResponseScanner.DEFAULT.scan("YES, it works. No Public API here");
+
+        assertThat(features.indexOf("yes")).isZero();
+        assertThat(features.indexOf("no")).isEqualTo(15);
+        assertThat(features.contains("always")).isFalse();
+        assertThat(features.containsExact("public")).isFalse();
+        assertThat(features.getLazyLookups()).isZero();
+    }
+
+    @Test
+    @DisplayName("scan should count brackets, split sentences and extract class declarations in the same pass")
+    void scan_structureSentencesAndClasses() {
+        String response = "public class Foo { void run() { list[0] = 1; } }. Do this. "
+                + "Then subclass Bar. For example, see:";
+
+        ResponseScanner.Features features = ResponseScanner.DEFAULT.scan(response);
+
+        assertThat(features.openBraces).isEqualTo(2);
+        assertThat(features.closeBraces).isEqualTo(2);
+        assertThat(features.openParens).isEqualTo(features.closeParens).isEqualTo(1);
+        assertThat(features.openBrackets).isEqualTo(features.closeBrackets).isEqualTo(1);
+        assertThat(features.incompleteStatements).containsExactly("For example, see:");
+        assertThat(features.danglingReferences).isEqualTo(1);
+        assertThat(features.classDeclarations).containsExactly("class Foo");
+    }
+
+    @Test
+    @DisplayName("one scan should serve both services without falling back to a second pass")
+    void scan_sharedByBothServices() {
+        HallucinationDetector detector = new HallucinationDetector();
+        ConsistencyCheckService consistency = new ConsistencyCheckService();
+        String response = "Java is not object-oriented. It is definitely the only way. "
+                + "public class Demo { }";
+
+        ResponseScanner.Features features = detector.scan(response);
+        HallucinationDetector.HallucinationReport hallucinations = detector.detectHallucinations(features);
+        ConsistencyCheckService.ConsistencyReport report = consistency.checkConsistency(features);
+        ConsistencyCheckService.CodeStructureReport code = consistency.validateCodeStructure(features);
+
+        assertThat(hallucinations.hasHighSeverityHallucinations()).isTrue();
+        assertThat(report.isConsistent()).isTrue();
+        assertThat(code.getFoundClasses()).containsExactly("class Demo");
+        assertThat(features.getLazyLookups()).isZero();
+    }
+
+    @Test
+    @DisplayName("phrases missing from the automaton should still match through the lazy fallback")
+    void scan_uncompiledPhraseFallsBack() {
+        ResponseScanner scanner = ResponseScanner.create(List.of("café is open"));
+        ResponseScanner.Features features = scanner.scan("The CAFÉ IS OPEN today");
+
+        assertThat(features.contains("café is open")).isTrue();
+        assertThat(features.getLazyLookups()).isEqualTo(1);
+        assertThat(scanner.getPhraseCount()).isEqualTo(ResponseScanner.DEFAULT.getPhraseCount());
+    }
+}
@@ -0,0 +1,70 @@
+package com.vijay.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    @DisplayName("recent should return the newest entries oldest first and overwrite beyond capacity")
+    void recent_keepsNewestEntries() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(i);
+        }
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.getTotalAdded()).isEqualTo(6);
+        assertThat(buffer.recent(10)).containsExactly(3, 4, 5, 6);
+        assertThat(buffer.recent(2)).containsExactly(5, 6);
+    }
+
+    @Test
+    @DisplayName("capacity should be rounded up to a power of two and clear should drop entries")
+    void capacityAndClear() {
+        RingBuffer<String> buffer = new RingBuffer<>(5);
+        buffer.add("a");
+        buffer.add("b");
+
+        buffer.clear();
+        buffer.add("c");
+
+        assertThat(buffer.capacity()).isEqualTo(8);
+        assertThat(buffer.recent(10)).containsExactly("c");
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("concurrent writers should never lose the newest capacity's worth of entries")
+    void concurrentAdds() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        buffer.add(i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(buffer.getTotalAdded()).isEqualTo(80_000);
+        assertThat(buffer.recent(2048)).hasSize(1024);
+    }
+}
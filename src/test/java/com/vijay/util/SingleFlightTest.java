@@ -0,0 +1,114 @@
+package com.vijay.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("execute should run a burst of identical concurrent calls once")
+    void execute_coalescesConcurrentCalls() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<SingleFlight.Result<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> flight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+
+            // Let every caller attach before the leader finishes
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (flight.getStats().coalesced < callers - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            int shared = 0;
+            for (Future<SingleFlight.Result<String>> result : results) {
+                assertThat(result.get().value).isEqualTo("value");
+                shared += result.get().shared ? 1 : 0;
+            }
+            assertThat(executions.get()).isEqualTo(1);
+            assertThat(shared).isEqualTo(callers - 1);
+            assertThat(flight.getInFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("execute should run sequential and differently keyed calls independently")
+    void execute_noCaching() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        flight.execute("a", executions::incrementAndGet);
+        flight.execute("a", executions::incrementAndGet);
+        flight.execute("b", executions::incrementAndGet);
+
+        assertThat(executions.get()).isEqualTo(3);
+        assertThat(flight.getStats().coalesced).isZero();
+    }
+
+    @Test
+    @DisplayName("execute should rethrow the leader's RuntimeException and release the key")
+    void execute_propagatesFailure() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        assertThrows(IllegalArgumentException.class, () -> flight.execute("key", () -> {
+            throw new IllegalArgumentException("boom");
+        }));
+
+        assertThat(flight.getInFlightCount()).isZero();
+        assertThat(flight.execute("key", () -> "ok").value).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("execute with a max wait should let a follower run the call itself once the wait runs out")
+    void execute_followerWaitBounded() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SingleFlight.Result<String>> leader = executor.submit(() -> flight.execute("key", () -> {
+                release.await(5, TimeUnit.SECONDS);
+                return "leader";
+            }));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (flight.getInFlightCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            SingleFlight.Result<String> follower = flight.execute("key", () -> "own", 50);
+            release.countDown();
+
+            assertThat(follower.value).isEqualTo("own");
+            assertThat(follower.shared).isFalse();
+            assertThat(leader.get().value).isEqualTo("leader");
+            assertThat(flight.getStats().waitTimeouts).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}